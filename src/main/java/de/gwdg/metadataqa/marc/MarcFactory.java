@@ -21,6 +21,7 @@ import de.gwdg.metadataqa.marc.dao.UnimarcLeader;
 import de.gwdg.metadataqa.marc.dao.record.BibliographicRecord;
 import de.gwdg.metadataqa.marc.dao.record.Marc21AuthorityRecord;
 import de.gwdg.metadataqa.marc.dao.record.Marc21BibliographicRecord;
+import de.gwdg.metadataqa.marc.dao.record.LazyMarc21Record;
 import de.gwdg.metadataqa.marc.dao.record.Marc21Record;
 import de.gwdg.metadataqa.marc.dao.record.MarcRecord;
 import de.gwdg.metadataqa.marc.dao.record.PicaRecord;
@@ -159,21 +160,7 @@ public class MarcFactory {
                                                      String replacementInControlFields) {
     var marcRecord = new Marc21BibliographicRecord();
 
-    if (marc4jRecord.getLeader() != null) {
-      String data = marc4jRecord.getLeader().marshal();
-      if (replacementInControlFields != null)
-        data = data.replace(replacementInControlFields, " ");
-      marcRecord.setLeader(new Marc21Leader(data, defaultType));
-
-      if (marcRecord.getType() == null) {
-        throw new InvalidParameterException(
-          String.format(
-            "Error in '%s': no type has been detected. Leader: '%s'.",
-            marc4jRecord.getControlNumberField(), marcRecord.getLeader().getLeaderString()
-          )
-        );
-      }
-    }
+    importMarc4jLeader(marc4jRecord, marcRecord, defaultType, replacementInControlFields);
 
     importMarc4jControlFields(marc4jRecord, marcRecord, replacementInControlFields);
 
@@ -182,6 +169,53 @@ public class MarcFactory {
     return marcRecord;
   }
 
+  /**
+   * Create a MarcRecord object from Marc4j object, which sets the leader and the simple control fields, but creates
+   * the data fields and the 006, 007 and 008 control fields only when they are first accessed.
+   * @param marc4jRecord The Marc4j record
+   * @param defaultType The default document type
+   * @param marcVersion The MARC version
+   * @param replacementInControlFields A ^ or # character which should be replaced with space in control fields
+   * @return The bibliographic record
+   */
+  public static BibliographicRecord createLazyFromMarc4j(Record marc4jRecord,
+                                                         MarcLeader.Type defaultType,
+                                                         MarcVersion marcVersion,
+                                                         String replacementInControlFields) {
+    var marcRecord = new LazyMarc21Record(marc4jRecord, marcVersion, replacementInControlFields);
+
+    importMarc4jLeader(marc4jRecord, marcRecord, defaultType, replacementInControlFields);
+
+    if (marc4jRecord.getControlFields() != null)
+      for (ControlField controlField : marc4jRecord.getControlFields())
+        if (!isPositionalControlField(controlField.getTag()))
+          importMarc4jControlField(controlField, replacementInControlFields, marcRecord);
+
+    return marcRecord;
+  }
+
+  private static void importMarc4jLeader(Record marc4jRecord,
+                                         Marc21BibliographicRecord marcRecord,
+                                         MarcLeader.Type defaultType,
+                                         String replacementInControlFields) {
+    if (marc4jRecord.getLeader() == null)
+      return;
+
+    String data = marc4jRecord.getLeader().marshal();
+    if (replacementInControlFields != null)
+      data = data.replace(replacementInControlFields, " ");
+    marcRecord.setLeader(new Marc21Leader(data, defaultType));
+
+    if (marcRecord.getType() == null) {
+      throw new InvalidParameterException(
+        String.format(
+          "Error in '%s': no type has been detected. Leader: '%s'.",
+          marc4jRecord.getControlNumberField(), marcRecord.getLeader().getLeaderString()
+        )
+      );
+    }
+  }
+
   public static BibliographicRecord createAuthorityFromMarc4j(Record mar4jRecord,
                                                               Marc21SchemaManager authorityManager,
                                                               String replacementInControlFields) {
@@ -237,6 +271,33 @@ public class MarcFactory {
     return marcRecord;
   }
 
+  /**
+   * Create a PicaRecord directly from the lines of a PICA record, without creating a marc4j record first.
+   * @param lines The lines of the record
+   * @param id The record identifier
+   * @param picaSchemaManager The PICA schema
+   * @return The bibliographic record
+   */
+  public static BibliographicRecord createPicaFromLines(List<PicaLine> lines,
+                                                        String id,
+                                                        PicaSchemaManager picaSchemaManager) {
+    var marcRecord = new PicaRecord(id);
+    for (PicaLine line : lines) {
+      var definition = picaSchemaManager.lookup(line.getTag(), line.getOccurrence());
+      if (definition == null)
+        marcRecord.addUnhandledTags(line.getQualifiedTag());
+
+      var field = createDataField(line.getTag(), " ", " ", definition, MarcVersion.MARC21);
+      for (PicaSubfield picaSubfield : line.getSubfields())
+        addSubfield(field, definition, picaSubfield.getCode().substring(0, 1), picaSubfield.getValue());
+      field.indexSubfields();
+      if (line.getOccurrence() != null)
+        field.setOccurrence(line.getOccurrence());
+      marcRecord.addDataField(field);
+    }
+    return marcRecord;
+  }
+
   public static BibliographicRecord createUnimarcFromMarc4j(Record marc4jRecord,
                                                             MarcLeader.Type defaultType,
                                                             UnimarcSchemaManager unimarcSchemaManager) {
@@ -269,16 +330,36 @@ public class MarcFactory {
     if (marc4jRecord.getControlFields() == null)
       return;
 
-    for (ControlField controlField : marc4jRecord.getControlFields()) {
-      // If the tag isn't allowed, then avoid adding this control field. This should probably be an initialization error,
-      // but discuss that later.
-      if (!marcRecord.getAllowedControlFieldTags().contains(controlField.getTag())) {
-        String errorMessage = String.format("Control field %s is not allowed in %s record", controlField.getTag(), marcRecord.getSchemaType());
-        logger.severe(errorMessage);
-        continue;
-      }
-      setMarcControlField(controlField, replacementInControlFields, (MarcRecord) marcRecord);
+    for (ControlField controlField : marc4jRecord.getControlFields())
+      importMarc4jControlField(controlField, replacementInControlFields, marcRecord);
+  }
+
+  /**
+   * Adds a single control field to the record, unless its tag is not allowed in the record.
+   * @param controlField The marc4j control field
+   * @param replacementInControlFields Usually a ^ or # character which should be replaced with space
+   * @param marcRecord The record
+   */
+  public static void importMarc4jControlField(ControlField controlField,
+                                              String replacementInControlFields,
+                                              BibliographicRecord marcRecord) {
+    // If the tag isn't allowed, then avoid adding this control field. This should probably be an initialization error,
+    // but discuss that later.
+    if (!marcRecord.getAllowedControlFieldTags().contains(controlField.getTag())) {
+      String errorMessage = String.format("Control field %s is not allowed in %s record", controlField.getTag(), marcRecord.getSchemaType());
+      logger.severe(errorMessage);
+      return;
     }
+    setMarcControlField(controlField, replacementInControlFields, (MarcRecord) marcRecord);
+  }
+
+  /**
+   * Tells whether the control field has positional data elements (006, 007 and 008)
+   * @param tag The tag of the control field
+   * @return true if it is a positional control field
+   */
+  public static boolean isPositionalControlField(String tag) {
+    return isFixable(tag);
   }
 
   private static void setMarcControlField(ControlField controlField, String replacementInControlFields, MarcRecord marcRecord) {
@@ -368,36 +449,25 @@ public class MarcFactory {
     return TagDefinitionLoader.load(tag, marcVersion);
   }
 
+  /**
+   * Creates a DataField object from the marc4j data field with the definition of its tag.
+   * @param dataField The marc4j data field
+   * @param marcVersion The MARC version
+   * @return The data field, which has no definition if the tag is not defined
+   */
+  public static DataField createDataField(org.marc4j.marc.DataField dataField, MarcVersion marcVersion) {
+    return extractDataField(dataField, getDataFieldDefinition(dataField, marcVersion), marcVersion);
+  }
+
   private static DataField extractDataField(org.marc4j.marc.DataField dataField,
                                             DataFieldDefinition definition,
                                             MarcVersion marcVersion) {
-    DataField field;
-    if (definition == null) {
-      field = new DataField(dataField.getTag(),
-              Character.toString(dataField.getIndicator1()),
-              Character.toString(dataField.getIndicator2()),
-              marcVersion
-      );
-    } else {
-      field = new DataField(
-              definition,
-              Character.toString(dataField.getIndicator1()),
-              Character.toString(dataField.getIndicator2())
-      );
-    }
-    for (Subfield subfield : dataField.getSubfields()) {
-      var code = Character.toString(subfield.getCode());
-      // Maybe try to handle case insensitively?
-      SubfieldDefinition subfieldDefinition = definition == null ? null : definition.getSubfield(code);
-      MarcSubfield marcSubfield;
-      if (subfieldDefinition == null) {
-        marcSubfield = new MarcSubfield(null, code, subfield.getData());
-      } else {
-        marcSubfield = new MarcSubfield(subfieldDefinition, code, subfield.getData());
-      }
-      marcSubfield.setField(field);
-      field.getSubfields().add(marcSubfield);
-    }
+    DataField field = createDataField(dataField.getTag(),
+      Character.toString(dataField.getIndicator1()),
+      Character.toString(dataField.getIndicator2()),
+      definition, marcVersion);
+    for (Subfield subfield : dataField.getSubfields())
+      addSubfield(field, definition, Character.toString(subfield.getCode()), subfield.getData());
     field.indexSubfields();
 
     if (dataField instanceof PicaDataField) {
@@ -409,6 +479,24 @@ public class MarcFactory {
     return field;
   }
 
+  private static DataField createDataField(String tag,
+                                           String indicator1,
+                                           String indicator2,
+                                           DataFieldDefinition definition,
+                                           MarcVersion marcVersion) {
+    if (definition == null)
+      return new DataField(tag, indicator1, indicator2, marcVersion);
+    return new DataField(definition, indicator1, indicator2);
+  }
+
+  private static void addSubfield(DataField field, DataFieldDefinition definition, String code, String value) {
+    // Maybe try to handle case insensitively?
+    SubfieldDefinition subfieldDefinition = definition == null ? null : definition.getSubfield(code);
+    var marcSubfield = new MarcSubfield(subfieldDefinition, code, value);
+    marcSubfield.setField(field);
+    field.getSubfields().add(marcSubfield);
+  }
+
   private static <T extends XmlFieldInstance> List<String> extractList(JsonSelector<T> selector, DataElement dataElement) {
     List<T> instances = selector.get(dataElement.getPath());
     List<String> values = new ArrayList<>();
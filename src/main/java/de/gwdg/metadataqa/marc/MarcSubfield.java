@@ -29,7 +29,6 @@ public class MarcSubfield implements Serializable { // Validatable
   private ErrorsCollector errors = null;
   private Linkage linkage;
   private String referencePath;
-  private static Map<String, String> prefixCache;
 
   public MarcSubfield(SubfieldDefinition definition, String code, String value) {
     this.definition = definition;
@@ -128,17 +127,7 @@ public class MarcSubfield implements Serializable { // Validatable
   }
 
   public Map<String, List<String>> getKeyValuePairs(DataFieldKeyGenerator keyGenerator) {
-    if (prefixCache == null) {
-      prefixCache = new HashMap<>();
-    }
-
-    String tagForCache = this.getField().getTag();
-    if (this.getField().getOccurrence() != null)
-      tagForCache += "/" + this.getField().getOccurrence();
-    String cacheKey = String.format("%s$%s-%s-%s", tagForCache, code, keyGenerator.getType().getType(), keyGenerator.getMarcVersion());
-    if (!prefixCache.containsKey(cacheKey))
-      prefixCache.put(cacheKey, keyGenerator.forSubfield(this));
-    String prefix = prefixCache.get(cacheKey);
+    String prefix = keyGenerator.forSubfield(this);
 
     Map<String, List<String>> pairs = new HashMap<>();
     pairs.put(prefix, new ArrayList<>(List.of(resolve())));
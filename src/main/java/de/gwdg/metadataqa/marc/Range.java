@@ -38,4 +38,12 @@ public class Range implements Serializable {
   public String getRangeInput() {
     return rangeInput;
   }
+
+  public int getMin() {
+    return min;
+  }
+
+  public int getMax() {
+    return max;
+  }
 }
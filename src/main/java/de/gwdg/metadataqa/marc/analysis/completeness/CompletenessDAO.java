@@ -1,30 +1,138 @@
 package de.gwdg.metadataqa.marc.analysis.completeness;
 
+import de.gwdg.metadataqa.marc.cli.Completeness;
 import de.gwdg.metadataqa.marc.cli.QACli;
-import de.gwdg.metadataqa.marc.definition.structure.DataFieldDefinition;
 
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
-
+import java.util.function.Function;
+
+/**
+ * The counters of the completeness analysis.
+ *
+ * The per path counters (element cardinality, element frequency and field histogram) are updated for every
+ * data element of every record, so they are stored in primitive IntCounter objects indexed by the IDs of the
+ * PathDictionary. The Map based getters of these counters build the maps from the IntCounters when they are
+ * first called after a change, so they should be called after the counting (e.g. when saving the results).
+ */
 public class CompletenessDAO {
 
   private Map<String, Map<String, Integer>> packageCounter = new HashMap<>();
   private Map<String, Map<String, Map<String, Integer>>> groupedPackageCounter = new HashMap<>();
-  private Map<String, Map<String, Integer>> elementCardinality = new HashMap<>();
-  private Map<String, Map<String, Map<String, Integer>>> groupedElementCardinality = new HashMap<>();
-  private Map<String, Map<String, Integer>> elementFrequency = new HashMap<>();
-  private Map<String, Map<String, Map<String, Integer>>> groupedElementFrequency = new HashMap<>();
   private Map<String, Integer> groupCounter = new HashMap<>();
   private Map<String, Integer> library003Counter = new HashMap<>();
   private Map<String, Integer> libraryCounter = new HashMap<>();
-  private Map<DataFieldDefinition, String> packageNameCache = new HashMap<>();
-  private Map<String, Map<Integer, Integer>> fieldHistogram = new HashMap<>();
-  private Map<String, Map<String, Map<Integer, Integer>>> groupedFieldHistogram = new HashMap<>();
+
+  private final PathDictionary pathDictionary = new PathDictionary();
+  private final Map<String, IntCounter> elementCardinalityCounters = new LinkedHashMap<>();
+  private final Map<String, Map<String, IntCounter>> groupedElementCardinalityCounters = new LinkedHashMap<>();
+  private final Map<String, IntCounter> elementFrequencyCounters = new LinkedHashMap<>();
+  private final Map<String, Map<String, IntCounter>> groupedElementFrequencyCounters = new LinkedHashMap<>();
+  private final PathHistograms fieldHistograms = new PathHistograms();
+  private final Map<String, PathHistograms> groupedFieldHistograms = new LinkedHashMap<>();
+  private final IntCounter recordFrequency = new IntCounter();
+
+  private Map<String, Map<String, Integer>> elementCardinality;
+  private Map<String, Map<String, Map<String, Integer>>> groupedElementCardinality;
+  private Map<String, Map<String, Integer>> elementFrequency;
+  private Map<String, Map<String, Map<String, Integer>>> groupedElementFrequency;
+  private Map<String, Map<Integer, Integer>> fieldHistogram;
+  private Map<String, Map<String, Map<Integer, Integer>>> groupedFieldHistogram;
 
   public void initialize() {
     packageCounter.put(QACli.ALL, new HashMap<>());
-    elementCardinality.put(QACli.ALL, new HashMap<>());
-    elementFrequency.put(QACli.ALL, new HashMap<>());
+    elementCardinalityCounters.put(QACli.ALL, new IntCounter());
+    elementFrequencyCounters.put(QACli.ALL, new IntCounter());
+  }
+
+  public PathDictionary getPathDictionary() {
+    return pathDictionary;
+  }
+
+  /**
+   * @param documentType The document type
+   * @return The counter of the number of instances of the paths in the records of the document type
+   */
+  public IntCounter getElementCardinalityCounter(String documentType) {
+    invalidate();
+    return elementCardinalityCounters.computeIfAbsent(documentType, s -> new IntCounter());
+  }
+
+  public IntCounter getGroupedElementCardinalityCounter(String groupId, String documentType) {
+    invalidate();
+    return groupedElementCardinalityCounters
+      .computeIfAbsent(groupId, s -> new LinkedHashMap<>())
+      .computeIfAbsent(documentType, s -> new IntCounter());
+  }
+
+  /**
+   * @param documentType The document type
+   * @return The counter of the number of records of the document type, which have the paths
+   */
+  public IntCounter getElementFrequencyCounter(String documentType) {
+    invalidate();
+    return elementFrequencyCounters.computeIfAbsent(documentType, s -> new IntCounter());
+  }
+
+  public IntCounter getGroupedElementFrequencyCounter(String groupId, String documentType) {
+    invalidate();
+    return groupedElementFrequencyCounters
+      .computeIfAbsent(groupId, s -> new LinkedHashMap<>())
+      .computeIfAbsent(documentType, s -> new IntCounter());
+  }
+
+  /**
+   * Returns the counter of the paths of the current record. The same instance is cleared and reused for
+   * every record.
+   */
+  public IntCounter newRecordFrequency() {
+    recordFrequency.clear();
+    return recordFrequency;
+  }
+
+  /**
+   * Registers the paths of a record in the element frequency counters and in the field histogram
+   * @param documentType The document type of the record
+   * @param recordFrequency The number of instances of the paths within the record
+   */
+  public void countElementFrequency(String documentType, IntCounter recordFrequency) {
+    IntCounter documentTypeCounter = getElementFrequencyCounter(documentType);
+    IntCounter allCounter = getElementFrequencyCounter(Completeness.ALL_TYPE);
+    for (int i = 0; i < recordFrequency.size(); i++) {
+      int pathId = recordFrequency.keyAt(i);
+      documentTypeCounter.increment(pathId);
+      allCounter.increment(pathId);
+      fieldHistograms.get(pathId).increment(recordFrequency.get(pathId));
+    }
+  }
+
+  /**
+   * Registers the paths of a record in the element frequency counters and in the field histogram of a group
+   * @param groupId The group identifier
+   * @param documentType The document type of the record
+   * @param recordFrequency The number of instances of the paths within the record
+   */
+  public void countGroupedElementFrequency(String groupId, String documentType, IntCounter recordFrequency) {
+    IntCounter documentTypeCounter = getGroupedElementFrequencyCounter(groupId, documentType);
+    IntCounter allCounter = getGroupedElementFrequencyCounter(groupId, Completeness.ALL_TYPE);
+    PathHistograms histograms = groupedFieldHistograms.computeIfAbsent(groupId, s -> new PathHistograms());
+    for (int i = 0; i < recordFrequency.size(); i++) {
+      int pathId = recordFrequency.keyAt(i);
+      documentTypeCounter.increment(pathId);
+      allCounter.increment(pathId);
+      histograms.get(pathId).increment(recordFrequency.get(pathId));
+    }
+  }
+
+  private void invalidate() {
+    elementCardinality = null;
+    groupedElementCardinality = null;
+    elementFrequency = null;
+    groupedElementFrequency = null;
+    fieldHistogram = null;
+    groupedFieldHistogram = null;
   }
 
   public Map<String, Map<String, Integer>> getPackageCounter() {
@@ -36,14 +144,20 @@ public class CompletenessDAO {
   }
 
   public Map<String, Map<String, Integer>> getElementCardinality() {
+    if (elementCardinality == null)
+      elementCardinality = toMap(elementCardinalityCounters, this::toPathMap);
     return elementCardinality;
   }
 
   public Map<String, Map<String, Map<String, Integer>>> getGroupedElementCardinality() {
+    if (groupedElementCardinality == null)
+      groupedElementCardinality = toMap(groupedElementCardinalityCounters, counters -> toMap(counters, this::toPathMap));
     return groupedElementCardinality;
   }
 
   public Map<String, Map<String, Integer>> getElementFrequency() {
+    if (elementFrequency == null)
+      elementFrequency = toMap(elementFrequencyCounters, this::toPathMap);
     return elementFrequency;
   }
 
@@ -59,19 +173,65 @@ public class CompletenessDAO {
     return libraryCounter;
   }
 
-  public Map<DataFieldDefinition, String> getPackageNameCache() {
-    return packageNameCache;
-  }
-
   public Map<String, Map<String, Map<String, Integer>>> getGroupedElementFrequency() {
+    if (groupedElementFrequency == null)
+      groupedElementFrequency = toMap(groupedElementFrequencyCounters, counters -> toMap(counters, this::toPathMap));
     return groupedElementFrequency;
   }
 
   public Map<String, Map<Integer, Integer>> getFieldHistogram() {
+    if (fieldHistogram == null)
+      fieldHistogram = fieldHistograms.toMap(pathDictionary);
     return fieldHistogram;
   }
 
   public Map<String, Map<String, Map<Integer, Integer>>> getGroupedFieldHistogram() {
+    if (groupedFieldHistogram == null)
+      groupedFieldHistogram = toMap(groupedFieldHistograms, histograms -> histograms.toMap(pathDictionary));
     return groupedFieldHistogram;
   }
+
+  private Map<String, Integer> toPathMap(IntCounter counter) {
+    return counter.toMap(pathDictionary::getPath);
+  }
+
+  /**
+   * Transforms the values of the map. The result is a HashMap, as the maps of the counters used to be, and the keys
+   * are put in the order they were first counted, so the CSV writers iterating it print the rows in the same order
+   * as before.
+   */
+  private static <V, T> Map<String, T> toMap(Map<String, V> source, Function<V, T> transformer) {
+    Map<String, T> map = new HashMap<>();
+    for (Map.Entry<String, V> entry : source.entrySet())
+      map.put(entry.getKey(), transformer.apply(entry.getValue()));
+    return map;
+  }
+
+  /**
+   * The histograms of the number of instances per record of the paths
+   */
+  private static class PathHistograms {
+    private IntCounter[] histograms = new IntCounter[16];
+    private int[] pathIds = new int[16];
+    private int size = 0;
+
+    IntCounter get(int pathId) {
+      if (pathId >= histograms.length)
+        histograms = Arrays.copyOf(histograms, Math.max(pathId + 1, histograms.length * 2));
+      if (histograms[pathId] == null) {
+        histograms[pathId] = new IntCounter();
+        if (size == pathIds.length)
+          pathIds = Arrays.copyOf(pathIds, size * 2);
+        pathIds[size++] = pathId;
+      }
+      return histograms[pathId];
+    }
+
+    Map<String, Map<Integer, Integer>> toMap(PathDictionary pathDictionary) {
+      Map<String, Map<Integer, Integer>> map = new HashMap<>();
+      for (int i = 0; i < size; i++)
+        map.put(pathDictionary.getPath(pathIds[i]), histograms[pathIds[i]].toMap(Integer::valueOf));
+      return map;
+    }
+  }
 }
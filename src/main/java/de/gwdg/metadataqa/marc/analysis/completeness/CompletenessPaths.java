@@ -0,0 +1,93 @@
+package de.gwdg.metadataqa.marc.analysis.completeness;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The precomputed completeness paths of a data field: the path of the field (its tag with occurrence), of its
+ * indicators and of its subfields (in the sort key format), and the package name of the field. The IDs of these
+ * paths are kept by the PathDictionary of the analysis, so an instance can be shared by several analyses.
+ *
+ * An instance is created once per data field definition (or per tag of the undefined fields), so processing
+ * the fields of a record requires only array lookups instead of building the path strings.
+ * The tables are filled lazily. The array is not synchronized, because every thread computes the same
+ * (immutable) strings, the maps are concurrent.
+ */
+public class CompletenessPaths {
+
+  static final int ASCII_SIZE = 128;
+
+  private final String tag;
+  private final String ind1Path;
+  private final String ind2Path;
+  private final String[] subfieldPaths = new String[ASCII_SIZE];
+  private final Map<String, String> otherSubfieldPaths = new ConcurrentHashMap<>();
+  private final Map<String, CompletenessPaths> occurrences = new ConcurrentHashMap<>();
+  private volatile String packageName;
+
+  /**
+   * @param tag The tag (with occurrence) of the data field
+   */
+  public CompletenessPaths(String tag) {
+    this.tag = tag;
+    ind1Path = tag + RecordCompleteness.IND_1;
+    ind2Path = tag + RecordCompleteness.IND_2;
+  }
+
+  public String getTagPath() {
+    return tag;
+  }
+
+  public String getInd1Path() {
+    return ind1Path;
+  }
+
+  public String getInd2Path() {
+    return ind2Path;
+  }
+
+  /**
+   * Returns the path of a subfield in such a format that it can be used as a sorting key, so that the numerical
+   * subfields are sorted after the letter subfields.
+   * @param code The subfield code
+   * @return The path of the subfield
+   */
+  public String getSubfieldPath(String code) {
+    if (isAscii(code)) {
+      char c = code.charAt(0);
+      String path = subfieldPaths[c];
+      if (path == null) {
+        path = createSubfieldPath(code);
+        subfieldPaths[c] = path;
+      }
+      return path;
+    }
+    return otherSubfieldPaths.computeIfAbsent(code, this::createSubfieldPath);
+  }
+
+  private String createSubfieldPath(String code) {
+    boolean isDigit = code.length() == 1 && code.charAt(0) >= '0' && code.charAt(0) <= '9';
+    return tag + (isDigit ? RecordCompleteness.NUMERICAL_SUBFIELD : RecordCompleteness.SUBFIELD) + code;
+  }
+
+  /**
+   * Returns the paths of an occurrence of the field (used by PICA)
+   * @param occurrence The occurrence
+   * @return The paths of the field having the occurrence
+   */
+  public CompletenessPaths forOccurrence(String occurrence) {
+    return occurrences.computeIfAbsent(occurrence, s -> new CompletenessPaths(tag + "/" + occurrence));
+  }
+
+  public String getPackageName() {
+    return packageName;
+  }
+
+  public void setPackageName(String packageName) {
+    this.packageName = packageName;
+  }
+
+  static boolean isAscii(String code) {
+    return code.length() == 1 && code.charAt(0) < ASCII_SIZE;
+  }
+}
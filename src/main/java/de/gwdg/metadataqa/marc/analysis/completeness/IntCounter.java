@@ -0,0 +1,81 @@
+package de.gwdg.metadataqa.marc.analysis.completeness;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * A counter of non-negative int keys (such as the IDs of a PathDictionary) stored in a primitive array,
+ * so counting does not box the values and does not hash the keys. It remembers the order in which the keys
+ * were first counted: toMap() inserts the keys in this order, so the iteration order of the resulting map is
+ * the same as the one of a HashMap which was filled by Utils.count() calls.
+ */
+public class IntCounter implements Serializable {
+
+  private static final int INITIAL_CAPACITY = 16;
+
+  private int[] counts = new int[INITIAL_CAPACITY];
+  private int[] keys = new int[INITIAL_CAPACITY];
+  private int size = 0;
+
+  public void increment(int key) {
+    add(key, 1);
+  }
+
+  /**
+   * Adds a positive value to the count of the key
+   * @param key The key
+   * @param value The value to add
+   */
+  public void add(int key, int value) {
+    if (key >= counts.length)
+      counts = Arrays.copyOf(counts, Math.max(key + 1, counts.length * 2));
+    if (counts[key] == 0) {
+      if (size == keys.length)
+        keys = Arrays.copyOf(keys, size * 2);
+      keys[size++] = key;
+    }
+    counts[key] += value;
+  }
+
+  public int get(int key) {
+    return key < counts.length ? counts[key] : 0;
+  }
+
+  /**
+   * @return The number of distinct keys
+   */
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * @param i The position in the order of first occurrence
+   * @return The key, which has been counted i-th
+   */
+  public int keyAt(int i) {
+    return keys[i];
+  }
+
+  /**
+   * Resets the counts while keeping the allocated arrays, so the counter can be reused.
+   */
+  public void clear() {
+    for (int i = 0; i < size; i++)
+      counts[keys[i]] = 0;
+    size = 0;
+  }
+
+  public <T> Map<T, Integer> toMap(IntFunction<T> keyMapper) {
+    Map<T, Integer> map = new HashMap<>();
+    for (int i = 0; i < size; i++)
+      map.put(keyMapper.apply(keys[i]), counts[keys[i]]);
+    return map;
+  }
+}
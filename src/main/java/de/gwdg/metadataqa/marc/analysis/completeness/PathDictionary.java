@@ -0,0 +1,84 @@
+package de.gwdg.metadataqa.marc.analysis.completeness;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Assigns a dense int ID to each MARC/PICA path (in the order of first occurrence), so the counters
+ * can be stored in IntCounter objects.
+ *
+ * The IDs of the paths of a CompletenessPaths object are cached in an array per object, so the fields
+ * of a record are mapped to IDs without hashing the path strings. The CompletenessPaths objects are
+ * shared by the analyses, the cache belongs to the dictionary.
+ */
+public class PathDictionary implements Serializable {
+
+  private static final int TAG = CompletenessPaths.ASCII_SIZE;
+  private static final int IND_1 = TAG + 1;
+  private static final int IND_2 = TAG + 2;
+  private static final int UNKNOWN = -1;
+
+  private final Map<String, Integer> ids = new HashMap<>();
+  private final List<String> paths = new ArrayList<>();
+  private transient Map<CompletenessPaths, int[]> fieldIds;
+
+  public int getId(String path) {
+    Integer id = ids.get(path);
+    if (id == null) {
+      id = paths.size();
+      ids.put(path, id);
+      paths.add(path);
+    }
+    return id;
+  }
+
+  public int getTagId(CompletenessPaths fieldPaths) {
+    return getId(fieldPaths, TAG, fieldPaths.getTagPath());
+  }
+
+  public int getInd1Id(CompletenessPaths fieldPaths) {
+    return getId(fieldPaths, IND_1, fieldPaths.getInd1Path());
+  }
+
+  public int getInd2Id(CompletenessPaths fieldPaths) {
+    return getId(fieldPaths, IND_2, fieldPaths.getInd2Path());
+  }
+
+  public int getSubfieldId(CompletenessPaths fieldPaths, String code) {
+    if (CompletenessPaths.isAscii(code))
+      return getId(fieldPaths, code.charAt(0), fieldPaths.getSubfieldPath(code));
+    return getId(fieldPaths.getSubfieldPath(code));
+  }
+
+  private int getId(CompletenessPaths fieldPaths, int index, String path) {
+    int[] cache = getFieldIds(fieldPaths);
+    if (cache[index] == UNKNOWN)
+      cache[index] = getId(path);
+    return cache[index];
+  }
+
+  private int[] getFieldIds(CompletenessPaths fieldPaths) {
+    if (fieldIds == null)
+      fieldIds = new IdentityHashMap<>();
+    int[] cache = fieldIds.get(fieldPaths);
+    if (cache == null) {
+      cache = new int[IND_2 + 1];
+      Arrays.fill(cache, UNKNOWN);
+      fieldIds.put(fieldPaths, cache);
+    }
+    return cache;
+  }
+
+  public String getPath(int id) {
+    return paths.get(id);
+  }
+
+  public int size() {
+    return paths.size();
+  }
+}
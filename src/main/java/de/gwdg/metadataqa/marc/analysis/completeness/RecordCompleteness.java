@@ -25,23 +25,22 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.regex.Pattern;
 
 public class RecordCompleteness {
 
   private static final Logger logger = Logger.getLogger(RecordCompleteness.class.getCanonicalName());
 
-  /**
-   * Pattern to match one single digit.
-   */
-  private static final Pattern numericalPattern = Pattern.compile("^(\\d)$");
   public static final String IND_1 = "$!ind1";
   public static final String IND_2 = "$!ind2";
   public static final String NUMERICAL_SUBFIELD = "$|";
   public static final String SUBFIELD = "$";
-  private static Map<String, Map<String, String>> sortKeyMap = new HashMap<>();
+  /**
+   * The paths of the fields without definition
+   */
+  private static final Map<String, CompletenessPaths> undefinedFieldPaths = new ConcurrentHashMap<>();
 
   private final BibiographicPath groupBy;
   private final CompletenessParameters parameters;
@@ -52,10 +51,16 @@ public class RecordCompleteness {
   // TODO Ask why the documentType is relevant. Why is it a String and not a MarcLeader.Type?
   String documentType;
   boolean hasGroupBy;
-  Map<String, Integer> recordFrequency = new HashMap<>();
+  IntCounter recordFrequency;
   Map<String, Integer> recordPackageCounter = new HashMap<>();
   Set<String> groupIds = new HashSet<>();
 
+  private PathDictionary pathDictionary;
+  private IntCounter documentTypeCardinality;
+  private IntCounter allCardinality;
+  private IntCounter[] groupedDocumentTypeCardinality;
+  private IntCounter[] groupedAllCardinality;
+
   public RecordCompleteness(BibliographicRecord bibliographicRecord,
                             CompletenessParameters parameters,
                             CompletenessDAO completenessDAO,
@@ -77,10 +82,12 @@ public class RecordCompleteness {
 
   public void process() {
     documentType = plugin.getDocumentType(bibliographicRecord);
-    completenessDAO.getElementCardinality().computeIfAbsent(documentType, s -> new HashMap<>());
-    completenessDAO.getElementCardinality().computeIfAbsent(Completeness.ALL_TYPE, s -> new HashMap<>());
-    completenessDAO.getElementFrequency().computeIfAbsent(documentType, s -> new HashMap<>());
-    completenessDAO.getElementFrequency().computeIfAbsent(Completeness.ALL_TYPE, s -> new HashMap<>());
+    pathDictionary = completenessDAO.getPathDictionary();
+    recordFrequency = completenessDAO.newRecordFrequency();
+    documentTypeCardinality = completenessDAO.getElementCardinalityCounter(documentType);
+    allCardinality = completenessDAO.getElementCardinalityCounter(Completeness.ALL_TYPE);
+    completenessDAO.getElementFrequencyCounter(documentType);
+    completenessDAO.getElementFrequencyCounter(Completeness.ALL_TYPE);
 
     if (bibliographicRecord instanceof Marc21Record && ((Marc21Record) bibliographicRecord).getControl003() != null)
       Utils.count(((Marc21Record) bibliographicRecord).getControl003().getContent(), completenessDAO.getLibrary003Counter());
@@ -139,54 +146,75 @@ public class RecordCompleteness {
 
   private void processDataFields() {
     for (DataField field : bibliographicRecord.getDatafields()) {
-      if (parameters.getIgnorableFields().contains(field.getTagWithOccurrence()))
+      CompletenessPaths paths = getPaths(field);
+      if (parameters.getIgnorableFields().contains(paths.getTagPath()))
         continue;
 
-      Utils.count(getPackageName(field), recordPackageCounter);
-      Utils.count(field.getTagWithOccurrence(), recordFrequency);
+      Utils.count(getPackageName(field, paths), recordPackageCounter);
+      countDataElement(pathDictionary.getTagId(paths));
 
-      for (String marcPath : getMarcPaths(field))
-        Utils.count(marcPath, recordFrequency);
+      DataFieldDefinition fieldDefinition = field.getDefinition();
+      if (!parameters.isPica() && fieldDefinition != null) {
+        if (field.getInd1() != null && (fieldDefinition.getInd1().exists() || !field.getInd1().equals(" ")))
+          countDataElement(pathDictionary.getInd1Id(paths));
 
-      if (groupBy != null) {
-        for (String groupId : groupIds)
-          processGroupedDataField(field, groupId);
-      } else {
-        processDataField(field);
+        if (field.getInd2() != null && (fieldDefinition.getInd2().exists() || !field.getInd2().equals(" ")))
+          countDataElement(pathDictionary.getInd2Id(paths));
       }
+
+      for (MarcSubfield subfield : field.getSubfields())
+        countDataElement(pathDictionary.getSubfieldId(paths, subfield.getCode()));
     }
   }
 
-  private void processDataField(DataField field) {
-    Utils.count(field.getTagWithOccurrence(), completenessDAO.getElementCardinality().get(documentType));
-    Utils.count(field.getTagWithOccurrence(), completenessDAO.getElementCardinality().get(Completeness.ALL_TYPE));
+  /**
+   * Returns the precomputed paths of the field. The paths of the defined fields are stored in the definition,
+   * the paths of the undefined fields are stored by their tags.
+   */
+  private CompletenessPaths getPaths(DataField field) {
+    CompletenessPaths paths = field.getDefinition() != null
+      ? field.getDefinition().getCompletenessPaths()
+      : undefinedFieldPaths.computeIfAbsent(field.getTag(), CompletenessPaths::new);
+    if (field.getOccurrence() != null)
+      paths = paths.forOccurrence(field.getOccurrence());
+    return paths;
+  }
 
-    List<String> marcPaths = getMarcPaths(field);
-    for (String marcPath : marcPaths) {
-      Utils.count(marcPath, completenessDAO.getElementCardinality().get(documentType));
-      Utils.count(marcPath, completenessDAO.getElementCardinality().get(Completeness.ALL_TYPE));
-    }
+  private void countDataElement(int pathId) {
+    recordFrequency.increment(pathId);
+    countCardinality(pathId);
   }
 
-  private void processGroupedDataField(DataField field, String groupId) {
-    addGroupedElementCardinality(field.getTagWithOccurrence(), groupId);
+  private void countCardinality(int pathId) {
+    if (hasGroupBy()) {
+      if (groupedDocumentTypeCardinality == null)
+        initializeGroupedCardinality();
+      for (int i = 0; i < groupedDocumentTypeCardinality.length; i++) {
+        groupedDocumentTypeCardinality[i].increment(pathId);
+        groupedAllCardinality[i].increment(pathId);
+      }
+    } else {
+      documentTypeCardinality.increment(pathId);
+      allCardinality.increment(pathId);
+    }
+  }
 
-    List<String> marcPaths = getMarcPaths(field);
-    for (String marcPath : marcPaths) {
-      Utils.count(marcPath, completenessDAO.getGroupedElementCardinality().get(groupId).get(documentType));
-      Utils.count(marcPath, completenessDAO.getGroupedElementCardinality().get(groupId).get(Completeness.ALL_TYPE));
+  /**
+   * The counters of the groups are created when the first element of the record is counted
+   */
+  private void initializeGroupedCardinality() {
+    groupedDocumentTypeCardinality = new IntCounter[groupIds.size()];
+    groupedAllCardinality = new IntCounter[groupIds.size()];
+    int i = 0;
+    for (String groupId : groupIds) {
+      groupedDocumentTypeCardinality[i] = completenessDAO.getGroupedElementCardinalityCounter(groupId, documentType);
+      groupedAllCardinality[i] = completenessDAO.getGroupedElementCardinalityCounter(groupId, Completeness.ALL_TYPE);
+      i++;
     }
   }
 
   private void countByMarcPath(String marcPath) {
-    if (hasGroupBy()) {
-      for (String groupId : groupIds)
-        addGroupedElementCardinality(marcPath, groupId);
-    } else {
-      Utils.count(marcPath, completenessDAO.getElementCardinality().get(documentType));
-      Utils.count(marcPath, completenessDAO.getElementCardinality().get(Completeness.ALL_TYPE));
-    }
-    Utils.count(marcPath, recordFrequency);
+    countDataElement(pathDictionary.getId(marcPath));
     Utils.count(TagCategory.TAGS_00X.getPackageName(), recordPackageCounter);
   }
 
@@ -195,6 +223,13 @@ public class RecordCompleteness {
   }
 
   public Map<String, Integer> getRecordFrequency() {
+    return recordFrequency.toMap(pathDictionary::getPath);
+  }
+
+  /**
+   * @return The number of instances of the paths (identified by the IDs of the PathDictionary) within the record
+   */
+  public IntCounter getRecordFrequencyCounter() {
     return recordFrequency;
   }
 
@@ -230,85 +265,26 @@ public class RecordCompleteness {
   }
 
   /**
-   * Returns the package name of a given field. Tries to get the package name from the cache first, and if it is not
-   * present, it will be retrieved from the plugin which was supplied to the constructor.
+   * Returns the package name of a given field. Tries to get the package name from the paths of the field first,
+   * and if it is not present, it will be retrieved from the plugin which was supplied to the constructor.
    * @param field The field to get the package name for
+   * @param paths The paths of the field
    * @return The package name of the given field
    */
-  private String getPackageName(DataField field) {
-    String packageName;
+  private String getPackageName(DataField field, CompletenessPaths paths) {
     DataFieldDefinition fieldDefinition = field.getDefinition();
-
-    if (fieldDefinition == null) {
-      packageName = TagCategory.OTHER.getPackageName();
-      return packageName;
-    }
-
-    Map<DataFieldDefinition, String> packageNameCache = completenessDAO.getPackageNameCache();
-    if (packageNameCache.containsKey(fieldDefinition)) {
-      packageName = packageNameCache.get(fieldDefinition);
-      return packageName;
-    }
-
-    packageName = plugin.getPackageName(field);
-    if (StringUtils.isBlank(packageName)) {
-      logger.log(Level.WARNING, "{0} has no package. /{1}", new Object[]{field, fieldDefinition.getClass()});
-      packageName = TagCategory.OTHER.getPackageName();
-    }
-    packageNameCache.put(fieldDefinition, packageName);
-    return packageName;
-  }
-
-  private List<String> getMarcPaths(DataField field) {
-    List<String> marcPaths = new ArrayList<>();
-    DataFieldDefinition fieldDefinition = field.getDefinition();
-
-    if (!parameters.isPica() && fieldDefinition != null) {
-      if (field.getInd1() != null && (fieldDefinition.getInd1().exists() || !field.getInd1().equals(" "))) {
-        marcPaths.add(field.getTagWithOccurrence() + IND_1);
-      }
-
-      if (field.getInd2() != null && (fieldDefinition.getInd2().exists() || !field.getInd2().equals(" "))) {
-        marcPaths.add(field.getTagWithOccurrence() + IND_2);
+    if (fieldDefinition == null)
+      return TagCategory.OTHER.getPackageName();
+
+    String packageName = paths.getPackageName();
+    if (packageName == null) {
+      packageName = plugin.getPackageName(field);
+      if (StringUtils.isBlank(packageName)) {
+        logger.log(Level.WARNING, "{0} has no package. /{1}", new Object[]{field, fieldDefinition.getClass()});
+        packageName = TagCategory.OTHER.getPackageName();
       }
+      paths.setPackageName(packageName);
     }
-
-    for (MarcSubfield subfield : field.getSubfields()) {
-      marcPaths.add(getSubfieldMarcPath(field, subfield));
-    }
-    return marcPaths;
-  }
-
-  /**
-   * Returns the MARC path for a given subfield in such a format that it can be used as a sorting key, so that
-   * the subfields are sorted by having the numerical subfields after the letter subfields.
-   * @param field The data field that contains the subfield
-   * @param subfield The subfield to get the MARC path for
-   * @return The MARC path for the given subfield
-   */
-  private static String getSubfieldMarcPath(DataField field, MarcSubfield subfield) {
-    String fieldTag = field.getTagWithOccurrence();
-    String subfieldCode = subfield.getCode();
-
-    sortKeyMap.computeIfAbsent(fieldTag, s -> new HashMap<>());
-
-    Map<String, String> fieldMap = sortKeyMap.get(fieldTag);
-
-    boolean isSubfieldCodePresent = fieldMap.containsKey(subfieldCode);
-    if (!isSubfieldCodePresent) {
-      boolean isDigit = numericalPattern.matcher(subfieldCode).matches();
-
-      String key = isDigit ? fieldTag + NUMERICAL_SUBFIELD + subfieldCode : fieldTag + SUBFIELD + subfieldCode;
-      fieldMap.put(subfieldCode, key);
-    }
-    return fieldMap.get(subfieldCode);
-  }
-
-  private void addGroupedElementCardinality(String marcPath, String groupId) {
-    completenessDAO.getGroupedElementCardinality().computeIfAbsent(groupId, s -> new HashMap<>());
-    completenessDAO.getGroupedElementCardinality().get(groupId).computeIfAbsent(documentType, s -> new HashMap<>());
-    completenessDAO.getGroupedElementCardinality().get(groupId).computeIfAbsent(Completeness.ALL_TYPE, s -> new HashMap<>());
-    Utils.count(marcPath, completenessDAO.getGroupedElementCardinality().get(groupId).get(documentType));
-    Utils.count(marcPath, completenessDAO.getGroupedElementCardinality().get(groupId).get(Completeness.ALL_TYPE));
+    return packageName;
   }
 }
@@ -10,6 +10,20 @@ public abstract class ContextualStatistics {
   private final Map<Schema, Integer> records = new HashMap<>();
   private final Map<Schema, Integer> instances = new HashMap<>();
   private final Map<Schema, Map<List<String>, Integer>> subfields = new HashMap<>();
+  /**
+   * The identifiers of the schemas in the order of their first appearance. They belong to the statistics, so
+   * the analyses running in the same JVM (see MultiAnalysis) number their schemas independently.
+   */
+  private final Map<Schema, Integer> schemaIds = new HashMap<>();
+
+  /**
+   * Creates a schema, and sets its identifier.
+   */
+  public Schema createSchema(String field, String location, String abbreviation, String schema) {
+    var newSchema = new Schema(field, location, abbreviation, schema);
+    newSchema.setId(schemaIds.computeIfAbsent(newSchema, s -> schemaIds.size() + 1));
+    return newSchema;
+  }
 
   public Map<Schema, Integer> getInstances() {
     return instances;
@@ -61,13 +61,13 @@ public abstract class AuthorityAnalyzer extends ContextualAnalyzer<AuthorityStat
 
     // If the subfield 2 is not present, we cannot extract the scheme
     if (altSchemes == null || altSchemes.isEmpty()) {
-      Schema newSchema = new Schema(tag, "$2", UNDETECTABLE, UNDETECTABLE);
+      Schema newSchema = statistics.createSchema(tag, "$2", UNDETECTABLE, UNDETECTABLE);
       extractedSchemas.add(newSchema);
       return extractedSchemas;
     }
 
     for (MarcSubfield altScheme : altSchemes) {
-      Schema newSchema = new Schema(tag, "$2", altScheme.getValue(), altScheme.resolve());
+      Schema newSchema = statistics.createSchema(tag, "$2", altScheme.getValue(), altScheme.resolve());
       extractedSchemas.add(newSchema);
     }
     return extractedSchemas;
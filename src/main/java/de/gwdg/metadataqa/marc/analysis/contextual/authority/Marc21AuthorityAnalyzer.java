@@ -77,7 +77,7 @@ public class Marc21AuthorityAnalyzer extends AuthorityAnalyzer {
       }
 
       organization = organizationCode;
-      Schema currentSchema = new Schema(field.getTag(), "$0", organization, organizationCode);
+      Schema currentSchema = statistics.createSchema(field.getTag(), "$0", organization, organizationCode);
       schemas.add(currentSchema);
     }
 
@@ -39,14 +39,14 @@ public class PicaAuthorityAnalyzer extends AuthorityAnalyzer {
     List<Schema> schemas = new ArrayList<>();
     List<MarcSubfield> altSchemes = field.getSubfield("7");
     if (altSchemes == null || altSchemes.isEmpty()) {
-      Schema currentSchema = new Schema(tag, "$7", UNDETECTABLE, UNDETECTABLE);
+      Schema currentSchema = statistics.createSchema(tag, "$7", UNDETECTABLE, UNDETECTABLE);
       schemas.add(currentSchema);
       return schemas;
     }
 
     for (MarcSubfield altScheme : altSchemes) {
       if (!altScheme.getValue().contains("/")) {
-        Schema currentSchema = new Schema(tag, "$7", UNDETECTABLE, UNDETECTABLE);
+        Schema currentSchema = statistics.createSchema(tag, "$7", UNDETECTABLE, UNDETECTABLE);
         schemas.add(currentSchema);
         continue;
       }
@@ -54,7 +54,7 @@ public class PicaAuthorityAnalyzer extends AuthorityAnalyzer {
       String[] parts = altScheme.getValue().split("/");
       var code = SubjectHeadingAndTermSourceCodes.getInstance().getCode(parts[0]);
       var label = code == null ? parts[0] : code.getLabel();
-      Schema currentSchema = new Schema(tag, "$7", parts[0], label);
+      Schema currentSchema = statistics.createSchema(tag, "$7", parts[0], label);
       schemas.add(currentSchema);
     }
     return schemas;
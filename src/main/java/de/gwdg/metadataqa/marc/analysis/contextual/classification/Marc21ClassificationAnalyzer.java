@@ -209,13 +209,13 @@ public class Marc21ClassificationAnalyzer extends MarcClassificationAnalyzer {
     Schema currentSchema;
     try {
       String schemaLabel = classificationSchemes.resolve(schema);
-      currentSchema = new Schema(tag, indicatorLabel, schemaLabel, schema);
+      currentSchema = statistics.createSchema(tag, indicatorLabel, schemaLabel, schema);
     } catch (IllegalArgumentException e) {
       logger.log(Level.SEVERE, "Invalid schema in {0}: {1}. {2}",
         new Object[]{indicatorLabel, e.getLocalizedMessage(), field});
 
       String indicatorValue = isInd1 ? field.getInd1() : field.getInd2();
-      currentSchema = new Schema(tag, indicatorLabel, indicatorValue, schema);
+      currentSchema = statistics.createSchema(tag, indicatorLabel, indicatorValue, schema);
     }
 
     return List.of(currentSchema);
@@ -242,7 +242,7 @@ public class Marc21ClassificationAnalyzer extends MarcClassificationAnalyzer {
     // E.g. for 653, that indicator could be "Topical term", "Personal name", "Corporate name", etc.
     for (DataField field : fields) {
       var abbreviation = field.getInd2().equals(" ") ? "#" : field.getInd2();
-      var currentSchema = new Schema(tag, "ind2", "uncontrolled/" + abbreviation, field.resolveInd2());
+      var currentSchema = statistics.createSchema(tag, "ind2", "uncontrolled/" + abbreviation, field.resolveInd2());
       schemas.add(currentSchema);
       updateSchemaSubfieldStatistics(field, currentSchema);
     }
@@ -69,13 +69,13 @@ public abstract class MarcClassificationAnalyzer extends ClassificationAnalyzer
 
     // If the subfield 2 is not present, we cannot extract the scheme
     if (altSchemes == null || altSchemes.isEmpty()) {
-      Schema newSchema = new Schema(tag, "$2", "undetectable", "undetectable");
+      Schema newSchema = statistics.createSchema(tag, "$2", "undetectable", "undetectable");
       extractedSchemas.add(newSchema);
       return extractedSchemas;
     }
 
     for (MarcSubfield altScheme : altSchemes) {
-      Schema newSchema = new Schema(tag, "$2", altScheme.getValue(), altScheme.resolve());
+      Schema newSchema = statistics.createSchema(tag, "$2", altScheme.getValue(), altScheme.resolve());
       extractedSchemas.add(newSchema);
     }
     return extractedSchemas;
@@ -114,7 +114,7 @@ public abstract class MarcClassificationAnalyzer extends ClassificationAnalyzer
       }
 
       var schema = fieldEntry.getSchemaName();
-      var currentSchema = new Schema(tag, firstSubfield, classificationSchemes.resolve(schema), schema);
+      var currentSchema = statistics.createSchema(tag, firstSubfield, classificationSchemes.resolve(schema), schema);
       schemas.add(currentSchema);
       updateSchemaSubfieldStatistics(field, currentSchema);
     }
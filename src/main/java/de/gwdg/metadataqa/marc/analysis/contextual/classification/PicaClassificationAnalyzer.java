@@ -85,7 +85,7 @@ public class PicaClassificationAnalyzer extends ClassificationAnalyzer {
         logger.log(Level.SEVERE, logMessage);
         continue;
       }
-      var currentSchema = new Schema(field.getTagWithOccurrence(), firstSubfield, voc, schema);
+      var currentSchema = statistics.createSchema(field.getTagWithOccurrence(), firstSubfield, voc, schema);
       schemas.add(currentSchema);
       updateSchemaSubfieldStatistics(field, currentSchema);
     }
@@ -118,7 +118,7 @@ public class UnimarcClassificationAnalyzer extends MarcClassificationAnalyzer {
     // of the classification provided) from the second indicator
     // E.g. for 653, that indicator could be "Topical term", "Personal name", "Corporate name", etc.
     for (DataField field : fields) {
-      var currentSchema = new Schema(tag, "ind2", "uncontrolled", field.resolveInd2());
+      var currentSchema = statistics.createSchema(tag, "ind2", "uncontrolled", field.resolveInd2());
       schemas.add(currentSchema);
       updateSchemaSubfieldStatistics(field, currentSchema);
     }
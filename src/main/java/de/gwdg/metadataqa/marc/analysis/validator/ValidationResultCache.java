@@ -0,0 +1,495 @@
+package de.gwdg.metadataqa.marc.analysis.validator;
+
+import de.gwdg.metadataqa.marc.MarcSubfield;
+import de.gwdg.metadataqa.marc.dao.DataField;
+import de.gwdg.metadataqa.marc.dao.MarcControlField;
+import de.gwdg.metadataqa.marc.dao.record.BibliographicRecord;
+import de.gwdg.metadataqa.marc.dao.record.MarcRecord;
+import de.gwdg.metadataqa.marc.model.validation.ValidationError;
+import de.gwdg.metadataqa.marc.model.validation.ValidationErrorType;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A file based cache of the validation results, which stores the issues of each record together with the fingerprint
+ * (a 64 bit hash of the leader, the fields and the parsing errors) of the record. If a record has the same
+ * fingerprint as in the previous run, its issues are read from the cache instead of validating it again.
+ *
+ * The file contains a header (magic, version and the configuration of the validation), and the entries (record ID,
+ * fingerprint and issues). The strings of the issues (the MARC path, the type, the message and the URL) are written
+ * only at their first occurrence, later they are referred by their number. When the cache is opened, the entries are
+ * read once to collect the strings and to build an open addressing hash table of the record IDs (the 64 bit hash of
+ * the ID -&gt; the position of the entry), then the issues of a record are read from the file when they are
+ * requested. The results of the current run are written into a temporary file, which replaces the cache in save().
+ * If the configuration changed, the previous results are not used.
+ *
+ * The methods can be called from multiple threads.
+ */
+public class ValidationResultCache implements AutoCloseable {
+
+  private static final Logger logger = Logger.getLogger(ValidationResultCache.class.getCanonicalName());
+
+  private static final int MAGIC = 0x51415643; // QAVC
+  private static final int VERSION = 1;
+  private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+  private static final long FNV_PRIME = 0x100000001b3L;
+  private static final long EMPTY = 0L;
+  // the references of the strings
+  private static final int NULL_STRING = 0;
+  private static final int NEW_STRING = 1;
+  // the record ID of an issue
+  private static final int NO_RECORD_ID = 0;
+  private static final int SAME_RECORD_ID = 1;
+  private static final int OTHER_RECORD_ID = 2;
+
+  private final Path file;
+  private final String configuration;
+  private final Path tempFile;
+  private final DataOutputStream out;
+  private final Map<String, Integer> writtenStrings = new HashMap<>();
+
+  private FileChannel previous;
+  private String[] strings = new String[0];
+  private long[] keys = new long[1024];
+  private long[] fingerprints = new long[1024];
+  private long[] offsets = new long[1024];
+  private int[] lengths = new int[1024];
+  private int size = 0;
+
+  private final AtomicInteger hits = new AtomicInteger();
+  private final AtomicInteger misses = new AtomicInteger();
+
+  private ValidationResultCache(Path file, String configuration) throws IOException {
+    this.file = file;
+    this.configuration = configuration;
+    Path directory = file.toAbsolutePath().getParent();
+    Files.createDirectories(directory);
+    tempFile = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+    out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile), 1 << 16));
+    out.writeInt(MAGIC);
+    out.writeInt(VERSION);
+    out.writeUTF(configuration);
+  }
+
+  /**
+   * Opens the cache, and indexes the results of the previous run. If the file does not exist, it is not valid, or
+   * it belongs to another configuration, all records will be validated.
+   * @param file The cache file
+   * @param configuration The configuration of the validation
+   * @return The cache
+   * @throws IOException If the temporary file of the new results could not be created
+   */
+  public static ValidationResultCache open(Path file, String configuration) throws IOException {
+    ValidationResultCache cache = new ValidationResultCache(file, configuration);
+    cache.readPrevious();
+    return cache;
+  }
+
+  /**
+   * @param recordId The record ID
+   * @param fingerprint The fingerprint of the record
+   * @return The issues of the record in the previous run, or null if the record has not been validated with the same
+   * fingerprint
+   */
+  public List<ValidationError> get(String recordId, long fingerprint) {
+    if (previous != null) {
+      int slot = find(hash(recordId));
+      if (keys[slot] != EMPTY && fingerprints[slot] == fingerprint) {
+        try {
+          List<ValidationError> errors = readEntry(recordId, offsets[slot], lengths[slot]);
+          if (errors != null) {
+            hits.incrementAndGet();
+            return errors;
+          }
+        } catch (IOException e) {
+          logger.log(Level.WARNING, "The cached results of " + recordId + " could not be read", e);
+        }
+      }
+    }
+    misses.incrementAndGet();
+    return null;
+  }
+
+  /**
+   * Stores the issues of the record for the next run.
+   * @param recordId The record ID
+   * @param fingerprint The fingerprint of the record
+   * @param errors The issues of the record
+   * @throws IOException If the issues could not be written
+   */
+  public synchronized void put(String recordId, long fingerprint, List<ValidationError> errors) throws IOException {
+    out.writeBoolean(true);
+    writeBytes(recordId);
+    out.writeLong(fingerprint);
+    writeNumber(errors.size());
+    for (ValidationError error : errors) {
+      if (error.getRecordId() == null) {
+        writeNumber(NO_RECORD_ID);
+      } else if (error.getRecordId().equals(recordId)) {
+        writeNumber(SAME_RECORD_ID);
+      } else {
+        writeNumber(OTHER_RECORD_ID);
+        writeString(error.getRecordId());
+      }
+      writeString(error.getMarcPath());
+      writeString(error.getType() == null ? null : error.getType().name());
+      writeString(error.getMessage());
+      writeString(error.getUrl());
+    }
+  }
+
+  /**
+   * Replaces the previous cache with the results of this run.
+   * @throws IOException If the file could not be written
+   */
+  public synchronized void save() throws IOException {
+    out.writeBoolean(false);
+    out.close();
+    Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /**
+   * Drops the results of this run if they have not been saved
+   */
+  @Override
+  public synchronized void close() throws IOException {
+    out.close();
+    Files.deleteIfExists(tempFile);
+    if (previous != null)
+      previous.close();
+  }
+
+  /**
+   * @return The number of records, whose issues have been read from the cache
+   */
+  public int getHits() {
+    return hits.get();
+  }
+
+  /**
+   * @return The number of records, which were not found in the cache
+   */
+  public int getMisses() {
+    return misses.get();
+  }
+
+  /**
+   * The fingerprint of the content the validation depends on: the leader, the control fields, the data fields with
+   * their indicators and subfields, the unhandled tags, and the errors of the parsing.
+   * @param bibliographicRecord The record
+   * @param parsingErrors The errors of the parsing (might be null)
+   * @return FNV-1a hash of the content
+   */
+  public static long fingerprint(BibliographicRecord bibliographicRecord, List<ValidationError> parsingErrors) {
+    long hash = FNV_OFFSET_BASIS;
+    if (bibliographicRecord instanceof MarcRecord) {
+      MarcRecord marcRecord = (MarcRecord) bibliographicRecord;
+      hash = add(hash, marcRecord.getLeader() == null ? null : marcRecord.getLeader().getContent());
+      for (MarcControlField field : marcRecord.getControlfields()) {
+        if (field != null) {
+          hash = add(hash, field.getDefinition() == null ? null : field.getDefinition().getTag());
+          hash = add(hash, field.getContent());
+        }
+      }
+    }
+    for (DataField field : bibliographicRecord.getDatafields()) {
+      if (field == null)
+        continue;
+      hash = add(hash, field.getTag());
+      hash = add(hash, field.getOccurrence());
+      hash = add(hash, field.getInd1());
+      hash = add(hash, field.getInd2());
+      for (MarcSubfield subfield : field.getSubfields()) {
+        hash = add(hash, subfield.getCode());
+        hash = add(hash, subfield.getValue());
+      }
+    }
+    for (String tag : bibliographicRecord.getUnhandledTags())
+      hash = add(hash, tag);
+    if (parsingErrors != null) {
+      for (ValidationError error : parsingErrors) {
+        hash = add(hash, error.getRecordId());
+        hash = add(hash, error.getMarcPath());
+        hash = add(hash, error.getType() == null ? null : error.getType().name());
+        hash = add(hash, error.getMessage());
+        hash = add(hash, error.getUrl());
+      }
+    }
+    return hash;
+  }
+
+  /**
+   * Adds the characters of the text and a separator (which distinguishes the null and the empty string) to the hash
+   */
+  private static long add(long hash, String text) {
+    if (text != null) {
+      for (int i = 0, length = text.length(); i < length; i++) {
+        char c = text.charAt(i);
+        hash ^= (c & 0xff);
+        hash *= FNV_PRIME;
+        hash ^= (c >>> 8);
+        hash *= FNV_PRIME;
+      }
+    }
+    hash ^= text == null ? 0x100 : 0x101;
+    hash *= FNV_PRIME;
+    return hash;
+  }
+
+  private void readPrevious() {
+    if (!Files.exists(file))
+      return;
+
+    List<String> stringList = new ArrayList<>();
+    try (CountingInputStream counter = new CountingInputStream(
+           new BufferedInputStream(Files.newInputStream(file), 1 << 16));
+         DataInputStream in = new DataInputStream(counter)) {
+      if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+        logger.log(Level.WARNING, "{0} is not a validation result cache, all records will be validated", file);
+        return;
+      }
+      if (!in.readUTF().equals(configuration)) {
+        logger.log(Level.INFO, "the configuration of the validation has changed, all records will be validated");
+        return;
+      }
+      while (in.readBoolean()) {
+        long offset = counter.getPosition();
+        long key = hash(readBytes(in));
+        long fingerprint = in.readLong();
+        int numberOfErrors = readNumber(in);
+        for (int i = 0; i < numberOfErrors; i++) {
+          if (readNumber(in) == OTHER_RECORD_ID)
+            skipString(in, stringList);
+          for (int j = 0; j < 4; j++)
+            skipString(in, stringList);
+        }
+        long length = counter.getPosition() - offset;
+        if (length > Integer.MAX_VALUE)
+          throw new IOException("Too large entry at " + offset);
+
+        int slot = find(key);
+        if (keys[slot] == EMPTY)
+          slot = insert(slot, key);
+        fingerprints[slot] = fingerprint;
+        offsets[slot] = offset;
+        lengths[slot] = (int) length;
+      }
+      strings = stringList.toArray(new String[0]);
+      previous = FileChannel.open(file, StandardOpenOption.READ);
+    } catch (IOException e) {
+      logger.log(Level.WARNING, "the validation result cache could not be read, all records will be validated", e);
+      keys = new long[1024];
+      fingerprints = new long[1024];
+      offsets = new long[1024];
+      lengths = new int[1024];
+      size = 0;
+    }
+  }
+
+  /**
+   * @return The issues stored in the entry, or null if the entry belongs to another record (having the same hash)
+   */
+  private List<ValidationError> readEntry(String recordId, long offset, int length) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(length);
+    while (buffer.hasRemaining()) {
+      if (previous.read(buffer, offset + buffer.position()) < 0)
+        throw new EOFException("Unexpected end of file at " + (offset + buffer.position()) + " in " + file);
+    }
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(buffer.array()));
+    if (!readBytes(in).equals(recordId))
+      return null;
+    in.readLong();
+    int numberOfErrors = readNumber(in);
+    List<ValidationError> errors = new ArrayList<>(numberOfErrors);
+    for (int i = 0; i < numberOfErrors; i++) {
+      int recordIdType = readNumber(in);
+      String errorRecordId = null;
+      if (recordIdType == SAME_RECORD_ID)
+        errorRecordId = recordId;
+      else if (recordIdType == OTHER_RECORD_ID)
+        errorRecordId = readString(in);
+      String marcPath = readString(in);
+      String type = readString(in);
+      String message = readString(in);
+      String url = readString(in);
+      errors.add(new ValidationError(errorRecordId, marcPath, type == null ? null : ValidationErrorType.valueOf(type),
+        message, url));
+    }
+    return errors;
+  }
+
+  private void writeString(String text) throws IOException {
+    if (text == null) {
+      writeNumber(NULL_STRING);
+      return;
+    }
+    Integer index = writtenStrings.get(text);
+    if (index != null) {
+      writeNumber(index + 2);
+    } else {
+      writtenStrings.put(text, writtenStrings.size());
+      writeNumber(NEW_STRING);
+      writeBytes(text);
+    }
+  }
+
+  private String readString(DataInputStream in) throws IOException {
+    int reference = readNumber(in);
+    if (reference == NULL_STRING)
+      return null;
+    if (reference == NEW_STRING)
+      return readBytes(in);
+    return strings[reference - 2];
+  }
+
+  private static void skipString(DataInputStream in, List<String> stringList) throws IOException {
+    int reference = readNumber(in);
+    if (reference == NEW_STRING)
+      stringList.add(readBytes(in));
+    else if (reference - 2 >= stringList.size())
+      throw new IOException("Invalid string reference: " + reference);
+  }
+
+  private void writeBytes(String text) throws IOException {
+    byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+    writeNumber(bytes.length);
+    out.write(bytes);
+  }
+
+  private static String readBytes(DataInputStream in) throws IOException {
+    byte[] bytes = new byte[readNumber(in)];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Writes a non-negative number in 7 bit groups, the highest bit marks that more groups follow
+   */
+  private void writeNumber(int number) throws IOException {
+    while ((number & ~0x7f) != 0) {
+      out.writeByte((number & 0x7f) | 0x80);
+      number >>>= 7;
+    }
+    out.writeByte(number);
+  }
+
+  private static int readNumber(DataInputStream in) throws IOException {
+    int number = 0;
+    for (int shift = 0; shift < 32; shift += 7) {
+      int b = in.readUnsignedByte();
+      number |= (b & 0x7f) << shift;
+      if ((b & 0x80) == 0)
+        return number;
+    }
+    throw new IOException("Invalid number");
+  }
+
+  /**
+   * @return The slot of the key, or the empty slot where it should be inserted
+   */
+  private int find(long key) {
+    int mask = keys.length - 1;
+    int slot = (int) (key ^ (key >>> 32)) & mask;
+    while (keys[slot] != EMPTY && keys[slot] != key)
+      slot = (slot + 1) & mask;
+    return slot;
+  }
+
+  private int insert(int slot, long key) {
+    keys[slot] = key;
+    size++;
+    if (size * 2 > keys.length) {
+      grow();
+      slot = find(key);
+    }
+    return slot;
+  }
+
+  private void grow() {
+    long[] oldKeys = keys;
+    long[] oldFingerprints = fingerprints;
+    long[] oldOffsets = offsets;
+    int[] oldLengths = lengths;
+    keys = new long[oldKeys.length * 2];
+    fingerprints = new long[oldKeys.length * 2];
+    offsets = new long[oldKeys.length * 2];
+    lengths = new int[oldKeys.length * 2];
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (oldKeys[i] != EMPTY) {
+        int slot = find(oldKeys[i]);
+        keys[slot] = oldKeys[i];
+        fingerprints[slot] = oldFingerprints[i];
+        offsets[slot] = oldOffsets[i];
+        lengths[slot] = oldLengths[i];
+      }
+    }
+  }
+
+  /**
+   * FNV-1a hash of the record ID (0 marks the empty slots of the table)
+   */
+  private static long hash(String recordId) {
+    long hash = add(FNV_OFFSET_BASIS, recordId);
+    return hash == EMPTY ? 1L : hash;
+  }
+
+  /**
+   * Keeps track of the number of bytes read
+   */
+  private static class CountingInputStream extends FilterInputStream {
+    private long position = 0;
+
+    CountingInputStream(InputStream in) {
+      super(in);
+    }
+
+    @Override
+    public int read() throws IOException {
+      int b = super.read();
+      if (b != -1)
+        position++;
+      return b;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+      int read = super.read(bytes, offset, length);
+      if (read > 0)
+        position += read;
+      return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+      long skipped = super.skip(n);
+      position += skipped;
+      return skipped;
+    }
+
+    long getPosition() {
+      return position;
+    }
+  }
+}
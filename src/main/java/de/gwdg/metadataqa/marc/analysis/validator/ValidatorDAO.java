@@ -4,13 +4,26 @@ import de.gwdg.metadataqa.marc.model.validation.ValidationError;
 import de.gwdg.metadataqa.marc.model.validation.ValidationErrorCategory;
 import de.gwdg.metadataqa.marc.model.validation.ValidationErrorType;
 
+import java.io.Serializable;
 import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
-public class ValidatorDAO {
+/**
+ * The counters of the validation. Each thread (or partition) can fill its own instance, and the instances
+ * can be merged. The error IDs are assigned in the order of the first occurrence of the errors, so after
+ * merging and renumbering the result is the same as if all records were processed by a single instance.
+ */
+public class ValidatorDAO implements Serializable {
+
+  private static final long serialVersionUID = 4139876342358424421L;
 
   private final Map<ValidationErrorCategory, Integer> categoryRecordCounter = new EnumMap<>(ValidationErrorCategory.class);
   private Map<String, Map<ValidationErrorCategory, Integer>> categoryRecordCounterGrouped = new HashMap<>();
@@ -28,6 +41,137 @@ public class ValidatorDAO {
   private final Map<Integer, Set<String>> errorCollector = new TreeMap<>();
   private final Map<ValidationErrorType, Integer> typeInstanceCounter = new EnumMap<>(ValidationErrorType.class);
   private final Map<String, Map<ValidationErrorType, Integer>> typeInstanceCounterGrouped = new HashMap<>();
+  private final Map<Integer, Integer> hashedIndex = new HashMap<>();
+  /**
+   * error ID -> position of the first occurrence: the record number in the upper 32 bits,
+   * and the ID assigned by the instance which met it first in the lower 32 bits
+   */
+  private final Map<Integer, Long> firstOccurrence = new HashMap<>();
+  private int nextErrorId = 1;
+
+  /**
+   * Returns the ID of the error. If the error has not been registered yet, it receives a new ID.
+   * @param error The validation error
+   * @param recordNumber The number of the record in which the error occured
+   * @return The error ID
+   */
+  public int registerError(ValidationError error, int recordNumber) {
+    if (!instanceBasedErrorCounter.containsKey(error)) {
+      int id = nextErrorId++;
+      hashedIndex.put(error.hashCode(), id);
+      firstOccurrence.put(id, ((long) recordNumber << 32) | id);
+      return id;
+    }
+    return hashedIndex.get(error.hashCode());
+  }
+
+  /**
+   * Returns the ID of an already registered error
+   * @param error The validation error
+   * @return The error ID or null if it is not registered
+   */
+  public Integer getErrorId(ValidationError error) {
+    return hashedIndex.get(error.hashCode());
+  }
+
+  /**
+   * Merges the counters of another instance into this one. The errors which are not yet known by this
+   * instance receive new IDs.
+   * @param other The other instance
+   * @return The mapping from the error IDs of the other instance to the IDs of this instance
+   */
+  public Map<Integer, Integer> merge(ValidatorDAO other) {
+    Map<Integer, Integer> idMapping = new HashMap<>();
+    for (ValidationError error : other.instanceBasedErrorCounter.keySet()) {
+      int otherId = other.hashedIndex.get(error.hashCode());
+      Integer id = hashedIndex.get(error.hashCode());
+      if (id == null || !instanceBasedErrorCounter.containsKey(error)) {
+        id = nextErrorId++;
+        hashedIndex.put(error.hashCode(), id);
+      }
+      idMapping.put(otherId, id);
+      firstOccurrence.merge(id, other.firstOccurrence.get(otherId), Math::min);
+    }
+
+    mergeCounter(instanceBasedErrorCounter, other.instanceBasedErrorCounter, Function.identity());
+    mergeGroupedCounter(instanceBasedErrorCounterGrouped, other.instanceBasedErrorCounterGrouped, Function.identity(), HashMap::new);
+
+    mergeCounter(recordBasedErrorCounter, other.recordBasedErrorCounter, idMapping::get);
+    mergeGroupedCounter(recordBasedErrorCounterGrouped, other.recordBasedErrorCounterGrouped, idMapping::get, TreeMap::new);
+    for (Map.Entry<Integer, Set<String>> entry : other.errorCollector.entrySet())
+      errorCollector.computeIfAbsent(idMapping.get(entry.getKey()), s -> new HashSet<>()).addAll(entry.getValue());
+
+    mergeCounter(categoryRecordCounter, other.categoryRecordCounter, Function.identity());
+    mergeGroupedCounter(categoryRecordCounterGrouped, other.categoryRecordCounterGrouped, Function.identity(), TreeMap::new);
+    mergeCounter(typeRecordCounter, other.typeRecordCounter, Function.identity());
+    mergeGroupedCounter(typeRecordCounterGrouped, other.typeRecordCounterGrouped, Function.identity(), TreeMap::new);
+    mergeCounter(totalRecordCounter, other.totalRecordCounter, Function.identity());
+    mergeGroupedCounter(totalRecordCounterGrouped, other.totalRecordCounterGrouped, Function.identity(), TreeMap::new);
+    mergeCounter(categoryInstanceCounter, other.categoryInstanceCounter, Function.identity());
+    mergeGroupedCounter(categoryInstanceCounterGrouped, other.categoryInstanceCounterGrouped, Function.identity(), TreeMap::new);
+    mergeCounter(typeInstanceCounter, other.typeInstanceCounter, Function.identity());
+    mergeGroupedCounter(typeInstanceCounterGrouped, other.typeInstanceCounterGrouped, Function.identity(), TreeMap::new);
+    mergeCounter(totalInstanceCounter, other.totalInstanceCounter, Function.identity());
+
+    updateErrorIds();
+    return idMapping;
+  }
+
+  /**
+   * Reassigns the error IDs in the order of the first occurrence of the errors, which is the order
+   * a single instance would have been assigned them.
+   * @return The mapping from the old IDs to the new IDs
+   */
+  public Map<Integer, Integer> renumberErrors() {
+    List<Integer> ids = firstOccurrence.entrySet()
+      .stream()
+      .sorted(Map.Entry.comparingByValue())
+      .map(Map.Entry::getKey)
+      .collect(Collectors.toList());
+    Map<Integer, Integer> idMapping = new HashMap<>();
+    for (int i = 0; i < ids.size(); i++)
+      idMapping.put(ids.get(i), i + 1);
+
+    Map<Integer, Long> occurrences = new HashMap<>(firstOccurrence);
+    firstOccurrence.clear();
+    occurrences.forEach((id, position) -> firstOccurrence.put(idMapping.get(id), position));
+    hashedIndex.replaceAll((hash, id) -> idMapping.get(id));
+
+    renumber(recordBasedErrorCounter, idMapping, HashMap::new);
+    for (Map<Integer, Integer> counter : recordBasedErrorCounterGrouped.values())
+      renumber(counter, idMapping, TreeMap::new);
+    renumber(errorCollector, idMapping, TreeMap::new);
+
+    updateErrorIds();
+    return idMapping;
+  }
+
+  private void updateErrorIds() {
+    for (ValidationError error : instanceBasedErrorCounter.keySet())
+      error.setId(hashedIndex.get(error.hashCode()));
+    for (Map<ValidationError, Integer> counter : instanceBasedErrorCounterGrouped.values())
+      for (ValidationError error : counter.keySet())
+        error.setId(hashedIndex.get(error.hashCode()));
+  }
+
+  private static <T> void renumber(Map<Integer, T> map, Map<Integer, Integer> idMapping, Supplier<Map<Integer, T>> mapFactory) {
+    Map<Integer, T> renumbered = mapFactory.get();
+    map.forEach((id, value) -> renumbered.put(idMapping.get(id), value));
+    map.clear();
+    map.putAll(renumbered);
+  }
+
+  private static <T> void mergeCounter(Map<T, Integer> counter, Map<T, Integer> other, Function<T, T> keyMapping) {
+    other.forEach((key, value) -> counter.merge(keyMapping.apply(key), value, Integer::sum));
+  }
+
+  private static <T> void mergeGroupedCounter(Map<String, Map<T, Integer>> counter,
+                                              Map<String, Map<T, Integer>> other,
+                                              Function<T, T> keyMapping,
+                                              Supplier<Map<T, Integer>> mapFactory) {
+    for (Map.Entry<String, Map<T, Integer>> entry : other.entrySet())
+      mergeCounter(counter.computeIfAbsent(entry.getKey(), s -> mapFactory.get()), entry.getValue(), keyMapping);
+  }
 
   public Map<ValidationErrorCategory, Integer> getCategoryRecordCounter() {
     return categoryRecordCounter;
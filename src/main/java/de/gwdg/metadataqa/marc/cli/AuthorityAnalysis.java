@@ -11,6 +11,7 @@ import de.gwdg.metadataqa.marc.cli.parameters.CommonParameters;
 import de.gwdg.metadataqa.marc.cli.parameters.ValidatorParameters;
 import de.gwdg.metadataqa.marc.cli.processor.BibliographicInputProcessor;
 import de.gwdg.metadataqa.marc.cli.utils.RecordIterator;
+import de.gwdg.metadataqa.marc.cli.utils.RecordPrefilter;
 import de.gwdg.metadataqa.marc.cli.utils.Schema;
 import de.gwdg.metadataqa.marc.dao.record.BibliographicRecord;
 import de.gwdg.metadataqa.marc.model.validation.ValidationError;
@@ -49,7 +50,6 @@ public class AuthorityAnalysis extends QACli<ValidatorParameters> implements Bib
   public AuthorityAnalysis(String[] args) throws ParseException {
     parameters = new ValidatorParameters(args);
     readyToProcess = true;
-    Schema.resetIdCounter();
   }
 
   public static void main(String[] args) {
@@ -349,4 +349,9 @@ public class AuthorityAnalysis extends QACli<ValidatorParameters> implements Bib
   public boolean readyToProcess() {
     return readyToProcess;
   }
+
+  @Override
+  public RecordPrefilter getPrefilter() {
+    return RecordPrefilter.create(parameters.getRecordIgnorator());
+  }
 }
@@ -4,17 +4,16 @@ import de.gwdg.metadataqa.marc.analysis.BLClassifier;
 import de.gwdg.metadataqa.marc.cli.parameters.CommonParameters;
 import de.gwdg.metadataqa.marc.cli.processor.BibliographicInputProcessor;
 import de.gwdg.metadataqa.marc.cli.utils.RecordIterator;
+import de.gwdg.metadataqa.marc.cli.utils.RecordPrefilter;
 import de.gwdg.metadataqa.marc.dao.record.BibliographicRecord;
 import de.gwdg.metadataqa.marc.model.validation.ValidationError;
 import org.apache.commons.cli.Options;
 import org.apache.commons.cli.ParseException;
-import org.apache.commons.io.FileUtils;
 import org.marc4j.marc.Record;
 
 import java.io.File;
 import java.io.IOException;
 import java.io.Serializable;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
@@ -93,11 +92,7 @@ public class BLClassificationAnalysis extends QACli<CommonParameters> implements
   }
 
   private void print(String message) {
-    try {
-      FileUtils.writeStringToFile(output, message, StandardCharsets.UTF_8, true);
-    } catch (IOException e) {
-      logger.log(Level.WARNING, "print", e);
-    }
+    printToFile(output, message);
   }
 
   @Override
@@ -128,6 +123,7 @@ public class BLClassificationAnalysis extends QACli<CommonParameters> implements
   public void afterIteration(int numberOfprocessedRecords, long duration) {
     saveParameters("bl-classifications.params.json", parameters, Map.of("numberOfprocessedRecords", numberOfprocessedRecords, "duration", duration));
     logger.info("after iteration: " + numberOfprocessedRecords);
+    closeReportWriters();
   }
 
   @Override
@@ -139,4 +135,9 @@ public class BLClassificationAnalysis extends QACli<CommonParameters> implements
   public boolean readyToProcess() {
     return readyToProcess;
   }
+
+  @Override
+  public RecordPrefilter getPrefilter() {
+    return RecordPrefilter.create(parameters.getRecordIgnorator());
+  }
 }
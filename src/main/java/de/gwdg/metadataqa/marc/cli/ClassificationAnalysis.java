@@ -11,6 +11,7 @@ import de.gwdg.metadataqa.marc.cli.parameters.CommonParameters;
 import de.gwdg.metadataqa.marc.cli.processor.BibliographicInputProcessor;
 import de.gwdg.metadataqa.marc.cli.utils.Collocation;
 import de.gwdg.metadataqa.marc.cli.utils.RecordIterator;
+import de.gwdg.metadataqa.marc.cli.utils.RecordPrefilter;
 import de.gwdg.metadataqa.marc.cli.utils.Schema;
 import de.gwdg.metadataqa.marc.dao.record.BibliographicRecord;
 import de.gwdg.metadataqa.marc.model.validation.ValidationError;
@@ -50,7 +51,6 @@ public class ClassificationAnalysis extends QACli<ClassificationParameters> impl
     parameters = new ClassificationParameters(args);
     options = parameters.getOptions();
     readyToProcess = true;
-    Schema.resetIdCounter();
   }
 
   public static void main(String[] args) {
@@ -147,6 +147,7 @@ public class ClassificationAnalysis extends QACli<ClassificationParameters> impl
       printClassificationsCollocation();
     copySchemaFileToOutputDir();
     saveParameters("classifications.params.json", parameters, Map.of("numberOfprocessedRecords", numberOfprocessedRecords, "duration", duration));
+    closeReportWriters();
   }
 
   private void copySchemaFileToOutputDir() {
@@ -374,4 +375,9 @@ public class ClassificationAnalysis extends QACli<ClassificationParameters> impl
   public ClassificationStatistics getStatistics() {
     return statistics;
   }
+
+  @Override
+  public RecordPrefilter getPrefilter() {
+    return RecordPrefilter.create(parameters.getRecordIgnorator());
+  }
 }
@@ -10,10 +10,13 @@ import de.gwdg.metadataqa.marc.cli.parameters.CompletenessParameters;
 import de.gwdg.metadataqa.marc.cli.plugin.CompletenessFactory;
 import de.gwdg.metadataqa.marc.cli.plugin.CompletenessPlugin;
 import de.gwdg.metadataqa.marc.cli.processor.BibliographicInputProcessor;
+import de.gwdg.metadataqa.marc.cli.utils.ArrowTableWriter;
 import de.gwdg.metadataqa.marc.cli.utils.RecordIterator;
+import de.gwdg.metadataqa.marc.cli.utils.RecordPrefilter;
 import de.gwdg.metadataqa.marc.cli.utils.ignorablerecords.RecordFilter;
 import de.gwdg.metadataqa.marc.cli.utils.ignorablerecords.RecordIgnorator;
 import de.gwdg.metadataqa.marc.dao.record.BibliographicRecord;
+import de.gwdg.metadataqa.marc.datastore.MarcSQLiteClient;
 import de.gwdg.metadataqa.marc.definition.tags.TagCategory;
 import de.gwdg.metadataqa.marc.model.validation.ValidationError;
 import de.gwdg.metadataqa.marc.model.validation.ValidationErrorFormat;
@@ -25,6 +28,7 @@ import org.apache.commons.cli.ParseException;
 import org.marc4j.marc.Record;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.io.Serializable;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -48,6 +52,7 @@ public class Completeness extends QACli<CompletenessParameters> implements Bibli
   private CompletenessPlugin plugin;
   private RecordFilter recordFilter;
   private RecordIgnorator recordIgnorator;
+  private transient MarcSQLiteClient.TableLoader marcElementsLoader;
 
   public Completeness(String[] args) throws ParseException {
     parameters = new CompletenessParameters(args);
@@ -118,25 +123,12 @@ public class Completeness extends QACli<CompletenessParameters> implements Bibli
       for (String id : recordCompleteness.getGroupIds())
         Utils.count(id, completenessDAO.getGroupCounter());
 
-    for (String path : recordCompleteness.getRecordFrequency().keySet()) {
-      if (groupBy != null) {
-        for (String groupId : recordCompleteness.getGroupIds()) {
-          completenessDAO.getGroupedElementFrequency().computeIfAbsent(groupId, s -> new HashMap<>());
-          completenessDAO.getGroupedElementFrequency().get(groupId).computeIfAbsent(recordCompleteness.getDocumentType(), s -> new HashMap<>());
-          completenessDAO.getGroupedElementFrequency().get(groupId).computeIfAbsent(ALL_TYPE, s -> new HashMap<>());
-          Utils.count(path, completenessDAO.getGroupedElementFrequency().get(groupId).get(recordCompleteness.getDocumentType()));
-          Utils.count(path, completenessDAO.getGroupedElementFrequency().get(groupId).get(ALL_TYPE));
-
-          completenessDAO.getGroupedFieldHistogram().computeIfAbsent(groupId, s -> new HashMap<>());
-          completenessDAO.getGroupedFieldHistogram().get(groupId).computeIfAbsent(path, s -> new HashMap<>());
-          Utils.count(recordCompleteness.getRecordFrequency().get(path), completenessDAO.getGroupedFieldHistogram().get(groupId).get(path));
-        }
-      } else {
-        Utils.count(path, completenessDAO.getElementFrequency().get(recordCompleteness.getDocumentType()));
-        Utils.count(path, completenessDAO.getElementFrequency().get(ALL_TYPE));
-        completenessDAO.getFieldHistogram().computeIfAbsent(path, s -> new HashMap<>());
-        Utils.count(recordCompleteness.getRecordFrequency().get(path), completenessDAO.getFieldHistogram().get(path));
-      }
+    if (groupBy != null) {
+      for (String groupId : recordCompleteness.getGroupIds())
+        completenessDAO.countGroupedElementFrequency(groupId, recordCompleteness.getDocumentType(),
+          recordCompleteness.getRecordFrequencyCounter());
+    } else {
+      completenessDAO.countElementFrequency(recordCompleteness.getDocumentType(), recordCompleteness.getRecordFrequencyCounter());
     }
 
     for (String key : recordCompleteness.getRecordPackageCounter().keySet()) {
@@ -160,6 +152,8 @@ public class Completeness extends QACli<CompletenessParameters> implements Bibli
   @Override
   public void beforeIteration() {
     logger.info(parameters.formatParameters());
+    if (parameters.isArrow())
+      ArrowTableWriter.checkAvailability();
     completenessDAO.initialize();
   }
 
@@ -181,6 +175,8 @@ public class Completeness extends QACli<CompletenessParameters> implements Bibli
       fileExtension = ".tsv";
     }
 
+    MarcSQLiteClient sqliteClient = parameters.isSqlite() ? initializeSqlite() : null;
+
     saveLibraries003(fileExtension, separator);
     saveLibraries(fileExtension, separator);
     if (groupBy != null) {
@@ -191,7 +187,38 @@ public class Completeness extends QACli<CompletenessParameters> implements Bibli
       savePackages(fileExtension, separator);
       saveMarcElements(fileExtension, separator);
     }
+
+    if (sqliteClient != null)
+      finishSqlite(sqliteClient);
     saveParameters("completeness.params.json", parameters, Map.of("numberOfprocessedRecords", numberOfprocessedRecords, "duration", duration));
+    closeReportWriters();
+  }
+
+  /**
+   * Creates the marc_elements table of scripts/sqlite/completeness.sqlite.sh, which receives the rows of
+   * marc-elements.csv (or completeness-grouped-marc-elements.csv)
+   */
+  private MarcSQLiteClient initializeSqlite() {
+    MarcSQLiteClient sqliteClient = MarcSQLiteClient.open(
+      Paths.get(parameters.getOutputDir(), MarcSQLiteClient.DEFAULT_FILE_NAME).toString());
+    sqliteClient.createTable("marc_elements",
+      "\"groupId\" INTEGER", "\"documenttype\" TEXT", "\"path\" TEXT", "\"sortkey\" TEXT",
+      "\"packageid\" INTEGER", "\"package\" TEXT", "\"tag\" TEXT", "\"subfield\" TEXT",
+      "\"number-of-record\" INTEGER", "\"number-of-instances\" INTEGER", "\"min\" INTEGER", "\"max\" INTEGER",
+      "\"mean\" REAL", "\"stddev\" REAL", "\"histogram\" TEXT");
+    marcElementsLoader = sqliteClient.createLoader("marc_elements",
+      "groupId", "documenttype", "path", "sortkey", "packageid", "package", "tag", "subfield",
+      "number-of-record", "number-of-instances", "min", "max", "mean", "stddev", "histogram");
+    return sqliteClient;
+  }
+
+  private void finishSqlite(MarcSQLiteClient sqliteClient) {
+    sqliteClient.commit();
+    sqliteClient.createIndex("gme_groupId", "marc_elements", "groupId");
+    sqliteClient.createIndex("gme_documenttype", "marc_elements", "documenttype");
+    sqliteClient.createIndex("gme_sortkey", "marc_elements", "sortkey");
+    sqliteClient.close();
+    marcElementsLoader = null;
   }
 
   private void saveLibraries003(String fileExtension, char separator) {
@@ -213,6 +240,7 @@ public class Completeness extends QACli<CompletenessParameters> implements Bibli
 
   private void saveMarcElements(String fileExtension, char separator) {
     Path path = Paths.get(parameters.getOutputDir(), "marc-elements" + fileExtension);
+    ArrowTableWriter table = parameters.isArrow() ? createElementTable() : null;
     try (var writer = Files.newBufferedWriter(path)) {
       writer.write(CsvUtils.createCsv(
         "groupId", "documenttype", "path", "sortkey", "packageid", "package", "tag", "subfield",
@@ -222,7 +250,12 @@ public class Completeness extends QACli<CompletenessParameters> implements Bibli
       completenessDAO.getElementCardinality().forEach((documentType, cardinalities) ->
         cardinalities.forEach((marcPath, cardinality) -> {
           try {
-            writer.write(formatCardinality(marcPath, cardinality, documentType, null));
+            List<Object> values = extractCardinality(marcPath, cardinality, documentType, null);
+            writer.write(CsvUtils.createCsvFromObjects(values));
+            if (table != null)
+              table.addRow(values.toArray());
+            if (marcElementsLoader != null)
+              marcElementsLoader.add(values.toArray());
           } catch (IOException e) {
             logger.log(Level.SEVERE, "saveMarcElements", e);
           }
@@ -231,11 +264,21 @@ public class Completeness extends QACli<CompletenessParameters> implements Bibli
     } catch (IOException e) {
       logger.log(Level.SEVERE, "saveMarcElements", e);
     }
+
+    if (table != null) {
+      saveArrow(table, "marc-elements");
+      ArrowTableWriter histogramTable = createHistogramTable();
+      completenessDAO.getFieldHistogram().forEach((marcPath, histogram) ->
+        histogram.forEach((count, frequency) -> histogramTable.addRow(0, marcPath, count, frequency))
+      );
+      saveArrow(histogramTable, "marc-elements-histogram");
+    }
   }
 
   private void saveGroupedMarcElements(String fileExtension, char separator) {
     logger.info("saving grouped MARC elements...");
     Path path = Paths.get(parameters.getOutputDir(), "completeness-grouped-marc-elements" + fileExtension);
+    ArrowTableWriter table = parameters.isArrow() ? createElementTable() : null;
     try (var writer = Files.newBufferedWriter(path)) {
       writer.write(CsvUtils.createCsv(
         "groupId", "documenttype", "path", "sortkey", "packageid", "package", "tag", "subfield",
@@ -246,7 +289,12 @@ public class Completeness extends QACli<CompletenessParameters> implements Bibli
         documentTypes.forEach((documentType, cardinalities) ->
           cardinalities.forEach((marcPath, cardinality) -> {
             try {
-              writer.write(formatCardinality(marcPath, cardinality, documentType, groupId));
+              List<Object> values = extractCardinality(marcPath, cardinality, documentType, groupId);
+              writer.write(CsvUtils.createCsvFromObjects(values));
+              if (table != null)
+                table.addRow(values.toArray());
+              if (marcElementsLoader != null)
+                marcElementsLoader.add(values.toArray());
             } catch (IOException e) {
               logger.log(Level.SEVERE, "saveMarcElements", e);
             }
@@ -256,11 +304,79 @@ public class Completeness extends QACli<CompletenessParameters> implements Bibli
     } catch (IOException e) {
       logger.log(Level.SEVERE, "saveMarcElements", e);
     }
+
+    if (table != null) {
+      saveArrow(table, "completeness-grouped-marc-elements");
+      ArrowTableWriter histogramTable = createHistogramTable();
+      completenessDAO.getGroupedFieldHistogram().forEach((groupId, paths) ->
+        paths.forEach((marcPath, histogram) ->
+          histogram.forEach((count, frequency) -> histogramTable.addRow(groupId, marcPath, count, frequency))
+        )
+      );
+      saveArrow(histogramTable, "completeness-grouped-marc-elements-histogram");
+    }
+  }
+
+  private ArrowTableWriter createElementTable() {
+    return new ArrowTableWriter()
+      .addDictionaryColumn("groupId")
+      .addDictionaryColumn("documenttype")
+      .addDictionaryColumn("path")
+      .addDictionaryColumn("sortkey")
+      .addIntColumn("packageid")
+      .addDictionaryColumn("package")
+      .addDictionaryColumn("tag")
+      .addDictionaryColumn("subfield")
+      .addIntColumn("number-of-record")
+      .addIntColumn("number-of-instances")
+      .addIntColumn("min")
+      .addIntColumn("max")
+      .addDoubleColumn("mean")
+      .addDoubleColumn("stddev")
+      .addStringColumn("histogram");
+  }
+
+  /**
+   * The histogram of the number of field instances per record in long format: how many records (frequency)
+   * have a given number of instances (count) of a path
+   */
+  private ArrowTableWriter createHistogramTable() {
+    return new ArrowTableWriter()
+      .addDictionaryColumn("groupId")
+      .addDictionaryColumn("path")
+      .addIntColumn("count")
+      .addIntColumn("frequency");
+  }
+
+  private ArrowTableWriter createPackageTable(boolean grouped) {
+    ArrowTableWriter table = new ArrowTableWriter();
+    if (grouped)
+      table.addDictionaryColumn("group");
+    return table
+      .addDictionaryColumn("documenttype")
+      .addIntColumn("packageid")
+      .addDictionaryColumn("name")
+      .addDictionaryColumn("label")
+      .addBooleanColumn("iscoretag")
+      .addIntColumn("count");
+  }
+
+  private void saveArrow(ArrowTableWriter table, String fileName) {
+    Path path = Paths.get(parameters.getOutputDir(), fileName + ".arrow");
+    try {
+      table.write(path);
+    } catch (IOException e) {
+      throw new UncheckedIOException("The Arrow file " + path + " could not be written", e);
+    } catch (RuntimeException | LinkageError e) {
+      // Arrow fails to initialize if Java has been started without --add-opens=java.base/java.nio=ALL-UNNAMED
+      throw new IllegalStateException(ArrowTableWriter.INITIALIZATION_ERROR, e);
+    }
   }
 
   private void savePackages(String fileExtension, char separator) {
     logger.info("saving packages...");
     var path = Paths.get(parameters.getOutputDir(), "packages" + fileExtension);
+    ArrowTableWriter table = parameters.isArrow() ? createPackageTable(false) : null;
     try (var writer = Files.newBufferedWriter(path)) {
       writer.write(CsvUtils.createCsv("documenttype", "packageid", "name", "label", "iscoretag", "count"));
       completenessDAO.getPackageCounter().forEach((documentType, packages) ->
@@ -280,6 +396,8 @@ public class Completeness extends QACli<CompletenessParameters> implements Bibli
               logger.severe(packageName + " has not been found in TagCategory");
             }
             writer.write(CsvUtils.createCsv(documentType, id, range, label, isPartOfMarcScore, count));
+            if (table != null)
+              table.addRow(documentType, id, range, label, isPartOfMarcScore, count);
           } catch (IOException e) {
             logger.log(Level.SEVERE, "savePackages", e);
           }
@@ -288,11 +406,14 @@ public class Completeness extends QACli<CompletenessParameters> implements Bibli
     } catch (IOException e) {
       logger.log(Level.SEVERE, "savePackages", e);
     }
+    if (table != null)
+      saveArrow(table, "packages");
   }
 
   private void saveGroupedPackages(String fileExtension, char separator) {
     logger.info("saving grouped packages...");
     var path = Paths.get(parameters.getOutputDir(), "completeness-grouped-packages" + fileExtension);
+    ArrowTableWriter table = parameters.isArrow() ? createPackageTable(true) : null;
     try (var writer = Files.newBufferedWriter(path)) {
       writer.write(CsvUtils.createCsv("group", "documenttype", "packageid", "name", "label", "iscoretag", "count"));
       completenessDAO.getGroupedPackageCounter()
@@ -326,6 +447,8 @@ public class Completeness extends QACli<CompletenessParameters> implements Bibli
                     logger.severe(packageName + " has not been found in TagCategory");
                   }
                   writer.write(CsvUtils.createCsv(groupId, documentType, id, range, label, isPartOfMarcScore, count));
+                  if (table != null)
+                    table.addRow(groupId, documentType, id, range, label, isPartOfMarcScore, count);
                 } catch (IOException e) {
                   logger.log(Level.SEVERE, "savePackages", e);
                 }
@@ -335,6 +458,8 @@ public class Completeness extends QACli<CompletenessParameters> implements Bibli
     } catch (IOException e) {
       logger.log(Level.SEVERE, "savePackages", e);
     }
+    if (table != null)
+      saveArrow(table, "completeness-grouped-packages");
   }
 
   private void saveLibraries(String fileExtension, char separator) {
@@ -376,7 +501,7 @@ public class Completeness extends QACli<CompletenessParameters> implements Bibli
     }
   }
 
-  private String formatCardinality(String marcPath,
+  private List<Object> extractCardinality(String marcPath,
                                    int cardinality,
                                    String documentType,
                                    String groupId) {
@@ -429,7 +554,7 @@ public class Completeness extends QACli<CompletenessParameters> implements Bibli
       statistics.formatHistogram()
     );
 
-    return CsvUtils.createCsvFromObjects(values);
+    return values;
   }
 
   private char getSeparator(ValidationErrorFormat format) {
@@ -451,4 +576,9 @@ public class Completeness extends QACli<CompletenessParameters> implements Bibli
   public boolean readyToProcess() {
     return readyToProcess;
   }
+
+  @Override
+  public RecordPrefilter getPrefilter() {
+    return RecordPrefilter.create(recordFilter, recordIgnorator);
+  }
 }
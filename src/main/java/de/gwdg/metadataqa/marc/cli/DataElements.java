@@ -5,20 +5,20 @@ import de.gwdg.metadataqa.marc.cli.parameters.CommonParameters;
 import de.gwdg.metadataqa.marc.cli.parameters.CompletenessParameters;
 import de.gwdg.metadataqa.marc.cli.processor.BibliographicInputProcessor;
 import de.gwdg.metadataqa.marc.cli.utils.RecordIterator;
+import de.gwdg.metadataqa.marc.cli.utils.RecordPrefilter;
+import de.gwdg.metadataqa.marc.cli.utils.ReportWriter;
 import de.gwdg.metadataqa.marc.dao.record.BibliographicRecord;
 import de.gwdg.metadataqa.marc.model.validation.ValidationError;
 import de.gwdg.metadataqa.marc.model.validation.ValidationErrorFormat;
 import org.apache.commons.cli.HelpFormatter;
 import org.apache.commons.cli.Options;
 import org.apache.commons.cli.ParseException;
-import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.marc4j.marc.Record;
 
 import java.io.File;
 import java.io.IOException;
 import java.io.Serializable;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.HashMap;
@@ -45,6 +45,7 @@ public class DataElements implements BibliographicInputProcessor, Serializable {
   private boolean readyToProcess;
   private DataElementCounter dataElementCounter;
   private File outputFile;
+  private final transient ReportWriter reportWriter = new ReportWriter();
 
   public DataElements(String[] args) throws ParseException {
     parameters = new CompletenessParameters(args);
@@ -126,12 +127,12 @@ public class DataElements implements BibliographicInputProcessor, Serializable {
 
   @Override
   public void afterIteration(int numberOfprocessedRecords, long duration) {
-    // do nothing
+    reportWriter.close();
   }
 
   private void printToFile(File file, String message) {
     try {
-      FileUtils.writeStringToFile(file, message, StandardCharsets.UTF_8, true);
+      reportWriter.print(file, message);
     } catch (IOException e) {
       if (parameters.doLog())
         logger.log(Level.SEVERE, "printToFile", e);
@@ -157,4 +158,14 @@ public class DataElements implements BibliographicInputProcessor, Serializable {
   public boolean readyToProcess() {
     return readyToProcess;
   }
+
+  @Override
+  public boolean needsMarc4jRecord() {
+    return false;
+  }
+
+  @Override
+  public RecordPrefilter getPrefilter() {
+    return RecordPrefilter.create(parameters.getRecordIgnorator());
+  }
 }
@@ -11,6 +11,7 @@ import de.gwdg.metadataqa.marc.analysis.functional.UnimarcFunctionalAnalyzer;
 import de.gwdg.metadataqa.marc.cli.parameters.CompletenessParameters;
 import de.gwdg.metadataqa.marc.cli.processor.BibliographicInputProcessor;
 import de.gwdg.metadataqa.marc.cli.utils.RecordIterator;
+import de.gwdg.metadataqa.marc.cli.utils.RecordPrefilter;
 import de.gwdg.metadataqa.marc.dao.record.BibliographicRecord;
 import de.gwdg.metadataqa.marc.definition.FRBRFunction;
 import de.gwdg.metadataqa.marc.model.validation.ValidationError;
@@ -251,4 +252,8 @@ public class FunctionalAnalysis extends QACli<CompletenessParameters> implements
     return analyzer;
   }
 
+  @Override
+  public RecordPrefilter getPrefilter() {
+    return RecordPrefilter.create(parameters.getRecordIgnorator());
+  }
 }
@@ -4,9 +4,12 @@ import de.gwdg.metadataqa.marc.cli.parameters.CommonParameters;
 import de.gwdg.metadataqa.marc.cli.parameters.MarcToSolrParameters;
 import de.gwdg.metadataqa.marc.cli.processor.BibliographicInputProcessor;
 import de.gwdg.metadataqa.marc.cli.utils.RecordIterator;
+import de.gwdg.metadataqa.marc.cli.utils.RecordPrefilter;
 import de.gwdg.metadataqa.marc.dao.DataField;
 import de.gwdg.metadataqa.marc.dao.record.BibliographicRecord;
 import de.gwdg.metadataqa.marc.datastore.MarcSolrClient;
+import de.gwdg.metadataqa.marc.datastore.RecordFingerprintStore;
+import de.gwdg.metadataqa.marc.datastore.SolrUpdateException;
 import de.gwdg.metadataqa.marc.definition.bibliographic.SchemaType;
 import de.gwdg.metadataqa.marc.definition.general.indexer.FieldIndexer;
 import de.gwdg.metadataqa.marc.model.validation.ValidationError;
@@ -27,10 +30,12 @@ import java.io.IOException;
 import java.io.Serializable;
 import java.nio.file.Path;
 import java.text.DecimalFormat;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
@@ -52,6 +57,12 @@ public class MarcToSolr extends QACli<MarcToSolrParameters> implements Bibliogra
   private DecimalFormat decimalFormat = new DecimalFormat();
   private FieldIndexer groupIndexer;
   private Map<String, String> escapedTagCache = new HashMap<>();
+  private List<SolrInputDocument> batch = new ArrayList<>();
+  private List<String> batchIds = new ArrayList<>();
+  private RecordFingerprintStore fingerprints;
+  private boolean indexingFailed = false;
+  private int deletedRecords = 0;
+  private int failedRecords = 0;
 
   public MarcToSolr(String[] args) throws ParseException {
     parameters = new MarcToSolrParameters(args);
@@ -70,6 +81,7 @@ public class MarcToSolr extends QACli<MarcToSolrParameters> implements Bibliogra
       : new MarcSolrClient(parameters.getSolrUrl());
     client.setTrimId(parameters.getTrimId());
     client.indexWithTokenizedField(parameters.indexWithTokenizedField());
+    client.setMaxInFlightRequests(parameters.getMaxInFlightRequests());
     if (parameters.getFieldPrefix() != null)
       client.setFieldPrefix(parameters.getFieldPrefix());
     if (parameters.getSolrForScoresUrl() != null) {
@@ -129,22 +141,22 @@ public class MarcToSolr extends QACli<MarcToSolrParameters> implements Bibliogra
       for (DataField groupField : bibliographicRecord.getDatafieldsByTag(((PicaPath) groupBy).getTag()))
         groupField.addFieldIndexer(groupIndexer);
 
-    Map<String, List<String>> map = bibliographicRecord.getKeyValuePairs(
-      parameters.getSolrFieldType(), true, parameters.getMarcVersion()
-    );
-    map.put("record_sni", Arrays.asList(bibliographicRecord.asJson()));
-    SolrInputDocument solrDocument = client.createSolrDoc(bibliographicRecord.getId(), map);
-    if (validationClient != null)
-      indexValidationResults(bibliographicRecord, solrDocument);
-
-    if (parameters.indexFieldCounts())
-      indexFieldCounts(bibliographicRecord, solrDocument);
-
-    client.index(solrDocument);
+    String json = bibliographicRecord.asJson();
+    if (fingerprints == null || isNewOrChanged(bibliographicRecord, json)) {
+      try {
+        addToBatch(bibliographicRecord, json);
+      } catch (RuntimeException e) {
+        indexingFailed = true;
+        throw e;
+      }
+    }
 
     if (recordNumber % parameters.getCommitAt() == 0) {
-      if (parameters.doCommit())
+      if (parameters.doCommit()) {
+        indexBatch();
+        finishPendingUpdates();
         client.commit();
+      }
       logger.info(
         String.format(
           "%s/%s (%s)",
@@ -156,11 +168,82 @@ public class MarcToSolr extends QACli<MarcToSolrParameters> implements Bibliogra
     }
   }
 
-  private void indexValidationResults(BibliographicRecord bibliographicRecord, SolrInputDocument document) {
-    SolrDocument validationValues = validationClient.get(bibliographicRecord.getId());
-    if (validationValues != null && !validationValues.isEmpty())
-      for (String field : validationValues.getFieldNames())
-        document.addField(field, validationValues.getFieldValues(field));
+  /**
+   * Records the fingerprint of the record (the hash of its JSON representation) in the incremental mode.
+   * @return false if the record has been indexed with the same fingerprint in the previous run
+   */
+  private boolean isNewOrChanged(BibliographicRecord bibliographicRecord, String json) throws IOException {
+    RecordFingerprintStore.Status status = fingerprints.check(
+      client.getDocumentId(bibliographicRecord.getId()), RecordFingerprintStore.fingerprint(String.valueOf(json))
+    );
+    return status != RecordFingerprintStore.Status.UNCHANGED;
+  }
+
+  private void addToBatch(BibliographicRecord bibliographicRecord, String json) {
+    Map<String, List<String>> map = bibliographicRecord.getKeyValuePairs(
+      parameters.getSolrFieldType(), true, parameters.getMarcVersion()
+    );
+    map.put("record_sni", Arrays.asList(json));
+    SolrInputDocument solrDocument = client.createSolrDoc(bibliographicRecord.getId(), map);
+    if (parameters.indexFieldCounts())
+      indexFieldCounts(bibliographicRecord, solrDocument);
+
+    batch.add(solrDocument);
+    batchIds.add(bibliographicRecord.getId());
+    if (batch.size() >= parameters.getBatchSize())
+      indexBatch();
+  }
+
+  /**
+   * Adds the validation results to the collected documents and sends them to Solr in the background
+   */
+  private void indexBatch() {
+    if (batch.isEmpty())
+      return;
+
+    try {
+      if (validationClient != null)
+        indexValidationResults();
+
+      client.indexAsync(batch);
+    } catch (RuntimeException e) {
+      indexingFailed = true;
+      throw e;
+    }
+    batch = new ArrayList<>();
+    batchIds = new ArrayList<>();
+    for (SolrUpdateException failure : client.takeAsyncFailures())
+      reportFailedBatch(failure);
+  }
+
+  /**
+   * Waits for the batches sent in the background, and reports the failed ones
+   */
+  private void finishPendingUpdates() {
+    client.awaitPendingUpdates();
+    for (SolrUpdateException failure : client.takeAsyncFailures())
+      reportFailedBatch(failure);
+  }
+
+  /**
+   * Some records of a batch sent in the background have not been indexed. The run goes on, but the failed records
+   * are counted, and the fingerprint file is not updated. The message of the failure contains the number of the
+   * records and the first few IDs.
+   */
+  private void reportFailedBatch(SolrUpdateException failure) {
+    indexingFailed = true;
+    failedRecords += failure.getDocumentIds().size();
+    logger.log(Level.SEVERE, failure.getMessage(), failure.getCause());
+  }
+
+  private void indexValidationResults() {
+    Map<String, SolrDocument> validationDocuments = validationClient.get(batchIds);
+    for (int i = 0; i < batch.size(); i++) {
+      SolrDocument validationValues = validationDocuments.get(batchIds.get(i));
+      if (validationValues != null && !validationValues.isEmpty())
+        for (String field : validationValues.getFieldNames())
+          batch.get(i).addField(field, validationValues.getFieldValues(field));
+    }
   }
 
   private void indexFieldCounts(BibliographicRecord bibliographicRecord, SolrInputDocument document) {
@@ -193,6 +276,79 @@ public class MarcToSolr extends QACli<MarcToSolrParameters> implements Bibliogra
     logger.info(parameters.formatParameters());
     parameters.setMainClient(null);
     parameters.setValidationClient(null);
+    if (parameters.isIncremental()) {
+      try {
+        fingerprints = RecordFingerprintStore.open(Path.of(parameters.getFingerprintFile()), getIndexConfiguration());
+      } catch (IOException e) {
+        logger.log(Level.SEVERE, "The incremental indexing could not be started", e);
+        readyToProcess = false;
+      }
+    }
+  }
+
+  /**
+   * The parameters which change the Solr documents of the same records. The validation results are copied into the
+   * documents, so a new validation run (a new version of the validation index) changes the configuration as well.
+   */
+  private String getIndexConfiguration() throws IOException {
+    return String.join("|",
+      String.valueOf(parameters.getSchemaType()),
+      String.valueOf(parameters.getMarcVersion()),
+      String.valueOf(parameters.getSolrFieldType()),
+      String.valueOf(parameters.getFieldPrefix()),
+      String.valueOf(parameters.indexWithTokenizedField()),
+      String.valueOf(parameters.indexFieldCounts()),
+      String.valueOf(parameters.getGroupBy()),
+      String.valueOf(parameters.getTrimId()),
+      String.valueOf(parameters.getSolrForScoresUrl()),
+      validationClient == null ? "" : validationClient.getIndexVersion()
+    );
+  }
+
+  /**
+   * The records of the previous run, which are not in the input anymore, are deleted, unless only a part of the
+   * input has been processed.
+   */
+  private void deleteRemovedRecords() {
+    if (isPartialRun())
+      return;
+
+    try {
+      List<String> removedIds = fingerprints.getRemovedIds();
+      for (int i = 0; i < removedIds.size(); i += parameters.getBatchSize())
+        client.deleteById(removedIds.subList(i, Math.min(removedIds.size(), i + parameters.getBatchSize())));
+      deletedRecords = removedIds.size();
+    } catch (IOException e) {
+      logger.log(Level.WARNING, "The removed records could not be read from the fingerprint file", e);
+      indexingFailed = true;
+    }
+  }
+
+  private boolean isPartialRun() {
+    return parameters.getLimit() > -1 || parameters.getOffset() > -1 || parameters.hasId();
+  }
+
+  private void saveFingerprints() {
+    logger.log(Level.INFO, "incremental indexing: {0} new, {1} changed, {2} unchanged, {3} deleted records",
+      new Object[]{fingerprints.getAdded(), fingerprints.getChanged(), fingerprints.getUnchanged(), deletedRecords});
+    if (indexingFailed) {
+      logger.warning("Some records have not been indexed, the fingerprint file is not updated");
+      return;
+    }
+    try {
+      fingerprints.save(isPartialRun());
+    } catch (IOException e) {
+      logger.log(Level.WARNING, "The fingerprint file could not be saved", e);
+    }
+  }
+
+  private void closeFingerprints() {
+    try {
+      fingerprints.close();
+    } catch (IOException e) {
+      logger.log(Level.WARNING, "closeFingerprints", e);
+    }
+    fingerprints = null;
   }
 
   @Override
@@ -206,7 +362,21 @@ public class MarcToSolr extends QACli<MarcToSolrParameters> implements Bibliogra
 
   @Override
   public void afterIteration(int numberOfprocessedRecords, long duration) {
-    client.commit();
+    try {
+      indexBatch();
+      finishPendingUpdates();
+      if (fingerprints != null)
+        deleteRemovedRecords();
+      client.commit();
+      client.shutdownUpdates();
+      if (failedRecords > 0)
+        logger.log(Level.SEVERE, "{0} records have not been indexed", failedRecords);
+      if (fingerprints != null)
+        saveFingerprints();
+    } finally {
+      if (fingerprints != null)
+        closeFingerprints();
+    }
     saveParameters("marctosolr.params.json", parameters, Map.of("numberOfprocessedRecords", numberOfprocessedRecords, "duration", duration));
   }
 
@@ -221,4 +391,9 @@ public class MarcToSolr extends QACli<MarcToSolrParameters> implements Bibliogra
   public boolean readyToProcess() {
     return readyToProcess;
   }
+
+  @Override
+  public RecordPrefilter getPrefilter() {
+    return RecordPrefilter.create(parameters.getRecordIgnorator());
+  }
 }
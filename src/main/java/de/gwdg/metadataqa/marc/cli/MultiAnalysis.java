@@ -0,0 +1,205 @@
+package de.gwdg.metadataqa.marc.cli;
+
+import de.gwdg.metadataqa.marc.cli.parameters.CommonParameters;
+import de.gwdg.metadataqa.marc.cli.parameters.MultiAnalysisParameters;
+import de.gwdg.metadataqa.marc.cli.processor.BibliographicInputProcessor;
+import de.gwdg.metadataqa.marc.cli.utils.RecordIterator;
+import de.gwdg.metadataqa.marc.cli.utils.RecordPrefilter;
+import de.gwdg.metadataqa.marc.dao.record.BibliographicRecord;
+import de.gwdg.metadataqa.marc.model.validation.ValidationError;
+import org.apache.commons.cli.HelpFormatter;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+import org.marc4j.marc.Record;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs several analyses in a single pass over the input: every record is read and transformed only once, and the
+ * BibliographicRecord is passed to all the analyses. Each analysis receives the common arguments and its own
+ * parameters (--analysisParams), and creates the same output files as when it runs alone.
+ *
+ * usage:
+ * java -cp qa-catalogue.jar de.gwdg.metadataqa.marc.cli.MultiAnalysis --analyses validate,completeness \
+ *   --analysisParams "validate=--details --summary" [common options] [file]
+ */
+public class MultiAnalysis implements BibliographicInputProcessor {
+
+  private static final Logger logger = Logger.getLogger(MultiAnalysis.class.getCanonicalName());
+
+  private final MultiAnalysisParameters parameters;
+  private final List<String> names = new ArrayList<>();
+  private final List<BibliographicInputProcessor> processors = new ArrayList<>();
+  private ValidatorCli validator;
+
+  public MultiAnalysis(String[] args) throws ParseException {
+    parameters = new MultiAnalysisParameters(args);
+    for (String analysis : parameters.getAnalyses()) {
+      BibliographicInputProcessor processor = createProcessor(analysis, parameters.getAnalysisArguments(analysis));
+      if (processor instanceof ValidatorCli)
+        validator = (ValidatorCli) processor;
+      // the next analysis decides from id-groupid.meta.txt whether it should create the id-groupid.csv file as well
+      if (processor instanceof QACli)
+        ((QACli<?>) processor).getReportWriter().flush();
+      names.add(analysis);
+      processors.add(processor);
+    }
+  }
+
+  public static void main(String[] args) {
+    MultiAnalysis processor = null;
+    try {
+      processor = new MultiAnalysis(args);
+    } catch (ParseException e) {
+      logger.severe("ERROR. " + e.getLocalizedMessage());
+      System.exit(1);
+    }
+    if (processor.getParameters().doHelp()) {
+      processor.printHelp(processor.getParameters().getOptions());
+      System.exit(0);
+    }
+    if (processor.getParameters().getArgs().length < 1) {
+      logger.severe("Please provide a MARC file name!");
+      processor.printHelp(processor.getParameters().getOptions());
+      System.exit(0);
+    }
+    if (processor.getProcessors().isEmpty()) {
+      logger.severe("Please provide the list of analyses with --analyses!");
+      processor.printHelp(processor.getParameters().getOptions());
+      System.exit(0);
+    }
+    RecordIterator iterator = new RecordIterator(processor);
+    iterator.setProcessWithEroors(processor.hasValidator());
+    iterator.start();
+  }
+
+  private static BibliographicInputProcessor createProcessor(String analysis, String[] args) throws ParseException {
+    switch (analysis) {
+      case "validate":                 return new ValidatorCli(args);
+      case "completeness":             return new Completeness(args);
+      case "classifications":          return new ClassificationAnalysis(args);
+      case "authorities":              return new AuthorityAnalysis(args);
+      case "tt-completeness":          return new ThompsonTraillCompleteness(args);
+      case "shelf-ready-completeness": return new ShelfReadyCompleteness(args);
+      case "bl-classification":        return new BLClassificationAnalysis(args);
+      case "serial-score":             return new SerialScore(args);
+      case "functional-analysis":      return new FunctionalAnalysis(args);
+      case "index":                    return new MarcToSolr(args);
+      default:
+        throw new ParseException(String.format("Unrecognized analysis: '%s'", analysis));
+    }
+  }
+
+  public List<BibliographicInputProcessor> getProcessors() {
+    return processors;
+  }
+
+  /**
+   * The validation needs the records having parsing errors as well, so if it is among the analyses the records
+   * are iterated with errors, and the other analyses receive only those records which they would receive alone.
+   * @return true if the validation is one of the analyses
+   */
+  public boolean hasValidator() {
+    return validator != null;
+  }
+
+  @Override
+  public CommonParameters getParameters() {
+    return parameters;
+  }
+
+  @Override
+  public boolean needsMarc4jRecord() {
+    for (BibliographicInputProcessor processor : processors)
+      if (processor.needsMarc4jRecord())
+        return true;
+    return false;
+  }
+
+  /**
+   * A record can be dropped before the transformation only if all the analyses would skip it.
+   * @return The common prefilter, or null
+   */
+  @Override
+  public RecordPrefilter getPrefilter() {
+    List<RecordPrefilter> prefilters = new ArrayList<>();
+    for (BibliographicInputProcessor processor : processors)
+      prefilters.add(processor.getPrefilter());
+    return RecordPrefilter.all(prefilters);
+  }
+
+  @Override
+  public void processRecord(Record marc4jRecord, int recordNumber) throws IOException {
+    for (BibliographicInputProcessor processor : processors)
+      if (processor.readyToProcess())
+        processor.processRecord(marc4jRecord, recordNumber);
+  }
+
+  @Override
+  public void processRecord(BibliographicRecord bibliographicRecord, int recordNumber) throws IOException {
+    for (BibliographicInputProcessor processor : processors)
+      if (processor.readyToProcess())
+        processor.processRecord(bibliographicRecord, recordNumber);
+  }
+
+  @Override
+  public void processRecord(BibliographicRecord bibliographicRecord,
+                            int recordNumber,
+                            List<ValidationError> errors) throws IOException {
+    for (BibliographicInputProcessor processor : processors) {
+      if (!processor.readyToProcess())
+        continue;
+      if (processor == validator)
+        processor.processRecord(bibliographicRecord, recordNumber, errors);
+      else if (bibliographicRecord != null && bibliographicRecord.getId() != null)
+        processor.processRecord(bibliographicRecord, recordNumber);
+    }
+  }
+
+  @Override
+  public void beforeIteration() {
+    for (BibliographicInputProcessor processor : processors)
+      processor.beforeIteration();
+  }
+
+  @Override
+  public void fileOpened(Path path) {
+    for (BibliographicInputProcessor processor : processors)
+      processor.fileOpened(path);
+  }
+
+  @Override
+  public void fileProcessed() {
+    for (BibliographicInputProcessor processor : processors)
+      processor.fileProcessed();
+  }
+
+  @Override
+  public void afterIteration(int numberOfprocessedRecords, long duration) {
+    for (int i = 0; i < processors.size(); i++) {
+      if (parameters.doLog())
+        logger.log(Level.INFO, "finishing {0}", names.get(i));
+      processors.get(i).afterIteration(numberOfprocessedRecords, duration);
+    }
+  }
+
+  @Override
+  public void printHelp(Options options) {
+    HelpFormatter formatter = new HelpFormatter();
+    String message = String.format("java -cp qa-catalogue.jar %s [options] [file]", this.getClass().getCanonicalName());
+    formatter.printHelp(message, options);
+  }
+
+  @Override
+  public boolean readyToProcess() {
+    for (BibliographicInputProcessor processor : processors)
+      if (processor.readyToProcess())
+        return true;
+    return false;
+  }
+}
@@ -7,6 +7,7 @@ import de.gwdg.metadataqa.marc.cli.parameters.NetworkParameters;
 import de.gwdg.metadataqa.marc.cli.processor.BibliographicInputProcessor;
 import de.gwdg.metadataqa.marc.cli.utils.PairGenerator;
 import de.gwdg.metadataqa.marc.cli.utils.RecordIterator;
+import de.gwdg.metadataqa.marc.cli.utils.RecordPrefilter;
 import de.gwdg.metadataqa.marc.dao.DataField;
 import de.gwdg.metadataqa.marc.dao.record.BibliographicRecord;
 import de.gwdg.metadataqa.marc.model.validation.ValidationError;
@@ -54,7 +55,7 @@ public class NetworkAnalysis extends QACli<NetworkParameters> implements Bibliog
     NetworkAction action = params.getAction();
     logger.info("Action: " + ((NetworkParameters)processor.getParameters()).getAction());
     if (action.equals(NetworkAction.PAIRING)) {
-      PairGenerator generator = new PairGenerator(params.getOutputDir(), params.getGroupLimit(),false);
+      PairGenerator generator = new PairGenerator(params.getOutputDir(), params.getGroupLimit(), false, params.getThreads());
       generator.generatePairs();
     } else {
       if (params.getArgs().length < 1) {
@@ -150,4 +151,9 @@ public class NetworkAnalysis extends QACli<NetworkParameters> implements Bibliog
   public boolean readyToProcess() {
     return readyToProcess;
   }
+
+  @Override
+  public RecordPrefilter getPrefilter() {
+    return RecordPrefilter.create(parameters.getRecordIgnorator());
+  }
 }
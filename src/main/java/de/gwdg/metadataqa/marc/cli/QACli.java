@@ -5,6 +5,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import de.gwdg.metadataqa.marc.CsvUtils;
 import de.gwdg.metadataqa.marc.Utils;
 import de.gwdg.metadataqa.marc.cli.parameters.CommonParameters;
+import de.gwdg.metadataqa.marc.cli.utils.ReportWriter;
 import de.gwdg.metadataqa.marc.dao.record.BibliographicRecord;
 import de.gwdg.metadataqa.marc.utils.BibiographicPath;
 import de.gwdg.metadataqa.marc.utils.pica.path.PicaPath;
@@ -39,6 +40,7 @@ public abstract class QACli<T extends CommonParameters> {
   private FileTime jarModifiedTime;
   private boolean isJarModifiedTimeDetected = false;
   protected boolean doSaveGroupIds = true;
+  protected transient ReportWriter reportWriter;
 
   protected void initializeGroups(String groupBy, boolean isPica) {
     if (groupBy != null) {
@@ -108,6 +110,14 @@ public abstract class QACli<T extends CommonParameters> {
     return groupBy != null;
   }
 
+  /**
+   * The analyses work on the BibliographicRecord, they do not need the marc4j record.
+   * @return false
+   */
+  public boolean needsMarc4jRecord() {
+    return false;
+  }
+
   protected boolean isJarNewerThan(String outputDir, String fileName) {
     try {
       initializeJarModifiedTime();
@@ -166,6 +176,7 @@ public abstract class QACli<T extends CommonParameters> {
 
   protected File prepareReportFile(String outputDir, String fileName) {
     File reportFile = new File(outputDir, fileName);
+    getReportWriter().close(reportFile);
     if (reportFile.exists()) {
       try {
         Files.delete(reportFile.toPath());
@@ -177,19 +188,34 @@ public abstract class QACli<T extends CommonParameters> {
   }
 
   /**
-   * Print to file
+   * Print to file. The file is kept open until closeReportWriters() is called.
    * @param file The output file
    * @param content The content
    */
   protected void printToFile(File file, String content) {
     try {
-      FileUtils.writeStringToFile(file, content, StandardCharsets.UTF_8, true);
+      getReportWriter().print(file, content);
     } catch (IOException e) {
       if (parameters.doLog())
         logger.log(Level.SEVERE, "printToFile", e);
     }
   }
 
+  protected ReportWriter getReportWriter() {
+    if (reportWriter == null)
+      reportWriter = new ReportWriter();
+    return reportWriter;
+  }
+
+  /**
+   * Flushes and closes the report files written by printToFile(). It should be called at the end of
+   * afterIteration().
+   */
+  protected void closeReportWriters() {
+    if (reportWriter != null)
+      reportWriter.close();
+  }
+
   private void initializeJarModifiedTime() {
     if (!isJarModifiedTimeDetected) {
       try {
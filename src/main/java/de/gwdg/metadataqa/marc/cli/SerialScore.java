@@ -8,6 +8,7 @@ import de.gwdg.metadataqa.marc.cli.parameters.CommonParameters;
 import de.gwdg.metadataqa.marc.cli.parameters.SerialScoreParameters;
 import de.gwdg.metadataqa.marc.cli.processor.BibliographicInputProcessor;
 import de.gwdg.metadataqa.marc.cli.utils.RecordIterator;
+import de.gwdg.metadataqa.marc.cli.utils.RecordPrefilter;
 import de.gwdg.metadataqa.marc.dao.MarcLeader;
 import de.gwdg.metadataqa.marc.dao.record.BibliographicRecord;
 import de.gwdg.metadataqa.marc.dao.record.Marc21Record;
@@ -17,14 +18,12 @@ import de.gwdg.metadataqa.marc.model.validation.ValidationError;
 import org.apache.commons.cli.HelpFormatter;
 import org.apache.commons.cli.Options;
 import org.apache.commons.cli.ParseException;
-import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.marc4j.marc.Record;
 
 import java.io.File;
 import java.io.IOException;
 import java.io.Serializable;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -163,6 +162,7 @@ public class SerialScore extends QACli<SerialScoreParameters> implements Bibliog
   public void afterIteration(int numberOfprocessedRecords, long duration) {
     printHistogram();
     saveParameters("serials.params.json", parameters, Map.of("numberOfprocessedRecords", numberOfprocessedRecords, "duration", duration));
+    closeReportWriters();
   }
 
   private void printHistogram() {
@@ -204,11 +204,7 @@ public class SerialScore extends QACli<SerialScoreParameters> implements Bibliog
   }
 
   private void print(String message) {
-    try {
-      FileUtils.writeStringToFile(output, message, StandardCharsets.UTF_8, true);
-    } catch (IOException e) {
-      logger.log(Level.SEVERE, "print", e);
-    }
+    printToFile(output, message);
   }
 
   private void printFields() {
@@ -226,4 +222,9 @@ public class SerialScore extends QACli<SerialScoreParameters> implements Bibliog
       logger.log(Level.SEVERE, "printFields", e);
     }
   }
+
+  @Override
+  public RecordPrefilter getPrefilter() {
+    return RecordPrefilter.create(parameters.getRecordIgnorator());
+  }
 }
@@ -134,6 +134,7 @@ public class Shacl4bib extends QACli<Shacl4bibParameters> implements Bibliograph
   public void afterIteration(int numberOfprocessedRecords, long duration) {
     copySchaclFileToOutputDir();
     saveParameters("shacl4bib.params.json", parameters, Map.of("numberOfprocessedRecords", numberOfprocessedRecords, "duration", duration));
+    closeReportWriters();
   }
 
   private void copySchaclFileToOutputDir() {
@@ -6,6 +6,7 @@ import de.gwdg.metadataqa.marc.cli.parameters.CommonParameters;
 import de.gwdg.metadataqa.marc.cli.parameters.ShelfReadyCompletenessParameters;
 import de.gwdg.metadataqa.marc.cli.processor.BibliographicInputProcessor;
 import de.gwdg.metadataqa.marc.cli.utils.RecordIterator;
+import de.gwdg.metadataqa.marc.cli.utils.RecordPrefilter;
 import de.gwdg.metadataqa.marc.dao.record.BibliographicRecord;
 import de.gwdg.metadataqa.marc.dao.record.Marc21BibliographicRecord;
 import de.gwdg.metadataqa.marc.dao.record.PicaRecord;
@@ -15,14 +16,12 @@ import de.gwdg.metadataqa.marc.model.validation.ValidationError;
 import org.apache.commons.cli.HelpFormatter;
 import org.apache.commons.cli.Options;
 import org.apache.commons.cli.ParseException;
-import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.marc4j.marc.Record;
 
 import java.io.File;
 import java.io.IOException;
 import java.io.Serializable;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -152,6 +151,7 @@ public class ShelfReadyCompleteness extends QACli<ShelfReadyCompletenessParamete
   @Override
   public void afterIteration(int numberOfprocessedRecords, long duration) {
     saveParameters("shelf-ready-completeness.params.json", parameters, Map.of("numberOfprocessedRecords", numberOfprocessedRecords, "duration", duration));
+    closeReportWriters();
   }
 
   @Override
@@ -169,11 +169,7 @@ public class ShelfReadyCompleteness extends QACli<ShelfReadyCompletenessParamete
   }
 
   private void print(String message) {
-    try {
-      FileUtils.writeStringToFile(output, message, StandardCharsets.UTF_8, true);
-    } catch (IOException e) {
-      logger.log(Level.WARNING, "print", e);
-    }
+    printToFile(output, message);
   }
 
   private void printFields() {
@@ -219,4 +215,9 @@ public class ShelfReadyCompleteness extends QACli<ShelfReadyCompletenessParamete
     }
     return StringUtils.join(paths, ",");
   }
+
+  @Override
+  public RecordPrefilter getPrefilter() {
+    return RecordPrefilter.create(parameters.getRecordIgnorator());
+  }
 }
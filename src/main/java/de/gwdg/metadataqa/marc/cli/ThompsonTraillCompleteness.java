@@ -9,12 +9,12 @@ import de.gwdg.metadataqa.marc.cli.parameters.CommonParameters;
 import de.gwdg.metadataqa.marc.cli.parameters.ThompsonTraillCompletenessParameters;
 import de.gwdg.metadataqa.marc.cli.processor.BibliographicInputProcessor;
 import de.gwdg.metadataqa.marc.cli.utils.RecordIterator;
+import de.gwdg.metadataqa.marc.cli.utils.RecordPrefilter;
 import de.gwdg.metadataqa.marc.dao.record.BibliographicRecord;
 import de.gwdg.metadataqa.marc.model.validation.ValidationError;
 import org.apache.commons.cli.HelpFormatter;
 import org.apache.commons.cli.Options;
 import org.apache.commons.cli.ParseException;
-import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.marc4j.marc.Record;
 
@@ -22,7 +22,6 @@ import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
 import java.io.Serializable;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -144,6 +143,7 @@ public class ThompsonTraillCompleteness extends QACli<ThompsonTraillCompleteness
   @Override
   public void afterIteration(int numberOfprocessedRecords, long duration) {
     saveParameters("tt-completeness.params.json", parameters, Map.of("numberOfprocessedRecords", numberOfprocessedRecords, "duration", duration));
+    closeReportWriters();
   }
 
   @Override
@@ -161,11 +161,7 @@ public class ThompsonTraillCompleteness extends QACli<ThompsonTraillCompleteness
   }
 
   private void print(String message) {
-    try {
-      FileUtils.writeStringToFile(output, message, StandardCharsets.UTF_8, true);
-    } catch (IOException e) {
-      logger.log(Level.SEVERE, "print", e);
-    }
+    printToFile(output, message);
   }
 
   private void printFields() {
@@ -203,4 +199,9 @@ public class ThompsonTraillCompleteness extends QACli<ThompsonTraillCompleteness
         break;
     }
   }
+
+  @Override
+  public RecordPrefilter getPrefilter() {
+    return RecordPrefilter.create(parameters.getRecordIgnorator());
+  }
 }
@@ -1,18 +1,24 @@
 package de.gwdg.metadataqa.marc.cli;
 
 import de.gwdg.metadataqa.marc.CsvUtils;
+import de.gwdg.metadataqa.marc.analysis.validator.ValidationResultCache;
 import de.gwdg.metadataqa.marc.analysis.validator.Validator;
 import de.gwdg.metadataqa.marc.analysis.validator.ValidatorConfiguration;
 import de.gwdg.metadataqa.marc.analysis.validator.ValidatorDAO;
 import de.gwdg.metadataqa.marc.cli.parameters.ValidatorParameters;
 import de.gwdg.metadataqa.marc.cli.processor.BibliographicInputProcessor;
+import de.gwdg.metadataqa.marc.cli.processor.ParallelProcessor;
 import de.gwdg.metadataqa.marc.cli.utils.RecordIterator;
+import de.gwdg.metadataqa.marc.cli.utils.RecordPrefilter;
+import de.gwdg.metadataqa.marc.cli.utils.ValidatorDetailsPart;
 import de.gwdg.metadataqa.marc.dao.record.BibliographicRecord;
+import de.gwdg.metadataqa.marc.datastore.MarcSQLiteClient;
 import de.gwdg.metadataqa.marc.dao.record.Marc21Record;
 import de.gwdg.metadataqa.marc.model.validation.ValidationError;
 import de.gwdg.metadataqa.marc.model.validation.ValidationErrorCategory;
 import de.gwdg.metadataqa.marc.model.validation.ValidationErrorFormatter;
 import de.gwdg.metadataqa.marc.model.validation.ValidationErrorType;
+import de.gwdg.metadataqa.marc.utils.SchemaRegistry;
 import org.apache.commons.cli.HelpFormatter;
 import org.apache.commons.cli.Options;
 import org.apache.commons.cli.ParseException;
@@ -47,12 +53,12 @@ import static de.gwdg.metadataqa.marc.model.validation.ValidationErrorFormat.TAB
  *
  * @author Péter Király <peter.kiraly at gwdg.de>
  */
-public class ValidatorCli extends QACli<ValidatorParameters> implements BibliographicInputProcessor, Serializable {
+public class ValidatorCli extends QACli<ValidatorParameters>
+  implements BibliographicInputProcessor, ParallelProcessor<ValidatorCli>, Serializable {
 
   private static final Logger logger = Logger.getLogger(ValidatorCli.class.getCanonicalName());
   private Options options;
 
-  private final Map<Integer, Integer> hashedIndex = new HashMap<>();
   private File detailsFile = null;
   private File summaryFile = null;
   private File collectorFile = null;
@@ -61,10 +67,31 @@ public class ValidatorCli extends QACli<ValidatorParameters> implements Bibliogr
   private int recordCounter;
   private int numberOfprocessedRecords;
   private char separator;
-  private int vErrorId = 1;
   private List<ValidationError> allValidationErrors;
   private ValidatorConfiguration validatorConfiguration;
   private ValidatorDAO validatorDAO = new ValidatorDAO();
+  // parallel processing: the worker writes the details into a temporary part file
+  private boolean isWorker = false;
+  private transient ValidatorDetailsPart detailsPart;
+  private final List<ValidatorDetailsPart> detailsParts = new ArrayList<>();
+  private final List<Map<Integer, Integer>> detailsPartIdMappings = new ArrayList<>();
+  // and the rows of id-groupid.csv into another one, so both can be printed in the order of the records
+  private transient ValidatorDetailsPart groupIdsPart;
+  private final List<ValidatorDetailsPart> groupIdsParts = new ArrayList<>();
+  // and the error IDs of the issue collector, which are replayed in the order of the records (with the emptying of
+  // the large collectors) after the merge
+  private transient ValidatorDetailsPart collectorPart;
+  private final List<ValidatorDetailsPart> collectorParts = new ArrayList<>();
+  private final List<Map<Integer, Integer>> collectorPartIdMappings = new ArrayList<>();
+  private int workerCounter = 0;
+  private boolean hasMergedWorkers = false;
+  // --sqlite: the summary, the details and the group IDs are loaded into qa_catalogue.sqlite as well
+  private transient MarcSQLiteClient sqliteClient;
+  private transient MarcSQLiteClient.TableLoader summaryLoader;
+  private transient MarcSQLiteClient.TableLoader detailsLoader;
+  private transient MarcSQLiteClient.TableLoader idGroupIdLoader;
+  // --resultCache: the issues of the unchanged records are read from the results of the previous run
+  private transient ValidationResultCache resultCache;
 
   public ValidatorCli(String[] args) throws ParseException {
     this(new ValidatorParameters(args));
@@ -94,6 +121,56 @@ public class ValidatorCli extends QACli<ValidatorParameters> implements Bibliogr
     separator = parameters.getFormat().equals(TAB_SEPARATED) ? '\t' : ',';
   }
 
+  /**
+   * Creates a worker for parallel processing. It shares the configuration and the output files
+   * of the parent, but collects the counters into its own ValidatorDAO.
+   */
+  private ValidatorCli(ValidatorCli parent, int workerNumber) {
+    this.parameters = parent.parameters;
+    this.options = parent.options;
+    this.readyToProcess = true;
+    this.validatorConfiguration = parent.validatorConfiguration;
+    this.groupBy = parent.groupBy;
+    this.idCollectorFile = parent.idCollectorFile;
+    this.doSaveGroupIds = parent.doSaveGroupIds;
+    this.separator = parent.separator;
+    this.detailsFile = parent.detailsFile;
+    this.summaryFile = parent.summaryFile;
+    this.collectorFile = parent.collectorFile;
+    this.doPrintInProcessRecord = parent.doPrintInProcessRecord;
+    this.reportWriter = parent.getReportWriter();
+    this.detailsLoader = parent.detailsLoader;
+    this.idGroupIdLoader = parent.idGroupIdLoader;
+    this.resultCache = parent.resultCache;
+    this.isWorker = true;
+    if (parameters.collectAllErrors())
+      allValidationErrors = new ArrayList<>();
+    if (parameters.doDetails()) {
+      try {
+        detailsPart = new ValidatorDetailsPart(
+          prepareReportFile(parameters.getOutputDir(), parameters.getDetailsFileName() + ".part" + workerNumber));
+      } catch (IOException e) {
+        throw new IllegalStateException("Unable to create a temporary details file", e);
+      }
+    }
+    if (doGroups() && doSaveGroupIds) {
+      try {
+        groupIdsPart = new ValidatorDetailsPart(
+          prepareReportFile(parameters.getOutputDir(), "id-groupid.csv.part" + workerNumber));
+      } catch (IOException e) {
+        throw new IllegalStateException("Unable to create a temporary group ID file", e);
+      }
+    }
+    if (parameters.doSummary()) {
+      try {
+        collectorPart = new ValidatorDetailsPart(
+          prepareReportFile(parameters.getOutputDir(), "issue-collector.csv.part" + workerNumber));
+      } catch (IOException e) {
+        throw new IllegalStateException("Unable to create a temporary issue collector file", e);
+      }
+    }
+  }
+
   public static void main(String[] args) {
     BibliographicInputProcessor processor = null;
     try {
@@ -154,6 +231,155 @@ public class ValidatorCli extends QACli<ValidatorParameters> implements Bibliogr
 
     if (parameters.collectAllErrors())
       allValidationErrors = new ArrayList<>();
+
+    if (parameters.isSqlite() && !parameters.useStandardOutput())
+      initializeSqlite();
+
+    if (parameters.getResultCacheFile() != null)
+      openResultCache();
+  }
+
+  private void openResultCache() {
+    try {
+      resultCache = ValidationResultCache.open(Paths.get(parameters.getResultCacheFile()), getValidationConfiguration());
+    } catch (IOException e) {
+      logger.log(Level.WARNING, "The validation result cache could not be opened, all records will be validated", e);
+    }
+  }
+
+  /**
+   * The parameters which change the issues of the same record. Besides the name of the schema file its content
+   * and the build of QA catalogue are part of it, so a changed schema or an upgrade invalidates the cache.
+   */
+  private String getValidationConfiguration() throws IOException {
+    return String.join("|",
+      Version.getVersion(),
+      Version.getBuildTimestamp(),
+      String.valueOf(parameters.getSchemaType()),
+      String.valueOf(parameters.getMarcVersion()),
+      String.valueOf(parameters.getDefaultRecordType()),
+      String.valueOf(parameters.getPicaSchemaFile()),
+      SchemaRegistry.getChecksum(parameters.getSchemaType(), parameters.getPicaSchemaFile()),
+      String.valueOf(parameters.getIgnorableFields()),
+      String.valueOf(parameters.getIgnorableIssueTypes()),
+      String.valueOf(parameters.doSummary())
+    );
+  }
+
+  private void closeResultCache() {
+    logger.log(Level.INFO, "validation result cache: {0} records reused, {1} records validated",
+      new Object[]{resultCache.getHits(), resultCache.getMisses()});
+    try {
+      resultCache.save();
+    } catch (IOException e) {
+      logger.log(Level.WARNING, "The validation result cache could not be saved", e);
+    }
+    try {
+      resultCache.close();
+    } catch (IOException e) {
+      logger.log(Level.WARNING, "closeResultCache", e);
+    }
+    resultCache = null;
+  }
+
+  /**
+   * Creates the tables of the validation results, which scripts/sqlite/qa_catalogue.sqlite.sql (or
+   * qa_catalogue.grouped.sqlite.sql) would create.
+   */
+  private void initializeSqlite() {
+    sqliteClient = MarcSQLiteClient.open(
+      Paths.get(parameters.getOutputDir(), MarcSQLiteClient.DEFAULT_FILE_NAME).toString());
+    List<String> summaryColumns = new ArrayList<>(List.of(
+      "id", "MarcPath", "categoryId", "typeId", "type", "message", "url", "instances", "records"));
+    List<String> summaryDefinitions = new ArrayList<>(List.of(
+      "\"id\" INTEGER", "\"MarcPath\" TEXT", "\"categoryId\" INTEGER", "\"typeId\" INTEGER", "\"type\" TEXT",
+      "\"message\" TEXT", "\"url\" TEXT", "\"instances\" INTEGER", "\"records\" INTEGER"));
+    if (doGroups()) {
+      summaryColumns.add(0, "groupId");
+      summaryDefinitions.add(0, "\"groupId\" INTEGER");
+    }
+    sqliteClient.createTable("issue_summary", summaryDefinitions.toArray(new String[0]));
+    sqliteClient.createTable("issue_details", "\"id\" TEXT", "\"errorId\" INTEGER", "\"instances\" INTEGER");
+    if (parameters.doSummary()) {
+      summaryLoader = sqliteClient.createLoader("issue_summary", summaryColumns.toArray(new String[0]));
+      if (parameters.doDetails())
+        detailsLoader = sqliteClient.createLoader("issue_details", "id", "errorId", "instances");
+    }
+
+    if (doGroups()) {
+      if (doSaveGroupIds) {
+        sqliteClient.createTable("id_groupid", "\"id\" TEXT", "\"groupId\" INTEGER");
+        idGroupIdLoader = sqliteClient.createLoader("id_groupid", "id", "groupId");
+      }
+      // these are filled by scripts/sqlite/calculate-aggregated-numbers.grouped.sh
+      sqliteClient.createTable("issue_grouped_types",
+        "\"groupId\" INTEGER", "\"typeId\" INTEGER", "\"record_nr\" INTEGER", "\"instance_nr\" INTEGER");
+      sqliteClient.createTable("issue_grouped_categories",
+        "\"groupId\" INTEGER", "\"categoryId\" INTEGER", "\"record_nr\" INTEGER", "\"instance_nr\" INTEGER");
+      sqliteClient.createTable("issue_grouped_paths",
+        "\"groupId\" INTEGER", "\"typeId\" INTEGER", "\"path\" VARCHAR(50)", "\"record_nr\" INTEGER",
+        "\"instance_nr\" INTEGER");
+    }
+    sqliteClient.commit();
+  }
+
+  /**
+   * Creates the indexes (and the issue_groups table) of scripts/sqlite/modify-tables.sql after the load
+   */
+  private void finishSqlite() {
+    logger.info("indexing the SQLite tables");
+    sqliteClient.commit();
+    sqliteClient.createIndex("issue_details_errorId", "issue_details", "errorId");
+    sqliteClient.createIndex("issue_details_id", "issue_details", "id");
+    sqliteClient.createIndex("issue_summary_id", "issue_summary", "id");
+    sqliteClient.createIndex("issue_summary_categoryId", "issue_summary", "categoryId");
+    sqliteClient.createIndex("issue_summary_typeId", "issue_summary", "typeId");
+    if (doGroups()) {
+      sqliteClient.createIndex("issue_summary_groupId", "issue_summary", "groupId");
+      if (idGroupIdLoader != null) {
+        sqliteClient.createIndex("id_groupid_id", "id_groupid", "id");
+        sqliteClient.createIndex("id_groupid_groupId", "id_groupid", "groupId");
+      }
+    } else {
+      sqliteClient.execute("DROP TABLE IF EXISTS issue_groups");
+      sqliteClient.execute("CREATE TABLE issue_groups AS "
+        + "SELECT categoryId, typeId, s.MarcPath AS path, COUNT(DISTINCT(s.id)) AS variants, "
+        + "COUNT(DISTINCT(d.id)) AS records, SUM(d.instances) AS instances "
+        + "FROM issue_summary AS s LEFT JOIN issue_details AS d ON (s.id = d.errorId) "
+        + "GROUP BY categoryId, typeId, s.MarcPath");
+      sqliteClient.createIndex("issue_groups_categoryId", "issue_groups", "categoryId");
+      sqliteClient.createIndex("issue_groups_typeId", "issue_groups", "typeId");
+    }
+    sqliteClient.close();
+    sqliteClient = null;
+  }
+
+  @Override
+  protected void saveGroupIds(String recordId, Set<String> groupIds) {
+    super.saveGroupIds(recordId, groupIds);
+    if (idGroupIdLoader != null)
+      for (String groupId : groupIds)
+        idGroupIdLoader.add(recordId, groupId);
+  }
+
+  private void saveGroupIds(int recordNumber, String recordId, Set<String> groupIds) {
+    if (!isWorker) {
+      saveGroupIds(recordId, groupIds);
+      return;
+    }
+    if (groupIds.isEmpty())
+      return;
+    StringBuilder rows = new StringBuilder();
+    for (String groupId : groupIds) {
+      rows.append(CsvUtils.createCsv(recordId, groupId));
+      if (idGroupIdLoader != null)
+        idGroupIdLoader.add(recordId, groupId);
+    }
+    try {
+      groupIdsPart.writeMessage(recordNumber, rows.toString());
+    } catch (IOException e) {
+      logger.log(Level.SEVERE, "saveGroupIds", e);
+    }
   }
 
   @Override
@@ -187,24 +413,59 @@ public class ValidatorCli extends QACli<ValidatorParameters> implements Bibliogr
 
     Set<String> groupIds = getGroupIds(parameters, bibliographicRecord);
     if (doSaveGroupIds && bibliographicRecord != null && bibliographicRecord.getId() != null)
-      saveGroupIds(bibliographicRecord.getId(true), groupIds);
+      saveGroupIds(recordNumber, bibliographicRecord.getId(true), groupIds);
 
-    Validator validator = new Validator(validatorConfiguration, errors);
-    boolean isValid = validator.validate(bibliographicRecord);
+    List<ValidationError> validationErrors = validate(bibliographicRecord, errors);
+    boolean isValid = validationErrors.isEmpty();
 
     if (!isValid) {
-      processInvalidRecord(bibliographicRecord, validator, groupIds);
+      processInvalidRecord(bibliographicRecord, recordNumber, validationErrors, groupIds);
     } else if (parameters.doSummary()) {
       // TODO: use enum instead
       updateCounters(0, groupIds, validatorDAO.getTotalRecordCounter(), validatorDAO.getTotalRecordCounterGrouped());
     }
 
     if (parameters.collectAllErrors())
-      allValidationErrors.addAll(validator.getValidationErrors());
+      allValidationErrors.addAll(validationErrors);
 
     recordCounter++;
   }
 
+  /**
+   * Validates the record, or reads its issues from the result cache if the record has not been changed since the
+   * previous run.
+   * @param bibliographicRecord The record
+   * @param parsingErrors The errors of the parsing
+   * @return The issues of the record
+   */
+  private List<ValidationError> validate(BibliographicRecord bibliographicRecord, List<ValidationError> parsingErrors) {
+    boolean useCache = resultCache != null && bibliographicRecord != null && bibliographicRecord.getId() != null;
+    long fingerprint = 0;
+    if (useCache) {
+      fingerprint = ValidationResultCache.fingerprint(bibliographicRecord, parsingErrors);
+      List<ValidationError> cachedErrors = resultCache.get(bibliographicRecord.getId(), fingerprint);
+      if (cachedErrors != null) {
+        cacheResults(bibliographicRecord.getId(), fingerprint, cachedErrors);
+        return cachedErrors;
+      }
+    }
+
+    Validator validator = new Validator(validatorConfiguration, parsingErrors);
+    validator.validate(bibliographicRecord);
+    List<ValidationError> validationErrors = validator.getValidationErrors();
+    if (useCache)
+      cacheResults(bibliographicRecord.getId(), fingerprint, validationErrors);
+    return validationErrors;
+  }
+
+  private void cacheResults(String recordId, long fingerprint, List<ValidationError> validationErrors) {
+    try {
+      resultCache.put(recordId, fingerprint, validationErrors);
+    } catch (IOException e) {
+      logger.log(Level.WARNING, "cacheResults", e);
+    }
+  }
+
   private void logRecordIssuesIfPresent(BibliographicRecord bibliographicRecord, int recordNumber) {
     if (bibliographicRecord == null) {
       logger.severe(() -> "bibliographicRecord is null at " + recordNumber);
@@ -219,19 +480,23 @@ public class ValidatorCli extends QACli<ValidatorParameters> implements Bibliogr
   /**
    * Creates the summary and the details for the invalid record in case of printing being enabled.
    * @param bibliographicRecord The record to process
-   * @param validator The validator object containing the validation errors
+   * @param recordNumber The number of the record
+   * @param errors The validation errors of the record
    * @param groupIds The group IDs of the record
    */
-  private void processInvalidRecord(BibliographicRecord bibliographicRecord, Validator validator, Set<String> groupIds) {
+  private void processInvalidRecord(BibliographicRecord bibliographicRecord,
+                                    int recordNumber,
+                                    List<ValidationError> errors,
+                                    Set<String> groupIds) {
     if (!doPrintInProcessRecord) {
       return;
     }
 
     if (parameters.doSummary()) {
-      processSummary(bibliographicRecord, validator, groupIds);
+      processSummary(bibliographicRecord, recordNumber, errors, groupIds);
     }
     if (parameters.doDetails()) {
-      processDetails(bibliographicRecord, validator);
+      processDetails(bibliographicRecord, recordNumber, errors);
     }
   }
 
@@ -239,8 +504,7 @@ public class ValidatorCli extends QACli<ValidatorParameters> implements Bibliogr
     return bibliographicRecord instanceof Marc21Record && ((Marc21Record) bibliographicRecord).getControl001() == null;
   }
 
-  private void processDetails(BibliographicRecord marcRecord, Validator validator) {
-    List<ValidationError> errors = validator.getValidationErrors();
+  private void processDetails(BibliographicRecord marcRecord, int recordNumber, List<ValidationError> errors) {
     if (errors.isEmpty()) {
       return;
     }
@@ -248,44 +512,63 @@ public class ValidatorCli extends QACli<ValidatorParameters> implements Bibliogr
 
     if (!parameters.doSummary()) {
       message = ValidationErrorFormatter.format(errors, parameters.getFormat(), parameters.getTrimId());
-      print(detailsFile, message);
+      if (isWorker)
+        writeDetailsPart(recordNumber, message, null, null);
+      else
+        print(detailsFile, message);
       return;
     }
 
-    Map<Integer, Integer> errorIds = new HashMap<>();
+    List<Integer> errorIdList = new ArrayList<>();
     for (ValidationError error : errors) {
       if (error.getId() == null) {
-        error.setId(hashedIndex.get(error.hashCode()));
+        error.setId(validatorDAO.getErrorId(error));
       }
-      count(error.getId(), errorIds);
+      errorIdList.add(error.getId());
     }
 
     String recordId = marcRecord != null ? marcRecord.getId(parameters.getTrimId()) : "unknown";
-    message = ValidationErrorFormatter.formatSimple(recordId, parameters.getFormat(), errorIds);
+    if (isWorker) {
+      writeDetailsPart(recordNumber, null, recordId, errorIdList);
+      return;
+    }
+
+    printDetails(recordId, errorIdList);
+  }
 
-    print(detailsFile, message);
+  private void printDetails(String recordId, List<Integer> errorIdList) {
+    Map<Integer, Integer> errorIds = new HashMap<>();
+    for (Integer errorId : errorIdList)
+      count(errorId, errorIds);
+    print(detailsFile, ValidationErrorFormatter.formatSimple(recordId, parameters.getFormat(), errorIds));
+    if (detailsLoader != null)
+      for (Map.Entry<Integer, Integer> entry : errorIds.entrySet())
+        detailsLoader.add(recordId, entry.getKey(), entry.getValue());
   }
 
-  private void processSummary(BibliographicRecord marcRecord, Validator validator) {
-    processSummary(marcRecord, validator, null);
+  private void writeDetailsPart(int recordNumber, String message, String recordId, List<Integer> errorIds) {
+    try {
+      if (message != null)
+        detailsPart.writeMessage(recordNumber, message);
+      else
+        detailsPart.writeErrorIds(recordNumber, recordId, errorIds);
+    } catch (IOException e) {
+      logger.log(Level.SEVERE, "writeDetailsPart", e);
+    }
   }
 
   private void processSummary(BibliographicRecord marcRecord,
-                              Validator validator,
+                              int recordNumber,
+                              List<ValidationError> errors,
                               Set<String> groupIds) {
-    List<ValidationError> errors = validator.getValidationErrors();
     List<ValidationError> allButInvalidFieldErrors = new ArrayList<>();
     Set<Integer> uniqueErrors = new HashSet<>();
     Set<ValidationErrorType> uniqueTypes = new HashSet<>();
     Set<ValidationErrorCategory> uniqueCategories = new HashSet<>();
+    List<Integer> collectedErrorIds = new ArrayList<>();
     for (ValidationError error : errors) {
       // set error ID
-      if (!validatorDAO.getInstanceBasedErrorCounter().containsKey(error)) {
-        error.setId(vErrorId++);
-        hashedIndex.put(error.hashCode(), error.getId());
-      } else {
-        error.setId(hashedIndex.get(error.hashCode()));
-      }
+      error.setId(validatorDAO.registerError(error, recordNumber));
 
       if (!error.getType().equals(ValidationErrorType.FIELD_UNDEFINED)) {
         count(2, validatorDAO.getTotalInstanceCounter());
@@ -302,12 +585,14 @@ public class ValidatorCli extends QACli<ValidatorParameters> implements Bibliogr
       updateCounters(error.getType().getCategory(), groupIds, validatorDAO.getCategoryInstanceCounter(), validatorDAO.getCategoryInstanceCounterGrouped());
 
       count(1, validatorDAO.getTotalInstanceCounter());
-      updateErrorCollector(marcRecord != null ? marcRecord.getId(true) : "unknown", error.getId());
+      collectedErrorIds.add(error.getId());
       uniqueErrors.add(error.getId());
       uniqueTypes.add(error.getType());
       uniqueCategories.add(error.getType().getCategory());
     }
 
+    collectErrors(recordNumber, marcRecord != null ? marcRecord.getId(true) : "unknown", collectedErrorIds);
+
     for (Integer errorId : uniqueErrors) {
       updateCounters(errorId, groupIds, validatorDAO.getRecordBasedErrorCounter(), validatorDAO.getRecordBasedErrorCounterGrouped());
     }
@@ -323,8 +608,109 @@ public class ValidatorCli extends QACli<ValidatorParameters> implements Bibliogr
       updateCounters(2, groupIds, validatorDAO.getTotalRecordCounter(), validatorDAO.getTotalRecordCounterGrouped());
   }
 
+  @Override
+  public ValidatorCli createWorker() {
+    return new ValidatorCli(this, workerCounter++);
+  }
+
+  @Override
+  public void merge(ValidatorCli worker) {
+    Map<Integer, Integer> idMapping = validatorDAO.merge(worker.validatorDAO);
+    recordCounter += worker.recordCounter;
+    if (parameters.collectAllErrors())
+      allValidationErrors.addAll(worker.allValidationErrors);
+    if (worker.detailsPart != null) {
+      try {
+        worker.detailsPart.close();
+      } catch (IOException e) {
+        logger.log(Level.SEVERE, "merge", e);
+      }
+      detailsParts.add(worker.detailsPart);
+      detailsPartIdMappings.add(idMapping);
+    }
+    if (worker.groupIdsPart != null) {
+      try {
+        worker.groupIdsPart.close();
+      } catch (IOException e) {
+        logger.log(Level.SEVERE, "merge", e);
+      }
+      groupIdsParts.add(worker.groupIdsPart);
+    }
+    if (worker.collectorPart != null) {
+      try {
+        worker.collectorPart.close();
+      } catch (IOException e) {
+        logger.log(Level.SEVERE, "merge", e);
+      }
+      collectorParts.add(worker.collectorPart);
+      collectorPartIdMappings.add(idMapping);
+    }
+    hasMergedWorkers = true;
+  }
+
+  /**
+   * After merging the workers, the error IDs are reassigned in the order of their first occurrence,
+   * and the record level details, the group IDs and the issue collector entries of the workers are processed in
+   * the order of the records.
+   */
+  private void finishMerge() {
+    Map<Integer, Integer> renumbering = validatorDAO.renumberErrors();
+    if (parameters.collectAllErrors())
+      for (ValidationError error : allValidationErrors)
+        if (error.getId() != null)
+          error.setId(validatorDAO.getErrorId(error));
+
+    if (!groupIdsParts.isEmpty()) {
+      try {
+        ValidatorDetailsPart.mergeInOrder(groupIdsParts, entry -> printToFile(idCollectorFile, entry.getMessage()));
+        for (ValidatorDetailsPart part : groupIdsParts)
+          part.delete();
+      } catch (IOException e) {
+        logger.log(Level.SEVERE, "finishMerge", e);
+      }
+    }
+
+    if (!collectorParts.isEmpty()) {
+      try {
+        ValidatorDetailsPart.mergeInOrder(collectorParts, entry -> {
+          Map<Integer, Integer> idMapping = collectorPartIdMappings.get(entry.getPart());
+          for (Integer errorId : entry.getErrorIds())
+            updateErrorCollector(entry.getRecordId(), renumbering.get(idMapping.get(errorId)));
+        });
+        for (ValidatorDetailsPart part : collectorParts)
+          part.delete();
+      } catch (IOException e) {
+        logger.log(Level.SEVERE, "finishMerge", e);
+      }
+    }
+
+    if (detailsParts.isEmpty())
+      return;
+
+    try {
+      ValidatorDetailsPart.mergeInOrder(detailsParts, entry -> {
+        if (entry.getMessage() != null) {
+          print(detailsFile, entry.getMessage());
+        } else {
+          Map<Integer, Integer> idMapping = detailsPartIdMappings.get(entry.getPart());
+          List<Integer> errorIds = new ArrayList<>();
+          for (Integer errorId : entry.getErrorIds())
+            errorIds.add(renumbering.get(idMapping.get(errorId)));
+          printDetails(entry.getRecordId(), errorIds);
+        }
+      });
+      for (ValidatorDetailsPart part : detailsParts)
+        part.delete();
+    } catch (IOException e) {
+      logger.log(Level.SEVERE, "finishMerge", e);
+    }
+  }
+
   @Override
   public void afterIteration(int numberOfprocessedRecords, long duration) {
+    if (hasMergedWorkers)
+      finishMerge();
+
     logger.info("printCounter");
     this.numberOfprocessedRecords = numberOfprocessedRecords;
     printCounter();
@@ -347,8 +733,15 @@ public class ValidatorCli extends QACli<ValidatorParameters> implements Bibliogr
     }
     copySchemaFileToOutputDir();
 
+    if (sqliteClient != null)
+      finishSqlite();
+
+    if (resultCache != null)
+      closeResultCache();
+
     logger.info("all printing is DONE");
     saveParameters("validation.params.json", parameters, Map.of("numberOfprocessedRecords", numberOfprocessedRecords, "duration", duration));
+    closeReportWriters();
   }
 
   private void copySchemaFileToOutputDir() {
@@ -408,6 +801,8 @@ public class ValidatorCli extends QACli<ValidatorParameters> implements Bibliogr
           cells.addAll(Arrays.asList(instanceCount, validatorDAO.getRecordBasedErrorCounter().get(error.getId())));
           // TODO: separator
           print(summaryFile, CsvUtils.createCsv(cells));
+          if (summaryLoader != null)
+            summaryLoader.add(cells.toArray());
         }
       );
   }
@@ -434,6 +829,10 @@ public class ValidatorCli extends QACli<ValidatorParameters> implements Bibliogr
               Integer recordCountB = validatorDAO.getRecordBasedErrorCounterGrouped().get(groupId).get(b.getKey().getId());
               result = recordCountB.compareTo(recordCountA);
             }
+            // as in printSummary(), the ties are ordered by the error ID, otherwise their order would depend on the
+            // hash codes of the errors, which change from run to run (and with the merge of the workers)
+            if (result == 0)
+              result = a.getKey().getId().compareTo(b.getKey().getId());
             return result;
           }) // sort
           .forEach(
@@ -447,6 +846,8 @@ public class ValidatorCli extends QACli<ValidatorParameters> implements Bibliogr
               cells.addAll(Arrays.asList(instanceCount, validatorDAO.getRecordBasedErrorCounterGrouped().get(groupId).get(error.getId())));
               // TODO: separator
               print(summaryFile, CsvUtils.createCsv(cells));
+              if (summaryLoader != null)
+                summaryLoader.add(cells.toArray());
           });
       });
   }
@@ -635,6 +1036,25 @@ public class ValidatorCli extends QACli<ValidatorParameters> implements Bibliogr
     }
   }
 
+  /**
+   * Adds the record to the collectors of its errors. The workers write them into their part file instead, so the
+   * collectors (and their emptying) are updated in the order of the records after the merge.
+   */
+  private void collectErrors(int recordNumber, String recordId, List<Integer> errorIds) {
+    if (errorIds.isEmpty())
+      return;
+    if (collectorPart != null) {
+      try {
+        collectorPart.writeErrorIds(recordNumber, recordId, errorIds);
+      } catch (IOException e) {
+        logger.log(Level.SEVERE, "collectErrors", e);
+      }
+      return;
+    }
+    for (Integer errorId : errorIds)
+      updateErrorCollector(recordId, errorId);
+  }
+
   private void updateErrorCollector(String recordId, int errorId) {
     if (!validatorDAO.getErrorCollector().containsKey(errorId)) {
       validatorDAO.getErrorCollector().put(errorId, new HashSet<>());
@@ -685,4 +1105,9 @@ public class ValidatorCli extends QACli<ValidatorParameters> implements Bibliogr
       count(key, counterSingle);
     }
   }
+
+  @Override
+  public RecordPrefilter getPrefilter() {
+    return RecordPrefilter.create(parameters.getRecordIgnorator());
+  }
 }
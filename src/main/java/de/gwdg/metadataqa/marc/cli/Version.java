@@ -6,6 +6,7 @@ import java.util.Properties;
 
 public class Version {
   private static String version;
+  private static String buildTimestamp;
 
   public Version() {
   }
@@ -33,6 +34,21 @@ public class Version {
   }
 
   public static String readVersionFromPropertyFile() {
+    return readPropertyFile("version");
+  }
+
+  /**
+   * The time of the build, which distinguishes the builds of the same (snapshot) version
+   */
+  public static String getBuildTimestamp() {
+    if (buildTimestamp == null) {
+      buildTimestamp = readPropertyFile("buildTimestamp");
+    }
+
+    return buildTimestamp;
+  }
+
+  private static String readPropertyFile(String name) {
     String path = "/qa-catalogue.version.prop";
     InputStream stream = de.gwdg.metadataqa.marc.cli.Version.class.getResourceAsStream(path);
     if (stream == null) {
@@ -42,7 +58,7 @@ public class Version {
       try {
         props.load(stream);
         stream.close();
-        return (String)props.get("version");
+        return (String)props.get(name);
       } catch (IOException e) {
         return "UNKNOWN";
       }
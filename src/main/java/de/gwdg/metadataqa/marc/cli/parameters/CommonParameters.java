@@ -12,6 +12,7 @@ import de.gwdg.metadataqa.marc.definition.MarcFormat;
 import de.gwdg.metadataqa.marc.definition.MarcVersion;
 import de.gwdg.metadataqa.marc.definition.bibliographic.SchemaType;
 import de.gwdg.metadataqa.marc.utils.alephseq.AlephseqLine;
+import de.gwdg.metadataqa.marc.utils.pica.reader.model.PicaLine;
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.CommandLineParser;
 import org.apache.commons.cli.DefaultParser;
@@ -61,12 +62,16 @@ public class CommonParameters implements Serializable {
   private AlephseqLine.TYPE alephseqLineType;
   private String picaIdField = "003@$0";
   private String picaSubfieldSeparator = "$";
+  private PicaLine.Parser picaLineParser = PicaLine.Parser.TOKENIZER;
   private String picaSchemaFile;
   private String picaRecordTypeField = "002@$0";
   private SchemaType schemaType = SchemaType.MARC21;
   private String groupBy;
   private String groupListFile;
   private String solrForScoresUrl;
+  private int threads = 1;
+  private boolean lazyRecords = false;
+  private boolean sqlite = false;
 
   protected void setOptions() {
     if (!isOptionSet) {
@@ -101,6 +106,10 @@ public class CommonParameters implements Serializable {
       options.addOption("e", "groupBy", true, "group the results by the value of this data element (e.g. the ILN of  library)");
       options.addOption("3", "groupListFile", true, "the file which contains a list of ILN codes");
       options.addOption("4", "solrForScoresUrl", true, "the URL of the Solr server used to store scores");
+      options.addOption("5", "threads", true, "the number of worker threads (default: 1, i.e. no parallel processing)");
+      options.addOption("6", "lazyRecords", false, "create the MARC21 data fields only when they are first accessed");
+      options.addOption("9", "picaLineParser", true, "the parser of PICA lines: TOKENIZER (default) or REGEX");
+      options.addOption("0", "sqlite", false, "load the results into qa_catalogue.sqlite in the output directory");
 
       isOptionSet = true;
     }
@@ -139,11 +148,15 @@ public class CommonParameters implements Serializable {
     readAlephseqLineType();
     readPicaIdField();
     readPicaSubfieldSeparator();
+    readPicaLineParser();
     readPicaSchemaFile();
     readPicaRecordType();
     readGroupBy();
     readGroupListFile();
     readSolrForScoresUrl();
+    readThreads();
+    lazyRecords = cmd.hasOption("lazyRecords");
+    sqlite = cmd.hasOption("sqlite");
 
     args = cmd.getArgs();
   }
@@ -173,11 +186,21 @@ public class CommonParameters implements Serializable {
       solrForScoresUrl = cmd.getOptionValue("solrForScoresUrl");
   }
 
+  private void readThreads() throws ParseException {
+    if (cmd.hasOption("threads"))
+      setThreads(cmd.getOptionValue("threads"));
+  }
+
   private void readPicaSubfieldSeparator() {
     if (cmd.hasOption("picaSubfieldSeparator"))
       picaSubfieldSeparator = cmd.getOptionValue("picaSubfieldSeparator");
   }
 
+  private void readPicaLineParser() throws ParseException {
+    if (cmd.hasOption("picaLineParser"))
+      setPicaLineParser(cmd.getOptionValue("picaLineParser"));
+  }
+
   private void readPicaIdField() {
     if (cmd.hasOption("picaIdField"))
       picaIdField = cmd.getOptionValue("picaIdField");
@@ -261,6 +284,14 @@ public class CommonParameters implements Serializable {
       setMarcVersion(cmd.getOptionValue("marcVersion"));
   }
 
+  private void setPicaLineParser(String picaLineParserInput) throws ParseException {
+    try {
+      picaLineParser = PicaLine.Parser.valueOf(picaLineParserInput);
+    } catch (IllegalArgumentException e) {
+      throw new ParseException(String.format("Unrecognized picaLineParser parameter value: '%s'", picaLineParserInput));
+    }
+  }
+
   private void setAlephseqLineType(String alephseqLineTypeInput) throws ParseException {
     try {
       alephseqLineType = AlephseqLine.TYPE.valueOf(cmd.getOptionValue("alephseqLineType"));
@@ -524,6 +555,14 @@ public class CommonParameters implements Serializable {
     this.picaSubfieldSeparator = picaSubfieldSeparator;
   }
 
+  public PicaLine.Parser getPicaLineParser() {
+    return picaLineParser;
+  }
+
+  public void setPicaLineParser(PicaLine.Parser picaLineParser) {
+    this.picaLineParser = picaLineParser;
+  }
+
   public String getPicaSchemaFile() {
     return picaSchemaFile;
   }
@@ -560,6 +599,40 @@ public class CommonParameters implements Serializable {
     return solrForScoresUrl;
   }
 
+  public int getThreads() {
+    return threads;
+  }
+
+  public void setThreads(int threads) {
+    this.threads = threads;
+  }
+
+  public void setThreads(String threadsString) throws ParseException {
+    try {
+      threads = Integer.parseInt(threadsString.trim());
+    } catch (NumberFormatException e) {
+      throw new ParseException(String.format("Unrecognized threads parameter value: '%s'", threadsString));
+    }
+    if (threads < 1)
+      throw new ParseException(String.format("The threads parameter should be a positive number, got: '%s'", threadsString));
+  }
+
+  public boolean isLazyRecords() {
+    return lazyRecords;
+  }
+
+  public void setLazyRecords(boolean lazyRecords) {
+    this.lazyRecords = lazyRecords;
+  }
+
+  public boolean isSqlite() {
+    return sqlite;
+  }
+
+  public void setSqlite(boolean sqlite) {
+    this.sqlite = sqlite;
+  }
+
   public String formatParameters() {
     String text = "";
     text += String.format("schemaType: %s%n", schemaType);
@@ -586,11 +659,15 @@ public class CommonParameters implements Serializable {
     if (isPica()) {
       text += String.format("picaIdField: %s%n", picaIdField);
       text += String.format("picaSubfieldSeparator: %s%n", picaSubfieldSeparator);
+      text += String.format("picaLineParser: %s%n", picaLineParser);
       text += String.format("picaRecordType: %s%n", picaRecordTypeField);
     }
     text += String.format("groupBy: %s%n", groupBy);
     text += String.format("groupListFile: %s%n", groupListFile);
     text += String.format("solrForScoresUrl: %s%n", solrForScoresUrl);
+    text += String.format("threads: %d%n", threads);
+    text += String.format("lazyRecords: %s%n", lazyRecords);
+    text += String.format("sqlite: %s%n", sqlite);
 
     return text;
   }
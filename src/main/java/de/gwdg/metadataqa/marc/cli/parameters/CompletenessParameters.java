@@ -10,6 +10,7 @@ public class CompletenessParameters extends CommonParameters implements Serializ
   private ValidationErrorFormat format = ValidationErrorFormat.COMMA_SEPARATED;
   private boolean advanced = false;
   private boolean onlyPackages = false;
+  private boolean arrow = false;
   private boolean isOptionSet;
 
   protected void setOptions() {
@@ -18,6 +19,7 @@ public class CompletenessParameters extends CommonParameters implements Serializ
       options.addOption("R", "format", true, "specify a format");
       options.addOption("V", "advanced", false, "advanced mode (not yet implemented)");
       options.addOption("P", "onlyPackages", false, "only packages (not yet implemented)");
+      options.addOption("L", "arrow", false, "write the results in Apache Arrow IPC (.arrow) files as well");
       isOptionSet = true;
     }
   }
@@ -35,6 +37,9 @@ public class CompletenessParameters extends CommonParameters implements Serializ
     if (cmd.hasOption("onlyPackages"))
       onlyPackages = true;
 
+    if (cmd.hasOption("arrow"))
+      arrow = true;
+
     if (cmd.hasOption("format"))
       for (ValidationErrorFormat registeredFormat : ValidationErrorFormat.values()) {
         if (registeredFormat.getNames().contains(cmd.getOptionValue("format"))) {
@@ -56,12 +61,17 @@ public class CompletenessParameters extends CommonParameters implements Serializ
     return onlyPackages;
   }
 
+  public boolean isArrow() {
+    return arrow;
+  }
+
   @Override
   public String formatParameters() {
     String text = super.formatParameters();
     text += String.format("format: %s%n", format.getLabel());
     text += String.format("advanced: %s%n", advanced);
     text += String.format("onlyPackages: %s%n", onlyPackages);
+    text += String.format("arrow: %s%n", arrow);
     return text;
   }
 }
@@ -7,6 +7,8 @@ import org.apache.solr.client.solrj.SolrClient;
 public class MarcToSolrParameters extends CommonParameters {
 
   private int DEFAULT_COMMIT_AT = 10000;
+  private static final int DEFAULT_BATCH_SIZE = 1000;
+  private static final int DEFAULT_MAX_IN_FLIGHT_REQUESTS = 1;
   private boolean useEmbedded = false;
   private String solrUrl = null;
   private boolean doCommit = false;
@@ -19,6 +21,9 @@ public class MarcToSolrParameters extends CommonParameters {
   private int commitAt = DEFAULT_COMMIT_AT;
   private boolean indexFieldCounts = false;
   private String fieldPrefix = null;
+  private int batchSize = DEFAULT_BATCH_SIZE;
+  private int maxInFlightRequests = DEFAULT_MAX_IN_FLIGHT_REQUESTS;
+  private String fingerprintFile = null;
 
   @Override
   protected void setOptions() {
@@ -33,6 +38,15 @@ public class MarcToSolrParameters extends CommonParameters {
       options.addOption("D", "commitAt", true, "commit index after this number of records");
       options.addOption("E", "indexFieldCounts", false, "index the count of field instances");
       options.addOption("F", "fieldPrefix", true, "field prefix");
+      options.addOption("G", "batchSize", true,
+        String.format("the number of documents sent to Solr in one update request (default: %d)", DEFAULT_BATCH_SIZE));
+      options.addOption("H", "maxInFlightRequests", true,
+        String.format("the maximal number of update requests running in parallel with the processing (default: %d)."
+          + " With more than one request the batches might be applied out of order, so a record occurring in several"
+          + " batches might be overwritten by its earlier version", DEFAULT_MAX_IN_FLIGHT_REQUESTS));
+      options.addOption("I", "fingerprintFile", true,
+        "incremental indexing: the file of the record fingerprints of the previous run. Only the new and changed records"
+          + " are sent to Solr, and the records missing from the input are deleted");
       isOptionSet = true;
     }
   }
@@ -63,6 +77,28 @@ public class MarcToSolrParameters extends CommonParameters {
 
     if (cmd.hasOption("fieldPrefix"))
       fieldPrefix = cmd.getOptionValue("fieldPrefix");
+
+    if (cmd.hasOption("batchSize"))
+      batchSize = readPositiveInt("batchSize");
+
+    if (cmd.hasOption("maxInFlightRequests"))
+      maxInFlightRequests = readPositiveInt("maxInFlightRequests");
+
+    if (cmd.hasOption("fingerprintFile"))
+      fingerprintFile = cmd.getOptionValue("fingerprintFile");
+  }
+
+  private int readPositiveInt(String option) throws ParseException {
+    String value = cmd.getOptionValue(option);
+    int number;
+    try {
+      number = Integer.parseInt(value.trim());
+    } catch (NumberFormatException e) {
+      throw new ParseException(String.format("Unrecognized %s parameter value: '%s'", option, value));
+    }
+    if (number < 1)
+      throw new ParseException(String.format("The %s parameter should be a positive number, got: '%s'", option, value));
+    return number;
   }
 
   public String getSolrUrl() {
@@ -117,6 +153,22 @@ public class MarcToSolrParameters extends CommonParameters {
     this.fieldPrefix = fieldPrefix;
   }
 
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  public int getMaxInFlightRequests() {
+    return maxInFlightRequests;
+  }
+
+  public String getFingerprintFile() {
+    return fingerprintFile;
+  }
+
+  public boolean isIncremental() {
+    return fingerprintFile != null;
+  }
+
   @Override
   public String formatParameters() {
     String text = super.formatParameters();
@@ -127,6 +179,9 @@ public class MarcToSolrParameters extends CommonParameters {
     text += String.format("commitAt: %s%n", commitAt);
     text += String.format("indexFieldCounts: %s%n", indexFieldCounts);
     text += String.format("fieldPrefix: %s%n", fieldPrefix);
+    text += String.format("batchSize: %d%n", batchSize);
+    text += String.format("maxInFlightRequests: %d%n", maxInFlightRequests);
+    text += String.format("fingerprintFile: %s%n", fingerprintFile);
     return text;
   }
 
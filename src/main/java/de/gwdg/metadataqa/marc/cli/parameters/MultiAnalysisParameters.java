@@ -0,0 +1,141 @@
+package de.gwdg.metadataqa.marc.cli.parameters;
+
+import org.apache.commons.cli.ParseException;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.text.StringTokenizer;
+import org.apache.commons.text.matcher.StringMatcherFactory;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class MultiAnalysisParameters extends CommonParameters implements Serializable {
+
+  /**
+   * The names of the analyses, the same as the commands of the common-script
+   */
+  public static final List<String> ANALYSES = Arrays.asList(
+    "validate", "completeness", "classifications", "authorities", "tt-completeness",
+    "shelf-ready-completeness", "bl-classification", "serial-score", "functional-analysis", "index"
+  );
+  private static final List<String> OWN_OPTIONS = Arrays.asList("-7", "--analyses", "-8", "--analysisParams");
+
+  private boolean isOptionSet;
+  private List<String> analyses = new ArrayList<>();
+  private final Map<String, String> analysisParams = new HashMap<>();
+  private String[] commonArguments = new String[]{};
+
+  @Override
+  protected void setOptions() {
+    if (!isOptionSet) {
+      super.setOptions();
+      options.addOption("7", "analyses", true,
+        String.format("comma separated list of analyses to run (%s)", StringUtils.join(ANALYSES, ", ")));
+      options.addOption("8", "analysisParams", true,
+        "the parameters of a single analysis in <analysis>=<parameters> form, e.g. 'validate=--details --summary' (repeatable)");
+      isOptionSet = true;
+    }
+  }
+
+  public MultiAnalysisParameters() {
+    super();
+  }
+
+  public MultiAnalysisParameters(String[] arguments) throws ParseException {
+    super(arguments);
+
+    if (cmd.hasOption("analyses"))
+      setAnalyses(cmd.getOptionValue("analyses"));
+
+    if (cmd.hasOption("analysisParams"))
+      for (String value : cmd.getOptionValues("analysisParams"))
+        readAnalysisParams(value);
+
+    commonArguments = removeOwnOptions(arguments);
+  }
+
+  private void readAnalysisParams(String value) throws ParseException {
+    int pos = value.indexOf('=');
+    if (pos < 1)
+      throw new ParseException(String.format("The analysisParams should be in <analysis>=<parameters> form, got: '%s'", value));
+    String analysis = value.substring(0, pos).trim();
+    checkAnalysis(analysis);
+    analysisParams.put(analysis, value.substring(pos + 1).trim());
+  }
+
+  /**
+   * Removes the options of this class from the arguments, the rest is passed to every analysis.
+   */
+  private static String[] removeOwnOptions(String[] arguments) {
+    List<String> remaining = new ArrayList<>();
+    for (int i = 0; i < arguments.length; i++) {
+      String argument = arguments[i];
+      if (OWN_OPTIONS.contains(argument))
+        i++;
+      else if (!argument.startsWith("--analyses=") && !argument.startsWith("--analysisParams="))
+        remaining.add(argument);
+    }
+    return remaining.toArray(new String[0]);
+  }
+
+  private static void checkAnalysis(String analysis) throws ParseException {
+    if (!ANALYSES.contains(analysis))
+      throw new ParseException(String.format("Unrecognized analysis: '%s'", analysis));
+  }
+
+  public List<String> getAnalyses() {
+    return analyses;
+  }
+
+  public void setAnalyses(String analysesString) throws ParseException {
+    analyses = new ArrayList<>();
+    for (String analysis : analysesString.split(",")) {
+      analysis = analysis.trim();
+      if (analysis.isEmpty() || analyses.contains(analysis))
+        continue;
+      checkAnalysis(analysis);
+      analyses.add(analysis);
+    }
+  }
+
+  public String getAnalysisParams(String analysis) {
+    return analysisParams.get(analysis);
+  }
+
+  /**
+   * Returns the command line arguments of an analysis: its own parameters followed by all the arguments
+   * except --analyses and --analysisParams.
+   * @param analysis The name of the analysis
+   * @return The arguments
+   */
+  public String[] getAnalysisArguments(String analysis) {
+    List<String> arguments = new ArrayList<>();
+    if (analysisParams.containsKey(analysis))
+      arguments.addAll(splitParameters(analysisParams.get(analysis)));
+    arguments.addAll(Arrays.asList(commonArguments));
+    return arguments.toArray(new String[0]);
+  }
+
+  /**
+   * Splits the parameters at the whitespaces, except inside single or double quotes, as the shell does for the
+   * standalone analyses, e.g. --groupBy '001@$0' or a file name with spaces.
+   */
+  private static List<String> splitParameters(String parameters) {
+    StringTokenizer tokenizer = new StringTokenizer(parameters,
+      StringMatcherFactory.INSTANCE.splitMatcher(), StringMatcherFactory.INSTANCE.quoteMatcher());
+    return tokenizer.getTokenList();
+  }
+
+  @Override
+  public String formatParameters() {
+    String text = super.formatParameters();
+    text += String.format("analyses: %s%n", StringUtils.join(analyses, ","));
+    for (String analysis : analyses)
+      if (analysisParams.containsKey(analysis))
+        text += String.format("%s: %s%n", analysis, analysisParams.get(analysis));
+    return text;
+  }
+}
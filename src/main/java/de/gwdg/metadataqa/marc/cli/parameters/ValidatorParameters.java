@@ -22,6 +22,7 @@ public class ValidatorParameters extends CommonParameters implements Serializabl
   private boolean emptyLargeCollectors = false;
   private boolean collectAllErrors = false;
   private List<ValidationErrorType> ignorableIssueTypes;
+  private String resultCacheFile = null;
 
   protected void setOptions() {
     if (!isOptionSet) {
@@ -35,6 +36,8 @@ public class ValidatorParameters extends CommonParameters implements Serializabl
       options.addOption("W", "emptyLargeCollectors", false, "empty large collectors");
       options.addOption("T", "collectAllErrors", false, "collect all errors (useful only for validating small number of records)");
       options.addOption("I", "ignorableIssueTypes", true, "comma separated list of issue types not to collect");
+      options.addOption("C", "resultCache", true,
+        "the file of the validation results of the previous run. The issues of the unchanged records are read from it");
       isOptionSet = true;
     }
   }
@@ -72,6 +75,9 @@ public class ValidatorParameters extends CommonParameters implements Serializabl
     if (cmd.hasOption("ignorableIssueTypes")) {
       setIgnorableIssueTypes(cmd.getOptionValue("ignorableIssueTypes"));
     }
+
+    if (cmd.hasOption("resultCache"))
+      resultCacheFile = cmd.getOptionValue("resultCache");
   }
 
   private void setIgnorableIssueTypes(String inputParameter) {
@@ -155,6 +161,14 @@ public class ValidatorParameters extends CommonParameters implements Serializabl
     return ignorableIssueTypes;
   }
 
+  public String getResultCacheFile() {
+    return resultCacheFile;
+  }
+
+  public void setResultCacheFile(String resultCacheFile) {
+    this.resultCacheFile = resultCacheFile;
+  }
+
   @Override
   public String formatParameters() {
     String text = super.formatParameters();
@@ -164,6 +178,7 @@ public class ValidatorParameters extends CommonParameters implements Serializabl
     text += String.format("summaryFileName: %s%n", summaryFileName);
     text += String.format("format: %s%n", format.getLabel());
     text += String.format("emptyLargeCollectors: %s%n", emptyLargeCollectors);
+    text += String.format("resultCache: %s%n", resultCacheFile);
     return text;
   }
 }
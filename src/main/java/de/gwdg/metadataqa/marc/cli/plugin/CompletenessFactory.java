@@ -1,8 +1,8 @@
 package de.gwdg.metadataqa.marc.cli.plugin;
 
 import de.gwdg.metadataqa.marc.cli.parameters.CompletenessParameters;
+import de.gwdg.metadataqa.marc.utils.SchemaRegistry;
 import de.gwdg.metadataqa.marc.utils.unimarc.UnimarcSchemaManager;
-import de.gwdg.metadataqa.marc.utils.unimarc.UnimarcSchemaReader;
 
 public class CompletenessFactory {
 
@@ -18,13 +18,7 @@ public class CompletenessFactory {
     }
 
     if (parameters.isUnimarc()) {
-      // Create the UnimarcSchemaManager
-      UnimarcSchemaReader unimarcSchemaReader = new UnimarcSchemaReader();
-      String schemaFilePath = parameters.getPicaSchemaFile();
-      if (schemaFilePath == null) {
-        schemaFilePath = "src/main/resources/unimarc/avram-unimarc.json";
-      }
-      UnimarcSchemaManager unimarcSchema = unimarcSchemaReader.createSchema(schemaFilePath);
+      UnimarcSchemaManager unimarcSchema = SchemaRegistry.getUnimarcSchema(parameters.getPicaSchemaFile());
       return new UnimarcCompletenessPlugin(parameters, unimarcSchema);
     }
     return null;
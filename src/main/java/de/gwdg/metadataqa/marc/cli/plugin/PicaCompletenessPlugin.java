@@ -5,11 +5,11 @@ import de.gwdg.metadataqa.marc.dao.DataField;
 import de.gwdg.metadataqa.marc.dao.record.BibliographicRecord;
 import de.gwdg.metadataqa.marc.definition.structure.SubfieldDefinition;
 import de.gwdg.metadataqa.marc.definition.tags.TagCategory;
+import de.gwdg.metadataqa.marc.utils.SchemaRegistry;
 import de.gwdg.metadataqa.marc.utils.TagHierarchy;
 import de.gwdg.metadataqa.marc.utils.pica.FieldPath;
 import de.gwdg.metadataqa.marc.utils.pica.PicaFieldDefinition;
 import de.gwdg.metadataqa.marc.utils.pica.PicaSchemaManager;
-import de.gwdg.metadataqa.marc.utils.pica.PicaSchemaReader;
 
 import java.io.Serializable;
 import java.util.Map;
@@ -43,7 +43,7 @@ public class PicaCompletenessPlugin implements CompletenessPlugin, Serializable
     FieldPath path = parse(parameters.getPicaRecordTypeField());
     field = path.getField();
     subfield = path.getSubfield();
-    picaSchema = PicaSchemaReader.createSchemaManager(parameters.getPicaSchemaFile());
+    picaSchema = SchemaRegistry.getPicaSchema(parameters.getPicaSchemaFile());
   }
 
   @Override
@@ -2,6 +2,7 @@ package de.gwdg.metadataqa.marc.cli.processor;
 
 import de.gwdg.metadataqa.marc.dao.record.BibliographicRecord;
 import de.gwdg.metadataqa.marc.cli.parameters.CommonParameters;
+import de.gwdg.metadataqa.marc.cli.utils.RecordPrefilter;
 import de.gwdg.metadataqa.marc.model.validation.ValidationError;
 import org.apache.commons.cli.Options;
 import org.marc4j.marc.Record;
@@ -22,4 +23,22 @@ public interface BibliographicInputProcessor {
   void afterIteration(int numberOfprocessedRecords, long duration);
   void printHelp(Options options);
   boolean readyToProcess();
+
+  /**
+   * Tells whether processRecord(Record, int) should be called. If none of the processors needs the marc4j record,
+   * the PICA records are created without it.
+   * @return true if the processor works on the marc4j record
+   */
+  default boolean needsMarc4jRecord() {
+    return true;
+  }
+
+  /**
+   * Returns the criteria (--allowableRecords, --ignorableRecords) of the records the processor skips before doing
+   * anything else. The RecordIterator drops these records before the transformation.
+   * @return The prefilter, or null if the processor receives all records
+   */
+  default RecordPrefilter getPrefilter() {
+    return null;
+  }
 }
@@ -0,0 +1,29 @@
+package de.gwdg.metadataqa.marc.cli.processor;
+
+/**
+ * A processor which can be split into independent workers when the records are processed in
+ * multiple threads (see the <code>--threads</code> parameter). Each worker has its own state, it
+ * receives a subset of the records (in increasing record number order), and after the iteration
+ * the workers are merged back into the original processor before its afterIteration() is called.
+ *
+ * Processors not implementing this interface are still called from a single thread, in the
+ * original record order, only the transformation of the records happens in parallel.
+ *
+ * @param <T> The type of the worker
+ */
+public interface ParallelProcessor<T extends BibliographicInputProcessor> extends BibliographicInputProcessor {
+
+  /**
+   * Creates a worker which shares the configuration of this processor, but has its own state.
+   * It is called after beforeIteration().
+   * @return A new worker
+   */
+  T createWorker();
+
+  /**
+   * Merges the state of the worker into this processor. The workers are merged in the order of their
+   * creation, after all records have been processed and before afterIteration() is called.
+   * @param worker The worker to merge
+   */
+  void merge(T worker);
+}
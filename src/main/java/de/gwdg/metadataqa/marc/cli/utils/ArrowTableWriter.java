@@ -0,0 +1,362 @@
+package de.gwdg.metadataqa.marc.cli.utils;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BitVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.dictionary.Dictionary;
+import org.apache.arrow.vector.dictionary.DictionaryProvider;
+import org.apache.arrow.vector.ipc.ArrowFileWriter;
+import org.apache.arrow.vector.types.FloatingPointPrecision;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.DictionaryEncoding;
+import org.apache.arrow.vector.types.pojo.FieldType;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes a table into an Apache Arrow IPC file (the "Feather v2" format), which can be memory-mapped by
+ * downstream tools (e.g. R's arrow::read_feather() or pyarrow.feather.read_table()) instead of parsing a CSV file.
+ *
+ * The rows are collected in primitive arrays, and the file is written by write(). The repetitive textual columns
+ * (paths, groups, labels) are dictionary encoded: each distinct value is stored once, and the column contains
+ * only the int indices of the values.
+ *
+ * Usage:
+ * <pre>
+ * ArrowTableWriter table = new ArrowTableWriter()
+ *   .addDictionaryColumn("path")
+ *   .addIntColumn("count");
+ * table.addRow("245$a", 12);
+ * table.write(path);
+ * </pre>
+ */
+public class ArrowTableWriter {
+
+  private static final int BATCH_SIZE = 64 * 1024;
+  private static final ArrowType INDEX_TYPE = new ArrowType.Int(32, true);
+  public static final String INITIALIZATION_ERROR = "Apache Arrow could not be initialized. "
+    + "Java should be started with --add-opens=java.base/java.nio=ALL-UNNAMED";
+
+  private final List<Column> columns = new ArrayList<>();
+  private int rowCount = 0;
+
+  /**
+   * Checks if the Arrow memory management can be initialized, so the missing --add-opens Java option is
+   * reported before the records are processed.
+   * @throws IllegalStateException If Arrow could not be initialized
+   */
+  public static void checkAvailability() {
+    try (BufferAllocator allocator = new RootAllocator();
+         IntVector vector = new IntVector("check", allocator)) {
+      vector.allocateNew(1);
+    } catch (RuntimeException | LinkageError e) {
+      throw new IllegalStateException(INITIALIZATION_ERROR, e);
+    }
+  }
+
+  public ArrowTableWriter addDictionaryColumn(String name) {
+    columns.add(new DictionaryColumn(name, columns.size()));
+    return this;
+  }
+
+  public ArrowTableWriter addStringColumn(String name) {
+    columns.add(new StringColumn(name));
+    return this;
+  }
+
+  public ArrowTableWriter addIntColumn(String name) {
+    columns.add(new IntColumn(name));
+    return this;
+  }
+
+  public ArrowTableWriter addDoubleColumn(String name) {
+    columns.add(new DoubleColumn(name));
+    return this;
+  }
+
+  public ArrowTableWriter addBooleanColumn(String name) {
+    columns.add(new BooleanColumn(name));
+    return this;
+  }
+
+  /**
+   * Adds a row. The values should follow the order and the types of the columns, null values are allowed.
+   * @param values The values of the row
+   */
+  public void addRow(Object... values) {
+    if (values.length != columns.size())
+      throw new IllegalArgumentException(
+        String.format("The row has %d values instead of %d: %s", values.length, columns.size(), Arrays.toString(values)));
+    for (int i = 0; i < values.length; i++)
+      columns.get(i).add(values[i]);
+    rowCount++;
+  }
+
+  public int getRowCount() {
+    return rowCount;
+  }
+
+  /**
+   * Writes the collected rows into an Arrow IPC file.
+   * @param path The output file
+   */
+  public void write(Path path) throws IOException {
+    try (BufferAllocator allocator = new RootAllocator()) {
+      DictionaryProvider.MapDictionaryProvider provider = new DictionaryProvider.MapDictionaryProvider();
+      List<FieldVector> vectors = new ArrayList<>();
+      try {
+        for (Column column : columns) {
+          vectors.add(column.createVector(allocator));
+          if (column instanceof DictionaryColumn)
+            provider.put(((DictionaryColumn) column).createDictionary(allocator));
+        }
+
+        try (VectorSchemaRoot root = new VectorSchemaRoot(vectors);
+             FileOutputStream out = new FileOutputStream(path.toFile());
+             ArrowFileWriter writer = new ArrowFileWriter(root, provider, out.getChannel())) {
+          writer.start();
+          for (int start = 0; start == 0 || start < rowCount; start += BATCH_SIZE) {
+            int end = Math.min(start + BATCH_SIZE, rowCount);
+            root.allocateNew();
+            for (int i = 0; i < columns.size(); i++)
+              columns.get(i).fill(vectors.get(i), start, end);
+            root.setRowCount(end - start);
+            writer.writeBatch();
+          }
+          writer.end();
+        }
+      } finally {
+        for (Long id : provider.getDictionaryIds())
+          provider.lookup(id).getVector().close();
+        vectors.forEach(FieldVector::close);
+      }
+    }
+  }
+
+  private abstract static class Column {
+    protected final String name;
+
+    Column(String name) {
+      this.name = name;
+    }
+
+    abstract void add(Object value);
+
+    abstract FieldVector createVector(BufferAllocator allocator);
+
+    /**
+     * Copies the values between start (inclusive) and end (exclusive) into the vector
+     */
+    abstract void fill(FieldVector vector, int start, int end);
+  }
+
+  /**
+   * A column stored in growable primitive arrays with a null mask
+   */
+  private abstract static class PrimitiveColumn extends Column {
+    protected boolean[] isNull = new boolean[16];
+    protected int size = 0;
+
+    PrimitiveColumn(String name) {
+      super(name);
+    }
+
+    protected void grow() {
+      if (size == isNull.length) {
+        int capacity = isNull.length * 2;
+        isNull = Arrays.copyOf(isNull, capacity);
+        resize(capacity);
+      }
+    }
+
+    protected abstract void resize(int capacity);
+  }
+
+  private static class IntColumn extends PrimitiveColumn {
+    protected int[] values = new int[16];
+
+    IntColumn(String name) {
+      super(name);
+    }
+
+    @Override
+    protected void resize(int capacity) {
+      values = Arrays.copyOf(values, capacity);
+    }
+
+    @Override
+    void add(Object value) {
+      grow();
+      if (value == null)
+        isNull[size] = true;
+      else
+        values[size] = ((Number) value).intValue();
+      size++;
+    }
+
+    @Override
+    FieldVector createVector(BufferAllocator allocator) {
+      return new IntVector(name, allocator);
+    }
+
+    @Override
+    void fill(FieldVector vector, int start, int end) {
+      IntVector intVector = (IntVector) vector;
+      for (int i = start; i < end; i++)
+        if (isNull[i])
+          intVector.setNull(i - start);
+        else
+          intVector.setSafe(i - start, values[i]);
+      intVector.setValueCount(end - start);
+    }
+  }
+
+  private static class DictionaryColumn extends IntColumn {
+    private final DictionaryEncoding encoding;
+    private final Map<String, Integer> dictionary = new LinkedHashMap<>();
+
+    DictionaryColumn(String name, long id) {
+      super(name);
+      encoding = new DictionaryEncoding(id, false, (ArrowType.Int) INDEX_TYPE);
+    }
+
+    @Override
+    void add(Object value) {
+      super.add(value == null ? null : dictionary.computeIfAbsent(value.toString(), key -> dictionary.size()));
+    }
+
+    @Override
+    FieldVector createVector(BufferAllocator allocator) {
+      return new IntVector(name, new FieldType(true, INDEX_TYPE, encoding), allocator);
+    }
+
+    Dictionary createDictionary(BufferAllocator allocator) {
+      VarCharVector vector = new VarCharVector(name + "-dictionary", allocator);
+      vector.allocateNew(dictionary.size());
+      for (Map.Entry<String, Integer> entry : dictionary.entrySet())
+        vector.setSafe(entry.getValue(), entry.getKey().getBytes(StandardCharsets.UTF_8));
+      vector.setValueCount(dictionary.size());
+      return new Dictionary(vector, encoding);
+    }
+  }
+
+  private static class DoubleColumn extends PrimitiveColumn {
+    private double[] values = new double[16];
+
+    DoubleColumn(String name) {
+      super(name);
+    }
+
+    @Override
+    protected void resize(int capacity) {
+      values = Arrays.copyOf(values, capacity);
+    }
+
+    @Override
+    void add(Object value) {
+      grow();
+      if (value == null)
+        isNull[size] = true;
+      else
+        values[size] = ((Number) value).doubleValue();
+      size++;
+    }
+
+    @Override
+    FieldVector createVector(BufferAllocator allocator) {
+      return new Float8Vector(name, FieldType.nullable(new ArrowType.FloatingPoint(FloatingPointPrecision.DOUBLE)), allocator);
+    }
+
+    @Override
+    void fill(FieldVector vector, int start, int end) {
+      Float8Vector doubleVector = (Float8Vector) vector;
+      for (int i = start; i < end; i++)
+        if (isNull[i])
+          doubleVector.setNull(i - start);
+        else
+          doubleVector.setSafe(i - start, values[i]);
+      doubleVector.setValueCount(end - start);
+    }
+  }
+
+  private static class BooleanColumn extends PrimitiveColumn {
+    private boolean[] values = new boolean[16];
+
+    BooleanColumn(String name) {
+      super(name);
+    }
+
+    @Override
+    protected void resize(int capacity) {
+      values = Arrays.copyOf(values, capacity);
+    }
+
+    @Override
+    void add(Object value) {
+      grow();
+      if (value == null)
+        isNull[size] = true;
+      else
+        values[size] = (Boolean) value;
+      size++;
+    }
+
+    @Override
+    FieldVector createVector(BufferAllocator allocator) {
+      return new BitVector(name, allocator);
+    }
+
+    @Override
+    void fill(FieldVector vector, int start, int end) {
+      BitVector bitVector = (BitVector) vector;
+      for (int i = start; i < end; i++)
+        if (isNull[i])
+          bitVector.setNull(i - start);
+        else
+          bitVector.setSafe(i - start, values[i] ? 1 : 0);
+      bitVector.setValueCount(end - start);
+    }
+  }
+
+  private static class StringColumn extends Column {
+    private final List<String> values = new ArrayList<>();
+
+    StringColumn(String name) {
+      super(name);
+    }
+
+    @Override
+    void add(Object value) {
+      values.add(value == null ? null : value.toString());
+    }
+
+    @Override
+    FieldVector createVector(BufferAllocator allocator) {
+      return new VarCharVector(name, allocator);
+    }
+
+    @Override
+    void fill(FieldVector vector, int start, int end) {
+      VarCharVector varCharVector = (VarCharVector) vector;
+      for (int i = start; i < end; i++)
+        if (values.get(i) == null)
+          varCharVector.setNull(i - start);
+        else
+          varCharVector.setSafe(i - start, values.get(i).getBytes(StandardCharsets.UTF_8));
+      varCharVector.setValueCount(end - start);
+    }
+  }
+}
@@ -2,26 +2,75 @@ package de.gwdg.metadataqa.marc.cli.utils;
 
 import de.gwdg.metadataqa.marc.model.validation.ValidationError;
 import de.gwdg.metadataqa.marc.model.validation.ValidationErrorType;
+import de.gwdg.metadataqa.marc.utils.pica.reader.model.PicaLine;
 import org.marc4j.marc.Record;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Supplier;
 
 public class IteratorResponse {
   private Record marc4jRecord = null;
   private List<ValidationError> errors = new ArrayList<>();
   private boolean hasBlockingError = false;
   private String recordId = null;
+  private List<PicaLine> picaLines = null;
+  private String controlNumber = null;
+  private Supplier<Record> marc4jRecordSupplier = null;
 
   public IteratorResponse() {
   }
 
+  /**
+   * Returns the marc4j record. If the response was created from PICA lines, the marc4j record is created at the
+   * first call.
+   * @return The marc4j record
+   */
   public Record getMarc4jRecord() {
+    if (marc4jRecord == null && marc4jRecordSupplier != null) {
+      marc4jRecord = marc4jRecordSupplier.get();
+      marc4jRecordSupplier = null;
+    }
     return marc4jRecord;
   }
 
   public void setMarc4jRecord(Record marc4jRecord) {
     this.marc4jRecord = marc4jRecord;
+    this.controlNumber = marc4jRecord == null ? null : marc4jRecord.getControlNumber();
+  }
+
+  /**
+   * Sets the lines of a PICA record, which could be transformed to a PicaRecord without a marc4j record.
+   * @param picaLines The lines of the record
+   * @param controlNumber The record identifier
+   * @param marc4jRecordSupplier Creates the marc4j record when a processor needs it
+   */
+  public void setPicaLines(List<PicaLine> picaLines, String controlNumber, Supplier<Record> marc4jRecordSupplier) {
+    this.picaLines = picaLines;
+    this.controlNumber = controlNumber;
+    this.marc4jRecordSupplier = marc4jRecordSupplier;
+  }
+
+  public List<PicaLine> getPicaLines() {
+    return picaLines;
+  }
+
+  public boolean hasPicaLines() {
+    return picaLines != null;
+  }
+
+  /**
+   * @return true if the reader returned a record
+   */
+  public boolean hasRecord() {
+    return picaLines != null || marc4jRecord != null;
+  }
+
+  /**
+   * @return The control number (001) of the marc4j record, or the identifier of the PICA record
+   */
+  public String getControlNumber() {
+    return controlNumber;
   }
 
   public List<ValidationError> getErrors() {
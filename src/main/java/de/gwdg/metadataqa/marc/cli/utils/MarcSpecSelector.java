@@ -4,12 +4,12 @@ import de.gwdg.metadataqa.api.model.XmlFieldInstance;
 import de.gwdg.metadataqa.marc.dao.record.BibliographicRecord;
 import de.gwdg.metadataqa.marc.utils.marcspec.legacy.MarcSpec;
 
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class MarcSpecSelector extends BibSelector {
-  private static Map<String, MarcSpec> marcSpecs = new HashMap<>();
+  private static final Map<String, MarcSpec> marcSpecs = new ConcurrentHashMap<>();
 
   public MarcSpecSelector(BibliographicRecord record) {
     super(record);
@@ -25,8 +25,6 @@ public class MarcSpecSelector extends BibSelector {
   }
 
   private MarcSpec getMarcSpec(String path) {
-    if (!marcSpecs.containsKey(path))
-      marcSpecs.put(path, new MarcSpec(path));
-    return marcSpecs.get(path);
+    return marcSpecs.computeIfAbsent(path, MarcSpec::new);
   }
 }
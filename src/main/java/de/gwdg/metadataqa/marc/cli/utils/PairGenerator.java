@@ -3,33 +3,38 @@ package de.gwdg.metadataqa.marc.cli.utils;
 import de.gwdg.metadataqa.marc.Utils;
 import de.gwdg.metadataqa.marc.cli.NetworkAnalysis;
 
+import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.Writer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.HashMap;
+import java.util.BitSet;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.stream.Stream;
 
 import static de.gwdg.metadataqa.marc.Utils.createRow;
-import static de.gwdg.metadataqa.marc.Utils.createRowWithSep;
 
+/**
+ * Creates the pairs of the records sharing the same concept (network-pairs[-tag].csv) and the list of
+ * records taking part in any pair (network-nodes[-tag].csv) from the network-by-concepts[-tag].csv files.
+ * The pairs are written directly to the output while they are generated, so the memory footprint does not
+ * depend on the size of the concept groups. The files of the individual tags are processed in parallel.
+ */
 public class PairGenerator {
   private static final Logger logger = Logger.getLogger(NetworkAnalysis.class.getCanonicalName());
 
   private String outputDir;
   private final int groupLimit;
   private boolean asBase36 = false;
-
-  private BufferedWriter pairWriter;
-  private BufferedWriter nodeWriter;
+  private int threads = 1;
 
   public PairGenerator(String outputDir, int groupLimit, boolean asBase36) {
     this.asBase36 = asBase36;
@@ -37,154 +42,155 @@ public class PairGenerator {
     this.groupLimit = groupLimit;
   }
 
+  public PairGenerator(String outputDir, int groupLimit, boolean asBase36, int threads) {
+    this(outputDir, groupLimit, asBase36);
+    this.threads = Math.max(1, threads);
+  }
+
   public void generatePairs() {
     logger.info("pairIds");
 
-    createPairs("");
-    Path inputPath = Paths.get(outputDir,"network-by-concepts-tags.csv");
-    try (Stream<String> stream = Files.lines(Paths.get(inputPath.toString()))) {
-      stream.forEach(
-        line -> {
-          String[] parts = line.split(",");
-          if (!parts[0].equals("tag")) {
-            logger.info(parts[0]);
-            createPairs(parts[0]);
-          }
-        }
-      );
+    List<String> tags = new ArrayList<>();
+    tags.add("");
+    Path inputPath = Paths.get(outputDir, "network-by-concepts-tags.csv");
+    try (BufferedReader reader = Files.newBufferedReader(inputPath)) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        String[] parts = line.split(",");
+        if (!parts[0].equals("tag"))
+          tags.add(parts[0]);
+      }
     } catch (IOException e) {
       logger.log(Level.SEVERE, "generatePairs", e);
     }
+
+    if (threads == 1) {
+      for (String tag : tags)
+        createPairs(tag);
+    } else {
+      ExecutorService executor = Executors.newFixedThreadPool(threads);
+      try {
+        List<Future<?>> futures = new ArrayList<>();
+        for (String tag : tags)
+          futures.add(executor.submit(() -> createPairs(tag)));
+        for (Future<?> future : futures)
+          future.get();
+      } catch (ExecutionException e) {
+        logger.log(Level.SEVERE, "generatePairs", e.getCause());
+      } catch (InterruptedException e) {
+        logger.log(Level.SEVERE, "generatePairs", e);
+        Thread.currentThread().interrupt();
+      } finally {
+        executor.shutdown();
+      }
+    }
   }
 
   private void createPairs(String tag) {
-    if (!tag.equals(""))
+    if (!tag.equals("")) {
+      logger.info(tag);
       tag = "-" + tag;
-
-    initializePairWriter("network-pairs" + tag + ".csv");
-    initializeNodeWriter("network-nodes" + tag + ".csv");
-    processConcepts( "network-by-concepts" + tag + ".csv");
-    try {
-      pairWriter.close();
-    } catch (IOException e) {
-      logger.log(Level.SEVERE, "createPairs", e);
-    }
-    try {
-      nodeWriter.close();
-    } catch (IOException e) {
-      logger.log(Level.SEVERE, "createPairs", e);
     }
-  }
 
-  private void initializePairWriter(String fileName) {
-    Path outputPath = Paths.get(outputDir, fileName);
-    try {
-      pairWriter = Files.newBufferedWriter(outputPath);
-      if (asBase36)
-        pairWriter.write(createRow("id1", "id2"));
+    try (BufferedWriter pairWriter = initializeWriter("network-pairs" + tag + ".csv");
+         BufferedWriter nodeWriter = initializeWriter("network-nodes" + tag + ".csv")) {
+      processConcepts("network-by-concepts" + tag + ".csv", pairWriter, nodeWriter);
     } catch (IOException e) {
-      logger.log(Level.SEVERE, "initializePairWriter", e);
+      logger.log(Level.SEVERE, "createPairs", e);
     }
   }
 
-  private void initializeNodeWriter(String fileName) {
-    Path nodePath = Paths.get(outputDir, fileName);
-    try {
-      nodeWriter = Files.newBufferedWriter(nodePath);
-      if (asBase36)
-        nodeWriter.write(createRow("id1", "id2"));
-    } catch (IOException e) {
-      logger.log(Level.SEVERE, "initializeNodeWriter", e);
-    }
+  private BufferedWriter initializeWriter(String fileName) throws IOException {
+    BufferedWriter writer = Files.newBufferedWriter(Paths.get(outputDir, fileName));
+    if (asBase36)
+      writer.write(createRow("id1", "id2"));
+    return writer;
   }
 
-  private void processConcepts(String fileName) {
-    Map<Object, Boolean> nodeTrack = new HashMap<>();
-    AtomicInteger lineNr = new AtomicInteger();
+  private void processConcepts(String fileName, Writer pairWriter, Writer nodeWriter) throws IOException {
+    BitSet nodeTrack = new BitSet();
+    int lineNr = 0;
 
     Path inputPath = Paths.get(outputDir, fileName);
-    try (Stream<String> stream = Files.lines(Paths.get(inputPath.toString()))) {
-      stream.forEach(
-        line -> {
-          lineNr.getAndIncrement();
-          if (lineNr.get() % 100 == 0)
-            logger.info("" + lineNr.get());
-          String[] parts = line.split(",");
-          String[] ids = parts[2].split(";");
-          if (ids.length > 1) {
-            if (ids.length > groupLimit) {
-              logger.log(Level.INFO, "{0} is greater than {1}. The array will will truncated.", new Object[]{ids.length, groupLimit});
-              ids = Arrays.copyOfRange(ids, 0, groupLimit);
-            }
-
-            Object[] encoded = asBase36 ? stringToBase36(ids) : stringToInteger(ids);
-            List<String> pairs = makePairs(encoded);
-            try {
-              for (String pair : pairs) {
-                pairWriter.write(pair);
-              }
-            } catch (IOException e) {
-              logger.log(Level.SEVERE, "processConcepts", e);
-            }
-
-            for (Object id : encoded) {
-              try {
-                if (!nodeTrack.containsKey(id)) {
-                  nodeWriter.write(createRow(id, id));
-                  nodeTrack.put(id, true);
-                }
-              } catch (IOException e) {
-                logger.log(Level.SEVERE, "processConcepts", e);
-              }
+    try (BufferedReader reader = Files.newBufferedReader(inputPath)) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        lineNr++;
+        if (lineNr % 100 == 0)
+          logger.info(fileName + ": " + lineNr);
+
+        int[] ids = parseIds(line);
+        if (ids.length > 1) {
+          writePairs(ids, pairWriter);
+          for (int id : ids) {
+            if (!nodeTrack.get(id)) {
+              String encoded = encode(id);
+              nodeWriter.write(createRow(encoded, encoded));
+              nodeTrack.set(id);
             }
           }
         }
-      );
-    } catch (IOException e) {
-      logger.log(Level.SEVERE, "processConcepts", e);
-    }
-    try {
-      pairWriter.close();
-    } catch (IOException e) {
-      logger.log(Level.SEVERE, "processConcepts", e);
+      }
     }
   }
 
-  private Object[] stringToBase36(String[] ids) {
-    Object[] encoded;
-    encoded = new String[ids.length];
-    for (int i = 0; i < ids.length; i++) {
-      encoded[i] = Utils.base36Encode(ids[i]);
+  /**
+   * Extracts the semicolon separated IDs of the third column of a line. If there are more IDs than
+   * groupLimit the list is truncated.
+   */
+  private int[] parseIds(String line) {
+    int start = line.indexOf(',');
+    if (start > -1)
+      start = line.indexOf(',', start + 1);
+    if (start == -1)
+      return new int[0];
+    start++;
+    int end = line.indexOf(',', start);
+    if (end == -1)
+      end = line.length();
+
+    int count = 1;
+    for (int i = start; i < end; i++)
+      if (line.charAt(i) == ';')
+        count++;
+    if (count < 2)
+      return new int[0];
+
+    if (count > groupLimit) {
+      logger.log(Level.INFO, "{0} is greater than {1}. The array will will truncated.", new Object[]{count, groupLimit});
+      count = groupLimit;
     }
-    return encoded;
-  }
 
-  private Object[] stringToInteger(String[] ids) {
-    Object[] encoded = new Integer[ids.length];
-    for (int i = 0; i < ids.length; i++) {
-      encoded[i] = Utils.parseId(ids[i]);
+    int[] ids = new int[count];
+    int from = start;
+    for (int i = 0; i < count; i++) {
+      int to = line.indexOf(';', from);
+      if (to == -1 || to > end)
+        to = end;
+      ids[i] = Utils.parseId(line.substring(from, to));
+      from = to + 1;
     }
-    return encoded;
+    return ids;
   }
 
-  private List<String> makePairs(Object[] elements) {
-    List<String> pairs = new ArrayList<>(elements.length);
-    int len = elements.length;
+  private void writePairs(int[] ids, Writer pairWriter) throws IOException {
+    int len = ids.length;
     for (int i = 0; i < (len - 1); i++) {
+      int a = ids[i];
+      String first = encode(a);
       for (int j = (i + 1); j < len; j++) {
-        if (asBase36) {
-          String a = (String) elements[i];
-          String b = (String) elements[j];
-          if (!a.equals(b))
-            pairs.add(createRow(elements[i], elements[j]));
-        } else {
-          int a = (int) elements[i];
-          int b = (int) elements[j];
-          if (a != b)
-            pairs.add(createRowWithSep(' ', a, b));
+        int b = ids[j];
+        if (a != b) {
+          pairWriter.write(first);
+          pairWriter.write(asBase36 ? ',' : ' ');
+          pairWriter.write(encode(b));
+          pairWriter.write('\n');
         }
       }
     }
-    return pairs;
+  }
+
+  private String encode(int id) {
+    return asBase36 ? Utils.base36Encode(id) : Integer.toString(id);
   }
 }
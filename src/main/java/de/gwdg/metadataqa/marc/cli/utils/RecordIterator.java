@@ -9,13 +9,16 @@ import de.gwdg.metadataqa.marc.dao.record.BibliographicRecord;
 import de.gwdg.metadataqa.marc.definition.DataSource;
 import de.gwdg.metadataqa.marc.definition.MarcVersion;
 import de.gwdg.metadataqa.marc.definition.bibliographic.SchemaType;
+import de.gwdg.metadataqa.marc.utils.DefinitionRegistry;
 import de.gwdg.metadataqa.marc.utils.QAMarcReaderFactory;
+import de.gwdg.metadataqa.marc.utils.SchemaRegistry;
 import de.gwdg.metadataqa.marc.utils.marcreader.AlephseqMarcReader;
 import de.gwdg.metadataqa.marc.utils.marcreader.ErrorAwareReader;
+import de.gwdg.metadataqa.marc.utils.marcreader.RecordOffsetIndex;
 import de.gwdg.metadataqa.marc.utils.pica.PicaSchemaManager;
-import de.gwdg.metadataqa.marc.utils.pica.PicaSchemaReader;
+import de.gwdg.metadataqa.marc.utils.pica.reader.PicaReader;
+import de.gwdg.metadataqa.marc.utils.pica.reader.model.PicaLine;
 import de.gwdg.metadataqa.marc.utils.unimarc.UnimarcSchemaManager;
-import de.gwdg.metadataqa.marc.utils.unimarc.UnimarcSchemaReader;
 import org.apache.commons.cli.HelpFormatter;
 import org.apache.commons.cli.Options;
 import org.apache.solr.client.solrj.SolrServerException;
@@ -23,10 +26,14 @@ import org.marc4j.MarcException;
 import org.marc4j.MarcReader;
 import org.marc4j.marc.Record;
 
+import java.io.ByteArrayInputStream;
 import java.io.FileInputStream;
+import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.text.DecimalFormat;
+import java.util.List;
+import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.zip.GZIPInputStream;
@@ -53,6 +60,8 @@ public class RecordIterator {
   private String status = "waits";
   private boolean processWithEroors = false;
   private long start;
+  private RecordWorkerPool workerPool;
+  private RecordPrefilter prefilter;
 
   public RecordIterator(BibliographicInputProcessor processor) {
     this.processor = processor;
@@ -71,10 +80,21 @@ public class RecordIterator {
     decimalFormat = new DecimalFormat();
 
     setupSchema();
+    prefilter = processor.getPrefilter();
 
     if (processor.getParameters().doLog())
       logger.info("marcVersion: " + marcVersion.getCode() + ", " + marcVersion.getLabel());
 
+    if (parameters.getThreads() > 1) {
+      Map<String, Long> warmUpCost = DefinitionRegistry.warmUp(parameters.getSchemaType());
+      if (parameters.doLog()) {
+        logger.log(Level.INFO, "processing records in {0} threads", parameters.getThreads());
+        logger.log(Level.INFO, "warm-up of the definition registries (ms): {0}", warmUpCost);
+      }
+      workerPool = new RecordWorkerPool(this, processor, parameters.getThreads());
+      workerPool.start();
+    }
+
     if (parameters.getDataSource().equals(DataSource.FILE)) {
       String[] inputFileNames = processor.getParameters().getArgs();
       for (String inputFileName : inputFileNames) {
@@ -91,6 +111,9 @@ public class RecordIterator {
       }
     }
 
+    if (workerPool != null)
+      workerPool.shutdown();
+
     long duration = System.currentTimeMillis() - start;
     processor.afterIteration(recordNumber, duration);
 
@@ -109,8 +132,14 @@ public class RecordIterator {
 
     try {
       processor.fileOpened(path);
-      MarcReader reader = getMarcFileReader(processor.getParameters(), path);
-      processContent(reader, fileName);
+      if (!processIndexedRecords(path, fileName)) {
+        MarcReader reader = getMarcFileReader(processor.getParameters(), path);
+        try {
+          processContent(reader, fileName);
+        } finally {
+          closeReader(reader);
+        }
+      }
       if (processor.getParameters().doLog())
         logger.log(Level.INFO, "Finished processing file. Processed {0} records.", new Object[]{decimalFormat.format(recordNumber)});
 
@@ -139,6 +168,54 @@ public class RecordIterator {
     }
   }
 
+  /**
+   * If a single record is requested (--id) from an ISO 2709 or Alephseq file, it reads only the records having the
+   * same control number with the help of the record offset index of the file (which is built at the first request).
+   * The record numbers are the same as if the whole file were processed.
+   * @param path The input file
+   * @param fileName The name of the input file
+   * @return false if the index could not be used, so the file should be processed from the beginning
+   */
+  private boolean processIndexedRecords(Path path, String fileName) {
+    if (!parameters.hasId()
+        || parameters.getOffset() > -1
+        || parameters.getLimit() > -1
+        || !RecordOffsetIndex.isIndexable(parameters.getMarcFormat(), path))
+      return false;
+
+    try (RecordOffsetIndex index = RecordOffsetIndex.open(path, parameters.getMarcFormat(), parameters.getAlephseqLineType())) {
+      int firstRecordNumber = recordNumber;
+      for (RecordOffsetIndex.Entry entry : index.find(parameters.getId())) {
+        if (!processor.readyToProcess())
+          break;
+        recordNumber = firstRecordNumber + entry.getNumber() - 1;
+        MarcReader reader = QAMarcReaderFactory.getStreamReader(
+          parameters.getMarcFormat(), new ByteArrayInputStream(index.readRecord(entry)), parameters);
+        processContent(reader, fileName);
+      }
+      recordNumber = firstRecordNumber + index.getRecords();
+      return true;
+    } catch (IOException e) {
+      logger.log(Level.WARNING, "The record offset index of {0} could not be used, the file will be read through. {1}",
+        new Object[]{fileName, e.getLocalizedMessage()});
+      return false;
+    }
+  }
+
+  /**
+   * Closes the readers holding a file (e.g. the memory-mapped ISO 2709 reader), since the iteration might stop
+   * before the end of the file (--limit)
+   */
+  private static void closeReader(MarcReader reader) {
+    if (reader instanceof AutoCloseable) {
+      try {
+        ((AutoCloseable) reader).close();
+      } catch (Exception e) {
+        logger.log(Level.WARNING, "closeReader", e);
+      }
+    }
+  }
+
   private void processContent(MarcReader reader, String fileName) {
     while (reader.hasNext()) {
       if (!processor.readyToProcess())
@@ -146,7 +223,7 @@ public class RecordIterator {
 
       IteratorResponse iteratorResponse = getNextMarc4jRecord(recordNumber, lastKnownId, reader);
       recordNumber++;
-      if (iteratorResponse.getMarc4jRecord() == null)
+      if (!iteratorResponse.hasRecord())
         continue;
 
       if (isUnderOffset(processor.getParameters().getOffset(), recordNumber))
@@ -155,53 +232,151 @@ public class RecordIterator {
       if (isOverLimit(processor.getParameters().getLimit(), recordNumber))
         break;
 
-      if (iteratorResponse.getMarc4jRecord().getControlNumber() == null) {
+      if (iteratorResponse.getControlNumber() == null) {
         logger.log(Level.SEVERE, "No record number at {0}, last known ID: {1}", new Object[]{recordNumber, lastKnownId});
-        if (iteratorResponse.getMarc4jRecord().getLeader() != null)
+        if (!iteratorResponse.hasPicaLines() && iteratorResponse.getMarc4jRecord().getLeader() != null)
           System.err.println(iteratorResponse.getMarc4jRecord());
         if (!processWithEroors)
           continue;
       } else {
-        lastKnownId = iteratorResponse.getMarc4jRecord().getControlNumber();
+        lastKnownId = iteratorResponse.getControlNumber();
       }
 
-      if (skipRecord(iteratorResponse.getMarc4jRecord()))
+      if (skipRecord(iteratorResponse.getControlNumber()))
         continue;
 
-      try {
-        processor.processRecord(iteratorResponse.getMarc4jRecord(), recordNumber);
-
-        // Transform the marc4j record to a bibliographic record
-        BibliographicRecord bibliographicRecord = iteratorResponse.hasBlockingError()
-                                                ? null
-                                                : transformMarcRecord(iteratorResponse.getMarc4jRecord());
-        try {
-          if (processWithEroors)
-            processor.processRecord(bibliographicRecord, recordNumber, iteratorResponse.getErrors());
-          else
-            if (bibliographicRecord != null)
-              processor.processRecord(bibliographicRecord, recordNumber);
-        } catch(Exception e) {
-          logger.log(Level.SEVERE, "Problem occured at processor.processRecord()", e);
-          e.printStackTrace();
-        }
+      if (isFilteredOut(iteratorResponse))
+        continue;
 
+      if (workerPool != null) {
+        workerPool.submit(iteratorResponse, recordNumber, fileName);
         if (recordNumber % 100000 == 0 && processor.getParameters().doLog())
-          logger.log(Level.INFO, "{0}/{1} ({2})", new Object[]{
-            fileName,
-            decimalFormat.format(recordNumber),
-            (bibliographicRecord != null ? bibliographicRecord.getId() : "unknown")});
-      } catch (IllegalArgumentException e) {
-        extracted(recordNumber, iteratorResponse.getMarc4jRecord(), e, "Error (illegal argument) with record '%s'. %s");
-      } catch (Exception e) {
-        e.printStackTrace();
-        extracted(recordNumber, iteratorResponse.getMarc4jRecord(), e, "Error (general) with record '%s'. %s");
+          logProgress(fileName, recordNumber, lastKnownId);
+      } else {
+        processResponse(processor, iteratorResponse, recordNumber, fileName);
       }
     }
   }
 
+  /**
+   * Transforms the marc4j record (or the PICA lines) and passes it to the processor.
+   * The marc4j record is passed only to the processors which need it.
+   * @param target The processor (or in parallel mode the processor of the worker thread)
+   * @param iteratorResponse The marc4j record and the parsing errors
+   * @param recordNumber The number of the record
+   * @param fileName The name of the input file
+   */
+  void processResponse(BibliographicInputProcessor target,
+                       IteratorResponse iteratorResponse,
+                       int recordNumber,
+                       String fileName) {
+    try {
+      if (target.needsMarc4jRecord())
+        target.processRecord(iteratorResponse.getMarc4jRecord(), recordNumber);
+
+      // Transform the marc4j record to a bibliographic record
+      BibliographicRecord bibliographicRecord = transform(iteratorResponse);
+      processBibliographicRecord(target, iteratorResponse, bibliographicRecord, recordNumber, fileName);
+    } catch (Exception e) {
+      handleException(recordNumber, iteratorResponse.getControlNumber(), e);
+    }
+  }
+
+  /**
+   * Passes an already transformed record to the processor (used in parallel mode).
+   * @param target The processor
+   * @param iteratorResponse The marc4j record and the parsing errors
+   * @param bibliographicRecord The result of the transformation
+   * @param transformationException The exception thrown during the transformation, if any
+   * @param recordNumber The number of the record
+   * @param fileName The name of the input file
+   */
+  void processTransformed(BibliographicInputProcessor target,
+                          IteratorResponse iteratorResponse,
+                          BibliographicRecord bibliographicRecord,
+                          Exception transformationException,
+                          int recordNumber,
+                          String fileName) {
+    try {
+      if (target.needsMarc4jRecord())
+        target.processRecord(iteratorResponse.getMarc4jRecord(), recordNumber);
+      if (transformationException != null)
+        throw transformationException;
+      processBibliographicRecord(target, iteratorResponse, bibliographicRecord, recordNumber, fileName);
+    } catch (Exception e) {
+      handleException(recordNumber, iteratorResponse.getControlNumber(), e);
+    }
+  }
+
+  /**
+   * Checks the --allowableRecords and --ignorableRecords criteria on a partial record, which contains only the fields
+   * the criteria check, so the records the processor would skip anyway are not transformed at all.
+   * @param iteratorResponse The marc4j record (or the PICA lines)
+   * @return true if the processor would skip the record
+   */
+  boolean isFilteredOut(IteratorResponse iteratorResponse) {
+    if (prefilter == null || iteratorResponse.hasBlockingError())
+      return false;
+    try {
+      BibliographicRecord partialRecord = iteratorResponse.hasPicaLines()
+        ? MarcFactory.createPicaFromLines(
+            prefilter.selectLines(iteratorResponse.getPicaLines()), iteratorResponse.getControlNumber(), picaSchema)
+        : transformMarcRecord(prefilter.selectFields(iteratorResponse.getMarc4jRecord()));
+      return prefilter.isSkippable(partialRecord);
+    } catch (Exception e) {
+      // the processor will meet the same problem with the full record
+      return false;
+    }
+  }
+
+  BibliographicRecord transform(IteratorResponse iteratorResponse) {
+    if (iteratorResponse.hasBlockingError())
+      return null;
+    if (iteratorResponse.hasPicaLines())
+      return MarcFactory.createPicaFromLines(iteratorResponse.getPicaLines(), iteratorResponse.getControlNumber(), picaSchema);
+    return transformMarcRecord(iteratorResponse.getMarc4jRecord());
+  }
+
+  private void processBibliographicRecord(BibliographicInputProcessor target,
+                                          IteratorResponse iteratorResponse,
+                                          BibliographicRecord bibliographicRecord,
+                                          int recordNumber,
+                                          String fileName) {
+    try {
+      if (processWithEroors)
+        target.processRecord(bibliographicRecord, recordNumber, iteratorResponse.getErrors());
+      else
+        if (bibliographicRecord != null)
+          target.processRecord(bibliographicRecord, recordNumber);
+    } catch(Exception e) {
+      logger.log(Level.SEVERE, "Problem occured at processor.processRecord()", e);
+      e.printStackTrace();
+    }
+
+    if (workerPool == null && recordNumber % 100000 == 0 && processor.getParameters().doLog())
+      logProgress(fileName, recordNumber, (bibliographicRecord != null ? bibliographicRecord.getId() : "unknown"));
+  }
+
+  private void logProgress(String fileName, int recordNumber, String id) {
+    logger.log(Level.INFO, "{0}/{1} ({2})", new Object[]{
+      fileName,
+      decimalFormat.format(recordNumber),
+      id});
+  }
+
+  private void handleException(int recordNumber, String controlNumber, Exception e) {
+    if (e instanceof IllegalArgumentException) {
+      extracted(recordNumber, controlNumber, e, "Error (illegal argument) with record '%s'. %s");
+    } else {
+      e.printStackTrace();
+      extracted(recordNumber, controlNumber, e, "Error (general) with record '%s'. %s");
+    }
+  }
+
   private BibliographicRecord transformMarcRecord(Record marc4jRecord) {
     if (parameters.getSchemaType().equals(SchemaType.MARC21)) {
+      if (parameters.isLazyRecords())
+        return MarcFactory.createLazyFromMarc4j(marc4jRecord, defaultRecordType, marcVersion, replacementInControlFields);
       return MarcFactory.createFromMarc4j(marc4jRecord, defaultRecordType, marcVersion, replacementInControlFields);
     } else if (parameters.getSchemaType().equals(SchemaType.PICA)) {
       return MarcFactory.createPicaFromMarc4j(marc4jRecord, picaSchema);
@@ -233,7 +408,14 @@ public class RecordIterator {
   private IteratorResponse getNextMarc4jRecord(int i, String lastKnownId, MarcReader reader) {
     IteratorResponse response = new IteratorResponse();
     try {
-      response.setMarc4jRecord(reader.next());
+      if (readsPicaLines(reader)) {
+        PicaReader picaReader = (PicaReader) reader;
+        List<PicaLine> lines = picaReader.nextLines();
+        if (lines != null)
+          response.setPicaLines(lines, picaReader.getRecordId(lines), () -> picaReader.createMarc4jRecord(lines));
+      } else {
+        response.setMarc4jRecord(reader.next());
+      }
       if (reader instanceof ErrorAwareReader) {
         ErrorAwareReader errorAwareReader = (ErrorAwareReader) reader;
         response.setErrors(errorAwareReader.getErrors());
@@ -251,16 +433,26 @@ public class RecordIterator {
     return response;
   }
 
-  private boolean skipRecord(Record marc4jRecord) {
+  /**
+   * PICA records are transformed directly from their lines, unless they are read by a reader which produces only
+   * marc4j records (e.g. the XML reader)
+   */
+  private boolean readsPicaLines(MarcReader reader) {
+    return picaSchema != null
+      && reader instanceof PicaReader
+      && ((PicaReader) reader).canReadLines();
+  }
+
+  private boolean skipRecord(String controlNumber) {
     return processor.getParameters().hasId()
-      && !marc4jRecord.getControlNumber().trim().equals(processor.getParameters().getId());
+      && !controlNumber.trim().equals(processor.getParameters().getId());
   }
 
-  private void extracted(int i, Record marc4jRecord, Exception e, String message) {
-    if (marc4jRecord.getControlNumber() == null)
+  private void extracted(int i, String controlNumber, Exception e, String message) {
+    if (controlNumber == null)
       logger.log(Level.SEVERE, "No record number at {0}", i);
     if (processor.getParameters().doLog())
-      logger.log(Level.SEVERE, String.format(message, marc4jRecord.getControlNumber(), e.getMessage()));
+      logger.log(Level.SEVERE, String.format(message, controlNumber, e.getMessage()));
     logger.log(Level.SEVERE, "start", e);
   }
 
@@ -283,14 +475,9 @@ public class RecordIterator {
     // implementations get refactored in a way that they inherit from common interfaces.
     // That's a bit of a long shot though, so for now we'll just keep it here.
     if (parameters.isPica()) {
-      picaSchema = PicaSchemaReader.createSchemaManager(parameters.getPicaSchemaFile());
+      picaSchema = SchemaRegistry.getPicaSchema(parameters.getPicaSchemaFile());
     } else if (parameters.isUnimarc()) {
-      UnimarcSchemaReader unimarcSchemaReader = new UnimarcSchemaReader();
-      String schemaFilePath = parameters.getPicaSchemaFile();
-      if (schemaFilePath == null) {
-        schemaFilePath = "src/main/resources/unimarc/avram-unimarc.json";
-      }
-      unimarcSchema = unimarcSchemaReader.createSchema(schemaFilePath);
+      unimarcSchema = SchemaRegistry.getUnimarcSchema(parameters.getPicaSchemaFile());
     }
   }
 
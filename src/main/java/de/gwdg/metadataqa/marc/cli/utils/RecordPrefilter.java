@@ -0,0 +1,136 @@
+package de.gwdg.metadataqa.marc.cli.utils;
+
+import de.gwdg.metadataqa.marc.cli.utils.ignorablerecords.RecordFilter;
+import de.gwdg.metadataqa.marc.cli.utils.ignorablerecords.RecordIgnorator;
+import de.gwdg.metadataqa.marc.dao.record.BibliographicRecord;
+import de.gwdg.metadataqa.marc.utils.pica.reader.model.PicaLine;
+import org.marc4j.marc.DataField;
+import org.marc4j.marc.MarcFactory;
+import org.marc4j.marc.Record;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Evaluates the --allowableRecords and --ignorableRecords criteria of a processor before the record is transformed.
+ * The criteria check only the data fields having the tags returned by getTags(), so they give the same result on
+ * a partial record which contains only these fields as on the full record. The RecordIterator transforms only those
+ * fields, and drops the record if the processor would skip it anyway.
+ */
+public class RecordPrefilter {
+
+  private final RecordFilter recordFilter;
+  private final RecordIgnorator recordIgnorator;
+  private final List<RecordPrefilter> members;
+  private final Set<String> tags = new HashSet<>();
+
+  private RecordPrefilter(RecordFilter recordFilter, RecordIgnorator recordIgnorator) {
+    this.recordFilter = isEmpty(recordFilter) ? null : recordFilter;
+    this.recordIgnorator = isEmpty(recordIgnorator) ? null : recordIgnorator;
+    this.members = null;
+    if (this.recordFilter != null)
+      tags.addAll(this.recordFilter.getTags());
+    if (this.recordIgnorator != null)
+      tags.addAll(this.recordIgnorator.getTags());
+  }
+
+  private RecordPrefilter(List<RecordPrefilter> members) {
+    this.recordFilter = null;
+    this.recordIgnorator = null;
+    this.members = members;
+    for (RecordPrefilter member : members)
+      tags.addAll(member.getTags());
+  }
+
+  /**
+   * Creates a prefilter for a processor which skips the ignorable records.
+   * @param recordIgnorator The --ignorableRecords criteria
+   * @return The prefilter, or null if there is nothing to filter
+   */
+  public static RecordPrefilter create(RecordIgnorator recordIgnorator) {
+    return create(null, recordIgnorator);
+  }
+
+  /**
+   * Creates a prefilter for a processor which skips both the not allowable and the ignorable records.
+   * @param recordFilter The --allowableRecords criteria
+   * @param recordIgnorator The --ignorableRecords criteria
+   * @return The prefilter, or null if there is nothing to filter
+   */
+  public static RecordPrefilter create(RecordFilter recordFilter, RecordIgnorator recordIgnorator) {
+    if (isEmpty(recordFilter) && isEmpty(recordIgnorator))
+      return null;
+    return new RecordPrefilter(recordFilter, recordIgnorator);
+  }
+
+  /**
+   * Creates a prefilter for a group of processors (see MultiAnalysis). A record can be dropped only if all the
+   * processors would skip it.
+   * @param members The prefilters of the processors
+   * @return The prefilter, or null if any of the processors processes all records
+   */
+  public static RecordPrefilter all(List<RecordPrefilter> members) {
+    if (members.isEmpty() || members.contains(null))
+      return null;
+    if (members.size() == 1)
+      return members.get(0);
+    return new RecordPrefilter(new ArrayList<>(members));
+  }
+
+  private static boolean isEmpty(RecordFilter recordFilter) {
+    return recordFilter == null || recordFilter.isEmpty();
+  }
+
+  private static boolean isEmpty(RecordIgnorator recordIgnorator) {
+    return recordIgnorator == null || recordIgnorator.isEmpty();
+  }
+
+  /**
+   * @return The tags of the data fields the criteria check
+   */
+  public Set<String> getTags() {
+    return tags;
+  }
+
+  /**
+   * Tells whether the processor would skip the record.
+   * @param partialRecord The record, which should contain (at least) all the fields having the tags of getTags()
+   * @return true if the record is not allowable or ignorable
+   */
+  public boolean isSkippable(BibliographicRecord partialRecord) {
+    if (members != null) {
+      for (RecordPrefilter member : members)
+        if (!member.isSkippable(partialRecord))
+          return false;
+      return true;
+    }
+    return (recordFilter != null && !recordFilter.isAllowable(partialRecord))
+      || (recordIgnorator != null && recordIgnorator.isIgnorable(partialRecord));
+  }
+
+  /**
+   * @param lines The lines of a PICA record
+   * @return The lines the criteria check
+   */
+  public List<PicaLine> selectLines(List<PicaLine> lines) {
+    List<PicaLine> selected = new ArrayList<>();
+    for (PicaLine line : lines)
+      if (line.getTag() != null && tags.contains(line.getTag()))
+        selected.add(line);
+    return selected;
+  }
+
+  /**
+   * @param marc4jRecord A marc4j record
+   * @return A new marc4j record with the leader and the data fields the criteria check
+   */
+  public Record selectFields(Record marc4jRecord) {
+    Record partial = MarcFactory.newInstance().newRecord(marc4jRecord.getLeader());
+    for (DataField field : marc4jRecord.getDataFields())
+      if (tags.contains(field.getTag()))
+        partial.addVariableField(field);
+    return partial;
+  }
+}
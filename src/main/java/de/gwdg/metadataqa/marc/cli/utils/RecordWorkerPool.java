@@ -0,0 +1,195 @@
+package de.gwdg.metadataqa.marc.cli.utils;
+
+import de.gwdg.metadataqa.marc.cli.processor.BibliographicInputProcessor;
+import de.gwdg.metadataqa.marc.cli.processor.ParallelProcessor;
+import de.gwdg.metadataqa.marc.dao.record.BibliographicRecord;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The parallel mode of the RecordIterator. The reader thread (the caller of submit()) puts the raw marc4j
+ * records into a bounded queue, and the worker threads transform them to BibliographicRecord objects.
+ *
+ * If the processor is a ParallelProcessor, each worker thread has its own worker processor, which processes
+ * the transformed records, and the workers are merged into the processor at the end. Otherwise the transformed
+ * records are processed by a single thread in the original order of the records.
+ */
+class RecordWorkerPool {
+
+  private static final Logger logger = Logger.getLogger(RecordWorkerPool.class.getCanonicalName());
+  private static final int QUEUE_SIZE_PER_THREAD = 100;
+  private static final Task END_OF_INPUT = new Task(null, -1, null);
+
+  private final RecordIterator iterator;
+  private final BibliographicInputProcessor processor;
+  private final int numberOfThreads;
+  private final BlockingQueue<Task> queue;
+  private final List<Thread> threads = new ArrayList<>();
+  private final List<BibliographicInputProcessor> workers = new ArrayList<>();
+  private ExecutorService transformerPool;
+
+  RecordWorkerPool(RecordIterator iterator, BibliographicInputProcessor processor, int numberOfThreads) {
+    this.iterator = iterator;
+    this.processor = processor;
+    this.numberOfThreads = numberOfThreads;
+    this.queue = new ArrayBlockingQueue<>(numberOfThreads * QUEUE_SIZE_PER_THREAD);
+  }
+
+  void start() {
+    if (processor instanceof ParallelProcessor)
+      startWorkers((ParallelProcessor<?>) processor);
+    else
+      startOrderedProcessing();
+    threads.forEach(Thread::start);
+  }
+
+  private <T extends BibliographicInputProcessor> void startWorkers(ParallelProcessor<T> parallelProcessor) {
+    for (int i = 0; i < numberOfThreads; i++) {
+      T worker = parallelProcessor.createWorker();
+      workers.add(worker);
+      threads.add(new Thread(() -> runWorker(worker), "record-worker-" + i));
+    }
+  }
+
+  /**
+   * Only the transformation runs in the thread pool, a single thread processes the transformed records
+   * in the order they have been read.
+   */
+  private void startOrderedProcessing() {
+    transformerPool = Executors.newFixedThreadPool(numberOfThreads);
+    threads.add(new Thread(this::runOrderedProcessing, "record-processor"));
+  }
+
+  /**
+   * Passes a record to the workers. It blocks if the queue is full.
+   * @param response The raw record
+   * @param recordNumber The number of the record
+   * @param fileName The name of the input file
+   */
+  void submit(IteratorResponse response, int recordNumber, String fileName) {
+    Task task = new Task(response, recordNumber, fileName);
+    if (transformerPool != null)
+      task.transformed = CompletableFuture.supplyAsync(() -> transform(task), transformerPool);
+    put(task);
+  }
+
+  /**
+   * Waits until all the submitted records are processed, and merges the workers into the processor.
+   */
+  void shutdown() {
+    int endMarkers = transformerPool != null ? 1 : numberOfThreads;
+    for (int i = 0; i < endMarkers; i++)
+      put(END_OF_INPUT);
+
+    for (Thread thread : threads) {
+      try {
+        thread.join();
+      } catch (InterruptedException e) {
+        logger.log(Level.SEVERE, "shutdown", e);
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    if (transformerPool != null) {
+      transformerPool.shutdown();
+      try {
+        transformerPool.awaitTermination(1, TimeUnit.MINUTES);
+      } catch (InterruptedException e) {
+        logger.log(Level.SEVERE, "shutdown", e);
+        Thread.currentThread().interrupt();
+      }
+    } else {
+      mergeWorkers((ParallelProcessor<?>) processor);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T extends BibliographicInputProcessor> void mergeWorkers(ParallelProcessor<T> parallelProcessor) {
+    for (BibliographicInputProcessor worker : workers)
+      parallelProcessor.merge((T) worker);
+  }
+
+  private void runWorker(BibliographicInputProcessor worker) {
+    Task task;
+    while ((task = take()) != END_OF_INPUT)
+      iterator.processResponse(worker, task.response, task.recordNumber, task.fileName);
+  }
+
+  private void runOrderedProcessing() {
+    Task task;
+    while ((task = take()) != END_OF_INPUT) {
+      Transformation transformation;
+      try {
+        transformation = task.transformed.get();
+      } catch (ExecutionException e) {
+        transformation = new Transformation(null, e.getCause() instanceof Exception ? (Exception) e.getCause() : e);
+      } catch (InterruptedException e) {
+        logger.log(Level.SEVERE, "runOrderedProcessing", e);
+        Thread.currentThread().interrupt();
+        return;
+      }
+      iterator.processTransformed(processor, task.response, transformation.bibliographicRecord,
+        transformation.exception, task.recordNumber, task.fileName);
+    }
+  }
+
+  private Transformation transform(Task task) {
+    try {
+      return new Transformation(iterator.transform(task.response), null);
+    } catch (Exception e) {
+      return new Transformation(null, e);
+    }
+  }
+
+  private void put(Task task) {
+    try {
+      queue.put(task);
+    } catch (InterruptedException e) {
+      logger.log(Level.SEVERE, "put", e);
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private Task take() {
+    try {
+      return queue.take();
+    } catch (InterruptedException e) {
+      logger.log(Level.SEVERE, "take", e);
+      Thread.currentThread().interrupt();
+      return END_OF_INPUT;
+    }
+  }
+
+  private static class Task {
+    private final IteratorResponse response;
+    private final int recordNumber;
+    private final String fileName;
+    private CompletableFuture<Transformation> transformed;
+
+    private Task(IteratorResponse response, int recordNumber, String fileName) {
+      this.response = response;
+      this.recordNumber = recordNumber;
+      this.fileName = fileName;
+    }
+  }
+
+  private static class Transformation {
+    private final BibliographicRecord bibliographicRecord;
+    private final Exception exception;
+
+    private Transformation(BibliographicRecord bibliographicRecord, Exception exception) {
+      this.bibliographicRecord = bibliographicRecord;
+      this.exception = exception;
+    }
+  }
+}
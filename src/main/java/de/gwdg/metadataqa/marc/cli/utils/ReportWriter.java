@@ -0,0 +1,104 @@
+package de.gwdg.metadataqa.marc.cli.utils;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps a buffered writer open for each report file during the whole iteration, instead of opening,
+ * appending to and closing the file for every line. If the name of the file ends with <code>.gz</code>
+ * the content is gzip compressed. The files are opened in append mode, the same way as the line by
+ * line writing worked. The writers are thread safe, a single print() call is never interleaved with
+ * another one.
+ */
+public class ReportWriter implements Closeable {
+
+  private static final Logger logger = Logger.getLogger(ReportWriter.class.getCanonicalName());
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private final Map<File, Writer> writers = new ConcurrentHashMap<>();
+
+  /**
+   * Appends the content to the file
+   * @param file The output file
+   * @param content The content
+   */
+  public void print(File file, String content) throws IOException {
+    Writer writer;
+    try {
+      writer = writers.computeIfAbsent(file.getAbsoluteFile(), ReportWriter::open);
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+    synchronized (writer) {
+      writer.write(content);
+    }
+  }
+
+  private static Writer open(File file) {
+    try {
+      OutputStream stream = new FileOutputStream(file, true);
+      if (file.getName().endsWith(".gz"))
+        stream = new GZIPOutputStream(stream, BUFFER_SIZE);
+      return new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8), BUFFER_SIZE);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Flushes all open writers
+   */
+  public void flush() {
+    for (Map.Entry<File, Writer> entry : writers.entrySet()) {
+      synchronized (entry.getValue()) {
+        try {
+          entry.getValue().flush();
+        } catch (IOException e) {
+          logger.log(Level.SEVERE, "flush " + entry.getKey(), e);
+        }
+      }
+    }
+  }
+
+  /**
+   * Closes the writer of a single file (if it is open), e.g. before the file is deleted.
+   * @param file The output file
+   */
+  public void close(File file) {
+    Writer writer = writers.remove(file.getAbsoluteFile());
+    if (writer != null)
+      close(file, writer);
+  }
+
+  /**
+   * Closes all open writers. A subsequent print() reopens the file in append mode.
+   */
+  @Override
+  public void close() {
+    for (File file : writers.keySet())
+      close(file);
+  }
+
+  private static void close(File file, Writer writer) {
+    synchronized (writer) {
+      try {
+        writer.close();
+      } catch (IOException e) {
+        logger.log(Level.SEVERE, "close " + file, e);
+      }
+    }
+  }
+}
@@ -6,14 +6,8 @@ import de.gwdg.metadataqa.marc.model.kos.KosType;
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 
-import java.util.HashMap;
-import java.util.Map;
-
 public class Schema {
 
-  private static int centralIdCounter = 0;
-  private static Map<Schema, Integer> schemaCounter = new HashMap<>();
-
   int id;
   String field;
   String location;
@@ -24,7 +18,6 @@ public class Schema {
     this.field = field;
     this.location = location;
     this.schema = schema;
-    setId();
   }
 
   public Schema(String field, String location, String abbreviation, String schema) {
@@ -32,9 +25,8 @@ public class Schema {
     this.abbreviation = abbreviation;
   }
 
-  private void setId() {
-    schemaCounter.computeIfAbsent(this, s -> ++centralIdCounter);
-    this.id = schemaCounter.get(this);
+  public void setId(int id) {
+    this.id = id;
   }
 
   public String getField() {
@@ -99,10 +91,6 @@ public class Schema {
       .toHashCode();
   }
 
-  public static void resetIdCounter() {
-    centralIdCounter = 0;
-  }
-
   @Override
   public String toString() {
     return "Schema{" +
@@ -0,0 +1,173 @@
+package de.gwdg.metadataqa.marc.cli.utils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+
+/**
+ * A temporary file which stores the record level validation details of a single worker thread.
+ * The error IDs of the workers are only finalized after the iteration, so the workers store the
+ * details in a binary form, and after the iteration the parts are merged in the order of the record
+ * numbers.
+ */
+public class ValidatorDetailsPart implements Closeable {
+
+  private final File file;
+  private final DataOutputStream out;
+
+  public ValidatorDetailsPart(File file) throws IOException {
+    this.file = file;
+    this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+  }
+
+  /**
+   * Stores the error IDs of a record
+   * @param recordNumber The number of the record
+   * @param recordId The record identifier
+   * @param errorIds The IDs of the errors found in the record (with repetitions)
+   */
+  public void writeErrorIds(int recordNumber, String recordId, List<Integer> errorIds) throws IOException {
+    out.writeInt(recordNumber);
+    out.writeBoolean(true);
+    writeString(recordId);
+    out.writeInt(errorIds.size());
+    for (int errorId : errorIds)
+      out.writeInt(errorId);
+  }
+
+  /**
+   * Stores an already formatted message of a record
+   * @param recordNumber The number of the record
+   * @param message The formatted message
+   */
+  public void writeMessage(int recordNumber, String message) throws IOException {
+    out.writeInt(recordNumber);
+    out.writeBoolean(false);
+    writeString(message);
+  }
+
+  private void writeString(String text) throws IOException {
+    byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  @Override
+  public void close() throws IOException {
+    out.close();
+  }
+
+  public void delete() throws IOException {
+    Files.deleteIfExists(file.toPath());
+  }
+
+  /**
+   * Reads the entries of the (closed) parts, and passes them to the consumer in the order of the record numbers.
+   * The entries of a single part should be in increasing record number order.
+   * @param parts The parts
+   * @param consumer The consumer of the entries
+   */
+  public static void mergeInOrder(List<ValidatorDetailsPart> parts, Consumer<Entry> consumer) throws IOException {
+    List<DataInputStream> inputs = new ArrayList<>();
+    try {
+      PriorityQueue<Entry> queue = new PriorityQueue<>(Comparator.comparingInt(Entry::getRecordNumber));
+      for (int i = 0; i < parts.size(); i++) {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(parts.get(i).file)));
+        inputs.add(in);
+        Entry entry = read(in, i);
+        if (entry != null)
+          queue.add(entry);
+      }
+
+      while (!queue.isEmpty()) {
+        Entry entry = queue.poll();
+        consumer.accept(entry);
+        Entry next = read(inputs.get(entry.part), entry.part);
+        if (next != null)
+          queue.add(next);
+      }
+    } finally {
+      for (DataInputStream in : inputs)
+        in.close();
+    }
+  }
+
+  private static Entry read(DataInputStream in, int part) throws IOException {
+    int recordNumber;
+    try {
+      recordNumber = in.readInt();
+    } catch (EOFException e) {
+      return null;
+    }
+    Entry entry = new Entry(part, recordNumber);
+    if (in.readBoolean()) {
+      entry.recordId = readString(in);
+      int size = in.readInt();
+      entry.errorIds = new ArrayList<>(size);
+      for (int i = 0; i < size; i++)
+        entry.errorIds.add(in.readInt());
+    } else {
+      entry.message = readString(in);
+    }
+    return entry;
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    byte[] bytes = new byte[in.readInt()];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  public static class Entry {
+    private final int part;
+    private final int recordNumber;
+    private String recordId;
+    private List<Integer> errorIds;
+    private String message;
+
+    private Entry(int part, int recordNumber) {
+      this.part = part;
+      this.recordNumber = recordNumber;
+    }
+
+    /**
+     * @return The index of the part this entry has been read from
+     */
+    public int getPart() {
+      return part;
+    }
+
+    public int getRecordNumber() {
+      return recordNumber;
+    }
+
+    public String getRecordId() {
+      return recordId;
+    }
+
+    public List<Integer> getErrorIds() {
+      return errorIds;
+    }
+
+    /**
+     * @return The formatted message, or null if the entry contains error IDs
+     */
+    public String getMessage() {
+      return message;
+    }
+  }
+}
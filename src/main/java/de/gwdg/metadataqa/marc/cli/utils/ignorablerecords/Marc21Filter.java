@@ -6,7 +6,9 @@ import de.gwdg.metadataqa.marc.dao.record.BibliographicRecord;
 import org.apache.commons.lang3.StringUtils;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.regex.Pattern;
 
 public class Marc21Filter {
@@ -32,6 +34,14 @@ public class Marc21Filter {
     return conditions == null || conditions.isEmpty();
   }
 
+  public Set<String> getTags() {
+    Set<String> tags = new HashSet<>();
+    if (conditions != null)
+      for (DataField condition : conditions)
+        tags.add(condition.getTag());
+    return tags;
+  }
+
   /**
    * Parses the given string field condition which is in a format of "tag$subfield=value" (e.g. "001$0=123456").
    * @param field The field condition to parse
@@ -8,7 +8,9 @@ import de.gwdg.metadataqa.marc.utils.pica.path.PicaPathParser;
 import org.apache.commons.lang3.StringUtils;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -71,6 +73,20 @@ public class PicaFilter {
     return booleanCriteria;
   }
 
+  public Set<String> getTags() {
+    Set<String> tags = new HashSet<>();
+    if (booleanCriteria != null)
+      collectTags(booleanCriteria, tags);
+    return tags;
+  }
+
+  private void collectTags(BooleanContainer<CriteriumPica> container, Set<String> tags) {
+    if (container.getValue() != null)
+      tags.add(container.getValue().getPath().getTag());
+    for (BooleanContainer<CriteriumPica> child : container.getChildren())
+      collectTags(child, tags);
+  }
+
   public boolean metCriteria(BibliographicRecord marcRecord, BooleanContainer<CriteriumPica> criteria) {
     boolean passed = false;
     if (criteria.getValue() != null) {
@@ -3,8 +3,14 @@ package de.gwdg.metadataqa.marc.cli.utils.ignorablerecords;
 import de.gwdg.metadataqa.marc.dao.record.BibliographicRecord;
 
 import java.io.Serializable;
+import java.util.Set;
 
 public interface RecordIgnorator extends Serializable {
   boolean isEmpty();
   boolean isIgnorable(BibliographicRecord marcRecord);
+
+  /**
+   * @return The tags of the data fields which the criteria check
+   */
+  Set<String> getTags();
 }
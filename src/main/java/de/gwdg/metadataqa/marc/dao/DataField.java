@@ -339,22 +339,23 @@ public class DataField implements Extractable, Serializable {
                                                     MarcVersion marcVersion) {
     Map<String, List<String>> pairs = new HashMap<>();
 
+    // the tag of the keys, which should not overwrite the tag of the field
+    String keyTag;
     if (bibliographicRecord != null && bibliographicRecord.getSchemaType().equals(SchemaType.PICA) && definition != null) {
       PicaFieldDefinition picaDefinition = (PicaFieldDefinition) definition;
-      tag = picaDefinition.getTag();
+      keyTag = picaDefinition.getTag();
       if (picaDefinition.getCounter() != null)
-        tag += "_" + picaDefinition.getCounter();
+        keyTag += "_" + picaDefinition.getCounter();
       else if (picaDefinition.getOccurrence() != null)
-        tag += "_" + picaDefinition.getOccurrence();
+        keyTag += "_" + picaDefinition.getOccurrence();
     } else {
-      tag = getTag();
+      keyTag = getTag();
       if (getOccurrence() != null)
-        tag += "/" + getOccurrence();
+        keyTag += "/" + getOccurrence();
     }
 
     SchemaType schemaType = bibliographicRecord != null ? bibliographicRecord.getSchemaType() : SchemaType.MARC21;
-    DataFieldKeyGenerator keyGenerator = new DataFieldKeyGenerator(definition, type, tag, schemaType);
-    keyGenerator.setMarcVersion(marcVersion);
+    DataFieldKeyGenerator keyGenerator = DataFieldKeyGenerator.getInstance(definition, type, keyTag, schemaType, marcVersion);
 
     // ind1
     boolean hasInd1def = (definition != null && definition.getInd1() != null && definition.getInd1().exists());
@@ -1,7 +1,8 @@
 package de.gwdg.metadataqa.marc.dao.record;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerationException;
+import com.fasterxml.jackson.core.JsonGenerator;
 import de.gwdg.metadataqa.marc.Extractable;
 import de.gwdg.metadataqa.marc.MarcFactory;
 import de.gwdg.metadataqa.marc.MarcSubfield;
@@ -20,11 +21,16 @@ import de.gwdg.metadataqa.marc.utils.pica.path.PicaPath;
 import de.gwdg.metadataqa.marc.utils.unimarc.UnimarcConverter;
 import org.apache.commons.lang3.StringUtils;
 
+import java.io.IOException;
 import java.io.Serializable;
+import java.io.StringWriter;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
@@ -39,6 +45,7 @@ public abstract class BibliographicRecord implements Extractable, Serializable {
 
   protected static final Pattern dataFieldPattern = Pattern.compile("^(\\d\\d\\d)\\$(.*)$");
   private static final Logger logger = Logger.getLogger(BibliographicRecord.class.getCanonicalName());
+  private static final JsonFactory jsonFactory = new JsonFactory();
   private final List<String> unhandledTags;
   protected transient List<DataField> datafields;
   /**
@@ -76,32 +83,44 @@ public abstract class BibliographicRecord implements Extractable, Serializable {
     this.id = id;
   }
 
-  protected static String transformMapToJson(ObjectMapper mapper, Map<String, Object> map) {
-    String json = null;
-    try {
-      json = mapper.writeValueAsString(map);
-    } catch (JsonProcessingException e) {
-      logger.log(Level.WARNING, "error in asJson()", e);
-    }
-    return json;
-  }
+  /**
+   * Writes the subfields of a field as a JSON object. The values of a repeated subfield are written as an array at
+   * the position of its first occurrence.
+   */
+  private static void writeSubfieldsAsJson(JsonGenerator generator, DataField field) throws IOException {
+    List<MarcSubfield> subfields = field.getSubfields();
+    generator.writeStartObject();
+    for (int i = 0; i < subfields.size(); i++) {
+      String code = subfields.get(i).getCode();
+      if (code == null)
+        throw new JsonGenerationException("Null key for a Map not allowed in JSON", generator);
+      if (isRepeatedBefore(subfields, i))
+        continue;
 
-  private static Map<String, Object> exportSubfieldsToJson(DataField field) {
-    Map<String, Object> subfields = new LinkedHashMap<>();
-    for (MarcSubfield subfield : field.getSubfields()) {
-      if (!subfields.containsKey(subfield.getCode()))
-        subfields.put(subfield.getCode(), subfield.getValue());
-      else {
-        if (subfields.get(subfield.getCode()) instanceof String) {
-          String storedValue = (String) subfields.get(subfield.getCode());
-          List<String> list = new ArrayList<>();
-          list.add(storedValue);
-          subfields.put(subfield.getCode(), list);
-        }
-        ((List)subfields.get(subfield.getCode())).add(subfield.getValue());
+      generator.writeFieldName(code);
+      int occurrences = 1;
+      for (int j = i + 1; j < subfields.size(); j++)
+        if (code.equals(subfields.get(j).getCode()))
+          occurrences++;
+      if (occurrences == 1) {
+        generator.writeString(subfields.get(i).getValue());
+      } else {
+        generator.writeStartArray();
+        for (int j = i; j < subfields.size(); j++)
+          if (code.equals(subfields.get(j).getCode()))
+            generator.writeString(subfields.get(j).getValue());
+        generator.writeEndArray();
       }
     }
-    return subfields;
+    generator.writeEndObject();
+  }
+
+  private static boolean isRepeatedBefore(List<MarcSubfield> subfields, int i) {
+    String code = subfields.get(i).getCode();
+    for (int j = 0; j < i; j++)
+      if (code.equals(subfields.get(j).getCode()))
+        return true;
+    return false;
   }
 
   protected static String joinAllSubfields(DataField field) {
@@ -144,7 +163,17 @@ public abstract class BibliographicRecord implements Extractable, Serializable {
   }
 
   public boolean hasDatafield(String tag) {
-    return datafieldIndex.containsKey(tag);
+    return lookupDatafields(tag) != null;
+  }
+
+  /**
+   * Returns the data fields of the tag from the index, or null if the record has no such field. All the tag
+   * based accessors read the index via this method, so a subclass might create the fields on demand.
+   * @param tag The tag of the data fields
+   * @return The list of data fields or null
+   */
+  protected List<DataField> lookupDatafields(String tag) {
+    return datafieldIndex.get(tag);
   }
 
   /**
@@ -156,7 +185,7 @@ public abstract class BibliographicRecord implements Extractable, Serializable {
   public List<DataField> getDatafieldsByTag(String tag) {
     // For performance reasons, just check if there's a $ sign first
     if (!tag.contains("$")) {
-      return datafieldIndex.getOrDefault(tag, null);
+      return lookupDatafields(tag);
     }
 
     String[] parts = tag.split("[=$]");
@@ -164,7 +193,7 @@ public abstract class BibliographicRecord implements Extractable, Serializable {
     String subfieldCode = parts.length > 1 ? parts[1] : null;
     String subfieldValue = parts.length > 2 ? parts[2] : null;
 
-    List<DataField> fields = datafieldIndex.getOrDefault(fieldTag, null);
+    List<DataField> fields = lookupDatafields(fieldTag);
 
     if (subfieldCode == null) {
       return fields;
@@ -244,7 +273,7 @@ public abstract class BibliographicRecord implements Extractable, Serializable {
 
   public String format() {
     StringBuilder output = new StringBuilder();
-    for (DataField field : datafields) {
+    for (DataField field : getDatafields()) {
       output.append(field.format());
     }
     return output.toString();
@@ -252,7 +281,7 @@ public abstract class BibliographicRecord implements Extractable, Serializable {
 
   public String formatAsText() {
     StringBuilder output = new StringBuilder();
-    for (DataField field : datafields) {
+    for (DataField field : getDatafields()) {
       output.append(field.formatAsText());
     }
     return output.toString();
@@ -260,7 +289,7 @@ public abstract class BibliographicRecord implements Extractable, Serializable {
 
   public String formatAsMarc() {
     StringBuilder output = new StringBuilder();
-    for (DataField field : datafields) {
+    for (DataField field : getDatafields()) {
       output.append(field.formatAsMarc());
     }
     return output.toString();
@@ -268,7 +297,7 @@ public abstract class BibliographicRecord implements Extractable, Serializable {
 
   public String formatForIndex() {
     StringBuilder output = new StringBuilder();
-    for (DataField field : datafields) {
+    for (DataField field : getDatafields()) {
       output.append(field.formatForIndex());
     }
     return output.toString();
@@ -299,61 +328,71 @@ public abstract class BibliographicRecord implements Extractable, Serializable {
     return mainKeyValuePairs;
   }
 
+  /**
+   * Merges the key-value pairs of the data fields into mainKeyValuePairs in a single pass. The values of a key are
+   * collected into an insertion-ordered set when withDeduplication is set, otherwise into a list.
+   */
   protected void getKeyValuePairsForDatafields(SolrFieldType type, boolean withDeduplication, MarcVersion marcVersion) {
-    for (DataField field : datafields) {
-      Map<String, List<String>> keyValuePairs = field.getKeyValuePairs(type, marcVersion);
-      for (Map.Entry<String, List<String>> entry : keyValuePairs.entrySet()) {
-        String key = entry.getKey();
-        List<String> values = entry.getValue();
-        if (mainKeyValuePairs.containsKey(key)) {
-          mainKeyValuePairs.put(
-            key,
-            mergeValues(new ArrayList<>(mainKeyValuePairs.get(key)), values, withDeduplication)
-          );
-        } else {
-          mainKeyValuePairs.put(key, values);
-        }
+    Map<String, Collection<String>> mergedPairs = new LinkedHashMap<>();
+    for (Map.Entry<String, List<String>> entry : mainKeyValuePairs.entrySet())
+      mergedPairs.put(entry.getKey(), createValues(entry.getValue(), withDeduplication));
+
+    for (DataField field : getDatafields()) {
+      for (Map.Entry<String, List<String>> entry : field.getKeyValuePairs(type, marcVersion).entrySet()) {
+        Collection<String> values = mergedPairs.get(entry.getKey());
+        if (values == null)
+          mergedPairs.put(entry.getKey(), createValues(entry.getValue(), withDeduplication));
+        else
+          values.addAll(entry.getValue());
       }
     }
-  }
 
-  protected List<String> mergeValues(List<String> existingValues,
-                                     List<String> values,
-                                     boolean withDeduplication) {
-    if (withDeduplication) {
-      for (String value : values) {
-        if (!existingValues.contains(value)) {
-          existingValues.add(value);
-        }
-      }
-    } else {
-      existingValues.addAll(values);
+    for (Map.Entry<String, Collection<String>> entry : mergedPairs.entrySet()) {
+      Collection<String> values = entry.getValue();
+      mainKeyValuePairs.put(entry.getKey(), values instanceof List ? (List<String>) values : new ArrayList<>(values));
     }
-    return existingValues;
   }
 
+  private static Collection<String> createValues(List<String> values, boolean withDeduplication) {
+    return withDeduplication ? new LinkedHashSet<>(values) : new ArrayList<>(values);
+  }
+
+  /**
+   * Serializes the record to JSON. The record is written directly to a JSON generator of a shared (thread-safe)
+   * JsonFactory, which reuses its buffers within the thread.
+   * @return The JSON string, or null if the record could not be serialized
+   */
   public String asJson() {
-    ObjectMapper mapper = new ObjectMapper();
+    StringWriter writer = new StringWriter();
+    try (JsonGenerator generator = jsonFactory.createGenerator(writer)) {
+      generator.writeStartObject();
+      writeJsonFields(generator);
+      generator.writeEndObject();
+    } catch (IOException e) {
+      logger.log(Level.WARNING, "error in asJson()", e);
+      return null;
+    }
+    return writer.toString();
+  }
 
-    Map<String, Object> fieldMap = new LinkedHashMap<>();
-    datafieldsAsJson(fieldMap);
-    return transformMapToJson(mapper, fieldMap);
+  /**
+   * Writes the fields of the record into the JSON object of asJson()
+   * @param generator The JSON generator
+   * @throws IOException If the record could not be serialized
+   */
+  protected void writeJsonFields(JsonGenerator generator) throws IOException {
+    writeDatafieldsAsJson(generator);
   }
 
-  protected void datafieldsAsJson(Map<String, Object> tagFieldMap) {
-    for (DataField field : datafields) {
-      if (field == null) {
+  /**
+   * Writes the data fields as arrays of JSON objects by their tags (with the occurrence in PICA). The fields with the
+   * same tag are written into the array at the position of the first one.
+   */
+  protected void writeDatafieldsAsJson(JsonGenerator generator) throws IOException {
+    Map<String, List<DataField>> fieldsByTag = new LinkedHashMap<>();
+    for (DataField field : getDatafields()) {
+      if (field == null)
         continue;
-      }
-
-      Map<String, Object> fieldMap = new LinkedHashMap<>();
-
-      if (!schemaType.equals(SchemaType.PICA)) {
-        fieldMap.put("ind1", field.getInd1());
-        fieldMap.put("ind2", field.getInd2());
-      }
-
-      fieldMap.put("subfields", exportSubfieldsToJson(field));
 
       String tag;
       if (field.getOccurrence() != null) {
@@ -363,9 +402,22 @@ public abstract class BibliographicRecord implements Extractable, Serializable {
       } else {
         tag = field.getTag();
       }
+      fieldsByTag.computeIfAbsent(tag, s -> new ArrayList<>()).add(field);
+    }
 
-      tagFieldMap.computeIfAbsent(tag, s -> new ArrayList<Map<String, Object>>());
-      ((List) tagFieldMap.get(tag)).add(fieldMap);
+    for (Map.Entry<String, List<DataField>> entry : fieldsByTag.entrySet()) {
+      generator.writeArrayFieldStart(entry.getKey());
+      for (DataField field : entry.getValue()) {
+        generator.writeStartObject();
+        if (!schemaType.equals(SchemaType.PICA)) {
+          generator.writeStringField("ind1", field.getInd1());
+          generator.writeStringField("ind2", field.getInd2());
+        }
+        generator.writeFieldName("subfields");
+        writeSubfieldsAsJson(generator, field);
+        generator.writeEndObject();
+      }
+      generator.writeEndArray();
     }
   }
 
@@ -384,11 +436,12 @@ public abstract class BibliographicRecord implements Extractable, Serializable {
 
     String tag = matcher.group(1);
     String subfieldCode = matcher.group(2);
-    if (!datafieldIndex.containsKey(tag)) {
+    List<DataField> fields = lookupDatafields(tag);
+    if (fields == null) {
       return results;
     }
 
-    for (DataField field : datafieldIndex.get(tag)) {
+    for (DataField field : fields) {
       if (searchDatafield(query, results, subfieldCode, field)) {
         break;
       }
@@ -405,12 +458,11 @@ public abstract class BibliographicRecord implements Extractable, Serializable {
    */
   public List<String> select(MarcSpec selector) {
     List<String> results = new ArrayList<>();
-    if (!datafieldIndex.containsKey(selector.getFieldTag())) {
+    List<DataField> selectedDatafields = lookupDatafields(selector.getFieldTag());
+    if (selectedDatafields == null) {
       return results;
     }
 
-    List<DataField> selectedDatafields = datafieldIndex.get(selector.getFieldTag());
-
     for (DataField field : selectedDatafields) {
       List<String> selectedFromDatafield = selectDatafield(field, selector);
       results.addAll(selectedFromDatafield);
@@ -616,6 +668,19 @@ public abstract class BibliographicRecord implements Extractable, Serializable {
 
   public abstract Map<ShelfReadyFieldsBooks, Map<String, List<String>>> getShelfReadyMap();
 
+  /**
+   * Makes a shelf-ready map and its tag maps and subfield lists unmodifiable, so it can be shared by the threads.
+   */
+  protected static Map<ShelfReadyFieldsBooks, Map<String, List<String>>> freezeShelfReadyMap(
+      Map<ShelfReadyFieldsBooks, Map<String, List<String>>> shelfReadyMap) {
+    for (Map.Entry<ShelfReadyFieldsBooks, Map<String, List<String>>> entry : shelfReadyMap.entrySet()) {
+      Map<String, List<String>> tags = entry.getValue();
+      tags.replaceAll((tag, subfields) -> Collections.unmodifiableList(subfields));
+      entry.setValue(Collections.unmodifiableMap(tags));
+    }
+    return Collections.unmodifiableMap(shelfReadyMap);
+  }
+
   protected abstract List<String> getSubjectTags();
 
   public List<DataField> getSubjects() {
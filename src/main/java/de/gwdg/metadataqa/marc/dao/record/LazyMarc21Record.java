@@ -0,0 +1,189 @@
+package de.gwdg.metadataqa.marc.dao.record;
+
+import de.gwdg.metadataqa.marc.MarcFactory;
+import de.gwdg.metadataqa.marc.dao.Control006;
+import de.gwdg.metadataqa.marc.dao.Control007;
+import de.gwdg.metadataqa.marc.dao.Control008;
+import de.gwdg.metadataqa.marc.dao.DataField;
+import de.gwdg.metadataqa.marc.dao.MarcControlField;
+import de.gwdg.metadataqa.marc.dao.MarcPositionalControlField;
+import de.gwdg.metadataqa.marc.definition.MarcVersion;
+import de.gwdg.metadataqa.marc.model.SolrFieldType;
+import de.gwdg.metadataqa.marc.utils.marcspec.legacy.MarcSpec;
+import org.marc4j.marc.ControlField;
+import org.marc4j.marc.Record;
+
+import java.io.NotSerializableException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A MARC21 bibliographic record, which keeps the marc4j record, and creates the DataField objects (with the
+ * definition lookups) of a tag only when the fields of the tag are first accessed by getDatafieldsByTag() or any
+ * other tag based accessor. The 006, 007 and 008 control fields are parsed when one of them is first accessed.
+ * The methods processing all the data fields (e.g. getDatafields()) create all of them.
+ *
+ * This way the analyses touching only a few tags (e.g. network, authority or classification analysis) do not
+ * create the object graph of the whole record.
+ *
+ * The record is not serializable: the marc4j record it reads the fields from is not serializable, and the fields of
+ * BibliographicRecord are transient, so a deserialized copy could not create them. Use the eager records (e.g. in
+ * Spark) if the records should be serialized.
+ */
+public class LazyMarc21Record extends Marc21BibliographicRecord {
+
+  private final transient Record marc4jRecord;
+  private final MarcVersion marcVersion;
+  private final String replacementInControlFields;
+
+  /**
+   * The marc4j data fields which are not yet transformed, by tag
+   */
+  private transient Map<String, List<org.marc4j.marc.DataField>> rawDatafields;
+  private boolean hasAllDatafields = false;
+  private boolean hasPositionalControlfields = false;
+
+  public LazyMarc21Record(Record marc4jRecord, MarcVersion marcVersion, String replacementInControlFields) {
+    super();
+    this.marc4jRecord = marc4jRecord;
+    this.marcVersion = marcVersion;
+    this.replacementInControlFields = replacementInControlFields;
+
+    rawDatafields = new HashMap<>();
+    for (org.marc4j.marc.DataField dataField : marc4jRecord.getDataFields())
+      rawDatafields.computeIfAbsent(dataField.getTag(), s -> new ArrayList<>()).add(dataField);
+  }
+
+  @Override
+  protected List<DataField> lookupDatafields(String tag) {
+    if (!hasAllDatafields && rawDatafields.containsKey(tag))
+      createDatafields(tag);
+    return super.lookupDatafields(tag);
+  }
+
+  private void createDatafields(String tag) {
+    for (org.marc4j.marc.DataField dataField : rawDatafields.remove(tag)) {
+      DataField field = MarcFactory.createDataField(dataField, marcVersion);
+      field.setBibliographicRecord(this);
+      indexField(field);
+    }
+  }
+
+  /**
+   * Creates all the data fields, keeping the order of the marc4j record, and registers the undefined tags.
+   */
+  private void createAllDatafields() {
+    if (hasAllDatafields)
+      return;
+
+    for (String tag : new ArrayList<>(rawDatafields.keySet()))
+      createDatafields(tag);
+
+    Map<String, Integer> positions = new HashMap<>();
+    for (org.marc4j.marc.DataField dataField : marc4jRecord.getDataFields()) {
+      String tag = dataField.getTag();
+      int position = positions.merge(tag, 1, Integer::sum) - 1;
+      DataField field = datafieldIndex.get(tag).get(position);
+      if (field.getDefinition() == null)
+        addUnhandledTags(tag);
+      datafields.add(field);
+    }
+    rawDatafields = null;
+    hasAllDatafields = true;
+  }
+
+  private void createPositionalControlfields() {
+    if (hasPositionalControlfields)
+      return;
+    hasPositionalControlfields = true;
+    for (ControlField controlField : marc4jRecord.getControlFields())
+      if (MarcFactory.isPositionalControlField(controlField.getTag()))
+        MarcFactory.importMarc4jControlField(controlField, replacementInControlFields, this);
+  }
+
+  private void writeObject(ObjectOutputStream out) throws NotSerializableException {
+    throw new NotSerializableException(LazyMarc21Record.class.getName());
+  }
+
+  private void readObject(ObjectInputStream in) throws NotSerializableException {
+    throw new NotSerializableException(LazyMarc21Record.class.getName());
+  }
+
+  @Override
+  public void addDataField(DataField dataField) {
+    createAllDatafields();
+    super.addDataField(dataField);
+  }
+
+  @Override
+  public List<DataField> getDatafields() {
+    createAllDatafields();
+    return super.getDatafields();
+  }
+
+  @Override
+  public List<String> getUnhandledTags() {
+    createAllDatafields();
+    return super.getUnhandledTags();
+  }
+
+  @Override
+  public List<MarcControlField> getControlfields() {
+    createPositionalControlfields();
+    return super.getControlfields();
+  }
+
+  @Override
+  public List<MarcPositionalControlField> getPositionalControlfields() {
+    createPositionalControlfields();
+    return super.getPositionalControlfields();
+  }
+
+  @Override
+  public List<Control006> getControl006() {
+    createPositionalControlfields();
+    return super.getControl006();
+  }
+
+  @Override
+  public List<Control007> getControl007() {
+    createPositionalControlfields();
+    return super.getControl007();
+  }
+
+  @Override
+  public Control008 getControl008() {
+    createPositionalControlfields();
+    return super.getControl008();
+  }
+
+  @Override
+  public Map<String, List<String>> getKeyValuePairs(SolrFieldType type,
+                                                    boolean withDeduplication,
+                                                    MarcVersion marcVersion) {
+    createPositionalControlfields();
+    return super.getKeyValuePairs(type, withDeduplication, marcVersion);
+  }
+
+  @Override
+  public String asJson() {
+    createPositionalControlfields();
+    return super.asJson();
+  }
+
+  @Override
+  public List<String> search(String path, String query) {
+    createPositionalControlfields();
+    return super.search(path, query);
+  }
+
+  @Override
+  public List<String> select(MarcSpec selector) {
+    createPositionalControlfields();
+    return super.select(selector);
+  }
+}
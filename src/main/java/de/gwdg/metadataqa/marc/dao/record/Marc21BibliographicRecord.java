@@ -18,11 +18,6 @@ import java.util.stream.Collectors;
 
 public class Marc21BibliographicRecord extends Marc21Record {
 
-  /**
-   * Key-value pairs of ShelfReadyFieldsBooks (the category) and a map of tags and its subfields.
-   */
-  private static Map<ShelfReadyFieldsBooks, Map<String, List<String>>> shelfReadyMap;
-
   public Marc21BibliographicRecord() {
     super();
   }
@@ -62,11 +57,7 @@ public class Marc21BibliographicRecord extends Marc21Record {
 
   @Override
   public Map<ShelfReadyFieldsBooks, Map<String, List<String>>> getShelfReadyMap() {
-    if (shelfReadyMap == null) {
-      initializeShelfReadyMap();
-    }
-
-    return shelfReadyMap;
+    return ShelfReadyMapHolder.SHELF_READY_MAP;
   }
 
   /**
@@ -77,18 +68,18 @@ public class Marc21BibliographicRecord extends Marc21Record {
    * Otherwise, the subfield list contains the subfield codes.
    * E.g. "600$a"  "600" -> ["a"]
    */
-  private static void initializeShelfReadyMap() {
-    shelfReadyMap = new LinkedHashMap<>();
+  private static Map<ShelfReadyFieldsBooks, Map<String, List<String>>> createShelfReadyMap() {
+    Map<ShelfReadyFieldsBooks, Map<String, List<String>>> map = new LinkedHashMap<>();
 
     for (Map.Entry<ShelfReadyFieldsBooks, String> entry : getRawShelfReadyMap().entrySet()) {
-      shelfReadyMap.put(entry.getKey(), new TreeMap<>());
+      map.put(entry.getKey(), new TreeMap<>());
 
       // Split the raw path comma-separated list into individual paths
       String[] paths = entry.getValue().split(",");
 
       for (String path : paths) {
         if (!path.contains("$")) {
-          shelfReadyMap.get(entry.getKey()).put(path, new ArrayList<>());
+          map.get(entry.getKey()).put(path, new ArrayList<>());
           continue;
         }
 
@@ -96,14 +87,15 @@ public class Marc21BibliographicRecord extends Marc21Record {
         String[] parts = path.split("\\$");
 
         // If the map doesn't contain the tag, add it, with an empty list of subfields
-        if (!shelfReadyMap.get(entry.getKey()).containsKey(parts[0])) {
-          shelfReadyMap.get(entry.getKey()).put(parts[0], new ArrayList<>());
+        if (!map.get(entry.getKey()).containsKey(parts[0])) {
+          map.get(entry.getKey()).put(parts[0], new ArrayList<>());
         }
 
         // Add the subfield to the list of subfields for the tag
-        shelfReadyMap.get(entry.getKey()).get(parts[0]).add(parts[1]);
+        map.get(entry.getKey()).get(parts[0]).add(parts[1]);
       }
     }
+    return freezeShelfReadyMap(map);
   }
 
   public static Map<ShelfReadyFieldsBooks, String> getRawShelfReadyMap() {
@@ -145,4 +137,12 @@ public class Marc21BibliographicRecord extends Marc21Record {
 
     return raw;
   }
+
+  /**
+   * Key-value pairs of ShelfReadyFieldsBooks (the category) and a map of tags and its subfields. The map is built
+   * once, when it is first used, and it is not modifiable.
+   */
+  private static class ShelfReadyMapHolder {
+    private static final Map<ShelfReadyFieldsBooks, Map<String, List<String>>> SHELF_READY_MAP = createShelfReadyMap();
+  }
 }
@@ -1,6 +1,6 @@
 package de.gwdg.metadataqa.marc.dao.record;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonGenerator;
 import de.gwdg.metadataqa.marc.MarcFactory;
 import de.gwdg.metadataqa.marc.analysis.shelfready.ShelfReadyFieldsBooks;
 import de.gwdg.metadataqa.marc.dao.Control001;
@@ -21,6 +21,7 @@ import de.gwdg.metadataqa.marc.utils.marcspec.legacy.MarcSpec;
 import de.gwdg.metadataqa.marc.utils.unimarc.UnimarcConverter;
 import org.apache.commons.lang3.StringUtils;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -138,21 +139,21 @@ public class Marc21Record extends MarcRecord {
   }
 
   @Override
-  public String asJson() {
-    ObjectMapper mapper = new ObjectMapper();
-
-    Map<String, Object> map = new LinkedHashMap<>();
+  protected void writeJsonFields(JsonGenerator generator) throws IOException {
     if (!schemaType.equals(SchemaType.PICA))
-      map.put("leader", leader.getContent());
+      generator.writeStringField("leader", leader.getContent());
 
+    // a repeated control field is written once, with the value of the last one
+    Map<String, String> controlFields = new LinkedHashMap<>();
     for (MarcControlField field : getControlfields()) {
       if (field != null) {
-        map.put(field.getDefinition().getTag(), field.getContent());
+        controlFields.put(field.getDefinition().getTag(), field.getContent());
       }
     }
+    for (Map.Entry<String, String> entry : controlFields.entrySet())
+      generator.writeStringField(entry.getKey(), entry.getValue());
 
-    datafieldsAsJson(map);
-    return transformMapToJson(mapper, map);
+    writeDatafieldsAsJson(generator);
   }
 
   @Override
@@ -183,8 +184,9 @@ public class Marc21Record extends MarcRecord {
     if (matcher.matches()) {
       String tag = matcher.group(1);
       String subfieldCode = matcher.group(2);
-      if (datafieldIndex.containsKey(tag)) {
-        for (DataField field : datafieldIndex.get(tag)) {
+      List<DataField> fields = lookupDatafields(tag);
+      if (fields != null) {
+        for (DataField field : fields) {
           if (searchDatafield(query, results, subfieldCode, field)) break;
         }
       }
@@ -272,7 +274,7 @@ public class Marc21Record extends MarcRecord {
       return selectControlFields(selector);
     }
 
-    if (datafieldIndex.containsKey(selector.getFieldTag())) {
+    if (lookupDatafields(selector.getFieldTag()) != null) {
       return selectDatafields(selector);
     }
 
@@ -313,7 +315,7 @@ public class Marc21Record extends MarcRecord {
   private List<String> selectDatafields(MarcSpec selector) {
     List<String> selectedResults = new ArrayList<>();
 
-    List<DataField> selectedDatafields = datafieldIndex.get(selector.getFieldTag());
+    List<DataField> selectedDatafields = lookupDatafields(selector.getFieldTag());
 
     for (DataField field : selectedDatafields) {
       List<String> selectedFromDatafield = selectDatafield(field, selector);
@@ -25,8 +25,6 @@ public class PicaRecord extends BibliographicRecord {
     PicaRecord.class.getCanonicalName()
   );
 
-  private static Map<ShelfReadyFieldsBooks, Map<String, List<String>>> shelfReadyMap;
-
   public PicaRecord() {
     super();
     init();
@@ -47,10 +45,7 @@ public class PicaRecord extends BibliographicRecord {
   }
 
   public Map<ShelfReadyFieldsBooks, Map<String, List<String>>> getShelfReadyMap() {
-    if (shelfReadyMap == null)
-      initializeShelfReadyMap();
-
-    return shelfReadyMap;
+    return ShelfReadyMapHolder.SHELF_READY_MAP;
   }
 
   protected List<String> getSubjectTags() {
@@ -127,21 +122,22 @@ public class PicaRecord extends BibliographicRecord {
     authorityTagsMap.put(AuthorityCategory.GEOGRAPHIC, List.of("033D", "033H"));
   }
 
-  private static void initializeShelfReadyMap() {
-    shelfReadyMap = new LinkedHashMap<>();
+  private static Map<ShelfReadyFieldsBooks, Map<String, List<String>>> createShelfReadyMap() {
+    Map<ShelfReadyFieldsBooks, Map<String, List<String>>> map = new LinkedHashMap<>();
     for (Map.Entry<ShelfReadyFieldsBooks, Map<String, List<String>>> entry : (new Marc21BibliographicRecord()).getShelfReadyMap().entrySet()) {
       ShelfReadyFieldsBooks category = entry.getKey();
-      shelfReadyMap.put(category, new HashMap<>());
+      map.put(category, new HashMap<>());
       for (Map.Entry<String, List<String>> marcEntry : entry.getValue().entrySet()) {
         for (String code : marcEntry.getValue()) {
           for (Crosswalk crosswalk : PicaMarcCrosswalkReader.lookupMarc21(marcEntry.getKey() + " $" + code)) {
-            if (!shelfReadyMap.get(category).containsKey(crosswalk.getPica()))
-              shelfReadyMap.get(category).put(crosswalk.getPica(), new ArrayList<>());
-            shelfReadyMap.get(category).get(crosswalk.getPica()).add(crosswalk.getPicaUf().replace("$", ""));
+            if (!map.get(category).containsKey(crosswalk.getPica()))
+              map.get(category).put(crosswalk.getPica(), new ArrayList<>());
+            map.get(category).get(crosswalk.getPica()).add(crosswalk.getPicaUf().replace("$", ""));
           }
         }
       }
     }
+    return freezeShelfReadyMap(map);
   }
 
   @Override
@@ -166,4 +162,10 @@ public class PicaRecord extends BibliographicRecord {
     datafieldIndex.get(tag).add(dataField);
   }
 
+  /**
+   * Builds the shelf-ready map once, when it is first used. The map is not modifiable.
+   */
+  private static class ShelfReadyMapHolder {
+    private static final Map<ShelfReadyFieldsBooks, Map<String, List<String>>> SHELF_READY_MAP = createShelfReadyMap();
+  }
 }
@@ -21,7 +21,6 @@ public class UnimarcRecord extends MarcRecord {
     "676", "680", "686");
 
   protected static final List<String> allowedControlFieldTags = Arrays.asList("001", "003", "005");
-  private static Map<ShelfReadyFieldsBooks, Map<String, List<String>>> shelfReadyMap;
 
   public UnimarcRecord() {
     super();
@@ -33,11 +32,11 @@ public class UnimarcRecord extends MarcRecord {
     schemaType = SchemaType.UNIMARC;
   }
 
-  private static void initializeShelfReadyMap() {
-    shelfReadyMap = new LinkedHashMap<>();
+  private static Map<ShelfReadyFieldsBooks, Map<String, List<String>>> createShelfReadyMap() {
+    Map<ShelfReadyFieldsBooks, Map<String, List<String>>> map = new LinkedHashMap<>();
 
     for (Map.Entry<ShelfReadyFieldsBooks, String> entry : getRawShelfReadyMap().entrySet()) {
-      shelfReadyMap.put(entry.getKey(), new TreeMap<>());
+      map.put(entry.getKey(), new TreeMap<>());
 
       String rawSelectors = entry.getValue();
 
@@ -50,7 +49,7 @@ public class UnimarcRecord extends MarcRecord {
 
       for (String path : paths) {
         if (!path.contains("$")) {
-          shelfReadyMap.get(entry.getKey()).put(path, new ArrayList<>());
+          map.get(entry.getKey()).put(path, new ArrayList<>());
           continue;
         }
 
@@ -58,14 +57,15 @@ public class UnimarcRecord extends MarcRecord {
         String[] parts = path.split("\\$");
 
         // If the map doesn't contain the tag, add it, with an empty list of subfields
-        if (!shelfReadyMap.get(entry.getKey()).containsKey(parts[0])) {
-          shelfReadyMap.get(entry.getKey()).put(parts[0], new ArrayList<>());
+        if (!map.get(entry.getKey()).containsKey(parts[0])) {
+          map.get(entry.getKey()).put(parts[0], new ArrayList<>());
         }
 
         // Add the subfield to the list of subfields for the tag
-        shelfReadyMap.get(entry.getKey()).get(parts[0]).add(parts[1]);
+        map.get(entry.getKey()).get(parts[0]).add(parts[1]);
       }
     }
+    return freezeShelfReadyMap(map);
   }
 
   public static Map<ShelfReadyFieldsBooks, String> getRawShelfReadyMap() {
@@ -120,10 +120,7 @@ public class UnimarcRecord extends MarcRecord {
   }
 
   public Map<ShelfReadyFieldsBooks, Map<String, List<String>>> getShelfReadyMap() {
-    if (shelfReadyMap == null)
-      initializeShelfReadyMap();
-
-    return shelfReadyMap;
+    return ShelfReadyMapHolder.SHELF_READY_MAP;
   }
 
   protected List<String> getSubjectTags() {
@@ -149,4 +146,11 @@ public class UnimarcRecord extends MarcRecord {
     skippableAuthoritySubfields = new HashMap<>();
 
   }
+
+  /**
+   * Builds the shelf-ready map once, when it is first used. The map is not modifiable.
+   */
+  private static class ShelfReadyMapHolder {
+    private static final Map<ShelfReadyFieldsBooks, Map<String, List<String>>> SHELF_READY_MAP = createShelfReadyMap();
+  }
 }
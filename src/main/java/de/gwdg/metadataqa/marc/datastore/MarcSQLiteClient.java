@@ -1,36 +1,238 @@
 package de.gwdg.metadataqa.marc.datastore;
 
+import org.apache.commons.lang3.StringUtils;
 import org.sqlite.SQLiteConfig;
 
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.logging.Logger;
 
+/**
+ * Loads the results of the analyses into an SQLite database. The rows are inserted with prepared statements in
+ * batches, within large transactions, with the write ahead log and without waiting for the disk (the tables are
+ * recreated at every run anyway), and the indexes should be created after the load.
+ *
+ * The analyses running in the same process (see MultiAnalysis) share the connection to the same database file,
+ * see open().
+ */
 public class MarcSQLiteClient {
 
   private static final Logger logger = Logger.getLogger(MarcSQLiteClient.class.getCanonicalName());
+  public static final String DEFAULT_FILE_NAME = "qa_catalogue.sqlite";
+  private static final Map<String, MarcSQLiteClient> sharedClients = new HashMap<>();
 
   Connection conn = null;
+  private String path;
+  private int users = 0;
+  private int batchSize = 10_000;
+  private int transactionSize = 1_000_000;
+  private int uncommittedRows = 0;
+  private final List<TableLoader> loaders = new ArrayList<>();
+
+  /**
+   * Returns the client of the database file, which is shared within the process. Each call should be followed by
+   * a call of close().
+   * @param path The path of the SQLite file
+   * @return The client
+   */
+  public static MarcSQLiteClient open(String path) {
+    synchronized (sharedClients) {
+      MarcSQLiteClient client = sharedClients.get(path);
+      if (client == null) {
+        client = new MarcSQLiteClient();
+        client.connect(path);
+        client.path = path;
+        sharedClients.put(path, client);
+      }
+      client.users++;
+      return client;
+    }
+  }
 
   public void connect(String path) {
     try {
       String url = "jdbc:sqlite:" + path;
       SQLiteConfig config = new SQLiteConfig();
       config.enforceForeignKeys(true);
+      config.setJournalMode(SQLiteConfig.JournalMode.WAL);
+      config.setSynchronous(SQLiteConfig.SynchronousMode.OFF);
       conn = DriverManager.getConnection(url, config.toProperties());
+      conn.setAutoCommit(false);
     } catch (SQLException e) {
       logger.warning(e.getMessage());
     }
   }
 
+  /**
+   * (Re)creates a table
+   * @param table The name of the table
+   * @param columns The column definitions (name and type, e.g. "\"id\" INTEGER")
+   */
+  public synchronized void createTable(String table, String... columns) {
+    execute(String.format("DROP TABLE IF EXISTS \"%s\"", table));
+    execute(String.format("CREATE TABLE \"%s\" (%s)", table, StringUtils.join(columns, ", ")));
+  }
+
+  /**
+   * Creates an index. It should be called after the table has been loaded.
+   * @param name The name of the index (it should be unique within the database)
+   * @param table The table
+   * @param column The indexed column
+   */
+  public synchronized void createIndex(String name, String table, String column) {
+    execute(String.format("CREATE INDEX IF NOT EXISTS \"%s\" ON \"%s\" (\"%s\")", name, table, column));
+  }
+
+  public synchronized void execute(String sql) {
+    try (Statement statement = conn.createStatement()) {
+      statement.execute(sql);
+    } catch (SQLException e) {
+      throw new IllegalStateException("SQLite error in '" + sql + "'", e);
+    }
+  }
+
+  /**
+   * Creates a loader which inserts the rows into the table
+   * @param table The table
+   * @param columns The names of the columns
+   * @return The loader
+   */
+  public synchronized TableLoader createLoader(String table, String... columns) {
+    String sql = String.format("INSERT INTO \"%s\" (\"%s\") VALUES (%s)",
+      table, StringUtils.join(columns, "\", \""), StringUtils.repeat("?", ", ", columns.length));
+    try {
+      TableLoader loader = new TableLoader(conn.prepareStatement(sql));
+      loaders.add(loader);
+      return loader;
+    } catch (SQLException e) {
+      throw new IllegalStateException("SQLite error in '" + sql + "'", e);
+    }
+  }
+
+  /**
+   * Executes the pending batches and commits the transaction
+   */
+  public synchronized void commit() {
+    try {
+      for (TableLoader loader : loaders)
+        loader.executeBatch();
+      conn.commit();
+      uncommittedRows = 0;
+    } catch (SQLException e) {
+      throw new IllegalStateException("SQLite error at commit", e);
+    }
+  }
+
+  /**
+   * Commits the loaded rows, and closes the connection (a shared connection is closed only when all of its
+   * users have closed it).
+   */
   public void close() {
+    if (path != null) {
+      synchronized (sharedClients) {
+        if (--users > 0) {
+          commit();
+          return;
+        }
+        sharedClients.remove(path);
+      }
+    }
     if (conn != null) {
       try {
+        if (!conn.getAutoCommit())
+          commit();
+        for (TableLoader loader : loaders)
+          loader.statement.close();
+        loaders.clear();
         conn.close();
       } catch (SQLException e) {
         throw new RuntimeException(e);
       }
     }
   }
+
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  public void setBatchSize(int batchSize) {
+    this.batchSize = batchSize;
+  }
+
+  public int getTransactionSize() {
+    return transactionSize;
+  }
+
+  public void setTransactionSize(int transactionSize) {
+    this.transactionSize = transactionSize;
+  }
+
+  /**
+   * Inserts the rows of a table in batches. The loaders of the same client can be used from several threads.
+   */
+  public class TableLoader {
+    private final PreparedStatement statement;
+    private int pendingRows = 0;
+    private long rows = 0;
+
+    private TableLoader(PreparedStatement statement) {
+      this.statement = statement;
+    }
+
+    /**
+     * Adds a row
+     * @param values The values in the order of the columns
+     */
+    public void add(Object... values) {
+      synchronized (MarcSQLiteClient.this) {
+        try {
+          for (int i = 0; i < values.length; i++)
+            setValue(i + 1, values[i]);
+          statement.addBatch();
+        } catch (SQLException e) {
+          throw new IllegalStateException("SQLite error at adding a row", e);
+        }
+        rows++;
+        if (++pendingRows >= batchSize)
+          executeBatch();
+        if (++uncommittedRows >= transactionSize)
+          commit();
+      }
+    }
+
+    private void setValue(int index, Object value) throws SQLException {
+      if (value == null)
+        statement.setNull(index, Types.NULL);
+      else if (value instanceof Number || value instanceof String || value instanceof Boolean)
+        statement.setObject(index, value);
+      else
+        statement.setString(index, value.toString());
+    }
+
+    private void executeBatch() {
+      if (pendingRows == 0)
+        return;
+      try {
+        statement.executeBatch();
+        pendingRows = 0;
+      } catch (SQLException e) {
+        throw new IllegalStateException("SQLite error at inserting a batch", e);
+      }
+    }
+
+    /**
+     * @return The number of rows added by this loader
+     */
+    public long getRows() {
+      return rows;
+    }
+  }
 }
@@ -1,19 +1,37 @@
 package de.gwdg.metadataqa.marc.datastore;
 
 import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.client.solrj.SolrRequest;
 import org.apache.solr.client.solrj.SolrServerException;
 import org.apache.solr.client.solrj.impl.BaseHttpSolrClient;
 import org.apache.solr.client.solrj.impl.Http2SolrClient;
+import org.apache.solr.client.solrj.request.LukeRequest;
+import org.apache.solr.client.solrj.request.QueryRequest;
 import org.apache.solr.client.solrj.response.QueryResponse;
 import org.apache.solr.common.SolrDocument;
 import org.apache.solr.common.SolrDocumentList;
 import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.params.CommonParams;
 import org.apache.solr.common.params.MapSolrParams;
+import org.apache.solr.common.params.ModifiableSolrParams;
+import org.apache.solr.common.util.NamedList;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -21,6 +39,8 @@ public class MarcSolrClient {
 
   private static final Logger logger = Logger.getLogger(MarcSolrClient.class.getCanonicalName());
   public static final String ID_QUERY = "id:\"%s\"";
+  // the number of the document IDs in the messages of the failed requests
+  private static final int LOGGED_IDS = 5;
 
   private String defaultUrl = "http://localhost:8983/solr";
   private SolrClient solrClient;
@@ -29,6 +49,12 @@ public class MarcSolrClient {
   private String termFieldSuffix = "_tt";
   private String fieldPrefix = "";
   private Map<String, String> termFieldNameCache = new HashMap<>();
+  private int maxRetries = 5;
+  private long retryDelay = 1000L;
+  private int maxInFlightRequests = 1;
+  private ExecutorService updateExecutor;
+  private Semaphore inFlightRequests;
+  private final Queue<SolrUpdateException> asyncFailures = new ConcurrentLinkedQueue<>();
 
   public MarcSolrClient() {
     initialize(defaultUrl);
@@ -51,18 +77,242 @@ public class MarcSolrClient {
   }
 
   public void index(SolrInputDocument document) {
+    index(List.of(document));
+  }
+
+  /**
+   * Sends the documents to Solr in a single update request. If the request fails with a server side
+   * or a connection error it is repeated after an exponentially growing delay (retryDelay, 2*retryDelay, ...)
+   * at most maxRetries times. If Solr rejects the request (a client side error, e.g. an invalid document), the
+   * documents are sent again in two halves until the rejected documents are found, so only they are dropped.
+   * @param documents The Solr documents
+   * @throws SolrUpdateException If some of the documents have not been indexed. It contains their IDs.
+   */
+  public void index(List<SolrInputDocument> documents) {
+    List<SolrUpdateException> failures = new ArrayList<>();
+    Deque<List<SolrInputDocument>> parts = new ArrayDeque<>();
+    parts.push(documents);
+    while (!parts.isEmpty()) {
+      List<SolrInputDocument> part = parts.pop();
+      try {
+        update(() -> solrClient.add(part), "Indexing", part.size(), () -> documentIds(part));
+      } catch (SolrUpdateException e) {
+        if (isRetriable(e.getCause())) {
+          // Solr is not available, the remaining parts are not sent
+          List<String> ids = new ArrayList<>(e.getDocumentIds());
+          while (!parts.isEmpty())
+            ids.addAll(documentIds(parts.pop()));
+          failures.add(new SolrUpdateException(failureMessage("Indexing", ids), ids, e.getCause()));
+        } else if (part.size() > 1) {
+          int half = part.size() / 2;
+          parts.push(part.subList(half, part.size()));
+          parts.push(part.subList(0, half));
+        } else {
+          failures.add(e);
+        }
+      }
+    }
+    if (!failures.isEmpty())
+      throw combine(failures);
+  }
+
+  /**
+   * Deletes the documents from Solr in a single update request, with the same retries as index(). The pending
+   * update requests of indexAsync() are finished first.
+   * @param ids The document IDs
+   */
+  public void deleteById(List<String> ids) {
+    if (ids.isEmpty())
+      return;
+    waitForPendingUpdates();
+    update(() -> solrClient.deleteById(ids), "Deleting", ids.size(), () -> ids);
+  }
+
+  private void update(SolrUpdate request, String action, int size, Supplier<List<String>> ids) {
+    for (int attempt = 0; ; attempt++) {
+      try {
+        request.send();
+        return;
+      } catch (BaseHttpSolrClient.RemoteSolrException | SolrServerException | IOException ex) {
+        if (attempt >= maxRetries || !isRetriable(ex)) {
+          List<String> documentIds = ids.get();
+          throw new SolrUpdateException(failureMessage(action, documentIds), documentIds, ex);
+        }
+        long delay = retryDelay << attempt;
+        logger.log(Level.WARNING, "{0} {1} documents failed ({2}), retrying in {3} ms",
+          new Object[]{action, size, ex.getMessage(), delay});
+        sleep(delay);
+      }
+    }
+  }
+
+  private interface SolrUpdate {
+    void send() throws SolrServerException, IOException;
+  }
+
+  /**
+   * A client side error (e.g. an invalid document) would fail again, all other errors might be temporary
+   */
+  private boolean isRetriable(Throwable ex) {
+    if (ex instanceof BaseHttpSolrClient.RemoteSolrException) {
+      int code = ((BaseHttpSolrClient.RemoteSolrException) ex).code();
+      return code >= 500 || code == 429;
+    }
+    return true;
+  }
+
+  private static String failureMessage(String action, List<String> ids) {
+    return String.format("%s %s failed", action, describe(ids));
+  }
+
+  /**
+   * The number of the documents and the first few IDs, e.g. for the messages of the failed requests
+   */
+  public static String describe(List<String> ids) {
+    String shownIds = String.join(", ", ids.subList(0, Math.min(LOGGED_IDS, ids.size())));
+    if (ids.size() > LOGGED_IDS)
+      shownIds += ", ...";
+    return String.format("%d documents (IDs: %s)", ids.size(), shownIds);
+  }
+
+  /**
+   * A single exception of several failed requests, which contains the IDs of all the failed documents
+   */
+  private static SolrUpdateException combine(List<SolrUpdateException> failures) {
+    if (failures.size() == 1)
+      return failures.get(0);
+
+    List<String> ids = new ArrayList<>();
+    for (SolrUpdateException failure : failures)
+      ids.addAll(failure.getDocumentIds());
+    SolrUpdateException exception = new SolrUpdateException(
+      String.format("%d update requests failed: %s", failures.size(), describe(ids)),
+      ids, failures.get(0).getCause());
+    for (int i = 1; i < failures.size(); i++)
+      exception.addSuppressed(failures.get(i));
+    return exception;
+  }
+
+  private static List<String> documentIds(List<SolrInputDocument> documents) {
+    List<String> ids = new ArrayList<>(documents.size());
+    for (SolrInputDocument document : documents)
+      ids.add(String.valueOf(document.getFieldValue("id")));
+    return ids;
+  }
+
+  private static void sleep(long delay) {
     try {
-      solrClient.add(document);
-    } catch (BaseHttpSolrClient.RemoteSolrException | SolrServerException | IOException ex) {
-      logger.log(Level.WARNING, "document", document);
-      logger.log(Level.WARNING, "Commit exception", ex);
-      throw new RuntimeException(ex);
+      Thread.sleep(delay);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
     }
   }
 
+  /**
+   * Sends the documents to Solr in a background thread. At most maxInFlightRequests update requests
+   * run at the same time, if there are that many, the method blocks until one of them finishes.
+   * The failed requests are collected, they can be read by takeAsyncFailures(), and the remaining ones
+   * are thrown by waitForPendingUpdates().
+   * @param documents The Solr documents
+   */
+  public void indexAsync(List<SolrInputDocument> documents) {
+    if (updateExecutor == null) {
+      updateExecutor = Executors.newFixedThreadPool(maxInFlightRequests, runnable -> {
+        Thread thread = new Thread(runnable, "solr-update");
+        thread.setDaemon(true);
+        return thread;
+      });
+      inFlightRequests = new Semaphore(maxInFlightRequests);
+    }
+
+    inFlightRequests.acquireUninterruptibly();
+    try {
+      updateExecutor.execute(() -> {
+        try {
+          index(documents);
+        } catch (SolrUpdateException e) {
+          asyncFailures.add(e);
+        } catch (RuntimeException e) {
+          List<String> ids = documentIds(documents);
+          asyncFailures.add(new SolrUpdateException(failureMessage("Indexing", ids), ids, e));
+        } finally {
+          inFlightRequests.release();
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      inFlightRequests.release();
+      throw e;
+    }
+  }
+
+  /**
+   * Waits until all the update requests sent by indexAsync() finish.
+   * @throws SolrUpdateException If some of them failed (and the failures have not been taken by takeAsyncFailures()).
+   * It contains the IDs of all the failed documents.
+   */
+  public void waitForPendingUpdates() {
+    awaitPendingUpdates();
+    List<SolrUpdateException> failures = takeAsyncFailures();
+    if (!failures.isEmpty())
+      throw combine(failures);
+  }
+
+  /**
+   * Waits until all the update requests sent by indexAsync() finish. Their failures are kept for
+   * takeAsyncFailures().
+   */
+  public void awaitPendingUpdates() {
+    if (updateExecutor != null) {
+      inFlightRequests.acquireUninterruptibly(maxInFlightRequests);
+      inFlightRequests.release(maxInFlightRequests);
+    }
+  }
+
+  /**
+   * Removes and returns the failures of the background update requests, which have finished so far.
+   * @return The failed requests, each of them with the IDs of its documents
+   */
+  public List<SolrUpdateException> takeAsyncFailures() {
+    List<SolrUpdateException> failures = new ArrayList<>();
+    SolrUpdateException failure;
+    while ((failure = asyncFailures.poll()) != null)
+      failures.add(failure);
+    return failures;
+  }
+
+  /**
+   * Waits for the pending update requests, and stops the background threads. The underlying Solr client
+   * remains open.
+   */
+  public void shutdownUpdates() {
+    if (updateExecutor != null) {
+      try {
+        waitForPendingUpdates();
+      } finally {
+        updateExecutor.shutdown();
+        try {
+          updateExecutor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+          logger.log(Level.WARNING, "shutdownUpdates", e);
+          Thread.currentThread().interrupt();
+        }
+        updateExecutor = null;
+      }
+    }
+  }
+
+  /**
+   * @param id The record ID
+   * @return The ID of the Solr document of the record
+   */
+  public String getDocumentId(String id) {
+    return trimId ? id.trim() : id;
+  }
+
   public SolrInputDocument createSolrDoc(String id, Map<String, List<String>> objectMap) {
     SolrInputDocument document = new SolrInputDocument();
-    document.addField("id", (trimId ? id.trim() : id));
+    document.addField("id", getDocumentId(id));
     for (Map.Entry<String, List<String>> entry : objectMap.entrySet()) {
       String fieldName = entry.getKey();
       Object value = entry.getValue();
@@ -111,6 +361,7 @@ public class MarcSolrClient {
   }
 
   public void commit() {
+    waitForPendingUpdates();
     try {
       solrClient.commit();
     } catch (IOException | SolrServerException e) {
@@ -142,6 +393,52 @@ public class MarcSolrClient {
     return null;
   }
 
+  /**
+   * Retrieves several documents in a single real-time get request.
+   * @param ids The document identifiers
+   * @return The documents (without the id and _version_ fields) by their identifiers. The missing documents
+   * are not part of the map.
+   */
+  public Map<String, SolrDocument> get(Collection<String> ids) {
+    Map<String, SolrDocument> documents = new HashMap<>();
+    if (ids.isEmpty())
+      return documents;
+
+    ModifiableSolrParams params = new ModifiableSolrParams();
+    params.set(CommonParams.QT, "/get");
+    params.set("ids", ids.toArray(new String[0]));
+    try {
+      // POST, because the list of identifiers might exceed the URL length limit
+      SolrDocumentList results = new QueryRequest(params, SolrRequest.METHOD.POST).process(solrClient).getResults();
+      for (SolrDocument doc : results) {
+        String id = doc.getFieldValue("id").toString();
+        doc.removeFields("id");
+        doc.removeFields("_version_");
+        documents.put(id, doc);
+      }
+    } catch (SolrServerException | IOException e) {
+      throw new RuntimeException(e);
+    }
+    return documents;
+  }
+
+  /**
+   * The version of the index, which changes with every commit modifying the documents.
+   * @return The version and the number of the documents
+   * @throws IOException If the index information could not be retrieved
+   */
+  public String getIndexVersion() throws IOException {
+    LukeRequest request = new LukeRequest();
+    request.setNumTerms(0);
+    request.setShowSchema(false);
+    try {
+      NamedList<Object> indexInfo = request.process(solrClient).getIndexInfo();
+      return indexInfo.get("version") + "/" + indexInfo.get("numDocs");
+    } catch (SolrServerException e) {
+      throw new IOException(e);
+    }
+  }
+
   public boolean getTrimId() {
     return trimId;
   }
@@ -161,4 +458,18 @@ public class MarcSolrClient {
   public void setFieldPrefix(String fieldPrefix) {
     this.fieldPrefix = fieldPrefix;
   }
+
+  public void setMaxRetries(int maxRetries) {
+    this.maxRetries = maxRetries;
+  }
+
+  public void setRetryDelay(long retryDelay) {
+    this.retryDelay = retryDelay;
+  }
+
+  public void setMaxInFlightRequests(int maxInFlightRequests) {
+    if (updateExecutor != null)
+      throw new IllegalStateException("The number of in-flight requests can not be changed after the first asynchronous update");
+    this.maxInFlightRequests = maxInFlightRequests;
+  }
 }
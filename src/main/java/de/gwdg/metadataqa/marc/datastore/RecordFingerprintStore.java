@@ -0,0 +1,294 @@
+package de.gwdg.metadataqa.marc.datastore;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A local file, which stores a fingerprint (a 64 bit hash of the content) of each record sent to Solr, so the next
+ * run of MarcToSolr sends only the new and the changed records, and deletes the records which disappeared from the
+ * input.
+ *
+ * The file contains a header (magic, version and the configuration of the index, e.g. the Solr field type), and the
+ * (document ID, fingerprint) pairs. While the records are processed the previous fingerprints are kept in an open
+ * addressing hash table keyed by the 64 bit hash of the document ID, and the new pairs are written into a temporary
+ * file, which replaces the store when save() is called. Two IDs having the same 64 bit hash are not distinguished.
+ * If the configuration of the index changed, every record counts as changed.
+ */
+public class RecordFingerprintStore implements AutoCloseable {
+
+  private static final Logger logger = Logger.getLogger(RecordFingerprintStore.class.getCanonicalName());
+
+  private static final int MAGIC = 0x51414650; // QAFP
+  private static final int VERSION = 1;
+  private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+  private static final long FNV_PRIME = 0x100000001b3L;
+  private static final long EMPTY = 0L;
+
+  public enum Status {
+    /** the ID is not in the store */
+    ADDED,
+    /** the ID is in the store with another fingerprint, or it has been checked before in this run */
+    CHANGED,
+    /** the ID is in the store with the same fingerprint */
+    UNCHANGED
+  }
+
+  private final Path file;
+  private final String configuration;
+  private final Path tempFile;
+  private final DataOutputStream out;
+  private boolean sameConfiguration;
+  private boolean previousFileIsValid;
+
+  private long[] keys = new long[1024];
+  private long[] values = new long[1024];
+  private BitSet seen = new BitSet();
+  private int size = 0;
+
+  private int added = 0;
+  private int changed = 0;
+  private int unchanged = 0;
+
+  private RecordFingerprintStore(Path file, String configuration) throws IOException {
+    this.file = file;
+    this.configuration = configuration;
+    Path directory = file.toAbsolutePath().getParent();
+    Files.createDirectories(directory);
+    tempFile = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+    out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile), 1 << 16));
+    out.writeInt(MAGIC);
+    out.writeInt(VERSION);
+    out.writeUTF(configuration);
+  }
+
+  /**
+   * Opens the store, and reads the fingerprints of the previous run. If the file does not exist or it is not valid,
+   * all records count as new.
+   * @param file The fingerprint file
+   * @param configuration The configuration of the index (the fingerprints of another configuration are not compared)
+   * @return The store
+   * @throws IOException If the temporary file of the new fingerprints could not be created
+   */
+  public static RecordFingerprintStore open(Path file, String configuration) throws IOException {
+    RecordFingerprintStore store = new RecordFingerprintStore(file, configuration);
+    store.readPrevious();
+    return store;
+  }
+
+  /**
+   * Compares the fingerprint of the record with the previous one, and records the new fingerprint.
+   * @param id The document ID
+   * @param fingerprint The fingerprint of the content
+   * @return The status of the record
+   * @throws IOException If the fingerprint could not be written
+   */
+  public Status check(String id, long fingerprint) throws IOException {
+    out.writeBoolean(true);
+    out.writeUTF(id);
+    out.writeLong(fingerprint);
+
+    long key = hash(id);
+    int slot = find(key);
+    Status status;
+    if (keys[slot] == EMPTY) {
+      slot = insert(slot, key, fingerprint);
+      status = Status.ADDED;
+    } else if (seen.get(slot) || !sameConfiguration || values[slot] != fingerprint) {
+      status = Status.CHANGED;
+    } else {
+      status = Status.UNCHANGED;
+    }
+    seen.set(slot);
+
+    if (status == Status.ADDED)
+      added++;
+    else if (status == Status.CHANGED)
+      changed++;
+    else
+      unchanged++;
+    return status;
+  }
+
+  /**
+   * @return The IDs of the previous run, which have not been checked in this run
+   * @throws IOException If the previous file could not be read
+   */
+  public List<String> getRemovedIds() throws IOException {
+    List<String> removed = new ArrayList<>();
+    if (!previousFileIsValid)
+      return removed;
+
+    BitSet reported = (BitSet) seen.clone();
+    try (DataInputStream in = openPrevious()) {
+      while (in.readBoolean()) {
+        String id = in.readUTF();
+        in.readLong();
+        int slot = find(hash(id));
+        if (!reported.get(slot)) {
+          removed.add(id);
+          reported.set(slot);
+        }
+      }
+    }
+    return removed;
+  }
+
+  /**
+   * Replaces the previous file with the fingerprints of this run.
+   * @param keepRemoved Keep the records which have not been checked in this run (e.g. the run processed only a part
+   *                    of the input). If the configuration has changed, their fingerprints are replaced with 0, so
+   *                    they will count as changed.
+   * @throws IOException If the file could not be written
+   */
+  public void save(boolean keepRemoved) throws IOException {
+    if (keepRemoved && previousFileIsValid) {
+      try (DataInputStream in = openPrevious()) {
+        while (in.readBoolean()) {
+          String id = in.readUTF();
+          long fingerprint = in.readLong();
+          if (!seen.get(find(hash(id)))) {
+            out.writeBoolean(true);
+            out.writeUTF(id);
+            out.writeLong(sameConfiguration ? fingerprint : 0L);
+          }
+        }
+      }
+    }
+    out.writeBoolean(false);
+    out.close();
+    Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /**
+   * Drops the fingerprints of this run if they have not been saved
+   */
+  @Override
+  public void close() throws IOException {
+    out.close();
+    Files.deleteIfExists(tempFile);
+  }
+
+  public int getAdded() {
+    return added;
+  }
+
+  public int getChanged() {
+    return changed;
+  }
+
+  public int getUnchanged() {
+    return unchanged;
+  }
+
+  /**
+   * @param content The content of the record (e.g. its JSON serialization)
+   * @return FNV-1a hash of the characters of the content
+   */
+  public static long fingerprint(CharSequence content) {
+    long hash = FNV_OFFSET_BASIS;
+    for (int i = 0, length = content.length(); i < length; i++) {
+      char c = content.charAt(i);
+      hash ^= (c & 0xff);
+      hash *= FNV_PRIME;
+      hash ^= (c >>> 8);
+      hash *= FNV_PRIME;
+    }
+    return hash;
+  }
+
+  private void readPrevious() {
+    if (!Files.exists(file))
+      return;
+
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+      if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+        logger.log(Level.WARNING, "{0} is not a fingerprint file, all records will be sent", file);
+        return;
+      }
+      sameConfiguration = in.readUTF().equals(configuration);
+      if (!sameConfiguration)
+        logger.log(Level.INFO, "the configuration of the index has changed, all records will be sent");
+      while (in.readBoolean()) {
+        long key = hash(in.readUTF());
+        long fingerprint = in.readLong();
+        int slot = find(key);
+        if (keys[slot] == EMPTY)
+          slot = insert(slot, key, fingerprint);
+        else
+          values[slot] = fingerprint;
+      }
+      previousFileIsValid = true;
+    } catch (IOException e) {
+      logger.log(Level.WARNING, "the fingerprint file could not be read, all records will be sent", e);
+      keys = new long[1024];
+      values = new long[1024];
+      size = 0;
+    }
+  }
+
+  private DataInputStream openPrevious() throws IOException {
+    DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16));
+    in.readInt();
+    in.readInt();
+    in.readUTF();
+    return in;
+  }
+
+  /**
+   * @return The slot of the key, or the empty slot where it should be inserted
+   */
+  private int find(long key) {
+    int mask = keys.length - 1;
+    int slot = (int) (key ^ (key >>> 32)) & mask;
+    while (keys[slot] != EMPTY && keys[slot] != key)
+      slot = (slot + 1) & mask;
+    return slot;
+  }
+
+  private int insert(int slot, long key, long value) {
+    keys[slot] = key;
+    values[slot] = value;
+    size++;
+    if (size * 2 > keys.length) {
+      grow();
+      slot = find(key);
+    }
+    return slot;
+  }
+
+  private void grow() {
+    long[] oldKeys = keys;
+    long[] oldValues = values;
+    BitSet oldSeen = seen;
+    keys = new long[oldKeys.length * 2];
+    values = new long[oldKeys.length * 2];
+    seen = new BitSet();
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (oldKeys[i] != EMPTY) {
+        int slot = find(oldKeys[i]);
+        keys[slot] = oldKeys[i];
+        values[slot] = oldValues[i];
+        seen.set(slot, oldSeen.get(i));
+      }
+    }
+  }
+
+  /**
+   * FNV-1a hash of the document ID (0 marks the empty slots of the table)
+   */
+  private static long hash(String id) {
+    long hash = fingerprint(id);
+    return hash == EMPTY ? 1L : hash;
+  }
+}
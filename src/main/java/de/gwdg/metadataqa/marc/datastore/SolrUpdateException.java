@@ -0,0 +1,23 @@
+package de.gwdg.metadataqa.marc.datastore;
+
+import java.util.List;
+
+/**
+ * An update request, which failed even after the retries. It carries the IDs of the documents of the request, so
+ * the failure can be reported against the documents it belongs to.
+ */
+public class SolrUpdateException extends RuntimeException {
+  private final transient List<String> documentIds;
+
+  public SolrUpdateException(String message, List<String> documentIds, Throwable cause) {
+    super(message, cause);
+    this.documentIds = documentIds;
+  }
+
+  /**
+   * @return The IDs of the documents which have not been indexed (or deleted)
+   */
+  public List<String> getDocumentIds() {
+    return documentIds;
+  }
+}
@@ -8,6 +8,7 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
@@ -32,21 +33,33 @@ public class TagDefinitionLoader {
     "012", "019", "029", "090", "092", "096", "366", "539", "891", "911",
     "912", "936", "938", "994"
   );
-  private static Map<String, DataFieldDefinition> commonCache = new HashMap<>();
-  private static Map<String, Map<MarcVersion, DataFieldDefinition>> versionedCache = new HashMap<>();
+  /**
+   * The definitions are loaded once, when the class is initialized, and the maps are not modified afterwards,
+   * so the lookups need no synchronization.
+   */
+  private static final Map<String, DataFieldDefinition> commonCache;
+  private static final Map<String, Map<MarcVersion, DataFieldDefinition>> versionedCache;
 
   static {
-    findAndCacheTags();
+    Map<String, DataFieldDefinition> common = new HashMap<>();
+    Map<String, Map<MarcVersion, DataFieldDefinition>> versioned = new HashMap<>();
+    findAndCacheTags(common, versioned);
+    versioned.replaceAll((tag, versions) -> Collections.unmodifiableMap(versions));
+    commonCache = Collections.unmodifiableMap(common);
+    versionedCache = Collections.unmodifiableMap(versioned);
   }
 
-  private static void findAndCacheTags() {
+  private static void findAndCacheTags(Map<String, DataFieldDefinition> commonCache,
+                                       Map<String, Map<MarcVersion, DataFieldDefinition>> versionedCache) {
     List<Class<? extends DataFieldDefinition>> tags = MarcTagLister.listTags();
     for (Class<? extends DataFieldDefinition> definitionClazz : tags) {
-      loadAndCacheTag(definitionClazz);
+      loadAndCacheTag(definitionClazz, commonCache, versionedCache);
     }
   }
 
-  private static void loadAndCacheTag(Class<? extends DataFieldDefinition> definitionClazz) {
+  private static void loadAndCacheTag(Class<? extends DataFieldDefinition> definitionClazz,
+                                      Map<String, DataFieldDefinition> commonCache,
+                                      Map<String, Map<MarcVersion, DataFieldDefinition>> versionedCache) {
     DataFieldDefinition dataFieldDefinition = null;
     Method getInstance = null;
     try {
@@ -64,6 +77,13 @@ public class TagDefinitionLoader {
     }
   }
 
+  /**
+   * @return The number of the tags having a definition
+   */
+  public static int size() {
+    return versionedCache.size();
+  }
+
   public static DataFieldDefinition load(String tag) {
     return load(tag, MarcVersion.MARC21);
   }
@@ -0,0 +1,95 @@
+package de.gwdg.metadataqa.marc.definition.structure;
+
+import de.gwdg.metadataqa.marc.EncodedValue;
+import de.gwdg.metadataqa.marc.Range;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * A lookup structure of a list of codes: a hash map of the codes and the numeric ranges (such as "1-9") sorted by
+ * their lower bound. It returns the same code as the linear search did: the first one in the list which equals
+ * to the value or which is a range containing the value.
+ *
+ * The definitions mark some codes as ranges after the codes are set (e.g. getCode("1-9").setRange(true)), so every
+ * code having the form of a numeric range is indexed, and its range flag is checked at lookup time.
+ */
+public class CodeIndex implements Serializable {
+
+  private static final long serialVersionUID = 6142208315726048233L;
+  private static final Pattern RANGE_PATTERN = Pattern.compile("^\\d+-\\d+$");
+
+  private final List<EncodedValue> codes;
+  private final int size;
+  private final Map<String, Integer> positions = new HashMap<>();
+  private final int[] rangeMins;
+  private final int[] rangeMaxs;
+  private final int[] rangePositions;
+
+  public CodeIndex(List<EncodedValue> codes) {
+    this.codes = codes;
+    this.size = codes.size();
+
+    List<int[]> ranges = new ArrayList<>();
+    for (int i = 0; i < size; i++) {
+      EncodedValue code = codes.get(i);
+      positions.putIfAbsent(code.getCode(), i);
+      if (code.isRange() || RANGE_PATTERN.matcher(code.getCode()).matches()) {
+        Range range = code.isRange() ? code.getRange() : new Range(code.getCode());
+        ranges.add(new int[]{range.getMin(), range.getMax(), i});
+      }
+    }
+    ranges.sort(Comparator.comparingInt(range -> range[0]));
+    rangeMins = new int[ranges.size()];
+    rangeMaxs = new int[ranges.size()];
+    rangePositions = new int[ranges.size()];
+    for (int i = 0; i < ranges.size(); i++) {
+      rangeMins[i] = ranges.get(i)[0];
+      rangeMaxs[i] = ranges.get(i)[1];
+      rangePositions[i] = ranges.get(i)[2];
+    }
+  }
+
+  /**
+   * Checks whether the index still represents the list (the list might be extended after the index is created).
+   * @param codes The list of codes
+   * @return true if the index was created from this list and its size has not been changed
+   */
+  public boolean isIndexOf(List<EncodedValue> codes) {
+    return this.codes == codes && size == codes.size();
+  }
+
+  public EncodedValue getCode(String value) {
+    int best = positions.getOrDefault(value, size);
+    if (rangeMins.length > 0) {
+      Integer number = parseNumber(value);
+      if (number != null) {
+        for (int i = 0; i < rangeMins.length && rangeMins[i] <= number; i++)
+          if (number <= rangeMaxs[i] && rangePositions[i] < best && codes.get(rangePositions[i]).isRange())
+            best = rangePositions[i];
+      }
+    }
+    return best < size ? codes.get(best) : null;
+  }
+
+  /**
+   * Parses the value as Range.isValid() does, but without throwing exception for the most frequent non numeric values
+   */
+  private static Integer parseNumber(String value) {
+    if (value == null || value.isEmpty())
+      return null;
+    char first = value.charAt(0);
+    if (!Character.isDigit(first) && first != '-' && first != '+')
+      return null;
+    try {
+      return Integer.parseInt(value);
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+}
@@ -9,8 +9,9 @@ import org.apache.commons.lang3.StringUtils;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
-import java.util.regex.Matcher;
+import java.util.Set;
 import java.util.regex.Pattern;
 
 /**
@@ -36,6 +37,14 @@ public class ControlfieldPositionDefinition implements Serializable {
    * which aren't regex patterns, but simple string codes.
    */
   protected List<String> validCodes = new ArrayList<>();
+  /**
+   * The valid codes in a hash set for the lookups of validate()
+   */
+  private Set<String> validCodeSet = new HashSet<>();
+  /**
+   * The compiled regex pattern of the codes (if any), compiled once when the codes are set
+   */
+  private Pattern regexPattern;
   /**
    * Used in case the codes are separately defined in some code list. Used mostly if the list of codes would otherwise
    * be frequently repeated in the definition.
@@ -184,24 +193,14 @@ public class ControlfieldPositionDefinition implements Serializable {
   }
 
   private boolean validateRegexPattern(String code) {
-    EncodedValue regexPattern = codes.stream().filter(EncodedValue::isRegex).findFirst().orElse(null);
-
     if (regexPattern == null) {
       return true;
     }
 
-    // Create a pattern from the regex pattern
-    // The pattern should be case-insensitive
-
-    Pattern pattern = Pattern.compile(regexPattern.getCode(), Pattern.CASE_INSENSITIVE);
-
-    // Check if the code matches the pattern
-    Matcher patternMatcher = pattern.matcher(code);
-
     // There is no checking for groups, so that should be implemented as well
     // TODO implement group checking
 
-    return patternMatcher.matches();
+    return regexPattern.matcher(code).matches();
   }
 
   /**
@@ -212,9 +211,12 @@ public class ControlfieldPositionDefinition implements Serializable {
    * @return True if the code is valid, false otherwise
    */
   private boolean validateRepeatableCode(String code) {
+    if (code.length() == unitLength) {
+      return validCodeSet.contains(code);
+    }
     for (int i = 0; i < code.length(); i += unitLength) {
       String unit = code.substring(i, i + unitLength);
-      if (!validCodes.contains(unit)) {
+      if (!validCodeSet.contains(unit)) {
         return false;
       }
     }
@@ -222,8 +224,7 @@ public class ControlfieldPositionDefinition implements Serializable {
   }
 
   private boolean validateNonRepeatableCode(String code) {
-    return validCodes.stream()
-      .anyMatch(e -> e.equals(code));
+    return validCodeSet.contains(code);
   }
 
   public String resolve(String inputCode) {
@@ -275,12 +276,22 @@ public class ControlfieldPositionDefinition implements Serializable {
     return inputCode;
   }
 
+  /**
+   * Extracts the valid codes and compiles the (case-insensitive) regex pattern of the codes. The current
+   * implementation assumes at most one regex pattern per position, and that it is a valid regex pattern.
+   */
   protected void extractValidCodes() {
+    validCodes = new ArrayList<>();
+    validCodeSet = new HashSet<>();
+    regexPattern = null;
     if (codes == null) {
       return;
     }
     for (EncodedValue code : codes) {
-      if (!code.isRegex()) {
+      if (code.isRegex()) {
+        if (regexPattern == null)
+          regexPattern = Pattern.compile(code.getCode(), Pattern.CASE_INSENSITIVE);
+      } else if (validCodeSet.add(code.getCode())) {
         validCodes.add(code.getCode());
       }
     }
@@ -1,6 +1,7 @@
 package de.gwdg.metadataqa.marc.definition.structure;
 
 import de.gwdg.metadataqa.marc.EncodedValue;
+import de.gwdg.metadataqa.marc.analysis.completeness.CompletenessPaths;
 import de.gwdg.metadataqa.marc.Utils;
 import de.gwdg.metadataqa.marc.definition.Cardinality;
 import de.gwdg.metadataqa.marc.definition.CompilanceLevel;
@@ -41,6 +42,7 @@ public abstract class DataFieldDefinition implements BibliographicFieldDefinitio
   private CompilanceLevel nationalCompilanceLevel;
   private CompilanceLevel minimalCompilanceLevel;
   private MarcVersion marcVersion;
+  private transient CompletenessPaths completenessPaths;
 
   public String getTag() {
     return tag;
@@ -58,6 +60,15 @@ public abstract class DataFieldDefinition implements BibliographicFieldDefinitio
     return indexTag;
   }
 
+  /**
+   * @return The precomputed paths of the field used by the completeness analysis
+   */
+  public CompletenessPaths getCompletenessPaths() {
+    if (completenessPaths == null)
+      completenessPaths = new CompletenessPaths(tag);
+    return completenessPaths;
+  }
+
   public String getLabel() {
     return label;
   }
@@ -5,6 +5,7 @@ import de.gwdg.metadataqa.marc.Range;
 import de.gwdg.metadataqa.marc.definition.FRBRFunction;
 import de.gwdg.metadataqa.marc.definition.MarcVersion;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.EnumMap;
@@ -13,7 +14,7 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
-public class Indicator {
+public class Indicator implements Serializable {
   private DataFieldDefinition parent;
   private String label = null;
   private String bibframeTag = null;
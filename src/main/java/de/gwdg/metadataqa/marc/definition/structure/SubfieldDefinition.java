@@ -20,6 +20,7 @@ import java.util.EnumMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Logger;
 
 /**
@@ -42,6 +43,9 @@ public class SubfieldDefinition implements Serializable {
   protected CodeList codeList;
   private List<EncodedValue> codes;
   private Map<MarcVersion, List<EncodedValue>> localCodes;
+  // the indexes are rebuilt if the list of codes is extended, so they are shared by the threads safely
+  private volatile CodeIndex codeIndex;
+  private Map<MarcVersion, CodeIndex> localCodeIndex;
   private List<String> allowedCodes;
   private String codeForIndex = null;
   private List<ControlfieldPositionDefinition> positions;
@@ -116,6 +120,7 @@ public class SubfieldDefinition implements Serializable {
 
   public SubfieldDefinition setCodes(List<EncodedValue> codes) {
     this.codes = codes;
+    codeIndex = codes == null ? null : new CodeIndex(codes);
     return this;
   }
 
@@ -124,6 +129,7 @@ public class SubfieldDefinition implements Serializable {
     for (int i = 0; i<input.length; i+=2) {
       codes.add(new EncodedValue(input[i], input[i+1]));
     }
+    codeIndex = new CodeIndex(codes);
     return this;
   }
 
@@ -140,14 +146,33 @@ public class SubfieldDefinition implements Serializable {
     for (int i = 0; i < input.length; i += 2) {
       localCodes.get(version).add(new EncodedValue(input[i], input[i+1]));
     }
+    if (localCodeIndex == null)
+      localCodeIndex = new ConcurrentHashMap<>();
+    localCodeIndex.put(version, new CodeIndex(localCodes.get(version)));
     return this;
   }
 
+  /**
+   * Returns the code which equals to the value, or the range which contains it. The lookup uses the index created
+   * when the codes were set.
+   * @param code The value
+   * @return The code or null
+   */
   public EncodedValue getCode(String code) {
-    return getCode(codes, code);
+    if (codes == null)
+      return null;
+    CodeIndex index = codeIndex;
+    if (index == null || !index.isIndexOf(codes)) {
+      index = new CodeIndex(codes);
+      codeIndex = index;
+    }
+    return index.getCode(code);
   }
 
   public EncodedValue getCode(List<EncodedValue> codes, String otherCode) {
+    if (codes == this.codes)
+      return getCode(otherCode);
+
     for (EncodedValue code : codes)
       if (code.getCode().equals(otherCode))
         return code;
@@ -173,7 +198,12 @@ public class SubfieldDefinition implements Serializable {
     List<EncodedValue> codes = getLocalCodes(version);
     if (codes == null)
       return null;
-    return getCode(codes, code);
+    CodeIndex index = localCodeIndex.get(version);
+    if (index == null || !index.isIndexOf(codes)) {
+      index = new CodeIndex(codes);
+      localCodeIndex.put(version, index);
+    }
+    return index.getCode(code);
   }
 
   public String getCardinalityCode() {
@@ -0,0 +1,60 @@
+package de.gwdg.metadataqa.marc.utils;
+
+import de.gwdg.metadataqa.marc.dao.record.Marc21BibliographicRecord;
+import de.gwdg.metadataqa.marc.dao.record.PicaRecord;
+import de.gwdg.metadataqa.marc.dao.record.UnimarcRecord;
+import de.gwdg.metadataqa.marc.definition.TagDefinitionLoader;
+import de.gwdg.metadataqa.marc.definition.bibliographic.SchemaType;
+import de.gwdg.metadataqa.marc.utils.pica.crosswalk.PicaMarcCrosswalkReader;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Builds the process-wide definition registries of a schema in a single step: the MARC21 tag definitions of
+ * TagDefinitionLoader, the PICA-MARC21 crosswalk and the shelf-ready maps of the schemas. They are built into
+ * structures which are not modified afterwards, so the worker threads can read them without synchronization.
+ * The caches which are filled while the records are processed (e.g. the MARC spec and the separator caches) are
+ * concurrent maps. The code indexes of SubfieldDefinition, which are rebuilt when a list of codes is extended,
+ * are kept in a volatile field and in a concurrent map.
+ *
+ * Without the warm-up the registries are built when they are first used, which happens in one of the worker
+ * threads while the others wait for the class initialization.
+ */
+public final class DefinitionRegistry {
+
+  private static final Map<SchemaType, Map<String, Long>> warmUpCosts = new EnumMap<>(SchemaType.class);
+
+  private DefinitionRegistry() {}
+
+  /**
+   * Builds the registries used by the records of a schema. Only the first call per schema does any work.
+   * @param schemaType The schema of the records
+   * @return The time (in milliseconds) the first call spent on each registry. A registry which had been
+   * used before the warm-up costs about 0 ms.
+   */
+  public static synchronized Map<String, Long> warmUp(SchemaType schemaType) {
+    return warmUpCosts.computeIfAbsent(schemaType, type -> {
+      Map<String, Long> cost = new LinkedHashMap<>();
+      if (type == SchemaType.PICA) {
+        measure(cost, "PICA-MARC21 crosswalk", PicaMarcCrosswalkReader::read);
+        measure(cost, "PICA shelf-ready map", () -> new PicaRecord().getShelfReadyMap());
+      } else if (type == SchemaType.UNIMARC) {
+        measure(cost, "UNIMARC shelf-ready map", () -> new UnimarcRecord().getShelfReadyMap());
+      } else {
+        measure(cost, "MARC21 tag definitions", TagDefinitionLoader::size);
+        measure(cost, "MARC21 shelf-ready map", () -> new Marc21BibliographicRecord().getShelfReadyMap());
+      }
+      return Collections.unmodifiableMap(cost);
+    });
+  }
+
+  private static void measure(Map<String, Long> cost, String registry, Supplier<?> builder) {
+    long start = System.nanoTime();
+    builder.get();
+    cost.put(registry, (System.nanoTime() - start) / 1_000_000);
+  }
+}
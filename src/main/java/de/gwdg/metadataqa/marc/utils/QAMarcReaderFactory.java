@@ -4,6 +4,7 @@ import de.gwdg.metadataqa.marc.cli.parameters.CommonParameters;
 import de.gwdg.metadataqa.marc.definition.MarcFormat;
 import de.gwdg.metadataqa.marc.utils.marcreader.AlephseqMarcReader;
 import de.gwdg.metadataqa.marc.utils.marcreader.LineSeparatedMarcReader;
+import de.gwdg.metadataqa.marc.utils.marcreader.MappedIsoMarcReader;
 import de.gwdg.metadataqa.marc.utils.marcreader.MarcMakerReader;
 import de.gwdg.metadataqa.marc.utils.marcreader.MarclineReader;
 import de.gwdg.metadataqa.marc.utils.pica.reader.PicaNormalizedReader;
@@ -18,6 +19,7 @@ import org.marc4j.MarcXmlReader;
 import java.io.ByteArrayInputStream;
 import java.io.FileInputStream;
 import java.io.InputStream;
+import java.nio.file.Paths;
 
 public final class QAMarcReaderFactory {
 
@@ -28,7 +30,8 @@ public final class QAMarcReaderFactory {
   }
 
   private MarcReader getIsoFileReader(String fileName) throws Exception {
-    return getIsoStreamReader(new FileInputStream(fileName));
+    String encoding = parameters != null ? parameters.getDefaultEncoding() : null;
+    return new MappedIsoMarcReader(Paths.get(fileName), encoding);
   }
 
   private MarcReader getIsoStreamReader(InputStream stream) {
@@ -114,6 +117,8 @@ public final class QAMarcReaderFactory {
         reader.setIdField(parameters.getPicaIdField());
       if (StringUtils.isNotEmpty(parameters.getPicaSubfieldSeparator()))
         reader.setSubfieldSeparator(parameters.getPicaSubfieldSeparator());
+      reader.setLineParser(parameters.getPicaLineParser());
+      reader.setSchema(SchemaRegistry.getPicaSchema(parameters.getPicaSchemaFile()));
     }
   }
 
@@ -0,0 +1,197 @@
+package de.gwdg.metadataqa.marc.utils;
+
+import de.gwdg.metadataqa.marc.definition.bibliographic.SchemaType;
+import de.gwdg.metadataqa.marc.utils.pica.PicaSchemaManager;
+import de.gwdg.metadataqa.marc.utils.pica.PicaSchemaReader;
+import de.gwdg.metadataqa.marc.utils.unimarc.UnimarcSchemaManager;
+import de.gwdg.metadataqa.marc.utils.unimarc.UnimarcSchemaReader;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Process-wide registry of the PICA and UNIMARC schemas. Each Avram schema file is parsed only once, and the same
+ * schema manager is handed to the readers, to MarcFactory and to the analyses, so they should not modify it.
+ *
+ * If there is a binary snapshot of the schema file (the serialized schema manager in a file having the name of the
+ * schema file with a .snapshot extension) which is newer than the schema file, the schema is read from the snapshot
+ * instead of parsing the JSON. The snapshot can be created with
+ * <pre>
+ * java -cp qa-catalogue.jar de.gwdg.metadataqa.marc.utils.SchemaRegistry PICA|UNIMARC [schema file]
+ * </pre>
+ */
+public final class SchemaRegistry {
+
+  private static final Logger logger = Logger.getLogger(SchemaRegistry.class.getCanonicalName());
+
+  public static final String DEFAULT_PICA_SCHEMA_FILE = "src/main/resources/pica/avram-k10plus-title.json";
+  public static final String DEFAULT_UNIMARC_SCHEMA_FILE = "src/main/resources/unimarc/avram-unimarc.json";
+  public static final String SNAPSHOT_EXTENSION = ".snapshot";
+  private static final String PICA_SCHEMA_RESOURCE = "pica/avram-k10plus-title.json";
+  private static final String UNIMARC_SCHEMA_RESOURCE = "unimarc/avram-unimarc.json";
+  private static final String RESOURCE_PREFIX = "resource:";
+
+  private static final Map<String, PicaSchemaManager> picaSchemas = new ConcurrentHashMap<>();
+  private static final Map<String, UnimarcSchemaManager> unimarcSchemas = new ConcurrentHashMap<>();
+
+  private SchemaRegistry() {}
+
+  /**
+   * Returns the PICA schema of the file. If the file is not set or does not exist, the default schema
+   * (avram-k10plus-title.json) is read from the source tree or from the classpath.
+   * @param schemaFile The Avram schema file
+   * @return The shared schema manager
+   */
+  public static PicaSchemaManager getPicaSchema(String schemaFile) {
+    String key = resolve(schemaFile, DEFAULT_PICA_SCHEMA_FILE, PICA_SCHEMA_RESOURCE);
+    return picaSchemas.computeIfAbsent(key, SchemaRegistry::readPicaSchema);
+  }
+
+  /**
+   * Returns the UNIMARC schema of the file. If the file is not set or does not exist, the default schema
+   * (avram-unimarc.json) is read from the source tree or from the classpath.
+   * @param schemaFile The Avram schema file
+   * @return The shared schema manager
+   */
+  public static UnimarcSchemaManager getUnimarcSchema(String schemaFile) {
+    String key = resolve(schemaFile, DEFAULT_UNIMARC_SCHEMA_FILE, UNIMARC_SCHEMA_RESOURCE);
+    return unimarcSchemas.computeIfAbsent(key, SchemaRegistry::readUnimarcSchema);
+  }
+
+  /**
+   * Returns the checksum of the content of the schema, which is read by getPicaSchema() or getUnimarcSchema(), so
+   * a changed schema file can be recognized even if its name is the same.
+   * @param schemaType PICA or UNIMARC (for the other types the checksum is empty)
+   * @param schemaFile The Avram schema file
+   * @return The CRC32 checksum of the file content as hexadecimal number
+   * @throws IOException If the schema file could not be read
+   */
+  public static String getChecksum(SchemaType schemaType, String schemaFile) throws IOException {
+    String key;
+    if (schemaType == SchemaType.PICA)
+      key = resolve(schemaFile, DEFAULT_PICA_SCHEMA_FILE, PICA_SCHEMA_RESOURCE);
+    else if (schemaType == SchemaType.UNIMARC)
+      key = resolve(schemaFile, DEFAULT_UNIMARC_SCHEMA_FILE, UNIMARC_SCHEMA_RESOURCE);
+    else
+      return "";
+
+    CRC32 checksum = new CRC32();
+    try (InputStream in = key.startsWith(RESOURCE_PREFIX) ? getResource(key) : new FileInputStream(key)) {
+      if (in == null)
+        throw new IOException("The schema resource " + key + " is not available");
+      byte[] buffer = new byte[8192];
+      int length;
+      while ((length = in.read(buffer)) != -1)
+        checksum.update(buffer, 0, length);
+    }
+    return Long.toHexString(checksum.getValue());
+  }
+
+  private static String resolve(String schemaFile, String defaultFile, String resource) {
+    String file = StringUtils.isNotEmpty(schemaFile) ? schemaFile : defaultFile;
+    if (new File(file).exists())
+      return new File(file).getAbsolutePath();
+    if (StringUtils.isNotEmpty(schemaFile))
+      logger.log(Level.WARNING, "The schema file {0} does not exist, the default schema is used", schemaFile);
+    return RESOURCE_PREFIX + resource;
+  }
+
+  private static PicaSchemaManager readPicaSchema(String key) {
+    if (key.startsWith(RESOURCE_PREFIX)) {
+      logger.info("read PICA schema from resource");
+      return PicaSchemaReader.createSchema(getResource(key));
+    }
+    PicaSchemaManager schema = readSnapshot(key, PicaSchemaManager.class);
+    if (schema == null) {
+      logger.log(Level.INFO, "read PICA schema from file: {0}", key);
+      schema = PicaSchemaReader.createSchema(key);
+    }
+    return schema;
+  }
+
+  private static UnimarcSchemaManager readUnimarcSchema(String key) {
+    if (key.startsWith(RESOURCE_PREFIX)) {
+      logger.info("read UNIMARC schema from resource");
+      return new UnimarcSchemaReader().createSchema(getResource(key));
+    }
+    UnimarcSchemaManager schema = readSnapshot(key, UnimarcSchemaManager.class);
+    if (schema == null) {
+      logger.log(Level.INFO, "read UNIMARC schema from file: {0}", key);
+      schema = new UnimarcSchemaReader().createSchema(key);
+    }
+    return schema;
+  }
+
+  private static InputStream getResource(String key) {
+    return SchemaRegistry.class.getClassLoader().getResourceAsStream(key.substring(RESOURCE_PREFIX.length()));
+  }
+
+  private static <T> T readSnapshot(String schemaFile, Class<T> type) {
+    File snapshot = new File(schemaFile + SNAPSHOT_EXTENSION);
+    if (!snapshot.exists())
+      return null;
+    if (snapshot.lastModified() < new File(schemaFile).lastModified()) {
+      logger.log(Level.WARNING, "The snapshot {0} is older than the schema file, it is not used", snapshot);
+      return null;
+    }
+
+    try (ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(new FileInputStream(snapshot)))) {
+      logger.log(Level.INFO, "read schema from snapshot: {0}", snapshot);
+      return type.cast(in.readObject());
+    } catch (IOException | ClassNotFoundException | ClassCastException e) {
+      logger.log(Level.WARNING, "The snapshot {0} could not be read: {1}",
+        new Object[]{snapshot, e.getLocalizedMessage()});
+      return null;
+    }
+  }
+
+  /**
+   * Parses the schema file and writes the schema manager into the snapshot file next to it.
+   * @param schemaType PICA or UNIMARC
+   * @param schemaFile The Avram schema file
+   * @return The snapshot file
+   * @throws IOException If the snapshot could not be written
+   */
+  public static File writeSnapshot(SchemaType schemaType, String schemaFile) throws IOException {
+    Object schema;
+    if (schemaType == SchemaType.PICA)
+      schema = PicaSchemaReader.createSchema(schemaFile);
+    else if (schemaType == SchemaType.UNIMARC)
+      schema = new UnimarcSchemaReader().createSchema(schemaFile);
+    else
+      throw new IllegalArgumentException("Snapshots are available only for PICA and UNIMARC schemas");
+
+    File snapshot = new File(schemaFile + SNAPSHOT_EXTENSION);
+    try (ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(snapshot)))) {
+      out.writeObject(schema);
+    }
+    return snapshot;
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length < 1) {
+      System.err.println("usage: java -cp qa-catalogue.jar de.gwdg.metadataqa.marc.utils.SchemaRegistry "
+        + "PICA|UNIMARC [schema file]");
+      System.exit(1);
+    }
+    SchemaType schemaType = SchemaType.valueOf(args[0]);
+    String schemaFile = args.length > 1
+      ? args[1]
+      : (schemaType == SchemaType.PICA ? DEFAULT_PICA_SCHEMA_FILE : DEFAULT_UNIMARC_SCHEMA_FILE);
+    File snapshot = writeSnapshot(schemaType, schemaFile);
+    logger.log(Level.INFO, "snapshot is written to {0}", snapshot);
+  }
+}
@@ -10,22 +10,57 @@ import org.apache.commons.lang3.StringUtils;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 
+/**
+ * Creates the Solr field names of a data field. The names depend only on the definition, the tag, the Solr field type,
+ * the schema type and the MARC version, so the generator remembers the names it created. The shared generators
+ * returned by getInstance() are reused across records and threads.
+ */
 public class DataFieldKeyGenerator {
+  private static final Map<CacheKey, DataFieldKeyGenerator> instances = new ConcurrentHashMap<>();
+
   private DataFieldDefinition definition;
   private SolrFieldType type;
   private String tag;
+  private String safeTag;
   private String indexTag;
   public static final Pattern nonValidSubfieldCode = Pattern.compile("[^0-9a-zA-Z]");
   private MarcVersion marcVersion;
   private SchemaType schemaType;
+  private String ind1Key;
+  private String ind2Key;
+  private String fullKey;
+  private final Map<SubfieldDefinition, String> definedSubfieldKeys = new ConcurrentHashMap<>();
+  private final Map<String, String> subfieldKeys = new ConcurrentHashMap<>();
+
+  /**
+   * Returns the shared key generator of a data field. The caller should not change its MARC version.
+   */
+  public static DataFieldKeyGenerator getInstance(DataFieldDefinition definition,
+                                                  SolrFieldType type,
+                                                  String tag,
+                                                  SchemaType schemaType,
+                                                  MarcVersion marcVersion) {
+    return instances.computeIfAbsent(
+      new CacheKey(definition, type, tag, schemaType, marcVersion),
+      key -> {
+        DataFieldKeyGenerator keyGenerator = new DataFieldKeyGenerator(definition, type, tag, schemaType);
+        keyGenerator.setMarcVersion(marcVersion);
+        return keyGenerator;
+      }
+    );
+  }
 
   public DataFieldKeyGenerator(DataFieldDefinition definition, SolrFieldType type) {
     this.definition = definition;
     this.type = type;
     tag = definition.getTag();
     indexTag = definition.getIndexTag();
+    safeTag = createSafeTag(tag);
   }
 
   public DataFieldKeyGenerator(DataFieldDefinition definition,
@@ -47,9 +82,20 @@ public class DataFieldKeyGenerator {
         this.indexTag = tag;
       }
     }
+    safeTag = createSafeTag(this.tag);
+  }
+
+  private static String createSafeTag(String tag) {
+    return tag != null && nonValidSubfieldCode.matcher(tag).find() ? escape(tag) : tag;
   }
 
   public String forInd1() {
+    if (ind1Key == null)
+      ind1Key = createInd1Key();
+    return ind1Key;
+  }
+
+  private String createInd1Key() {
     String key = "";
     switch (type) {
       case HUMAN:
@@ -75,6 +121,12 @@ public class DataFieldKeyGenerator {
   }
 
   public String forInd2() {
+    if (ind2Key == null)
+      ind2Key = createInd2Key();
+    return ind2Key;
+  }
+
+  private String createInd2Key() {
     String key = "";
     switch (type) {
       case HUMAN:
@@ -101,17 +153,24 @@ public class DataFieldKeyGenerator {
   public String forSubfield(MarcSubfield subfield) {
     String code = subfield.getCode();
     SubfieldDefinition subfieldDefinition = subfield.getDefinition();
-    if (subfieldDefinition == null && definition != null)
-      subfieldDefinition = definition.getVersionSpecificSubfield(marcVersion, code);
-    String codeForIndex = (subfieldDefinition != null) ? subfieldDefinition.getCodeForIndex(schemaType) : code;
-    String key = forSubfield(code, codeForIndex);
+    if (subfieldDefinition != null) {
+      if (code.equals(subfieldDefinition.getCode()))
+        return forSubfield(subfieldDefinition);
+      return createSubfieldKey(code, subfieldDefinition);
+    }
 
-    return addVersion(subfieldDefinition, key);
+    return subfieldKeys.computeIfAbsent(code, c -> createSubfieldKey(
+      c, definition != null ? definition.getVersionSpecificSubfield(marcVersion, c) : null));
   }
 
   public String forSubfield(SubfieldDefinition subfield) {
-    String key = forSubfield(subfield.getCode(), subfield.getCodeForIndex(schemaType));
-    return addVersion(subfield, key);
+    return definedSubfieldKeys.computeIfAbsent(subfield, d -> createSubfieldKey(d.getCode(), d));
+  }
+
+  private String createSubfieldKey(String code, SubfieldDefinition subfieldDefinition) {
+    String codeForIndex = (subfieldDefinition != null) ? subfieldDefinition.getCodeForIndex(schemaType) : code;
+    String key = forSubfield(code, codeForIndex);
+    return addVersion(subfieldDefinition, key);
   }
 
   private String addVersion(SubfieldDefinition subfieldDefinition, String key) {
@@ -121,7 +180,6 @@ public class DataFieldKeyGenerator {
   }
 
   private String forSubfield(String code, String codeForIndex) {
-    String safeTag = nonValidSubfieldCode.matcher(tag).find() ? escape(tag) : tag;
     if (nonValidSubfieldCode.matcher(code).matches()) {
       code = String.format("x%x", (int) code.charAt(0));
     }
@@ -174,11 +232,16 @@ public class DataFieldKeyGenerator {
 
   public void setMarcVersion(MarcVersion marcVersion) {
     this.marcVersion = marcVersion;
+    subfieldKeys.clear();
   }
 
   public String forFull() {
-    String safeTag = nonValidSubfieldCode.matcher(tag).find() ? escape(tag) : tag;
+    if (fullKey == null)
+      fullKey = createFullKey();
+    return fullKey;
+  }
 
+  private String createFullKey() {
     String key = "";
     switch (type) {
       case HUMAN:
@@ -210,4 +273,45 @@ public class DataFieldKeyGenerator {
   public String getTag() {
     return tag;
   }
+
+  private static class CacheKey {
+    private final DataFieldDefinition definition;
+    private final SolrFieldType type;
+    private final String tag;
+    private final SchemaType schemaType;
+    private final MarcVersion marcVersion;
+
+    private CacheKey(DataFieldDefinition definition,
+                     SolrFieldType type,
+                     String tag,
+                     SchemaType schemaType,
+                     MarcVersion marcVersion) {
+      this.definition = definition;
+      this.type = type;
+      this.tag = tag;
+      this.schemaType = schemaType;
+      this.marcVersion = marcVersion;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      CacheKey cacheKey = (CacheKey) o;
+      return definition == cacheKey.definition
+        && type == cacheKey.type
+        && Objects.equals(tag, cacheKey.tag)
+        && schemaType == cacheKey.schemaType
+        && marcVersion == cacheKey.marcVersion;
+    }
+
+    @Override
+    public int hashCode() {
+      int result = System.identityHashCode(definition);
+      result = 31 * result + Objects.hashCode(type);
+      result = 31 * result + Objects.hashCode(tag);
+      result = 31 * result + Objects.hashCode(schemaType);
+      return 31 * result + Objects.hashCode(marcVersion);
+    }
+  }
 }
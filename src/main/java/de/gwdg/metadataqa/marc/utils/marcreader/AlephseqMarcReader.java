@@ -90,20 +90,8 @@ public class AlephseqMarcReader extends ErrorAwareReader implements MarcReader {
             logSkipped(LEVEL.WARN, "has been deleted");
             deleted = false;
           } else {
-            IteratorResponse response = MarcFactory.createRecordFromAlephseq(lines);
-            marc4jRecord = response.getMarc4jRecord();
-            if (marc4jRecord.getControlNumber() == null) {
-              response.addError(currentId, "001", "missing");
-              logSkipped("does not have a control number field (001)");
-              marc4jRecord.addVariableField(new ControlFieldImpl("001", response.getRecordId()));
-              // response.hasBlockingError(true);
-            } else if (marc4jRecord.getLeader() == null) {
-              response.addError(currentId, "leader", "missing");
-              logSkipped("does not have a leader");
-              hasBlockingError = true;
-            }
+            marc4jRecord = createRecord();
             finished = true;
-            errors.addAll(response.getErrors());
           }
           lines = new ArrayList<>();
         }
@@ -123,10 +111,29 @@ public class AlephseqMarcReader extends ErrorAwareReader implements MarcReader {
         logger.log(Level.WARNING, "next", e);
       }
     }
-    if (line == null && !lines.isEmpty()) {
-      IteratorResponse response = MarcFactory.createRecordFromAlephseq(lines);
-      marc4jRecord = response.getMarc4jRecord();
+    if (line == null && !lines.isEmpty())
+      marc4jRecord = createRecord();
+    return marc4jRecord;
+  }
+
+  /**
+   * Creates the record from the collected lines. The last record of the input is handled the same way as the others,
+   * so a record read alone (see RecordOffsetIndex) is the same as the record read within the file.
+   */
+  private Record createRecord() {
+    IteratorResponse response = MarcFactory.createRecordFromAlephseq(lines);
+    Record marc4jRecord = response.getMarc4jRecord();
+    if (marc4jRecord.getControlNumber() == null) {
+      response.addError(currentId, "001", "missing");
+      logSkipped("does not have a control number field (001)");
+      marc4jRecord.addVariableField(new ControlFieldImpl("001", response.getRecordId()));
+      // response.hasBlockingError(true);
+    } else if (marc4jRecord.getLeader() == null) {
+      response.addError(currentId, "leader", "missing");
+      logSkipped("does not have a leader");
+      hasBlockingError = true;
     }
+    errors.addAll(response.getErrors());
     return marc4jRecord;
   }
 
@@ -0,0 +1,350 @@
+package de.gwdg.metadataqa.marc.utils.marcreader;
+
+import org.marc4j.MarcException;
+import org.marc4j.MarcReader;
+import org.marc4j.converter.CharConverter;
+import org.marc4j.converter.impl.AnselToUnicode;
+import org.marc4j.marc.ControlField;
+import org.marc4j.marc.DataField;
+import org.marc4j.marc.Leader;
+import org.marc4j.marc.MarcFactory;
+import org.marc4j.marc.Record;
+import org.marc4j.marc.Subfield;
+import org.marc4j.marc.impl.Verifier;
+import org.marc4j.util.Encoding;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads binary MARC (ISO 2709) files through a memory-mapped window of the file. The leader and the directory are
+ * parsed in place, and the field data are decoded directly from the mapped bytes, without copying the record into
+ * byte arrays first. It gives the same records, and throws the same exceptions for the broken records, as marc4j's
+ * MarcStreamReader: the fields are read in the order of their starting positions, and the encoding is taken from
+ * the leader (position 09) unless it is set explicitly.
+ *
+ * The file is closed when the last record has been read, or when close() is called (the caller should close the
+ * reader if it stops before the end of the file).
+ */
+public class MappedIsoMarcReader implements MarcReader, AutoCloseable {
+
+  private static final int WINDOW_SIZE = 64 * 1024 * 1024;
+  private static final int LEADER_LENGTH = 24;
+  private static final int FIELD_TERMINATOR = 0x1E;
+  private static final int SUBFIELD_DELIMITER = 0x1F;
+  private static final int RECORD_TERMINATOR = 0x1D;
+
+  private final MarcFactory factory = MarcFactory.newInstance();
+  private final FileChannel channel;
+  private final long end;
+  private long position;
+  private ByteBuffer window;
+  private long windowStart;
+
+  private Encoding encoding = Encoding.ISO8859_1;
+  private boolean override = false;
+  private CharConverter converterAnsel;
+  private byte[] scratch = new byte[1024];
+
+  // the part of the current record within the window, see next()
+  private int recordStart;
+  private int recordEnd;
+  private int cursor;
+
+  public MappedIsoMarcReader(Path file) throws IOException {
+    this(file, null);
+  }
+
+  /**
+   * @param file The ISO 2709 file
+   * @param encoding The encoding of the records, or null if it should be taken from the leader
+   */
+  public MappedIsoMarcReader(Path file, String encoding) throws IOException {
+    channel = FileChannel.open(file, StandardOpenOption.READ);
+    position = 0;
+    end = channel.size();
+    if (encoding != null) {
+      Encoding value = Encoding.get(encoding);
+      if (value != null) {
+        this.encoding = value;
+        override = true;
+      }
+    }
+  }
+
+  @Override
+  public boolean hasNext() {
+    if (position < end)
+      return true;
+    close();
+    return false;
+  }
+
+  @Override
+  public Record next() {
+    Record marc4jRecord = factory.newRecord();
+    if (end - position < LEADER_LENGTH) {
+      position = end;
+      throw new MarcException("Premature end of file encountered", null);
+    }
+    long recordPosition = position;
+    map(recordPosition, LEADER_LENGTH);
+    recordStart = (int) (recordPosition - windowStart);
+    // as in MarcStreamReader, the leader is consumed even if the record length is invalid
+    position += LEADER_LENGTH;
+    int recordLength = parseRecordLength();
+    int bodyLength = recordLength - LEADER_LENGTH;
+    if (bodyLength < 0)
+      throw new NegativeArraySizeException(String.valueOf(bodyLength));
+    if (end - recordPosition < recordLength) {
+      position = end;
+      throw new MarcException("Premature end of file encountered", null);
+    }
+    map(recordPosition, recordLength);
+    recordStart = (int) (recordPosition - windowStart);
+    recordEnd = recordStart + recordLength;
+    position = recordPosition + recordLength;
+
+    parseRecord(marc4jRecord, recordLength);
+    return marc4jRecord;
+  }
+
+  @Override
+  public void close() {
+    try {
+      window = null;
+      channel.close();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private void map(long start, int length) {
+    if (window != null && start >= windowStart && start + length <= windowStart + window.limit())
+      return;
+    try {
+      windowStart = start;
+      window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(Math.max(WINDOW_SIZE, length), end - start));
+    } catch (IOException e) {
+      throw new MarcException("an error occured reading input", e);
+    }
+  }
+
+  private int parseRecordLength() {
+    try {
+      return Integer.parseInt(latin1(recordStart, 5));
+    } catch (NumberFormatException e) {
+      throw new MarcException("unable to parse record length", e);
+    }
+  }
+
+  private void parseRecord(Record marc4jRecord, int recordLength) {
+    Leader leader = factory.newLeader();
+    leader.setRecordLength(recordLength);
+    int directoryLength;
+    try {
+      parseLeader(leader);
+      directoryLength = leader.getBaseAddressOfData() - (LEADER_LENGTH + 1);
+    } catch (MarcException e) {
+      throw new MarcException("error parsing leader with data: " + latin1(recordStart, LEADER_LENGTH), e);
+    }
+
+    if (leader.getCharCodingScheme() == ' ' && !override)
+      encoding = Encoding.ISO8859_1;
+    else if (leader.getCharCodingScheme() == 'a' && !override)
+      encoding = Encoding.UTF8;
+    marc4jRecord.setLeader(leader);
+
+    if (directoryLength % 12 != 0)
+      throw new MarcException("invalid directory");
+
+    cursor = recordStart + LEADER_LENGTH;
+    int size = directoryLength / 12;
+    String[] tags = new String[size];
+    int[] lengths = new int[size];
+    int[] starts = new int[size];
+    Map<Integer, Integer> positions = new HashMap<>();
+    for (int i = 0; i < size; i++) {
+      tags[i] = new String(readBytes(3), StandardCharsets.UTF_8);
+      lengths[i] = parseInt(4);
+      starts[i] = parseInt(5);
+      positions.put(starts[i], i);
+    }
+    Arrays.sort(starts);
+
+    if (read() != FIELD_TERMINATOR)
+      throw new MarcException("expected field terminator at end of directory");
+
+    for (int j = 0; j < size; j++) {
+      int i = positions.get(starts[j]);
+      checkFieldTerminator();
+      if (Verifier.isControlField(tags[i])) {
+        int length = lengths[i] - 1;
+        if (length < 0)
+          throw new NegativeArraySizeException(String.valueOf(length));
+        int start = readRange(length);
+        if (read() != FIELD_TERMINATOR)
+          throw new MarcException("expected field terminator at end of field");
+        ControlField field = factory.newControlField();
+        field.setTag(tags[i]);
+        field.setData(decode(start, length));
+        marc4jRecord.addVariableField(field);
+      } else {
+        int start = cursor;
+        int length = lengths[i];
+        if (recordEnd - cursor < length) {
+          throw new MarcException("error parsing data field for tag: " + tags[i] + " with data: "
+            + new String(copy(start, recordEnd - start), StandardCharsets.UTF_8), new IOException());
+        }
+        cursor += length;
+        marc4jRecord.addVariableField(parseDataField(tags[i], start, start + length));
+      }
+    }
+
+    if (read() != RECORD_TERMINATOR)
+      throw new MarcException("expected record terminator");
+  }
+
+  private void parseLeader(Leader leader) {
+    int i = recordStart;
+    leader.setRecordStatus(charAt(i + 5));
+    leader.setTypeOfRecord(charAt(i + 6));
+    leader.setImplDefined1(new char[]{charAt(i + 7), charAt(i + 8)});
+    leader.setCharCodingScheme(charAt(i + 9));
+    char indicatorCount = charAt(i + 10);
+    char subfieldCodeLength = charAt(i + 11);
+    String baseAddress = latin1(i + 12, 5);
+    leader.setImplDefined2(new char[]{charAt(i + 17), charAt(i + 18), charAt(i + 19)});
+    leader.setEntryMap(new char[]{charAt(i + 20), charAt(i + 21), charAt(i + 22), charAt(i + 23)});
+    try {
+      leader.setIndicatorCount(Integer.parseInt(String.valueOf(indicatorCount)));
+    } catch (NumberFormatException e) {
+      throw new MarcException("unable to parse indicator count", e);
+    }
+    try {
+      leader.setSubfieldCodeLength(Integer.parseInt(String.valueOf(subfieldCodeLength)));
+    } catch (NumberFormatException e) {
+      throw new MarcException("unable to parse subfield code length", e);
+    }
+    try {
+      leader.setBaseAddressOfData(Integer.parseInt(baseAddress));
+    } catch (NumberFormatException e) {
+      throw new MarcException("unable to parse base address of data", e);
+    }
+  }
+
+  private DataField parseDataField(String tag, int start, int fieldEnd) {
+    int i = start;
+    DataField field = factory.newDataField();
+    field.setTag(tag);
+    field.setIndicator1(i < fieldEnd ? charAt(i++) : (char) -1);
+    field.setIndicator2(i < fieldEnd ? charAt(i++) : (char) -1);
+    while (i < fieldEnd) {
+      int b = window.get(i++) & 0xff;
+      if (b != SUBFIELD_DELIMITER)
+        continue;
+      if (i >= fieldEnd)
+        throw dataFieldException(tag, start, fieldEnd, "unexpected end of data field");
+      int code = window.get(i++) & 0xff;
+      if (code == FIELD_TERMINATOR)
+        continue;
+      int valueStart = i;
+      while (i < fieldEnd && window.get(i) != FIELD_TERMINATOR && window.get(i) != SUBFIELD_DELIMITER)
+        i++;
+      if (i >= fieldEnd)
+        throw dataFieldException(tag, start, fieldEnd, "subfield not terminated");
+      Subfield subfield = factory.newSubfield();
+      subfield.setCode((char) code);
+      subfield.setData(decode(valueStart, i - valueStart));
+      field.addSubfield(subfield);
+    }
+    return field;
+  }
+
+  private MarcException dataFieldException(String tag, int start, int fieldEnd, String message) {
+    return new MarcException("error parsing data field for tag: " + tag + " with data: "
+      + new String(copy(start, fieldEnd - start), StandardCharsets.UTF_8), new IOException(message));
+  }
+
+  /**
+   * The field should be terminated within the record
+   */
+  private void checkFieldTerminator() {
+    for (int i = cursor; i < recordEnd; i++)
+      if (window.get(i) == FIELD_TERMINATOR)
+        return;
+    throw new MarcException("an error occured reading input", new IOException("Field not terminated"));
+  }
+
+  private String decode(int start, int length) {
+    if (encoding.equals(Encoding.UTF8) || encoding.equals(Encoding.ISO8859_1)) {
+      Charset charset = encoding.equals(Encoding.UTF8) ? StandardCharsets.UTF_8 : StandardCharsets.ISO_8859_1;
+      if (scratch.length < length)
+        scratch = new byte[Math.max(length, scratch.length * 2)];
+      copy(start, scratch, length);
+      return new String(scratch, 0, length, charset);
+    }
+    if (encoding.equals(Encoding.MARC8)) {
+      if (converterAnsel == null)
+        converterAnsel = new AnselToUnicode();
+      return converterAnsel.convert(copy(start, length));
+    }
+    return null;
+  }
+
+  private int read() {
+    return cursor < recordEnd ? window.get(cursor++) & 0xff : -1;
+  }
+
+  private int readRange(int length) {
+    if (recordEnd - cursor < length)
+      throw new MarcException("an error occured reading input", new IOException("Unexpected end of record"));
+    int start = cursor;
+    cursor += length;
+    return start;
+  }
+
+  private byte[] readBytes(int length) {
+    return copy(readRange(length), length);
+  }
+
+  private int parseInt(int length) {
+    int start = readRange(length);
+    int number = 0;
+    for (int i = start; i < start + length; i++) {
+      byte b = window.get(i);
+      if (b < '0' || b > '9')
+        return Integer.parseInt(new String(copy(start, length), StandardCharsets.UTF_8));
+      number = number * 10 + (b - '0');
+    }
+    return number;
+  }
+
+  private char charAt(int index) {
+    return (char) (window.get(index) & 0xff);
+  }
+
+  private String latin1(int start, int length) {
+    return new String(copy(start, length), StandardCharsets.ISO_8859_1);
+  }
+
+  private byte[] copy(int start, int length) {
+    byte[] bytes = new byte[length];
+    copy(start, bytes, length);
+    return bytes;
+  }
+
+  private void copy(int start, byte[] bytes, int length) {
+    for (int i = 0; i < length; i++)
+      bytes[i] = window.get(start + i);
+  }
+}
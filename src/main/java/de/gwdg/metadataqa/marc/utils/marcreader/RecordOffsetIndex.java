@@ -0,0 +1,438 @@
+package de.gwdg.metadataqa.marc.utils.marcreader;
+
+import de.gwdg.metadataqa.marc.definition.MarcFormat;
+import de.gwdg.metadataqa.marc.utils.alephseq.AlephseqLine;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A side-car index of an ISO 2709 or Alephseq file (&lt;file&gt;.idx), which maps the control numbers of the records
+ * to their position in the file, so a record can be read without parsing the records before it.
+ *
+ * The index is a table of fixed size entries (the 64 bit hash of the control number, the byte offset, the byte length,
+ * and the number of the record within the file) sorted by the hash, which is memory-mapped and searched with binary
+ * search. Records having the same hash are all returned, so the caller should check the control number of the
+ * records it reads. The header contains the size and the modification time of the input file, and the index is
+ * rebuilt if they do not match.
+ */
+public class RecordOffsetIndex implements AutoCloseable {
+
+  private static final Logger logger = Logger.getLogger(RecordOffsetIndex.class.getCanonicalName());
+
+  public static final String EXTENSION = ".idx";
+  private static final int MAGIC = 0x51414958; // QAIX
+  private static final int VERSION = 1;
+  private static final int VARIANT_LENGTH = 32;
+  private static final int HEADER_SIZE = 4 + 4 + 8 + 8 + VARIANT_LENGTH + 4 + 4;
+  private static final int ENTRY_SIZE = 8 + 8 + 4 + 4;
+  private static final int ENTRIES_PER_CHUNK = Integer.MAX_VALUE / ENTRY_SIZE;
+  private static final int ISO_LEADER_LENGTH = 24;
+  private static final byte ISO_FIELD_TERMINATOR = 0x1E;
+
+  private final Path file;
+  private final MarcFormat marcFormat;
+  private final AlephseqLine.TYPE lineType;
+  private FileChannel channel;
+  private MappedByteBuffer[] chunks;
+  private int records;
+  private int entries;
+
+  /**
+   * The position of a record within the input file
+   */
+  public static class Entry {
+    private final long hash;
+    private final long offset;
+    private final int length;
+    private final int number;
+
+    Entry(long hash, long offset, int length, int number) {
+      this.hash = hash;
+      this.offset = offset;
+      this.length = length;
+      this.number = number;
+    }
+
+    public long getOffset() {
+      return offset;
+    }
+
+    public int getLength() {
+      return length;
+    }
+
+    /**
+     * @return The number of the record within the file (starting from 1), as the reader of the format counts it
+     */
+    public int getNumber() {
+      return number;
+    }
+  }
+
+  private RecordOffsetIndex(Path file, MarcFormat marcFormat, AlephseqLine.TYPE lineType) {
+    this.file = file;
+    this.marcFormat = marcFormat;
+    this.lineType = lineType == null ? AlephseqLine.TYPE.WITH_L : lineType;
+  }
+
+  /**
+   * @param marcFormat The format of the file
+   * @param file The input file
+   * @return true if the records of the file can be indexed (the compressed files are not)
+   */
+  public static boolean isIndexable(MarcFormat marcFormat, Path file) {
+    return (marcFormat == MarcFormat.ISO || marcFormat == MarcFormat.ALEPHSEQ)
+      && !file.toString().endsWith(".gz")
+      && Files.isRegularFile(file);
+  }
+
+  public static Path getIndexPath(Path file) {
+    return file.resolveSibling(file.getFileName().toString() + EXTENSION);
+  }
+
+  /**
+   * Opens the index of the file. If the index does not exist, or it belongs to an earlier version of the file, it
+   * is (re)built first.
+   * @param file The input file
+   * @param marcFormat The format of the file (ISO or ALEPHSEQ)
+   * @param lineType The line type of the Alephseq file (it is ignored for ISO files)
+   * @return The index
+   * @throws IOException If the index could not be built or read
+   */
+  public static RecordOffsetIndex open(Path file, MarcFormat marcFormat, AlephseqLine.TYPE lineType) throws IOException {
+    if (!isIndexable(marcFormat, file))
+      throw new IllegalArgumentException("The file can not be indexed: " + file);
+    RecordOffsetIndex index = new RecordOffsetIndex(file, marcFormat, lineType);
+    Path indexPath = getIndexPath(file);
+    if (!index.read(indexPath)) {
+      index.build(indexPath);
+      if (!index.read(indexPath))
+        throw new IOException("The index file is not valid: " + indexPath);
+    }
+    return index;
+  }
+
+  /**
+   * @param controlNumber The control number (content of 001)
+   * @return The entries of the records, whose control number have the same hash, ordered by their position
+   */
+  public List<Entry> find(String controlNumber) {
+    long hash = hash(controlNumber);
+    int low = 0;
+    int high = entries - 1;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (getHash(middle) < hash)
+        low = middle + 1;
+      else
+        high = middle;
+    }
+    List<Entry> found = new ArrayList<>();
+    for (int i = low; i < entries && getHash(i) == hash; i++)
+      found.add(getEntry(i));
+    return found;
+  }
+
+  /**
+   * @param entry An entry of the index
+   * @return The bytes of the record
+   * @throws IOException If the record could not be read
+   */
+  public byte[] readRecord(Entry entry) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(entry.getLength());
+    long position = entry.getOffset();
+    while (buffer.hasRemaining()) {
+      int read = channel.read(buffer, position + buffer.position());
+      if (read < 0)
+        throw new EOFException("Unexpected end of file at " + (position + buffer.position()) + " in " + file);
+    }
+    return buffer.array();
+  }
+
+  /**
+   * @return The number of the records in the file (as the reader of the format counts them)
+   */
+  public int getRecords() {
+    return records;
+  }
+
+  public int size() {
+    return entries;
+  }
+
+  @Override
+  public void close() throws IOException {
+    chunks = null;
+    if (channel != null)
+      channel.close();
+  }
+
+  private Entry getEntry(int i) {
+    ByteBuffer chunk = chunks[i / ENTRIES_PER_CHUNK];
+    int position = (i % ENTRIES_PER_CHUNK) * ENTRY_SIZE;
+    return new Entry(chunk.getLong(position), chunk.getLong(position + 8),
+      chunk.getInt(position + 16), chunk.getInt(position + 20));
+  }
+
+  private long getHash(int i) {
+    return chunks[i / ENTRIES_PER_CHUNK].getLong((i % ENTRIES_PER_CHUNK) * ENTRY_SIZE);
+  }
+
+  private boolean read(Path indexPath) throws IOException {
+    if (!Files.exists(indexPath))
+      return false;
+
+    try (FileChannel indexChannel = FileChannel.open(indexPath, StandardOpenOption.READ)) {
+      if (indexChannel.size() < HEADER_SIZE)
+        return false;
+      ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+      indexChannel.read(header, 0);
+      header.flip();
+      if (header.getInt() != MAGIC || header.getInt() != VERSION
+          || header.getLong() != Files.size(file)
+          || header.getLong() != Files.getLastModifiedTime(file).toMillis())
+        return false;
+      byte[] variant = new byte[VARIANT_LENGTH];
+      header.get(variant);
+      if (!new String(variant, StandardCharsets.US_ASCII).trim().equals(getVariant()))
+        return false;
+      records = header.getInt();
+      entries = header.getInt();
+      if (indexChannel.size() != HEADER_SIZE + (long) entries * ENTRY_SIZE)
+        return false;
+
+      int numberOfChunks = (int) ((entries + (long) ENTRIES_PER_CHUNK - 1) / ENTRIES_PER_CHUNK);
+      chunks = new MappedByteBuffer[numberOfChunks];
+      for (int i = 0; i < numberOfChunks; i++) {
+        long start = HEADER_SIZE + (long) i * ENTRIES_PER_CHUNK * ENTRY_SIZE;
+        long size = (long) Math.min(ENTRIES_PER_CHUNK, entries - i * ENTRIES_PER_CHUNK) * ENTRY_SIZE;
+        chunks[i] = indexChannel.map(FileChannel.MapMode.READ_ONLY, start, size);
+      }
+    }
+    channel = FileChannel.open(file, StandardOpenOption.READ);
+    return true;
+  }
+
+  private void build(Path indexPath) throws IOException {
+    long start = System.currentTimeMillis();
+    long modified = Files.getLastModifiedTime(file).toMillis();
+    long size = Files.size(file);
+
+    List<Entry> list = marcFormat == MarcFormat.ALEPHSEQ ? scanAlephseq() : scanIso();
+    list.sort(Comparator.comparingLong((Entry entry) -> entry.hash).thenComparingLong(entry -> entry.offset));
+
+    Path tempPath = Files.createTempFile(indexPath.toAbsolutePath().getParent(), indexPath.getFileName().toString(), ".tmp");
+    try {
+      try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempPath)))) {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeLong(size);
+        out.writeLong(modified);
+        byte[] variant = new byte[VARIANT_LENGTH];
+        byte[] variantValue = getVariant().getBytes(StandardCharsets.US_ASCII);
+        System.arraycopy(variantValue, 0, variant, 0, variantValue.length);
+        out.write(variant);
+        out.writeInt(records);
+        out.writeInt(list.size());
+        for (Entry entry : list) {
+          out.writeLong(entry.hash);
+          out.writeLong(entry.offset);
+          out.writeInt(entry.length);
+          out.writeInt(entry.number);
+        }
+      }
+      Files.move(tempPath, indexPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(tempPath);
+    }
+    logger.log(Level.INFO, "indexed {0} records of {1} in {2} ms",
+      new Object[]{list.size(), file.getFileName(), System.currentTimeMillis() - start});
+  }
+
+  /**
+   * Reads the records with the length in the leader, and the control number with the help of the directory, without
+   * parsing the fields.
+   */
+  private List<Entry> scanIso() throws IOException {
+    List<Entry> list = new ArrayList<>();
+    records = 0;
+    long offset = 0;
+    try (InputStream in = new BufferedInputStream(Files.newInputStream(file), 1 << 16)) {
+      byte[] leader = new byte[ISO_LEADER_LENGTH];
+      while (true) {
+        int read = in.readNBytes(leader, 0, ISO_LEADER_LENGTH);
+        if (read == 0 || (read < ISO_LEADER_LENGTH && isBlank(leader, read)))
+          break;
+        int length = parseNumber(leader, 0, 5);
+        if (read < ISO_LEADER_LENGTH || length <= ISO_LEADER_LENGTH)
+          throw new IOException(String.format("Invalid record length at byte %d in %s", offset, file));
+
+        byte[] content = new byte[length];
+        System.arraycopy(leader, 0, content, 0, ISO_LEADER_LENGTH);
+        if (in.readNBytes(content, ISO_LEADER_LENGTH, length - ISO_LEADER_LENGTH) < length - ISO_LEADER_LENGTH)
+          throw new IOException(String.format("Truncated record at byte %d in %s", offset, file));
+
+        records++;
+        String controlNumber = getIsoControlNumber(content);
+        if (controlNumber != null)
+          list.add(new Entry(hash(controlNumber), offset, length, records));
+        offset += length;
+      }
+    }
+    return list;
+  }
+
+  private static String getIsoControlNumber(byte[] content) {
+    int baseAddress = parseNumber(content, 12, 5);
+    for (int position = ISO_LEADER_LENGTH;
+         position + 12 <= baseAddress && content[position] != ISO_FIELD_TERMINATOR;
+         position += 12) {
+      if (content[position] == '0' && content[position + 1] == '0' && content[position + 2] == '1') {
+        int fieldLength = parseNumber(content, position + 3, 4);
+        int fieldStart = baseAddress + parseNumber(content, position + 7, 5);
+        if (fieldLength < 1 || fieldStart + fieldLength > content.length)
+          return null;
+        // without the field terminator
+        return new String(content, fieldStart, fieldLength - 1, StandardCharsets.UTF_8);
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Reads the lines of the records, as AlephseqMarcReader does: the lines with the same record ID belong to the same
+   * record, the deleted records (except the last one) are skipped, and the records without 001 get the record ID as control number.
+   */
+  private List<Entry> scanAlephseq() throws IOException {
+    List<Entry> list = new ArrayList<>();
+    records = 0;
+    try (InputStream in = new BufferedInputStream(Files.newInputStream(file), 1 << 16)) {
+      LineReader reader = new LineReader(in);
+      String currentId = null;
+      String controlNumber = null;
+      boolean deleted = false;
+      long recordStart = 0;
+      long recordEnd = 0;
+      String line;
+      while ((line = reader.readLine()) != null) {
+        AlephseqLine alephseqLine = new AlephseqLine(line, lineType);
+        String recordId = alephseqLine.getRecordID();
+        if (recordId != null) {
+          if (currentId != null && !recordId.equals(currentId)) {
+            if (!deleted)
+              list.add(createAlephseqEntry(currentId, controlNumber, recordStart, recordEnd));
+            recordStart = reader.getLineStart();
+            controlNumber = null;
+            deleted = false;
+          }
+          currentId = recordId;
+          if (controlNumber == null && alephseqLine.isValidTag() && alephseqLine.getTag().equals("001"))
+            controlNumber = alephseqLine.getContent();
+          else if (alephseqLine.getTag().equals("DEL"))
+            deleted = true;
+        }
+        recordEnd = reader.getPosition();
+      }
+      // the reader does not check the deletion of the last record
+      if (currentId != null)
+        list.add(createAlephseqEntry(currentId, controlNumber, recordStart, recordEnd));
+    }
+    return list;
+  }
+
+  private Entry createAlephseqEntry(String recordId, String controlNumber, long start, long end) {
+    records++;
+    String key = controlNumber != null ? controlNumber : recordId;
+    return new Entry(hash(key), start, (int) (end - start), records);
+  }
+
+  private String getVariant() {
+    return marcFormat == MarcFormat.ALEPHSEQ ? marcFormat.name() + ":" + lineType.name() : marcFormat.name();
+  }
+
+  /**
+   * FNV-1a hash of the trimmed control number
+   */
+  static long hash(String controlNumber) {
+    long hash = 0xcbf29ce484222325L;
+    for (byte b : controlNumber.trim().getBytes(StandardCharsets.UTF_8)) {
+      hash ^= (b & 0xff);
+      hash *= 0x100000001b3L;
+    }
+    return hash;
+  }
+
+  private static int parseNumber(byte[] bytes, int start, int length) {
+    int number = 0;
+    for (int i = start; i < start + length; i++) {
+      if (bytes[i] < '0' || bytes[i] > '9')
+        return -1;
+      number = number * 10 + (bytes[i] - '0');
+    }
+    return number;
+  }
+
+  private static boolean isBlank(byte[] bytes, int length) {
+    for (int i = 0; i < length; i++)
+      if (!Character.isWhitespace(bytes[i]))
+        return false;
+    return true;
+  }
+
+  /**
+   * Reads UTF-8 lines and keeps track of their byte positions
+   */
+  private static class LineReader {
+    private final InputStream in;
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    private long position = 0;
+    private long lineStart = 0;
+
+    LineReader(InputStream in) {
+      this.in = in;
+    }
+
+    String readLine() throws IOException {
+      buffer.reset();
+      lineStart = position;
+      int b;
+      while ((b = in.read()) != -1) {
+        position++;
+        if (b == '\n')
+          break;
+        buffer.write(b);
+      }
+      if (b == -1 && buffer.size() == 0)
+        return null;
+      String line = buffer.toString(StandardCharsets.UTF_8);
+      return line.endsWith("\r") ? line.substring(0, line.length() - 1) : line;
+    }
+
+    long getLineStart() {
+      return lineStart;
+    }
+
+    long getPosition() {
+      return position;
+    }
+  }
+}
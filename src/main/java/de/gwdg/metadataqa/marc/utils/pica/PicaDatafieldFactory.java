@@ -1,6 +1,7 @@
 package de.gwdg.metadataqa.marc.utils.pica;
 
 import de.gwdg.metadataqa.marc.dao.DataField;
+import de.gwdg.metadataqa.marc.utils.SchemaRegistry;
 
 public class PicaDatafieldFactory {
   private static PicaSchemaManager picaSchemaManager;
@@ -11,7 +12,7 @@ public class PicaDatafieldFactory {
 
   private static void initialize(String fileName) {
     if (picaSchemaManager == null) {
-      picaSchemaManager = PicaSchemaReader.createSchemaManager(fileName);
+      picaSchemaManager = SchemaRegistry.getPicaSchema(fileName);
     }
   }
 
@@ -27,8 +27,16 @@ public class PicaSchemaManager implements SchemaManager, Serializable {
   }
 
   public PicaFieldDefinition lookup(PicaDataField dataField) {
-    String tag = dataField.getTag();
-    String occurrence = dataField.getOccurrence();
+    return lookup(dataField.getTag(), dataField.getOccurrence());
+  }
+
+  /**
+   * Retrieve the definition of a field by its tag and occurrence
+   * @param tag The tag
+   * @param occurrence The occurrence (or null)
+   * @return The definition
+   */
+  public PicaFieldDefinition lookup(String tag, String occurrence) {
     if (occurrence != null) {
       return getPicaFieldDefinition(tag, occurrence);
     } else {
@@ -2,20 +2,18 @@ package de.gwdg.metadataqa.marc.utils.pica;
 
 import de.gwdg.metadataqa.marc.definition.Cardinality;
 import de.gwdg.metadataqa.marc.definition.structure.SubfieldDefinition;
+import de.gwdg.metadataqa.marc.utils.SchemaRegistry;
 import net.minidev.json.JSONArray;
 import net.minidev.json.JSONObject;
 import net.minidev.json.parser.JSONParser;
 import net.minidev.json.parser.ParseException;
-import org.apache.commons.lang3.StringUtils;
 
-import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.net.URISyntaxException;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Paths;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
@@ -62,26 +60,13 @@ public class PicaSchemaReader {
     return reader.getSchema();
   }
 
+  /**
+   * Returns the schema of the file (or the default schema) from the SchemaRegistry, so the file is parsed only once.
+   * @param picaSchemaFile The Avram schema file
+   * @return The shared schema manager
+   */
   public static PicaSchemaManager createSchemaManager(String picaSchemaFile) {
-    logger.info("read schema");
-    PicaSchemaManager picaSchemaManager;
-    String schemaFile = null;
-    if (StringUtils.isNotEmpty(picaSchemaFile)) {
-      logger.info("getPicaSchemaFile");
-      schemaFile = picaSchemaFile;
-    } else if (new File("src/main/resources/pica/avram-k10plus-title.json").exists()) {
-      logger.info("default file");
-      schemaFile = Paths.get("src/main/resources/pica/avram-k10plus-title.json").toAbsolutePath().toString();
-    }
-
-    if (schemaFile != null && new File(schemaFile).exists()) {
-      logger.log(Level.INFO, "read from file: {0}", schemaFile);
-      picaSchemaManager = PicaSchemaReader.createSchema(schemaFile);
-    } else {
-      logger.info("read from resource");
-      picaSchemaManager = PicaSchemaReader.createSchema(PicaSchemaReader.class.getClassLoader().getResourceAsStream("pica/avram-k10plus-title.json"));
-    }
-    return picaSchemaManager;
+    return SchemaRegistry.getPicaSchema(picaSchemaFile);
   }
 
   private void readFile(String fileName) throws IOException, ParseException, URISyntaxException {
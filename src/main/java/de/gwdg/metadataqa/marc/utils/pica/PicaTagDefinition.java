@@ -4,12 +4,13 @@ import de.gwdg.metadataqa.marc.definition.Cardinality;
 import de.gwdg.metadataqa.marc.definition.bibliographic.BibliographicFieldDefinition;
 import de.gwdg.metadataqa.marc.definition.structure.SubfieldDefinition;
 
+import java.io.Serializable;
 import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.regex.Pattern;
 
-public class PicaTagDefinition implements BibliographicFieldDefinition {
+public class PicaTagDefinition implements BibliographicFieldDefinition, Serializable {
 
   private static final Logger logger = Logger.getLogger(PicaTagDefinition.class.getCanonicalName());
   private static final Pattern rangePattern = Pattern.compile("^(\\d+)-(\\d+)$");
@@ -1,11 +1,12 @@
 package de.gwdg.metadataqa.marc.utils.pica;
 
+import java.io.Serializable;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-public class PicaplusTag {
+public class PicaplusTag implements Serializable {
 
   private static final Logger logger = Logger.getLogger(PicaplusTag.class.getCanonicalName());
   private static final Pattern rangePattern = Pattern.compile("^(\\d+)-(\\d+)$");
@@ -8,41 +8,42 @@ import com.opencsv.bean.CsvToBeanBuilder;
 
 import java.io.InputStreamReader;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 
+/**
+ * The PICA-MARC21 crosswalk (pica/pica-marc.tsv). It is read and indexed once, when the class is initialized, and
+ * the lists and indexes are not modifiable, so they can be shared by the threads.
+ */
 public class PicaMarcCrosswalkReader {
-  private static List<Crosswalk> mapping;
-  private static Map<String, List<Crosswalk>> marcIndex;
-  private static Map<String, List<Crosswalk>> picaIndex;
+  private static final List<Crosswalk> mapping;
+  private static final Map<String, List<Crosswalk>> marcIndex;
+  private static final Map<String, List<Crosswalk>> picaIndex;
 
   static {
-    initialize();
+    mapping = Collections.unmodifiableList(readMapping());
+    marcIndex = index(Crosswalk::getMarc21);
+    picaIndex = index(Crosswalk::getPica);
   }
 
-  public static List<Crosswalk> read() {
-    if (mapping == null)
-      initialize();
+  private PicaMarcCrosswalkReader() {}
 
+  public static List<Crosswalk> read() {
     return mapping;
   }
 
   public static List<Crosswalk> lookupMarc21(String key) {
-    if (mapping == null)
-      initialize();
-
-    return marcIndex.getOrDefault(key, new ArrayList<>());
+    return marcIndex.getOrDefault(key, Collections.emptyList());
   }
 
   public static List<Crosswalk> lookupPica(String key) {
-    if (mapping == null)
-      initialize();
-
-    return picaIndex.getOrDefault(key, new ArrayList<>());
+    return picaIndex.getOrDefault(key, Collections.emptyList());
   }
 
-  private static void initialize() {
+  private static List<Crosswalk> readMapping() {
     InputStreamReader streamReader = new InputStreamReader(PicaMarcCrosswalkReader.class.getResourceAsStream("/pica/pica-marc.tsv"));
     CSVReader reader = new CSVReaderBuilder(streamReader)
       .withCSVParser(new CSVParserBuilder().withSeparator('\t').build())
@@ -50,26 +51,18 @@ public class PicaMarcCrosswalkReader {
       .build();
     CsvToBean<Crosswalk> csvToBean = new CsvToBeanBuilder<Crosswalk>(reader).withType(Crosswalk.class).build();
 
-    mapping = csvToBean.parse();
-
-    index();
+    return csvToBean.parse();
   }
 
-  private static void index() {
-    marcIndex = new HashMap<>();
-    picaIndex = new HashMap<>();
+  private static Map<String, List<Crosswalk>> index(Function<Crosswalk, String> keyExtractor) {
+    Map<String, List<Crosswalk>> index = new HashMap<>();
     for (Crosswalk crosswalk : mapping) {
-      if (crosswalk.getMarc21() != null) {
-        if (!marcIndex.containsKey(crosswalk.getMarc21()))
-          marcIndex.put(crosswalk.getMarc21(), new ArrayList<>());
-        marcIndex.get(crosswalk.getMarc21()).add(crosswalk);
-      }
-      if (crosswalk.getPica() != null) {
-        if (!picaIndex.containsKey(crosswalk.getPica()))
-          picaIndex.put(crosswalk.getPica(), new ArrayList<>());
-        picaIndex.get(crosswalk.getPica()).add(crosswalk);
-      }
+      String key = keyExtractor.apply(crosswalk);
+      if (key != null)
+        index.computeIfAbsent(key, k -> new ArrayList<>()).add(crosswalk);
     }
+    index.replaceAll((key, crosswalks) -> Collections.unmodifiableList(crosswalks));
+    return Collections.unmodifiableMap(index);
   }
 
   public static List<Crosswalk> lookupMarc21Field(String marcEntry) {
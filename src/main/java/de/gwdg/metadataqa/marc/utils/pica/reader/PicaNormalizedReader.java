@@ -1,6 +1,5 @@
 package de.gwdg.metadataqa.marc.utils.pica.reader;
 
-import de.gwdg.metadataqa.marc.MarcFactory;
 import de.gwdg.metadataqa.marc.utils.pica.reader.model.PicaLine;
 import org.marc4j.marc.Record;
 
@@ -55,17 +54,24 @@ public class PicaNormalizedReader extends PicaReader {
 
   @Override
   public Record next() {
-    Record marc4jRecord = null;
+    return createMarc4jRecord(nextLines());
+  }
+
+  @Override
+  public boolean canReadLines() {
+    return true;
+  }
+
+  @Override
+  public List<PicaLine> nextLines() {
     String[] fields = line.split(Pattern.quote(fieldSeparator));
     List<PicaLine> lines = new ArrayList<>();
     for (String field : fields) {
-      PicaLine picaLine = new PicaLine(field, subfieldSeparator);
+      PicaLine picaLine = new PicaLine(field, subfieldSeparator, lineParser);
       if (picaLine.isValidTag())
         lines.add(picaLine);
     }
-    marc4jRecord = MarcFactory.createRecordFromPica(lines, idTag, idCode, schema);
-
-    return marc4jRecord;
+    return lines;
   }
 
   public String getFieldSeparator() {
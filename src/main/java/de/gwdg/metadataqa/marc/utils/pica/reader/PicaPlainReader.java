@@ -1,6 +1,5 @@
 package de.gwdg.metadataqa.marc.utils.pica.reader;
 
-import de.gwdg.metadataqa.marc.MarcFactory;
 import de.gwdg.metadataqa.marc.utils.pica.reader.model.PicaLine;
 import org.apache.commons.lang3.StringUtils;
 import org.marc4j.marc.Record;
@@ -59,14 +58,25 @@ public class PicaPlainReader extends PicaReader {
 
   @Override
   public Record next() {
-    Record marc4jRecord = null;
+    List<PicaLine> recordLines = nextLines();
+    return recordLines == null ? null : createMarc4jRecord(recordLines);
+  }
+
+  @Override
+  public boolean canReadLines() {
+    return true;
+  }
+
+  @Override
+  public List<PicaLine> nextLines() {
+    List<PicaLine> recordLines = null;
     boolean finished = false;
     while (line != null && !finished) {
-      PicaLine picaLine = new PicaLine(line, subfieldSeparator);
+      PicaLine picaLine = new PicaLine(line, subfieldSeparator, lineParser);
       if (picaLine.isSkippable() && !lines.isEmpty()) {
         if (!parsed && StringUtils.isNotEmpty(idField) && StringUtils.isNotBlank(idField))
           parseIdField();
-        marc4jRecord = MarcFactory.createRecordFromPica(lines, idTag, idCode, schema);
+        recordLines = lines;
         finished = true;
         lines = new ArrayList<>();
       }
@@ -84,9 +94,10 @@ public class PicaPlainReader extends PicaReader {
     } // while
 
     if (line == null && !lines.isEmpty()) {
-      marc4jRecord = MarcFactory.createRecordFromPica(lines, idTag, idCode, schema);
+      recordLines = lines;
+      lines = new ArrayList<>();
     }
-    return marc4jRecord;
+    return recordLines;
   }
 
   private void checkSubfieldSeparator() {
@@ -1,9 +1,14 @@
 package de.gwdg.metadataqa.marc.utils.pica.reader;
 
+import de.gwdg.metadataqa.marc.MarcFactory;
+import de.gwdg.metadataqa.marc.utils.SchemaRegistry;
 import de.gwdg.metadataqa.marc.utils.pica.PicaSchemaManager;
-import de.gwdg.metadataqa.marc.utils.pica.PicaSchemaReader;
+import de.gwdg.metadataqa.marc.utils.pica.PicaSubfield;
+import de.gwdg.metadataqa.marc.utils.pica.reader.model.PicaLine;
 import org.marc4j.MarcReader;
+import org.marc4j.marc.Record;
 
+import java.util.List;
 import java.util.regex.Pattern;
 
 public abstract class PicaReader implements MarcReader {
@@ -13,8 +18,9 @@ public abstract class PicaReader implements MarcReader {
   protected String idTag = "003@";
   protected String idCode = "0";
   protected boolean parsed = false;
+  protected PicaLine.Parser lineParser = PicaLine.Parser.TOKENIZER;
 
-  protected PicaSchemaManager schema = PicaSchemaReader.createSchemaManager(null);
+  protected PicaSchemaManager schema = SchemaRegistry.getPicaSchema(null);
 
   public void parseIdField() {
     String[] parts = idField.split(Pattern.quote(subfieldSeparator));
@@ -23,6 +29,46 @@ public abstract class PicaReader implements MarcReader {
     parsed = true;
   }
 
+  /**
+   * Tells whether the reader produces the parsed lines of the records directly (see nextLines()),
+   * so the caller can create the PicaRecord without creating a marc4j record first.
+   * @return true if nextLines() does not create a marc4j record
+   */
+  public boolean canReadLines() {
+    return false;
+  }
+
+  /**
+   * Returns the lines of the next record. The record is the same as the one next() would return.
+   * @return The lines of the record
+   */
+  public abstract List<PicaLine> nextLines();
+
+  /**
+   * Returns the identifier of the record (the last value of the identifier subfield), as it is
+   * stored in the 001 field of the marc4j record.
+   * @param lines The lines of the record
+   * @return The record identifier or null
+   */
+  public String getRecordId(List<PicaLine> lines) {
+    String id = null;
+    for (PicaLine line : lines)
+      if (line.getTag().equals(idTag))
+        for (PicaSubfield subfield : line.getSubfields())
+          if (subfield.getCode().equals(idCode))
+            id = subfield.getValue();
+    return id;
+  }
+
+  /**
+   * Creates the marc4j record from the lines of the record
+   * @param lines The lines of the record
+   * @return The marc4j record
+   */
+  public Record createMarc4jRecord(List<PicaLine> lines) {
+    return MarcFactory.createRecordFromPica(lines, idTag, idCode, schema);
+  }
+
   public PicaReader setIdField(String idField) {
     this.idField = idField;
     return this;
@@ -33,6 +79,16 @@ public abstract class PicaReader implements MarcReader {
     return this;
   }
 
+  public PicaReader setSchema(PicaSchemaManager schema) {
+    this.schema = schema;
+    return this;
+  }
+
+  public PicaReader setLineParser(PicaLine.Parser lineParser) {
+    this.lineParser = lineParser;
+    return this;
+  }
+
   public PicaReader setIdCode(String idCode) {
     this.idCode = idCode;
     return this;
@@ -53,4 +109,8 @@ public abstract class PicaReader implements MarcReader {
   public String getIdCode() {
     return idCode;
   }
+
+  public PicaLine.Parser getLineParser() {
+    return lineParser;
+  }
 }
@@ -1,9 +1,14 @@
 package de.gwdg.metadataqa.marc.utils.pica.reader;
 
+import de.gwdg.metadataqa.marc.utils.pica.PicaDataField;
+import de.gwdg.metadataqa.marc.utils.pica.PicaSubfield;
+import de.gwdg.metadataqa.marc.utils.pica.reader.model.PicaLine;
 import de.gwdg.metadataqa.marc.utils.pica.reader.xml.PicaXmlParserThread;
 // import org.marc4j.MarcException;
 import org.marc4j.RecordStack;
+import org.marc4j.marc.DataField;
 import org.marc4j.marc.Record;
+import org.marc4j.marc.Subfield;
 import org.xml.sax.InputSource;
 
 // import javax.xml.transform.Source;
@@ -13,6 +18,8 @@ import org.xml.sax.InputSource;
 // import javax.xml.transform.sax.TransformerHandler;
 // import javax.xml.transform.stream.StreamSource;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
 
 /** This class is a variation of MarcXmlReader */
 public class PicaXmlReader extends PicaReader {
@@ -113,4 +120,25 @@ public class PicaXmlReader extends PicaReader {
   public Record next() {
     return queue.pop();
   }
+
+  /**
+   * The XML parser produces marc4j records, so the lines are created from the data fields of the next record.
+   * canReadLines() is false, because next() is cheaper.
+   */
+  @Override
+  public List<PicaLine> nextLines() {
+    Record marc4jRecord = next();
+    if (marc4jRecord == null)
+      return null;
+
+    List<PicaLine> lines = new ArrayList<>();
+    for (DataField dataField : marc4jRecord.getDataFields()) {
+      List<PicaSubfield> subfields = new ArrayList<>();
+      for (Subfield subfield : dataField.getSubfields())
+        subfields.add(new PicaSubfield(String.valueOf(subfield.getCode()), subfield.getData()));
+      String occurrence = dataField instanceof PicaDataField ? ((PicaDataField) dataField).getOccurrence() : null;
+      lines.add(new PicaLine(dataField.getTag(), occurrence, subfields));
+    }
+    return lines;
+  }
 }
@@ -4,9 +4,9 @@ import de.gwdg.metadataqa.marc.utils.pica.PicaSubfield;
 import org.apache.commons.lang3.StringUtils;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.regex.Matcher;
@@ -15,8 +15,15 @@ import java.util.regex.Pattern;
 public class PicaLine {
   private static final Logger logger = Logger.getLogger(PicaLine.class.getCanonicalName());
 
+  /**
+   * The parser of the lines: the single pass tokenizer (default) or the regular expression
+   */
+  public enum Parser {TOKENIZER, REGEX}
+
+  private static final ThreadLocal<PicaLineTokenizer> TOKENIZER = ThreadLocal.withInitial(PicaLineTokenizer::new);
+
   private static final Pattern LINE = Pattern.compile("^(SET:|Eingabe:|Warnung:|[0-2]\\d\\d[A-Z@])(\\/(\\d\\d+))? ((\\u0085|.)*+)$", Pattern.MULTILINE);
-  private static Map<String, String> quotedSeparatorMap = new HashMap<>();
+  private static final Map<String, String> quotedSeparatorMap = new ConcurrentHashMap<>();
   public static final String DEFAULT_SEPARATOR = "$";
   private static final String SET = "SET";
   private static final String EINGABE = "Eingabe";
@@ -36,21 +43,38 @@ public class PicaLine {
   public PicaLine() {
   }
 
+  /**
+   * Creates a line from an already parsed field (e.g. a field of a PICA XML record)
+   * @param tag The tag
+   * @param occurrence The occurrence or null
+   * @param subfields The subfields
+   */
+  public PicaLine(String tag, String occurrence, List<PicaSubfield> subfields) {
+    this.tag = tag;
+    this.occurrence = occurrence;
+    this.subfields = subfields;
+    this.valid = true;
+  }
+
   public PicaLine(String raw) {
-    parse(raw);
+    tokenize(raw);
   }
 
   public PicaLine(String raw, String subfieldSeparator) {
+    this(raw, subfieldSeparator, Parser.TOKENIZER);
+  }
+
+  public PicaLine(String raw, String subfieldSeparator, Parser parser) {
     this.subfieldSeparator = subfieldSeparator;
     this.quotedSubfieldSeparator = getQuotedSeparator(subfieldSeparator);
-    parse(raw);
+    if (parser == Parser.REGEX || subfieldSeparator.isEmpty())
+      parse(raw);
+    else
+      tokenize(raw);
   }
 
   private static String getQuotedSeparator(String separator) {
-    if (!quotedSeparatorMap.containsKey(separator)) {
-      quotedSeparatorMap.put(separator, Pattern.quote(separator));
-    }
-    return quotedSeparatorMap.get(separator);
+    return quotedSeparatorMap.computeIfAbsent(separator, Pattern::quote);
   }
 
   public boolean isSET() {
@@ -120,6 +144,38 @@ public class PicaLine {
     }
   }
 
+  private void tokenize(String raw) {
+    if (raw.equals("")) {
+      skippable = true;
+      return;
+    }
+
+    PicaLineTokenizer tokenizer = TOKENIZER.get();
+    if (!tokenizer.tokenize(raw, subfieldSeparator)) {
+      logger.log(Level.WARNING, "Unable to parse line: \"{0}\"", raw);
+      return;
+    }
+
+    tag = raw.substring(0, tokenizer.getTagEnd());
+    if (tokenizer.getOccurrenceStart() > -1)
+      occurrence = raw.substring(tokenizer.getOccurrenceStart(), tokenizer.getOccurrenceEnd());
+    content = raw.substring(tokenizer.getContentStart());
+    if (tokenizer.hasEscapedDollar() && content.indexOf('%') > -1) {
+      // the regex parser replaces "$$" with DOLLAR_REPLACEMENT, and turns every DOLLAR_REPLACEMENT back to "$"
+      // (including the ones which were in the content), so let it handle these rare lines
+      parseSubfields();
+    } else {
+      subfields = new ArrayList<>(tokenizer.getSubfieldCount());
+      for (int i = 0; i < tokenizer.getSubfieldCount(); i++) {
+        String value = raw.substring(tokenizer.getValueStart(i), tokenizer.getValueEnd(i));
+        if (tokenizer.isEscaped(i))
+          value = value.replace("$$", "$");
+        subfields.add(new PicaSubfield(String.valueOf(raw.charAt(tokenizer.getCodeStart(i))), value));
+      }
+    }
+    valid = true;
+  }
+
   private void parseSubfields() {
     subfields = new ArrayList<>();
     boolean dollarReplacement = false;
@@ -0,0 +1,207 @@
+package de.gwdg.metadataqa.marc.utils.pica.reader.model;
+
+import java.util.Arrays;
+
+/**
+ * A single pass tokenizer of the lines of PICA plain (and normalized) records. It accepts the same lines as the
+ * regular expression of PicaLine, but it returns only the positions of the tag, the occurrence, the content and the
+ * subfields within the line, without creating intermediate strings.
+ *
+ * If the subfield separator is "$", a "$$" stands for a "$" character within the subfield.
+ * The instance keeps the positions of the last tokenized line and can be reused for the next line, so it should not
+ * be shared between threads.
+ */
+public class PicaLineTokenizer {
+
+  private static final String[] SPECIAL_TAGS = {"SET:", "Eingabe:", "Warnung:"};
+  private static final char DOLLAR = '$';
+
+  private CharSequence line;
+  private int tagEnd;
+  private int occurrenceStart;
+  private int occurrenceEnd;
+  private int contentStart;
+  private int subfieldCount;
+  private int[] codeStarts = new int[16];
+  private int[] valueStarts = new int[16];
+  private int[] valueEnds = new int[16];
+  private boolean[] escaped = new boolean[16];
+  private boolean hasEscapedDollar;
+
+  /**
+   * Tokenizes a line
+   * @param line The line
+   * @param subfieldSeparator The subfield separator
+   * @return false if the line is not a valid PICA line
+   */
+  public boolean tokenize(CharSequence line, String subfieldSeparator) {
+    this.line = line;
+    occurrenceStart = -1;
+    occurrenceEnd = -1;
+    subfieldCount = 0;
+    hasEscapedDollar = false;
+
+    if (!tokenizeTag())
+      return false;
+    tokenizeSubfields(subfieldSeparator);
+    return true;
+  }
+
+  private boolean tokenizeTag() {
+    int length = line.length();
+    int position = readSpecialTag();
+    if (position > 0) {
+      tagEnd = position - 1; // without the colon
+    } else if (length >= 4
+               && line.charAt(0) >= '0' && line.charAt(0) <= '2'
+               && isDigit(line.charAt(1))
+               && isDigit(line.charAt(2))
+               && ((line.charAt(3) >= 'A' && line.charAt(3) <= 'Z') || line.charAt(3) == '@')) {
+      tagEnd = 4;
+      position = 4;
+    } else {
+      return false;
+    }
+
+    if (position < length && line.charAt(position) == '/') {
+      int end = position + 1;
+      while (end < length && isDigit(line.charAt(end)))
+        end++;
+      if (end - position - 1 < 2)
+        return false;
+      occurrenceStart = position + 1;
+      occurrenceEnd = end;
+      position = end;
+    }
+
+    if (position >= length || line.charAt(position) != ' ')
+      return false;
+    contentStart = position + 1;
+
+    // the content should not contain line terminators other than NEL (U+0085)
+    for (int i = contentStart; i < length; i++) {
+      char c = line.charAt(i);
+      if (c == '\n' || c == '\r' || c == '\u2028' || c == '\u2029')
+        return false;
+    }
+    return true;
+  }
+
+  private int readSpecialTag() {
+    for (String tag : SPECIAL_TAGS)
+      if (startsWith(tag, 0))
+        return tag.length();
+    return 0;
+  }
+
+  private void tokenizeSubfields(String subfieldSeparator) {
+    int length = line.length();
+    boolean dollarSeparator = subfieldSeparator.length() == 1 && subfieldSeparator.charAt(0) == DOLLAR;
+    int partStart = contentStart;
+    boolean partEscaped = false;
+    int i = contentStart;
+    while (i < length) {
+      if (startsWith(subfieldSeparator, i)) {
+        if (dollarSeparator && i + 1 < length && line.charAt(i + 1) == DOLLAR) {
+          partEscaped = true;
+          hasEscapedDollar = true;
+          i += 2;
+          continue;
+        }
+        addPart(partStart, i, partEscaped);
+        i += subfieldSeparator.length();
+        partStart = i;
+        partEscaped = false;
+      } else {
+        i++;
+      }
+    }
+    addPart(partStart, length, partEscaped);
+  }
+
+  private void addPart(int start, int end, boolean partEscaped) {
+    if (isBlank(start, end))
+      return;
+
+    if (subfieldCount == codeStarts.length) {
+      int size = codeStarts.length * 2;
+      codeStarts = Arrays.copyOf(codeStarts, size);
+      valueStarts = Arrays.copyOf(valueStarts, size);
+      valueEnds = Arrays.copyOf(valueEnds, size);
+      escaped = Arrays.copyOf(escaped, size);
+    }
+    codeStarts[subfieldCount] = start;
+    // within an escaped part a leading $ is always the first half of a "$$"
+    valueStarts[subfieldCount] = partEscaped && line.charAt(start) == DOLLAR ? start + 2 : start + 1;
+    valueEnds[subfieldCount] = end;
+    escaped[subfieldCount] = partEscaped;
+    subfieldCount++;
+  }
+
+  private boolean startsWith(String text, int offset) {
+    if (offset + text.length() > line.length() || text.isEmpty())
+      return false;
+    for (int i = 0; i < text.length(); i++)
+      if (line.charAt(offset + i) != text.charAt(i))
+        return false;
+    return true;
+  }
+
+  private boolean isBlank(int start, int end) {
+    for (int i = start; i < end; i++)
+      if (!Character.isWhitespace(line.charAt(i)))
+        return false;
+    return true;
+  }
+
+  private static boolean isDigit(char c) {
+    return c >= '0' && c <= '9';
+  }
+
+  public int getTagEnd() {
+    return tagEnd;
+  }
+
+  /**
+   * @return The start of the occurrence, or -1 if the line has no occurrence
+   */
+  public int getOccurrenceStart() {
+    return occurrenceStart;
+  }
+
+  public int getOccurrenceEnd() {
+    return occurrenceEnd;
+  }
+
+  public int getContentStart() {
+    return contentStart;
+  }
+
+  public int getSubfieldCount() {
+    return subfieldCount;
+  }
+
+  public int getCodeStart(int i) {
+    return codeStarts[i];
+  }
+
+  public int getValueStart(int i) {
+    return valueStarts[i];
+  }
+
+  public int getValueEnd(int i) {
+    return valueEnds[i];
+  }
+
+  /**
+   * @param i The index of the subfield
+   * @return true if the subfield contains "$$" which stands for "$"
+   */
+  public boolean isEscaped(int i) {
+    return escaped[i];
+  }
+
+  public boolean hasEscapedDollar() {
+    return hasEscapedDollar;
+  }
+}
@@ -7,6 +7,8 @@ import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import java.util.List;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
@@ -74,6 +76,30 @@ public class ControlPositionTest {
     assertFalse(position.validate("ac"));
   }
 
+  @Test
+  public void regexValidationTest() {
+    EncodedValue pattern = new EncodedValue("^a*b?$", "a flags followed by an optional b flag");
+    pattern.setRegex(true);
+    List<EncodedValue> codes = Utils.generateCodes("a", "flag a", "b", "flag b");
+    codes.add(pattern);
+    ControlfieldPositionDefinition position = new ControlfieldPositionDefinition("Flags", 0, 3, codes)
+      .setUnitLength(1).setRepeatableContent(true);
+    assertEquals(List.of("a", "b"), position.getValidCodes());
+    assertTrue(position.validate("aab"));
+    assertFalse(position.validate("ba"));
+    assertFalse(position.validate("ac"));
+  }
+
+  @Test
+  public void setCodesTest() {
+    ControlfieldPositionDefinition position = new ControlfieldPositionDefinition("Category of material", 0, 1,
+      Utils.generateCodes("a", "date 1", "b", "date 2"));
+    position.setCodes(Utils.generateCodes("c", "date 3"));
+    assertEquals(List.of("c"), position.getValidCodes());
+    assertTrue(position.validate("c"));
+    assertFalse(position.validate("a"));
+  }
+
   @Test
   public void testResolve() {
     ControlfieldPositionDefinition position = new ControlfieldPositionDefinition("Category of material", 0, 1,
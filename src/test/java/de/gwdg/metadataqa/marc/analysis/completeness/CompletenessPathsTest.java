@@ -0,0 +1,49 @@
+package de.gwdg.metadataqa.marc.analysis.completeness;
+
+import de.gwdg.metadataqa.marc.definition.tags.tags20x.Tag245;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class CompletenessPathsTest {
+
+  @Test
+  public void paths() {
+    CompletenessPaths paths = new CompletenessPaths("245");
+    assertEquals("245", paths.getTagPath());
+    assertEquals("245$!ind1", paths.getInd1Path());
+    assertEquals("245$!ind2", paths.getInd2Path());
+    assertEquals("245$a", paths.getSubfieldPath("a"));
+    assertEquals("245$|6", paths.getSubfieldPath("6"));
+    assertEquals("245$ab", paths.getSubfieldPath("ab"));
+    assertEquals("245/01$a", paths.forOccurrence("01").getSubfieldPath("a"));
+  }
+
+  @Test
+  public void ids() {
+    PathDictionary dictionary = new PathDictionary();
+    CompletenessPaths paths = new CompletenessPaths("245");
+    assertEquals(0, dictionary.getSubfieldId(paths, "a"));
+    assertEquals(1, dictionary.getTagId(paths));
+    assertEquals(0, dictionary.getSubfieldId(paths, "a"));
+    assertEquals("245$a", dictionary.getPath(0));
+
+    // the same paths in another dictionary get their own IDs, and they do not change the first dictionary
+    PathDictionary other = new PathDictionary();
+    other.getId("100");
+    assertEquals(1, other.getSubfieldId(paths, "a"));
+    assertEquals(2, other.getInd1Id(paths));
+    assertEquals("245$a", other.getPath(1));
+    assertEquals(0, dictionary.getSubfieldId(paths, "a"));
+    assertEquals(2, dictionary.getInd1Id(paths));
+    assertEquals(3, dictionary.getSubfieldId(paths, "ab"));
+    assertEquals(3, dictionary.getSubfieldId(paths, "ab"));
+  }
+
+  @Test
+  public void definition() {
+    assertSame(Tag245.getInstance().getCompletenessPaths(), Tag245.getInstance().getCompletenessPaths());
+    assertEquals("245", Tag245.getInstance().getCompletenessPaths().getTagPath());
+  }
+}
@@ -0,0 +1,57 @@
+package de.gwdg.metadataqa.marc.analysis.completeness;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class IntCounterTest {
+
+  @Test
+  public void increment() {
+    IntCounter counter = new IntCounter();
+    counter.increment(100);
+    counter.increment(3);
+    counter.increment(100);
+
+    assertEquals(2, counter.size());
+    assertEquals(2, counter.get(100));
+    assertEquals(1, counter.get(3));
+    assertEquals(0, counter.get(5));
+    assertEquals(0, counter.get(1000));
+    assertEquals(100, counter.keyAt(0));
+    assertEquals(3, counter.keyAt(1));
+  }
+
+  @Test
+  public void clear() {
+    IntCounter counter = new IntCounter();
+    counter.increment(1);
+    counter.add(2, 5);
+    counter.clear();
+
+    assertTrue(counter.isEmpty());
+    assertEquals(0, counter.get(2));
+
+    counter.increment(2);
+    assertEquals(1, counter.get(2));
+    assertEquals(1, counter.size());
+  }
+
+  @Test
+  public void toMap() {
+    PathDictionary dictionary = new PathDictionary();
+    IntCounter counter = new IntCounter();
+    counter.increment(dictionary.getId("245$a"));
+    counter.increment(dictionary.getId("100$a"));
+    counter.increment(dictionary.getId("245$a"));
+
+    assertEquals(0, dictionary.getId("245$a"));
+    Map<String, Integer> map = counter.toMap(dictionary::getPath);
+    assertEquals(Map.of("245$a", 2, "100$a", 1), map);
+    assertEquals(List.of("245$a", "100$a"), List.of(dictionary.getPath(0), dictionary.getPath(1)));
+  }
+}
@@ -0,0 +1,107 @@
+package de.gwdg.metadataqa.marc.analysis.validator;
+
+import de.gwdg.metadataqa.marc.dao.DataField;
+import de.gwdg.metadataqa.marc.dao.Marc21Leader;
+import de.gwdg.metadataqa.marc.dao.record.Marc21BibliographicRecord;
+import de.gwdg.metadataqa.marc.dao.record.Marc21Record;
+import de.gwdg.metadataqa.marc.definition.tags.tags20x.Tag245;
+import de.gwdg.metadataqa.marc.model.validation.ValidationError;
+import de.gwdg.metadataqa.marc.model.validation.ValidationErrorType;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+
+public class ValidationResultCacheTest {
+
+  private static final List<ValidationError> ERRORS = List.of(
+    new ValidationError("r1", "245$a", ValidationErrorType.SUBFIELD_UNDEFINED, "undefined subfield: ő", null),
+    new ValidationError("r1", "245$a", ValidationErrorType.SUBFIELD_UNDEFINED, "undefined subfield: ő", null),
+    new ValidationError(null, "LDR", ValidationErrorType.RECORD_UNDETECTABLE_TYPE, "", "http://example.com"),
+    new ValidationError("other", "999", ValidationErrorType.FIELD_UNDEFINED, "999", null)
+  );
+
+  @Test
+  public void getAndPut() throws IOException {
+    Path file = Files.createTempDirectory("validation-cache").resolve("cache.bin");
+    try (ValidationResultCache cache = ValidationResultCache.open(file, "config")) {
+      assertNull(cache.get("r1", 1L));
+      cache.put("r1", 1L, ERRORS);
+      cache.put("r2", 2L, List.of());
+      cache.save();
+    }
+
+    try (ValidationResultCache cache = ValidationResultCache.open(file, "config")) {
+      assertEquals(ERRORS.toString(), cache.get("r1", 1L).toString());
+      assertEquals(List.of(), cache.get("r2", 2L));
+      assertNull(cache.get("r2", 3L));
+      assertNull(cache.get("r3", 1L));
+      assertEquals(2, cache.getHits());
+      assertEquals(2, cache.getMisses());
+      cache.put("r2", 3L, ERRORS.subList(2, 4));
+      cache.save();
+    }
+
+    // only the results of the last run are kept
+    try (ValidationResultCache cache = ValidationResultCache.open(file, "config")) {
+      assertNull(cache.get("r1", 1L));
+      assertEquals(ERRORS.subList(2, 4).toString(), cache.get("r2", 3L).toString());
+    }
+
+    try (ValidationResultCache cache = ValidationResultCache.open(file, "other config")) {
+      assertNull(cache.get("r2", 3L));
+    }
+  }
+
+  @Test
+  public void manyRecords() throws IOException {
+    Path file = Files.createTempDirectory("validation-cache").resolve("cache.bin");
+    try (ValidationResultCache cache = ValidationResultCache.open(file, "config")) {
+      for (int i = 0; i < 5000; i++)
+        cache.put("id" + i, i, i % 2 == 0 ? ERRORS : List.of());
+      cache.save();
+    }
+
+    try (ValidationResultCache cache = ValidationResultCache.open(file, "config")) {
+      for (int i = 0; i < 5000; i++)
+        assertEquals(i % 2 == 0 ? 4 : 0, cache.get("id" + i, i).size());
+    }
+  }
+
+  @Test
+  public void invalidFile() throws IOException {
+    Path file = Files.createTempFile("validation-cache", ".bin");
+    Files.writeString(file, "not a cache");
+    try (ValidationResultCache cache = ValidationResultCache.open(file, "config")) {
+      assertNull(cache.get("r1", 1L));
+    }
+  }
+
+  @Test
+  public void fingerprint() {
+    Marc21Record record = createRecord("Title");
+    long fingerprint = ValidationResultCache.fingerprint(record, null);
+    assertEquals(fingerprint, ValidationResultCache.fingerprint(createRecord("Title"), null));
+    assertEquals(fingerprint, ValidationResultCache.fingerprint(createRecord("Title"), List.of()));
+    assertNotEquals(fingerprint, ValidationResultCache.fingerprint(createRecord("Title."), null));
+    assertNotEquals(fingerprint, ValidationResultCache.fingerprint(record, ERRORS));
+    assertNotEquals(fingerprint, ValidationResultCache.fingerprint(createRecord("0", "Title"), null));
+  }
+
+  private Marc21Record createRecord(String title) {
+    return createRecord("1", title);
+  }
+
+  private Marc21Record createRecord(String ind1, String title) {
+    Marc21Record record = new Marc21BibliographicRecord("010000011");
+    record.setLeader(new Marc21Leader("00860cam a22002774a 45 0"));
+    record.addDataField(new DataField(Tag245.getInstance(), ind1, "0", "a", title));
+    return record;
+  }
+}
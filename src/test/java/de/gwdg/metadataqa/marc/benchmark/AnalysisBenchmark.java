@@ -0,0 +1,48 @@
+package de.gwdg.metadataqa.marc.benchmark;
+
+import de.gwdg.metadataqa.marc.analysis.shelfready.ShelfReadyAnalysis;
+import de.gwdg.metadataqa.marc.analysis.thompsontraill.Marc21ThompsonTraillAnalysis;
+import de.gwdg.metadataqa.marc.analysis.thompsontraill.PicaThompsonTraillAnalysis;
+import de.gwdg.metadataqa.marc.analysis.thompsontraill.ThompsonTraillAnalysis;
+import de.gwdg.metadataqa.marc.analysis.thompsontraill.UnimarcThompsonTraillAnalysis;
+import de.gwdg.metadataqa.marc.dao.record.BibliographicRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the Thompson-Traill and the Shelf-Ready completeness analyses on the sample records of each schema.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--add-opens=java.base/java.nio=ALL-UNNAMED")
+public class AnalysisBenchmark {
+
+  @Benchmark
+  public void thompsonTraill(BenchmarkData.Records records, Blackhole blackhole) {
+    ThompsonTraillAnalysis analysis;
+    switch (records.schemaType) {
+      case PICA:    analysis = new PicaThompsonTraillAnalysis(); break;
+      case UNIMARC: analysis = new UnimarcThompsonTraillAnalysis(); break;
+      case MARC21:
+      default:      analysis = new Marc21ThompsonTraillAnalysis(); break;
+    }
+    for (BibliographicRecord bibliographicRecord : records.records)
+      blackhole.consume(analysis.getScores(bibliographicRecord));
+  }
+
+  @Benchmark
+  public void shelfReady(BenchmarkData.Records records, Blackhole blackhole) {
+    for (BibliographicRecord bibliographicRecord : records.records)
+      blackhole.consume(ShelfReadyAnalysis.getScores(bibliographicRecord));
+  }
+}
@@ -0,0 +1,84 @@
+package de.gwdg.metadataqa.marc.benchmark;
+
+import de.gwdg.metadataqa.marc.MarcFactory;
+import de.gwdg.metadataqa.marc.TestUtils;
+import de.gwdg.metadataqa.marc.dao.MarcLeader;
+import de.gwdg.metadataqa.marc.dao.record.BibliographicRecord;
+import de.gwdg.metadataqa.marc.definition.MarcFormat;
+import de.gwdg.metadataqa.marc.definition.bibliographic.SchemaType;
+import de.gwdg.metadataqa.marc.utils.QAMarcReaderFactory;
+import de.gwdg.metadataqa.marc.utils.SchemaRegistry;
+import de.gwdg.metadataqa.marc.utils.pica.PicaSchemaManager;
+import de.gwdg.metadataqa.marc.utils.unimarc.UnimarcSchemaManager;
+import org.marc4j.MarcReader;
+import org.marc4j.marc.Record;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The sample records of the benchmarks, read from src/test/resources.
+ */
+public class BenchmarkData {
+
+  public static final String MARC21_FILE = "general/BooksAll.2014.part01-0001.mrc";
+  public static final String PICA_FILE = "pica/k10plus-sample.pica";
+  public static final String UNIMARC_FILE = "unimarc/unimarc.mrctxt";
+
+  private BenchmarkData() {}
+
+  public static List<Record> readMarc4jRecords(MarcFormat marcFormat, String fileName) throws Exception {
+    MarcReader reader = QAMarcReaderFactory.getFileReader(marcFormat, TestUtils.getPath(fileName), null);
+    List<Record> records = new ArrayList<>();
+    while (reader.hasNext())
+      records.add(reader.next());
+    return records;
+  }
+
+  public static PicaSchemaManager getPicaSchema() {
+    return SchemaRegistry.getPicaSchema(null);
+  }
+
+  public static UnimarcSchemaManager getUnimarcSchema() {
+    return SchemaRegistry.getUnimarcSchema(TestUtils.getPathFromMain("unimarc/avram-unimarc.json"));
+  }
+
+  /**
+   * The MARC21, PICA and UNIMARC sample records transformed to BibliographicRecord objects. The benchmarks
+   * using this state are executed for each schema.
+   */
+  @State(Scope.Benchmark)
+  public static class Records {
+
+    @Param({"MARC21", "PICA", "UNIMARC"})
+    public SchemaType schemaType;
+
+    public List<BibliographicRecord> records;
+
+    @Setup
+    public void setup() throws Exception {
+      records = new ArrayList<>();
+      switch (schemaType) {
+        case PICA:
+          PicaSchemaManager picaSchema = getPicaSchema();
+          for (Record marc4jRecord : readMarc4jRecords(MarcFormat.PICA_PLAIN, PICA_FILE))
+            records.add(MarcFactory.createPicaFromMarc4j(marc4jRecord, picaSchema));
+          break;
+        case UNIMARC:
+          UnimarcSchemaManager unimarcSchema = getUnimarcSchema();
+          for (Record marc4jRecord : readMarc4jRecords(MarcFormat.MARC_LINE, UNIMARC_FILE))
+            records.add(MarcFactory.createUnimarcFromMarc4j(marc4jRecord, MarcLeader.Type.BOOKS, unimarcSchema));
+          break;
+        case MARC21:
+        default:
+          for (Record marc4jRecord : readMarc4jRecords(MarcFormat.ISO, MARC21_FILE))
+            records.add(MarcFactory.createFromMarc4j(marc4jRecord));
+          break;
+      }
+    }
+  }
+}
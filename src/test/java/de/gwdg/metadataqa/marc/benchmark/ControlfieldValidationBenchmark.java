@@ -0,0 +1,95 @@
+package de.gwdg.metadataqa.marc.benchmark;
+
+import de.gwdg.metadataqa.marc.EncodedValue;
+import de.gwdg.metadataqa.marc.MarcFactory;
+import de.gwdg.metadataqa.marc.dao.MarcPositionalControlField;
+import de.gwdg.metadataqa.marc.dao.record.Marc21Record;
+import de.gwdg.metadataqa.marc.definition.MarcFormat;
+import de.gwdg.metadataqa.marc.definition.structure.ControlfieldPositionDefinition;
+import org.marc4j.marc.Record;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Measures the validation of the 008 positions of the MARC21 records of general/BooksAll.2014.part01-0001.mrc.
+ *
+ * <ul>
+ *   <li>validate: ControlfieldPositionDefinition.validate() with the compiled pattern and the hashed codes</li>
+ *   <li>validateWithListLookups: searching the regex pattern, compiling it and streaming the list of valid codes
+ *   for every value, as ControlfieldPositionDefinition.validate() did before</li>
+ * </ul>
+ *
+ * Run it with: mvn -P benchmark test -Djmh.include=ControlfieldValidationBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--add-opens=java.base/java.nio=ALL-UNNAMED")
+public class ControlfieldValidationBenchmark {
+
+  private List<ControlfieldPositionDefinition> definitions;
+  private List<String> values;
+
+  @Setup
+  public void setup() throws Exception {
+    definitions = new ArrayList<>();
+    values = new ArrayList<>();
+    for (Record marc4jRecord : BenchmarkData.readMarc4jRecords(MarcFormat.ISO, BenchmarkData.MARC21_FILE)) {
+      MarcPositionalControlField control008 = ((Marc21Record) MarcFactory.createFromMarc4j(marc4jRecord)).getControl008();
+      if (control008 == null)
+        continue;
+      for (Map.Entry<ControlfieldPositionDefinition, String> entry : control008.getMap().entrySet()) {
+        definitions.add(entry.getKey());
+        values.add(entry.getValue());
+      }
+    }
+  }
+
+  @Benchmark
+  public void validate(Blackhole blackhole) {
+    for (int i = 0; i < definitions.size(); i++)
+      blackhole.consume(definitions.get(i).validate(values.get(i)));
+  }
+
+  @Benchmark
+  public void validateWithListLookups(Blackhole blackhole) {
+    for (int i = 0; i < definitions.size(); i++)
+      blackhole.consume(validateWithListLookups(definitions.get(i), values.get(i)));
+  }
+
+  private static boolean validateWithListLookups(ControlfieldPositionDefinition definition, String code) {
+    List<EncodedValue> codes = definition.getCodes();
+    EncodedValue regexPattern = codes.stream().filter(EncodedValue::isRegex).findFirst().orElse(null);
+    if (regexPattern != null && !Pattern.compile(regexPattern.getCode(), Pattern.CASE_INSENSITIVE).matcher(code).matches())
+      return false;
+
+    if (codes.isEmpty())
+      return true;
+
+    List<String> validCodes = definition.getValidCodes();
+    if (definition.isRepeatableContent()) {
+      for (int i = 0; i < code.length(); i += definition.getUnitLength())
+        if (!validCodes.contains(code.substring(i, i + definition.getUnitLength())))
+          return false;
+      return true;
+    }
+    return validCodes.stream().anyMatch(e -> e.equals(code));
+  }
+}
@@ -0,0 +1,65 @@
+package de.gwdg.metadataqa.marc.benchmark;
+
+import de.gwdg.metadataqa.marc.TestUtils;
+import de.gwdg.metadataqa.marc.utils.marcreader.MappedIsoMarcReader;
+import org.marc4j.MarcReader;
+import org.marc4j.MarcStreamReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures reading the records of general/BooksAll.2014.part01-0001.mrc.
+ *
+ * <ul>
+ *   <li>stream: marc4j's MarcStreamReader</li>
+ *   <li>mapped: MappedIsoMarcReader</li>
+ * </ul>
+ *
+ * Run it with: mvn -P benchmark test -Djmh.include=IsoReaderBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--add-opens=java.base/java.nio=ALL-UNNAMED")
+public class IsoReaderBenchmark {
+
+  private Path file;
+
+  @Setup
+  public void setup() {
+    file = Path.of(TestUtils.getPath(BenchmarkData.MARC21_FILE));
+  }
+
+  @Benchmark
+  public void stream(Blackhole blackhole) throws Exception {
+    try (InputStream stream = new FileInputStream(file.toFile())) {
+      read(new MarcStreamReader(stream), blackhole);
+    }
+  }
+
+  @Benchmark
+  public void mapped(Blackhole blackhole) throws Exception {
+    read(new MappedIsoMarcReader(file), blackhole);
+  }
+
+  private void read(MarcReader reader, Blackhole blackhole) {
+    while (reader.hasNext())
+      blackhole.consume(reader.next());
+  }
+}
@@ -0,0 +1,90 @@
+package de.gwdg.metadataqa.marc.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.gwdg.metadataqa.marc.MarcSubfield;
+import de.gwdg.metadataqa.marc.dao.DataField;
+import de.gwdg.metadataqa.marc.dao.MarcControlField;
+import de.gwdg.metadataqa.marc.dao.record.BibliographicRecord;
+import de.gwdg.metadataqa.marc.dao.record.Marc21Record;
+import de.gwdg.metadataqa.marc.definition.bibliographic.SchemaType;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The former implementation of BibliographicRecord.asJson(), which builds nested maps and serializes them with a new
+ * ObjectMapper. It is the baseline of SerializationBenchmark, and the reference of the streaming serializer in
+ * BibliographicRecordTest.
+ */
+public class MapBasedJson {
+
+  private MapBasedJson() {}
+
+  public static String asJson(BibliographicRecord bibliographicRecord) {
+    ObjectMapper mapper = new ObjectMapper();
+
+    Map<String, Object> map = new LinkedHashMap<>();
+    if (bibliographicRecord instanceof Marc21Record) {
+      Marc21Record marcRecord = (Marc21Record) bibliographicRecord;
+      if (!marcRecord.getSchemaType().equals(SchemaType.PICA))
+        map.put("leader", marcRecord.getLeader().getContent());
+
+      for (MarcControlField field : marcRecord.getControlfields())
+        if (field != null)
+          map.put(field.getDefinition().getTag(), field.getContent());
+    }
+    datafieldsAsJson(bibliographicRecord, map);
+
+    try {
+      return mapper.writeValueAsString(map);
+    } catch (JsonProcessingException e) {
+      return null;
+    }
+  }
+
+  private static void datafieldsAsJson(BibliographicRecord bibliographicRecord, Map<String, Object> tagFieldMap) {
+    for (DataField field : bibliographicRecord.getDatafields()) {
+      if (field == null)
+        continue;
+
+      Map<String, Object> fieldMap = new LinkedHashMap<>();
+      if (!bibliographicRecord.getSchemaType().equals(SchemaType.PICA)) {
+        fieldMap.put("ind1", field.getInd1());
+        fieldMap.put("ind2", field.getInd2());
+      }
+      fieldMap.put("subfields", exportSubfieldsToJson(field));
+
+      String tag;
+      if (field.getOccurrence() != null)
+        tag = field.getTag() + "/" + field.getOccurrence();
+      else if (field.getDefinition() != null)
+        tag = field.getDefinition().getTag();
+      else
+        tag = field.getTag();
+
+      tagFieldMap.computeIfAbsent(tag, s -> new ArrayList<Map<String, Object>>());
+      ((List) tagFieldMap.get(tag)).add(fieldMap);
+    }
+  }
+
+  private static Map<String, Object> exportSubfieldsToJson(DataField field) {
+    Map<String, Object> subfields = new LinkedHashMap<>();
+    for (MarcSubfield subfield : field.getSubfields()) {
+      if (!subfields.containsKey(subfield.getCode()))
+        subfields.put(subfield.getCode(), subfield.getValue());
+      else {
+        if (subfields.get(subfield.getCode()) instanceof String) {
+          String storedValue = (String) subfields.get(subfield.getCode());
+          List<String> list = new ArrayList<>();
+          list.add(storedValue);
+          subfields.put(subfield.getCode(), list);
+        }
+        ((List) subfields.get(subfield.getCode())).add(subfield.getValue());
+      }
+    }
+    return subfields;
+  }
+}
@@ -0,0 +1,115 @@
+package de.gwdg.metadataqa.marc.benchmark;
+
+import de.gwdg.metadataqa.marc.MarcFactory;
+import de.gwdg.metadataqa.marc.TestUtils;
+import de.gwdg.metadataqa.marc.dao.MarcLeader;
+import de.gwdg.metadataqa.marc.definition.MarcFormat;
+import de.gwdg.metadataqa.marc.definition.MarcVersion;
+import de.gwdg.metadataqa.marc.utils.pica.PicaSchemaManager;
+import de.gwdg.metadataqa.marc.utils.pica.reader.PicaPlainReader;
+import de.gwdg.metadataqa.marc.utils.pica.reader.model.PicaLine;
+import de.gwdg.metadataqa.marc.utils.unimarc.UnimarcSchemaManager;
+import org.marc4j.marc.Record;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the transformation of the marc4j records into BibliographicRecord objects.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--add-opens=java.base/java.nio=ALL-UNNAMED")
+public class MarcFactoryBenchmark {
+
+  private List<Record> marc21Records;
+  private List<Record> picaRecords;
+  private List<List<PicaLine>> picaLines;
+  private List<String> picaIds;
+  private List<Record> unimarcRecords;
+  private PicaSchemaManager picaSchema;
+  private UnimarcSchemaManager unimarcSchema;
+
+  @Setup
+  public void setup() throws Exception {
+    marc21Records = BenchmarkData.readMarc4jRecords(MarcFormat.ISO, BenchmarkData.MARC21_FILE);
+    picaRecords = BenchmarkData.readMarc4jRecords(MarcFormat.PICA_PLAIN, BenchmarkData.PICA_FILE);
+    unimarcRecords = BenchmarkData.readMarc4jRecords(MarcFormat.MARC_LINE, BenchmarkData.UNIMARC_FILE);
+    picaSchema = BenchmarkData.getPicaSchema();
+    unimarcSchema = BenchmarkData.getUnimarcSchema();
+
+    picaLines = new ArrayList<>();
+    picaIds = new ArrayList<>();
+    PicaPlainReader reader = new PicaPlainReader(TestUtils.getPath(BenchmarkData.PICA_FILE));
+    while (reader.hasNext()) {
+      List<PicaLine> lines = reader.nextLines();
+      picaLines.add(lines);
+      picaIds.add(reader.getRecordId(lines));
+    }
+  }
+
+  @Benchmark
+  public void createFromMarc4j(Blackhole blackhole) {
+    for (Record marc4jRecord : marc21Records)
+      blackhole.consume(MarcFactory.createFromMarc4j(marc4jRecord));
+  }
+
+  /**
+   * Creates the records and reads the classification fields, as a tag-selective analysis does
+   */
+  @Benchmark
+  public void createAndSelectTag(Blackhole blackhole) {
+    for (Record marc4jRecord : marc21Records)
+      blackhole.consume(MarcFactory.createFromMarc4j(marc4jRecord).getDatafieldsByTag("082"));
+  }
+
+  @Benchmark
+  public void createLazyAndSelectTag(Blackhole blackhole) {
+    for (Record marc4jRecord : marc21Records)
+      blackhole.consume(
+        MarcFactory.createLazyFromMarc4j(marc4jRecord, null, MarcVersion.MARC21, null).getDatafieldsByTag("082"));
+  }
+
+  @Benchmark
+  public void createPicaFromMarc4j(Blackhole blackhole) {
+    for (Record marc4jRecord : picaRecords)
+      blackhole.consume(MarcFactory.createPicaFromMarc4j(marc4jRecord, picaSchema));
+  }
+
+  /**
+   * Creates the PICA records from the parsed lines through a marc4j record, as the readers did before
+   */
+  @Benchmark
+  public void createPicaFromLinesViaMarc4j(Blackhole blackhole) {
+    for (List<PicaLine> lines : picaLines)
+      blackhole.consume(MarcFactory.createPicaFromMarc4j(
+        MarcFactory.createRecordFromPica(lines, "003@", "0", picaSchema), picaSchema));
+  }
+
+  @Benchmark
+  public void createPicaFromLines(Blackhole blackhole) {
+    for (int i = 0; i < picaLines.size(); i++)
+      blackhole.consume(MarcFactory.createPicaFromLines(picaLines.get(i), picaIds.get(i), picaSchema));
+  }
+
+  @Benchmark
+  public void createUnimarcFromMarc4j(Blackhole blackhole) {
+    for (Record marc4jRecord : unimarcRecords)
+      blackhole.consume(MarcFactory.createUnimarcFromMarc4j(marc4jRecord, MarcLeader.Type.BOOKS, unimarcSchema));
+  }
+}
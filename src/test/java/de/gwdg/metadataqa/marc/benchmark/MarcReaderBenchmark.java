@@ -0,0 +1,60 @@
+package de.gwdg.metadataqa.marc.benchmark;
+
+import de.gwdg.metadataqa.marc.definition.MarcFormat;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures reading the sample file of each MarcFormat into marc4j records with the reader returned by
+ * QAMarcReaderFactory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--add-opens=java.base/java.nio=ALL-UNNAMED")
+public class MarcReaderBenchmark {
+
+  private static final Map<MarcFormat, String> files = new EnumMap<>(MarcFormat.class);
+  static {
+    files.put(MarcFormat.ISO, BenchmarkData.MARC21_FILE);
+    files.put(MarcFormat.XML, "marcxml/marcxml.xml");
+    files.put(MarcFormat.ALEPHSEQ, "alephseq/alephseq-example1.txt");
+    files.put(MarcFormat.LINE_SEPARATED, "general/000-line-seperated.mrc");
+    files.put(MarcFormat.MARC_LINE, "marctxt/010000011.mrctxt");
+    files.put(MarcFormat.MARC_MAKER, "marcmaker/01.marcmaker");
+    files.put(MarcFormat.PICA_PLAIN, BenchmarkData.PICA_FILE);
+    files.put(MarcFormat.PICA_NORMALIZED, "pica/pica-with-holdings-info.dat");
+    files.put(MarcFormat.PICA_XML, "picaxml/pica.xml");
+  }
+
+  @Param({"ISO", "XML", "ALEPHSEQ", "LINE_SEPARATED", "MARC_LINE", "MARC_MAKER", "PICA_PLAIN", "PICA_NORMALIZED", "PICA_XML"})
+  public MarcFormat marcFormat;
+
+  private String fileName;
+
+  @Setup
+  public void setup() {
+    fileName = files.get(marcFormat);
+  }
+
+  @Benchmark
+  public void read(Blackhole blackhole) throws Exception {
+    blackhole.consume(BenchmarkData.readMarc4jRecords(marcFormat, fileName));
+  }
+}
@@ -0,0 +1,69 @@
+package de.gwdg.metadataqa.marc.benchmark;
+
+import de.gwdg.metadataqa.marc.TestUtils;
+import de.gwdg.metadataqa.marc.utils.pica.reader.model.PicaLine;
+import de.gwdg.metadataqa.marc.utils.pica.reader.model.PicaLineTokenizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the parsing of the lines of pica/k10plus-sample.pica.
+ *
+ * <ul>
+ *   <li>regex: PicaLine with the regular expression based parser</li>
+ *   <li>tokenizer: PicaLine with the single pass tokenizer</li>
+ *   <li>tokenizeOnly: PicaLineTokenizer, without creating the PicaLine and PicaSubfield objects</li>
+ * </ul>
+ *
+ * Run it with: mvn -P benchmark test -Djmh.include=PicaLineBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--add-opens=java.base/java.nio=ALL-UNNAMED")
+public class PicaLineBenchmark {
+
+  private List<String> lines;
+  private final PicaLineTokenizer tokenizer = new PicaLineTokenizer();
+
+  @Setup
+  public void setup() throws Exception {
+    lines = Files.readAllLines(Path.of(TestUtils.getPath(BenchmarkData.PICA_FILE)));
+  }
+
+  @Benchmark
+  public void regex(Blackhole blackhole) {
+    for (String line : lines)
+      blackhole.consume(new PicaLine(line, "$", PicaLine.Parser.REGEX));
+  }
+
+  @Benchmark
+  public void tokenizer(Blackhole blackhole) {
+    for (String line : lines)
+      blackhole.consume(new PicaLine(line, "$", PicaLine.Parser.TOKENIZER));
+  }
+
+  @Benchmark
+  public void tokenizeOnly(Blackhole blackhole) {
+    for (String line : lines) {
+      blackhole.consume(tokenizer.tokenize(line, "$"));
+      blackhole.consume(tokenizer.getSubfieldCount());
+    }
+  }
+}
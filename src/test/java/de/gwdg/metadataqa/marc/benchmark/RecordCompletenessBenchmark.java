@@ -0,0 +1,125 @@
+package de.gwdg.metadataqa.marc.benchmark;
+
+import de.gwdg.metadataqa.marc.MarcFactory;
+import de.gwdg.metadataqa.marc.MarcSubfield;
+import de.gwdg.metadataqa.marc.TestUtils;
+import de.gwdg.metadataqa.marc.analysis.completeness.CompletenessDAO;
+import de.gwdg.metadataqa.marc.analysis.completeness.CompletenessPaths;
+import de.gwdg.metadataqa.marc.analysis.completeness.PathDictionary;
+import de.gwdg.metadataqa.marc.analysis.completeness.RecordCompleteness;
+import de.gwdg.metadataqa.marc.cli.parameters.CompletenessParameters;
+import de.gwdg.metadataqa.marc.cli.plugin.CompletenessFactory;
+import de.gwdg.metadataqa.marc.cli.plugin.CompletenessPlugin;
+import de.gwdg.metadataqa.marc.dao.DataField;
+import de.gwdg.metadataqa.marc.dao.record.BibliographicRecord;
+import de.gwdg.metadataqa.marc.utils.ReadMarc;
+import org.marc4j.marc.Record;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Measures the completeness analysis of the MARC21 records of general/BooksAll.2014.part01-0001.mrc.
+ *
+ * <ul>
+ *   <li>process: RecordCompleteness.process() for every record</li>
+ *   <li>buildPaths: creating the paths of the data elements by string concatenation and regular expression
+ *   matching, as RecordCompleteness did before the paths were precomputed</li>
+ *   <li>lookupPaths: getting the IDs of the same paths from the precomputed CompletenessPaths</li>
+ * </ul>
+ *
+ * Run it with: mvn -P benchmark test -Djmh.include=RecordCompletenessBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--add-opens=java.base/java.nio=ALL-UNNAMED")
+public class RecordCompletenessBenchmark {
+
+  private static final Pattern numericalPattern = Pattern.compile("^(\\d)$");
+
+  private List<BibliographicRecord> records;
+  private CompletenessParameters parameters;
+  private CompletenessPlugin plugin;
+  private CompletenessDAO completenessDAO;
+  private PathDictionary pathDictionary;
+  private Map<String, Map<String, String>> sortKeyMap;
+
+  @Setup
+  public void setup() throws Exception {
+    records = new ArrayList<>();
+    for (Record marc4jRecord : ReadMarc.read(TestUtils.getPath("general/BooksAll.2014.part01-0001.mrc")))
+      records.add(MarcFactory.createFromMarc4j(marc4jRecord));
+    parameters = new CompletenessParameters(new String[]{});
+    plugin = CompletenessFactory.create(parameters);
+    completenessDAO = new CompletenessDAO();
+    completenessDAO.initialize();
+    pathDictionary = completenessDAO.getPathDictionary();
+    sortKeyMap = new HashMap<>();
+  }
+
+  @Benchmark
+  public void process(Blackhole blackhole) {
+    for (BibliographicRecord bibliographicRecord : records) {
+      RecordCompleteness recordCompleteness = new RecordCompleteness(bibliographicRecord, parameters, completenessDAO, plugin, null);
+      recordCompleteness.process();
+      blackhole.consume(recordCompleteness.getRecordFrequencyCounter());
+    }
+  }
+
+  @Benchmark
+  public void buildPaths(Blackhole blackhole) {
+    for (BibliographicRecord bibliographicRecord : records) {
+      for (DataField field : bibliographicRecord.getDatafields()) {
+        String tag = field.getTagWithOccurrence();
+        blackhole.consume(pathDictionary.getId(tag));
+        blackhole.consume(pathDictionary.getId(tag + RecordCompleteness.IND_1));
+        blackhole.consume(pathDictionary.getId(tag + RecordCompleteness.IND_2));
+        for (MarcSubfield subfield : field.getSubfields())
+          blackhole.consume(pathDictionary.getId(buildSubfieldPath(tag, subfield.getCode())));
+      }
+    }
+  }
+
+  @Benchmark
+  public void lookupPaths(Blackhole blackhole) {
+    for (BibliographicRecord bibliographicRecord : records) {
+      for (DataField field : bibliographicRecord.getDatafields()) {
+        CompletenessPaths paths = field.getDefinition() != null
+          ? field.getDefinition().getCompletenessPaths()
+          : new CompletenessPaths(field.getTag());
+        blackhole.consume(pathDictionary.getTagId(paths));
+        blackhole.consume(pathDictionary.getInd1Id(paths));
+        blackhole.consume(pathDictionary.getInd2Id(paths));
+        for (MarcSubfield subfield : field.getSubfields())
+          blackhole.consume(pathDictionary.getSubfieldId(paths, subfield.getCode()));
+      }
+    }
+  }
+
+  private String buildSubfieldPath(String tag, String code) {
+    Map<String, String> fieldMap = sortKeyMap.computeIfAbsent(tag, s -> new HashMap<>());
+    if (!fieldMap.containsKey(code)) {
+      boolean isDigit = numericalPattern.matcher(code).matches();
+      fieldMap.put(code, isDigit ? tag + RecordCompleteness.NUMERICAL_SUBFIELD + code : tag + RecordCompleteness.SUBFIELD + code);
+    }
+    return fieldMap.get(code);
+  }
+}
@@ -0,0 +1,58 @@
+package de.gwdg.metadataqa.marc.benchmark;
+
+import de.gwdg.metadataqa.marc.dao.DataField;
+import de.gwdg.metadataqa.marc.dao.record.BibliographicRecord;
+import de.gwdg.metadataqa.marc.definition.MarcVersion;
+import de.gwdg.metadataqa.marc.model.SolrFieldType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the serializations of the records used by the Solr indexing (getKeyValuePairs()) and by the
+ * JSON output (asJson()) on the sample records of each schema.
+ *
+ * <ul>
+ *   <li>getKeyValuePairs: the Solr fields of the data fields</li>
+ *   <li>asJson: the streaming JSON serializer</li>
+ *   <li>asJsonMapBased: the former, map based JSON serializer (MapBasedJson)</li>
+ * </ul>
+ *
+ * Run it with: mvn -P benchmark test -Djmh.include=SerializationBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--add-opens=java.base/java.nio=ALL-UNNAMED")
+public class SerializationBenchmark {
+
+  /**
+   * The record caches its key-value pairs, so the benchmark calls the method of the data fields
+   */
+  @Benchmark
+  public void getKeyValuePairs(BenchmarkData.Records records, Blackhole blackhole) {
+    for (BibliographicRecord bibliographicRecord : records.records)
+      for (DataField field : bibliographicRecord.getDatafields())
+        blackhole.consume(field.getKeyValuePairs(SolrFieldType.MIXED, MarcVersion.MARC21));
+  }
+
+  @Benchmark
+  public void asJson(BenchmarkData.Records records, Blackhole blackhole) {
+    for (BibliographicRecord bibliographicRecord : records.records)
+      blackhole.consume(bibliographicRecord.asJson());
+  }
+
+  @Benchmark
+  public void asJsonMapBased(BenchmarkData.Records records, Blackhole blackhole) {
+    for (BibliographicRecord bibliographicRecord : records.records)
+      blackhole.consume(MapBasedJson.asJson(bibliographicRecord));
+  }
+}
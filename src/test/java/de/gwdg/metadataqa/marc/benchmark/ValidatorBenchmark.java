@@ -0,0 +1,87 @@
+package de.gwdg.metadataqa.marc.benchmark;
+
+import de.gwdg.metadataqa.marc.analysis.validator.ValidationResultCache;
+import de.gwdg.metadataqa.marc.analysis.validator.Validator;
+import de.gwdg.metadataqa.marc.analysis.validator.ValidatorConfiguration;
+import de.gwdg.metadataqa.marc.dao.record.BibliographicRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures Validator.validate() on the sample records of each schema.
+ *
+ * <ul>
+ *   <li>validate: validates the records</li>
+ *   <li>cached: reads the issues of the unchanged records from ValidationResultCache (calculates the fingerprints
+ *   and reads the cached issues)</li>
+ * </ul>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--add-opens=java.base/java.nio=ALL-UNNAMED")
+public class ValidatorBenchmark {
+
+  @Benchmark
+  public void validate(BenchmarkData.Records records, Blackhole blackhole) {
+    Validator validator = new Validator(new ValidatorConfiguration().withSchemaType(records.schemaType));
+    for (BibliographicRecord bibliographicRecord : records.records) {
+      blackhole.consume(validator.validate(bibliographicRecord));
+      blackhole.consume(validator.getValidationErrors());
+    }
+  }
+
+  @Benchmark
+  public void cached(BenchmarkData.Records records, Cache cache, Blackhole blackhole) {
+    for (BibliographicRecord bibliographicRecord : records.records) {
+      long fingerprint = ValidationResultCache.fingerprint(bibliographicRecord, null);
+      blackhole.consume(cache.cache.get(bibliographicRecord.getId(), fingerprint));
+    }
+  }
+
+  /**
+   * The cache filled with the issues of the sample records
+   */
+  @State(Scope.Benchmark)
+  public static class Cache {
+    public ValidationResultCache cache;
+    private Path file;
+
+    @Setup
+    public void setup(BenchmarkData.Records records) throws Exception {
+      file = Files.createTempFile("validation-cache", ".bin");
+      Files.delete(file);
+      try (ValidationResultCache writer = ValidationResultCache.open(file, "benchmark")) {
+        Validator validator = new Validator(new ValidatorConfiguration().withSchemaType(records.schemaType));
+        for (BibliographicRecord bibliographicRecord : records.records) {
+          validator.validate(bibliographicRecord);
+          writer.put(bibliographicRecord.getId(), ValidationResultCache.fingerprint(bibliographicRecord, null),
+            validator.getValidationErrors());
+        }
+        writer.save();
+      }
+      cache = ValidationResultCache.open(file, "benchmark");
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+      cache.close();
+      Files.deleteIfExists(file);
+    }
+  }
+}
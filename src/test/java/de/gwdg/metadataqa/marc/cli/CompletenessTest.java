@@ -4,15 +4,29 @@ import com.opencsv.CSVReader;
 import de.gwdg.metadataqa.api.util.FileUtils;
 import de.gwdg.metadataqa.marc.TestUtils;
 import de.gwdg.metadataqa.marc.cli.utils.RecordIterator;
+import de.gwdg.metadataqa.marc.datastore.MarcSQLiteClient;
 import junit.framework.TestCase;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.ValueVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.dictionary.DictionaryEncoder;
+import org.apache.arrow.vector.ipc.ArrowFileReader;
 import org.apache.commons.lang3.StringUtils;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileReader;
 import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
 import java.util.Arrays;
 import java.util.List;
 
@@ -50,6 +64,39 @@ public class CompletenessTest extends CliTestUtils {
     );
   }
 
+  @Test
+  public void completeness_sqlite() throws Exception {
+    clearOutput(outputDir, outputFiles);
+    File database = new File(outputDir, MarcSQLiteClient.DEFAULT_FILE_NAME);
+
+    Completeness processor = new Completeness(new String[]{
+      "--defaultRecordType", "BOOKS",
+      "--marcVersion", "GENT",
+      "--alephseq",
+      "--sqlite",
+      "--outputDir", outputDir,
+      inputFile
+    });
+    new RecordIterator(processor).start();
+
+    List<String> lines = Files.readAllLines(new File(outputDir, "marc-elements.csv").toPath());
+    try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + database.getPath());
+         Statement statement = conn.createStatement();
+         ResultSet resultSet = statement.executeQuery(
+           "SELECT COUNT(*), SUM(\"number-of-instances\") FROM marc_elements WHERE path = 'leader06' AND documenttype = 'all'")) {
+      resultSet.next();
+      assertEquals(1, resultSet.getInt(1));
+      assertTrue(resultSet.getInt(2) > 0);
+      ResultSet total = statement.executeQuery("SELECT COUNT(*) FROM marc_elements");
+      total.next();
+      assertEquals(lines.size() - 1, total.getInt(1));
+    }
+
+    clearOutput(outputDir, outputFiles);
+    for (String suffix : new String[]{"", "-wal", "-shm"})
+      Files.deleteIfExists(new File(database.getPath() + suffix).toPath());
+  }
+
   @Test
   public void completeness_alephseq() throws Exception {
     clearOutput(outputDir, outputFiles);
@@ -400,4 +447,45 @@ public class CompletenessTest extends CliTestUtils {
     Assert.assertEquals(expected, actual);
   }
 
-}
\ No newline at end of file
+  @Test
+  public void completeness_alephseq_arrow() throws Exception {
+    String arrowOutputDir = Files.createTempDirectory("completeness-arrow").toString();
+    Completeness processor = new Completeness(new String[]{
+      "--defaultRecordType", "BOOKS",
+      "--marcVersion", "GENT",
+      "--alephseq",
+      "--arrow",
+      "--outputDir", arrowOutputDir,
+      inputFile
+    });
+    RecordIterator iterator = new RecordIterator(processor);
+    iterator.start();
+
+    List<String[]> csvRows;
+    try (CSVReader reader = new CSVReader(new FileReader(new File(arrowOutputDir, "marc-elements.csv")))) {
+      csvRows = reader.readAll();
+    }
+    csvRows.remove(0);
+
+    File arrowFile = new File(arrowOutputDir, "marc-elements.arrow");
+    assertTrue(arrowFile.exists());
+    try (BufferAllocator allocator = new RootAllocator();
+         ArrowFileReader reader = new ArrowFileReader(new FileInputStream(arrowFile).getChannel(), allocator)) {
+      assertTrue(reader.loadNextBatch());
+      VectorSchemaRoot root = reader.getVectorSchemaRoot();
+      assertEquals(csvRows.size(), root.getRowCount());
+      FieldVector pathIndices = root.getVector("path");
+      IntVector records = (IntVector) root.getVector("number-of-record");
+      try (ValueVector paths = DictionaryEncoder.decode(pathIndices,
+             reader.getDictionaryVectors().get(pathIndices.getField().getDictionary().getId()))) {
+        for (int i = 0; i < csvRows.size(); i++) {
+          assertEquals(csvRows.get(i)[2], paths.getObject(i).toString());
+          assertEquals(Integer.parseInt(csvRows.get(i)[8]), records.get(i));
+        }
+      }
+    }
+
+    for (String fileName : List.of("packages.arrow", "marc-elements-histogram.arrow"))
+      assertTrue(fileName, new File(arrowOutputDir, fileName).exists());
+  }
+}
@@ -33,15 +33,19 @@ import org.marc4j.MarcReader;
 import org.marc4j.marc.Record;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 public class MarcToSolrTest {
@@ -212,6 +216,58 @@ public class MarcToSolrTest {
     EmbeddedSolrClientFactory.shutDown();
   }
 
+  @Test
+  public void runEmbeddedSolr_batched() throws Exception {
+    String outputDir = TestUtils.getPath("output");
+    MarcToSolrParameters params = new MarcToSolrParameters(new String[]{
+      "--schemaType", "PICA",
+      "--marcFormat", "PICA_NORMALIZED",
+      "--outputDir", outputDir,
+      "--solrFieldType", "MIXED",
+      "--useEmbedded",
+      "--batchSize", "3",
+      "--maxInFlightRequests", "2",
+      "--solrUrl", "http://localhost:8983/solr/k10plus_pica_batched",
+      "--solrForScoresUrl", "http://localhost:8983/solr/k10plus_pica_batched_scores",
+      TestUtils.getPath("pica/pica-with-holdings-info.dat")
+    });
+    EmbeddedSolrServer mainClient = EmbeddedSolrClientFactory.getClient(coreFromUrl(params.getSolrUrl()));
+    EmbeddedSolrServer validationClient = EmbeddedSolrClientFactory.getClient(coreFromUrl(params.getSolrForScoresUrl()));
+    params.setMainClient(mainClient);
+    params.setValidationClient(validationClient);
+
+    // validation results only for some of the records, the rest of the records should be indexed without them
+    Map<String, SolrInputDocument> validation = new HashMap<>();
+    List<String> ids = List.of("010000011", "010000038", "010000070", "010000127", "010000194");
+    for (String id : ids) {
+      SolrInputDocument document = new SolrInputDocument();
+      document.addField("id", id);
+      document.addField("groupId_is", getNRandomNumbers(5, 1, 10));
+      validation.put(id, document);
+      validationClient.add(document);
+    }
+    validationClient.commit();
+
+    MarcToSolr processor = new MarcToSolr(params);
+    RecordIterator iterator = new RecordIterator(processor);
+    iterator.start();
+    assertEquals("done", iterator.getStatus());
+
+    final QueryResponse response = mainClient.query(new MapSolrParams(Map.of("q", "*:*", "rows", "100")));
+    final SolrDocumentList documents = response.getResults();
+    assertEquals(10, documents.getNumFound());
+    for (SolrDocument doc : documents) {
+      SolrInputDocument intention = validation.get(doc.get("id"));
+      if (intention == null)
+        assertNull(doc.getFieldValues("groupId_is"));
+      else
+        assertEquals(intention.getFieldValues("groupId_is"), doc.getFieldValues("groupId_is"));
+      assertNotNull(doc.getFieldValue("record_sni"));
+    }
+
+    EmbeddedSolrClientFactory.shutDown();
+  }
+
   /**
    * Get a list of randum numbers
    * @param n The number of numbers to retrieve
@@ -226,6 +282,58 @@ public class MarcToSolrTest {
     return numbers;
   }
 
+  @Test
+  public void runEmbeddedSolr_incremental() throws Exception {
+    Path dir = Files.createTempDirectory("incremental");
+    Path fingerprintFile = dir.resolve("fingerprints.bin");
+    Path input = dir.resolve("records.dat");
+    List<String> lines = Files.readAllLines(Path.of(TestUtils.getPath("pica/pica-with-holdings-info.dat")));
+    Files.write(input, lines);
+    String solrUrl = "http://localhost:8983/solr/k10plus_pica_incremental";
+    EmbeddedSolrServer mainClient = EmbeddedSolrClientFactory.getClient(coreFromUrl(solrUrl));
+    try {
+      runIncremental(solrUrl, mainClient, fingerprintFile, input);
+      assertEquals(10, count(mainClient, "*:*"));
+      assertTrue(Files.exists(fingerprintFile));
+
+      // the unchanged records are not sent again, the missing ones are deleted
+      mainClient.deleteById("010000011");
+      mainClient.commit();
+      Files.write(input, lines.subList(0, 8));
+      runIncremental(solrUrl, mainClient, fingerprintFile, input);
+      assertEquals(7, count(mainClient, "*:*"));
+      assertEquals(0, count(mainClient, "id:010000011"));
+      assertEquals(0, count(mainClient, "id:010000194"));
+      // no temporary file is left
+      assertEquals(List.of("fingerprints.bin", "records.dat"),
+        Files.list(dir).map(path -> path.getFileName().toString()).sorted().collect(Collectors.toList()));
+    } finally {
+      EmbeddedSolrClientFactory.shutDown();
+    }
+  }
+
+  private void runIncremental(String solrUrl, EmbeddedSolrServer mainClient, Path fingerprintFile, Path input)
+      throws ParseException {
+    MarcToSolrParameters params = new MarcToSolrParameters(new String[]{
+      "--schemaType", "PICA",
+      "--marcFormat", "PICA_NORMALIZED",
+      "--outputDir", TestUtils.getPath("output"),
+      "--solrFieldType", "MIXED",
+      "--useEmbedded",
+      "--solrUrl", solrUrl,
+      "--fingerprintFile", fingerprintFile.toString(),
+      input.toString()
+    });
+    params.setMainClient(mainClient);
+    RecordIterator iterator = new RecordIterator(new MarcToSolr(params));
+    iterator.start();
+    assertEquals("done", iterator.getStatus());
+  }
+
+  private long count(EmbeddedSolrServer client, String query) throws SolrServerException, IOException {
+    return client.query(new MapSolrParams(Map.of("q", query))).getResults().getNumFound();
+  }
+
   private String coreFromUrl(String url) {
     return url.substring(url.lastIndexOf("/") + 1);
   }
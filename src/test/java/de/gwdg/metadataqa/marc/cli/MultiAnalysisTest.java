@@ -0,0 +1,130 @@
+package de.gwdg.metadataqa.marc.cli;
+
+import de.gwdg.metadataqa.marc.TestUtils;
+import de.gwdg.metadataqa.marc.cli.parameters.MultiAnalysisParameters;
+import de.gwdg.metadataqa.marc.cli.processor.BibliographicInputProcessor;
+import de.gwdg.metadataqa.marc.cli.utils.RecordIterator;
+import org.apache.commons.cli.ParseException;
+import org.apache.commons.io.FileUtils;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MultiAnalysisTest extends CliTestUtils {
+
+  private static final String VALIDATE_PARAMS = "--details --summary --format csv "
+    + "--detailsFileName issue-details.csv --summaryFileName issue-summary.csv";
+
+  @Test
+  public void parameters() throws Exception {
+    MultiAnalysisParameters parameters = new MultiAnalysisParameters(new String[]{
+      "--marcVersion", "GENT",
+      "--analyses", "validate,completeness",
+      "--analysisParams", "validate=--details --summary",
+      "--outputDir", "out",
+      "a.mrc"
+    });
+    assertEquals(Arrays.asList("validate", "completeness"), parameters.getAnalyses());
+    assertEquals("--details --summary", parameters.getAnalysisParams("validate"));
+    assertArrayEquals(
+      new String[]{"--details", "--summary", "--marcVersion", "GENT", "--outputDir", "out", "a.mrc"},
+      parameters.getAnalysisArguments("validate"));
+    assertArrayEquals(
+      new String[]{"--marcVersion", "GENT", "--outputDir", "out", "a.mrc"},
+      parameters.getAnalysisArguments("completeness"));
+  }
+
+  @Test
+  public void parameters_quoted() throws Exception {
+    MultiAnalysisParameters parameters = new MultiAnalysisParameters(new String[]{
+      "--analyses", "validate,completeness",
+      "--analysisParams", "validate=--groupBy '001@$0' --summaryFileName \"issue summary.csv\"",
+      "--analysisParams", "completeness=--groupListFile '/tmp/group list.txt'  --arrow",
+      "a.mrc"
+    });
+    assertArrayEquals(
+      new String[]{"--groupBy", "001@$0", "--summaryFileName", "issue summary.csv", "a.mrc"},
+      parameters.getAnalysisArguments("validate"));
+    assertArrayEquals(
+      new String[]{"--groupListFile", "/tmp/group list.txt", "--arrow", "a.mrc"},
+      parameters.getAnalysisArguments("completeness"));
+  }
+
+  @Test(expected = ParseException.class)
+  public void parameters_unknownAnalysis() throws Exception {
+    new MultiAnalysisParameters(new String[]{"--analyses", "validate,unknown", "a.mrc"});
+  }
+
+  @Test
+  public void sameOutputAsSeparateRuns() throws Exception {
+    String inputFile = TestUtils.getPath("alephseq/alephseq-example6-error.txt");
+    String[] common = new String[]{"--schemaType", "MARC21", "--marcFormat", "ALEPHSEQ", "--marcVersion", "GENT",
+      "--defaultRecordType", "BOOKS", "--trimId"};
+
+    File separateDir = Files.createTempDirectory("separate").toFile();
+    List<String> validateArgs = new ArrayList<>(Arrays.asList(VALIDATE_PARAMS.split(" ")));
+    validateArgs.addAll(Arrays.asList(common));
+    validateArgs.addAll(Arrays.asList("--outputDir", separateDir.getAbsolutePath(), inputFile));
+    RecordIterator iterator = new RecordIterator(new ValidatorCli(validateArgs.toArray(new String[0])));
+    iterator.setProcessWithEroors(true);
+    iterator.start();
+    String[] args = withArgs(common, "--outputDir", separateDir.getAbsolutePath(), inputFile);
+    for (BibliographicInputProcessor processor : List.of(
+        new Completeness(args), new ClassificationAnalysis(args), new AuthorityAnalysis(args)))
+      new RecordIterator(processor).start();
+
+    File multiDir = Files.createTempDirectory("multi").toFile();
+    MultiAnalysis multiAnalysis = new MultiAnalysis(withArgs(common,
+      "--analyses", "validate,completeness,classifications,authorities",
+      "--analysisParams", "validate=" + VALIDATE_PARAMS,
+      "--outputDir", multiDir.getAbsolutePath(),
+      inputFile));
+    assertTrue(multiAnalysis.hasValidator());
+    assertEquals(4, multiAnalysis.getProcessors().size());
+    iterator = new RecordIterator(multiAnalysis);
+    iterator.setProcessWithEroors(multiAnalysis.hasValidator());
+    iterator.start();
+    assertEquals("done", iterator.getStatus());
+
+    String[] separateFiles = separateDir.list();
+    Arrays.sort(separateFiles);
+    String[] multiFiles = multiDir.list();
+    Arrays.sort(multiFiles);
+    assertArrayEquals(separateFiles, multiFiles);
+    assertTrue(Arrays.asList(multiFiles).contains("issue-details.csv"));
+    assertTrue(Arrays.asList(multiFiles).contains("marc-elements.csv"));
+    for (String fileName : multiFiles) {
+      if (fileName.endsWith(".params.json"))
+        continue;
+      assertEquals(fileName,
+        FileUtils.readFileToString(new File(separateDir, fileName), StandardCharsets.UTF_8),
+        FileUtils.readFileToString(new File(multiDir, fileName), StandardCharsets.UTF_8));
+    }
+    FileUtils.deleteDirectory(separateDir);
+    FileUtils.deleteDirectory(multiDir);
+  }
+
+  @Test
+  public void withoutAnalyses() throws Exception {
+    MultiAnalysis multiAnalysis = new MultiAnalysis(new String[]{"a.mrc"});
+    assertTrue(multiAnalysis.getProcessors().isEmpty());
+    assertFalse(multiAnalysis.hasValidator());
+    assertFalse(multiAnalysis.readyToProcess());
+  }
+
+  private static String[] withArgs(String[] common, String... args) {
+    List<String> all = new ArrayList<>(Arrays.asList(common));
+    all.addAll(Arrays.asList(args));
+    return all.toArray(new String[0]);
+  }
+}
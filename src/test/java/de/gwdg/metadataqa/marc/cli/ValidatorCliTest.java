@@ -3,12 +3,22 @@ package de.gwdg.metadataqa.marc.cli;
 import de.gwdg.metadataqa.api.util.FileUtils;
 import de.gwdg.metadataqa.marc.TestUtils;
 import de.gwdg.metadataqa.marc.cli.utils.RecordIterator;
+import de.gwdg.metadataqa.marc.datastore.MarcSQLiteClient;
 import org.apache.commons.lang3.StringUtils;
 import org.junit.Before;
 import org.junit.Test;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.regex.Pattern;
@@ -49,6 +59,53 @@ public class ValidatorCliTest extends CliTestUtils {
     );
   }
 
+  @Test
+  public void validate_sqlite() throws Exception {
+    clearOutput(outputDir, outputFiles);
+    File database = new File(outputDir, MarcSQLiteClient.DEFAULT_FILE_NAME);
+
+    ValidatorCli processor = new ValidatorCli(new String[]{
+      "--schemaType", "PICA",
+      "--marcFormat", "PICA_NORMALIZED",
+      "--outputDir", outputDir,
+      "--details",
+      "--trimId",
+      "--summary",
+      "--format", "csv",
+      "--sqlite",
+      "--detailsFileName", "issue-details.csv",
+      "--summaryFileName", "issue-summary.csv",
+      TestUtils.getPath("pica/pica-with-holdings-info.dat")
+    });
+    RecordIterator iterator = new RecordIterator(processor);
+    iterator.setProcessWithEroors(true);
+    iterator.start();
+
+    // the same rows as the CSV files (issue-details.csv normalized as normalize-issue-details.php does)
+    List<String> summary = Files.readAllLines(Path.of(outputDir, "issue-summary.csv"));
+    List<String> detailLines = Files.readAllLines(Path.of(outputDir, "issue-details.csv"));
+    int details = 0;
+    for (String line : detailLines.subList(1, detailLines.size()))
+      details += line.split(";").length;
+    try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + database.getPath());
+         Statement statement = conn.createStatement()) {
+      assertEquals(summary.size() - 1, count(statement, "issue_summary"));
+      assertEquals(details, count(statement, "issue_details"));
+      assertTrue(count(statement, "issue_groups") > 0);
+    }
+
+    clearOutput(outputDir, outputFiles);
+    for (String suffix : new String[]{"", "-wal", "-shm"})
+      Files.deleteIfExists(new File(database.getPath() + suffix).toPath());
+  }
+
+  private int count(Statement statement, String table) throws SQLException {
+    try (ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM " + table)) {
+      resultSet.next();
+      return resultSet.getInt(1);
+    }
+  }
+
   @Test
   public void validate_pica_normal() throws Exception {
     clearOutput(outputDir, groupedOutputFiles);
@@ -419,6 +476,109 @@ public class ValidatorCliTest extends CliTestUtils {
     assertEquals("1", lines.get(1).trim());
   }
 
+  @Test
+  public void validate_parallel_marc21() throws Exception {
+    assertParallelOutputIsIdentical(
+      Arrays.asList("--marcFormat", "ALEPHSEQ", "--marcVersion", "GENT"),
+      TestUtils.getPath("alephseq/alephseq-example2.txt"));
+  }
+
+  @Test
+  public void validate_parallel_pica_groupBy() throws Exception {
+    assertParallelOutputIsIdentical(
+      Arrays.asList("--schemaType", "PICA", "--marcFormat", "PICA_NORMALIZED", "--groupBy", "001@$0"),
+      TestUtils.getPath("pica/pica-with-holdings-info.dat"));
+  }
+
+  @Test
+  public void validate_parallel_emptyLargeCollectors() throws Exception {
+    assertParallelOutputIsIdentical(
+      Arrays.asList("--marcFormat", "ALEPHSEQ", "--marcVersion", "GENT", "--emptyLargeCollectors"),
+      TestUtils.getPath("alephseq/alephseq-example2.txt"));
+  }
+
+  @Test
+  public void validate_resultCache_marc21() throws Exception {
+    assertCachedOutputIsIdentical(
+      Arrays.asList("--marcFormat", "ALEPHSEQ", "--marcVersion", "GENT"),
+      TestUtils.getPath("alephseq/alephseq-example2.txt"));
+  }
+
+  @Test
+  public void validate_resultCache_pica_groupBy() throws Exception {
+    assertCachedOutputIsIdentical(
+      Arrays.asList("--schemaType", "PICA", "--marcFormat", "PICA_NORMALIZED", "--groupBy", "001@$0"),
+      TestUtils.getPath("pica/pica-with-holdings-info.dat"));
+  }
+
+  /**
+   * The output of a run without cache, a run filling the cache, and the runs reading it should be the same
+   */
+  private void assertCachedOutputIsIdentical(List<String> formatArguments, String inputFile) throws Exception {
+    Path cacheFile = Files.createTempDirectory("validator-cache").resolve("validation-cache.bin");
+    List<String> cacheArguments = new ArrayList<>(formatArguments);
+    cacheArguments.addAll(Arrays.asList("--resultCache", cacheFile.toString()));
+
+    Path fullDir = Files.createTempDirectory("validator-full");
+    runValidator(formatArguments, inputFile, fullDir, 1);
+    List<Path> cachedDirs = new ArrayList<>();
+    for (int threads : new int[]{1, 1, 2}) {
+      Path cachedDir = Files.createTempDirectory("validator-cached");
+      runValidator(cacheArguments, inputFile, cachedDir, threads);
+      assertTrue(Files.exists(cacheFile));
+      cachedDirs.add(cachedDir);
+    }
+
+    for (String outputFile : Arrays.asList("count.csv", "issue-details.csv", "issue-summary.csv",
+      "issue-by-category.csv", "issue-by-type.csv", "issue-total.csv", "issue-collector.csv")) {
+      String expected = Files.readString(fullDir.resolve(outputFile), StandardCharsets.UTF_8);
+      for (int i = 0; i < cachedDirs.size(); i++) {
+        assertEquals(outputFile + " should be identical (run " + i + ")",
+          expected, Files.readString(cachedDirs.get(i).resolve(outputFile), StandardCharsets.UTF_8));
+      }
+    }
+  }
+
+  private void assertParallelOutputIsIdentical(List<String> formatArguments, String inputFile) throws Exception {
+    Path singleDir = Files.createTempDirectory("validator-single");
+    Path parallelDir = Files.createTempDirectory("validator-parallel");
+    runValidator(formatArguments, inputFile, singleDir, 1);
+    runValidator(formatArguments, inputFile, parallelDir, 3);
+
+    for (String outputFile : Arrays.asList("count.csv", "issue-details.csv", "issue-summary.csv",
+      "issue-by-category.csv", "issue-by-type.csv", "issue-total.csv", "issue-collector.csv")) {
+      assertEquals(outputFile + " should be identical",
+        Files.readString(singleDir.resolve(outputFile), StandardCharsets.UTF_8),
+        Files.readString(parallelDir.resolve(outputFile), StandardCharsets.UTF_8));
+    }
+    if (formatArguments.contains("--groupBy"))
+      assertEquals("id-groupid.csv should be identical",
+        Files.readString(singleDir.resolve("id-groupid.csv"), StandardCharsets.UTF_8),
+        Files.readString(parallelDir.resolve("id-groupid.csv"), StandardCharsets.UTF_8));
+    assertFalse(Files.exists(parallelDir.resolve("issue-details.csv.part0")));
+    assertFalse(Files.exists(parallelDir.resolve("id-groupid.csv.part0")));
+    assertFalse(Files.exists(parallelDir.resolve("issue-collector.csv.part0")));
+  }
+
+  private void runValidator(List<String> formatArguments, String inputFile, Path dir, int threads) throws Exception {
+    List<String> arguments = new ArrayList<>(formatArguments);
+    arguments.addAll(Arrays.asList(
+      "--outputDir", dir.toString(),
+      "--details",
+      "--trimId",
+      "--summary",
+      "--format", "csv",
+      "--detailsFileName", "issue-details.csv",
+      "--summaryFileName", "issue-summary.csv",
+      "--threads", String.valueOf(threads),
+      inputFile));
+    ValidatorCli processor = new ValidatorCli(arguments.toArray(new String[0]));
+    RecordIterator iterator = new RecordIterator(processor);
+    iterator.setProcessWithEroors(true);
+    iterator.start();
+    assertEquals("done", iterator.getStatus());
+  }
+
   private List<String> getFileLines(String outputFile) throws IOException {
     File output = new File(outputDir, outputFile);
     assertTrue(outputFile + " should exist", output.exists());
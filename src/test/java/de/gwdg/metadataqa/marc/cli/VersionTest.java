@@ -3,6 +3,8 @@ package de.gwdg.metadataqa.marc.cli;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
 public class VersionTest {
 
@@ -17,4 +19,10 @@ public class VersionTest {
   public void readVersionFromPropertyFile() {
     assertEquals(VERSION, Version.readVersionFromPropertyFile());
   }
+
+  @Test
+  public void getBuildTimestamp() {
+    assertNotNull(Version.getBuildTimestamp());
+    assertTrue(Version.getBuildTimestamp().matches("\\d{4}-\\d{2}-\\d{2}T.*"));
+  }
 }
\ No newline at end of file
@@ -249,7 +249,10 @@ public class CommonParametersTest {
         "alephseqLineType: null\n" +
         "groupBy: null\n" +
         "groupListFile: null\n" +
-        "solrForScoresUrl: null\n";
+        "solrForScoresUrl: null\n" +
+        "threads: 1\n" +
+        "lazyRecords: false\n" +
+        "sqlite: false\n";
       expected = expected.replaceAll("\n", System.lineSeparator());
       assertEquals(expected, parameters.formatParameters());
     } catch (ParseException e) {
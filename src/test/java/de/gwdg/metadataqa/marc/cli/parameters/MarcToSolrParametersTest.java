@@ -112,5 +112,19 @@ public class MarcToSolrParametersTest {
     }
   }
 
+  @Test
+  public void testBatchSize() throws ParseException {
+    MarcToSolrParameters parameters = new MarcToSolrParameters(new String[]{"a-marc-file.mrc"});
+    assertEquals(1000, parameters.getBatchSize());
+    assertEquals(1, parameters.getMaxInFlightRequests());
+
+    parameters = new MarcToSolrParameters(new String[]{"--batchSize", "50", "--maxInFlightRequests", "4", "a-marc-file.mrc"});
+    assertEquals(50, parameters.getBatchSize());
+    assertEquals(4, parameters.getMaxInFlightRequests());
+  }
 
+  @Test(expected = ParseException.class)
+  public void testBatchSize_invalid() throws ParseException {
+    new MarcToSolrParameters(new String[]{"--batchSize", "0", "a-marc-file.mrc"});
+  }
 }
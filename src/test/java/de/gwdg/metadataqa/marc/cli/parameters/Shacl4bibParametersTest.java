@@ -71,6 +71,9 @@ public class Shacl4bibParametersTest {
           "groupBy: null\n" +
           "groupListFile: null\n" +
           "solrForScoresUrl: null\n" +
+          "threads: 1\n" +
+          "lazyRecords: false\n" +
+          "sqlite: false\n" +
           "shaclConfigurationFile: shacl.cnf\n" +
           "shaclOutputFile: shacl.csv\n" +
           "shaclOutputType: STATUS\n";
@@ -0,0 +1,110 @@
+package de.gwdg.metadataqa.marc.cli.utils;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BitVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.ValueVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.dictionary.DictionaryEncoder;
+import org.apache.arrow.vector.ipc.ArrowFileReader;
+import org.junit.Test;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class ArrowTableWriterTest {
+
+  @Test
+  public void write() throws IOException {
+    Path file = Files.createTempDirectory("arrow-table").resolve("table.arrow");
+    ArrowTableWriter table = new ArrowTableWriter()
+      .addDictionaryColumn("path")
+      .addIntColumn("count")
+      .addDoubleColumn("mean")
+      .addBooleanColumn("core")
+      .addStringColumn("label");
+    table.addRow("245$a", 10, 1.5, true, "Title");
+    table.addRow("100$a", null, null, false, null);
+    table.addRow("245$a", 3, 2.0, null, "Title");
+    table.write(file);
+
+    try (BufferAllocator allocator = new RootAllocator();
+         ArrowFileReader reader = new ArrowFileReader(new FileInputStream(file.toFile()).getChannel(), allocator)) {
+      assertTrue(reader.loadNextBatch());
+      VectorSchemaRoot root = reader.getVectorSchemaRoot();
+      assertEquals(3, root.getRowCount());
+
+      FieldVector pathIndices = root.getVector("path");
+      assertNotNull(pathIndices.getField().getDictionary());
+      assertEquals(2, reader.getDictionaryVectors().get(0L).getVector().getValueCount());
+      try (ValueVector paths = DictionaryEncoder.decode(pathIndices, reader.getDictionaryVectors().get(0L))) {
+        assertEquals("245$a", paths.getObject(0).toString());
+        assertEquals("100$a", paths.getObject(1).toString());
+        assertEquals("245$a", paths.getObject(2).toString());
+      }
+
+      IntVector count = (IntVector) root.getVector("count");
+      assertEquals(10, count.get(0));
+      assertTrue(count.isNull(1));
+      assertEquals(3, count.get(2));
+
+      Float8Vector mean = (Float8Vector) root.getVector("mean");
+      assertEquals(1.5, mean.get(0), 0.0);
+      assertTrue(mean.isNull(1));
+
+      BitVector core = (BitVector) root.getVector("core");
+      assertEquals(1, core.get(0));
+      assertEquals(0, core.get(1));
+      assertTrue(core.isNull(2));
+
+      VarCharVector label = (VarCharVector) root.getVector("label");
+      assertEquals("Title", label.getObject(0).toString());
+      assertTrue(label.isNull(1));
+    }
+  }
+
+  @Test
+  public void checkAvailability() {
+    // the tests run with --add-opens=java.base/java.nio=ALL-UNNAMED (see the surefire configuration)
+    ArrowTableWriter.checkAvailability();
+  }
+
+  @Test
+  public void write_multipleBatches() throws IOException {
+    Path file = Files.createTempDirectory("arrow-table").resolve("table.arrow");
+    ArrowTableWriter table = new ArrowTableWriter()
+      .addDictionaryColumn("group")
+      .addIntColumn("count");
+    int rows = 100_000;
+    for (int i = 0; i < rows; i++)
+      table.addRow("g" + (i % 7), i);
+    table.write(file);
+
+    List<Integer> counts = new ArrayList<>();
+    try (BufferAllocator allocator = new RootAllocator();
+         ArrowFileReader reader = new ArrowFileReader(new FileInputStream(file.toFile()).getChannel(), allocator)) {
+      assertEquals(2, reader.getRecordBlocks().size());
+      while (reader.loadNextBatch()) {
+        IntVector count = (IntVector) reader.getVectorSchemaRoot().getVector("count");
+        for (int i = 0; i < count.getValueCount(); i++)
+          counts.add(count.get(i));
+      }
+      assertEquals(7, reader.getDictionaryVectors().get(0L).getVector().getValueCount());
+    }
+    assertEquals(rows, counts.size());
+    for (int i = 0; i < rows; i++)
+      assertEquals(i, (int) counts.get(i));
+  }
+}
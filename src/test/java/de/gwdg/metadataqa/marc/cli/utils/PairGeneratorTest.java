@@ -0,0 +1,49 @@
+package de.gwdg.metadataqa.marc.cli.utils;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertEquals;
+
+public class PairGeneratorTest {
+
+  @Test
+  public void generatePairs() throws IOException {
+    Path dir = createInput();
+    new PairGenerator(dir.toString(), 3, false).generatePairs();
+
+    assertEquals("1 2\n1 3\n2 3\n4 5\n4 5\n", Files.readString(dir.resolve("network-pairs.csv")));
+    assertEquals("1,1\n2,2\n3,3\n4,4\n5,5\n", Files.readString(dir.resolve("network-nodes.csv")));
+    assertEquals("40 4000000\n", Files.readString(dir.resolve("network-pairs-650.csv")));
+    assertEquals("40,40\n4000000,4000000\n", Files.readString(dir.resolve("network-nodes-650.csv")));
+  }
+
+  @Test
+  public void generatePairs_parallel() throws IOException {
+    Path dir = createInput();
+    new PairGenerator(dir.toString(), 3, true, 2).generatePairs();
+
+    assertEquals("id1,id2\n1,2\n1,3\n2,3\n4,5\n4,5\n", Files.readString(dir.resolve("network-pairs.csv")));
+    assertEquals("id1,id2\n14,2dqf4\n", Files.readString(dir.resolve("network-pairs-650.csv")));
+    assertEquals("id1,id2\n14,14\n2dqf4,2dqf4\n", Files.readString(dir.resolve("network-nodes-650.csv")));
+  }
+
+  private Path createInput() throws IOException {
+    Path dir = Files.createTempDirectory("pair-generator");
+    Files.writeString(dir.resolve("network-by-concepts-tags.csv"), "tag,count\n650,2\n");
+    Files.writeString(dir.resolve("network-by-concepts.csv"),
+      "concept,count,ids\n"
+      + "a,4,1;2;3;4\n"  // truncated to the first 3
+      + "b,1,5\n"        // no pair
+      + "c,3,4;5;5\n"    // no self pair
+    );
+    Files.writeString(dir.resolve("network-by-concepts-650.csv"),
+      "concept,count,ids\n"
+      + "d,2,40;4e+06\n"
+    );
+    return dir;
+  }
+}
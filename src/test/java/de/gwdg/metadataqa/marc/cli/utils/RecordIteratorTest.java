@@ -1,7 +1,16 @@
 package de.gwdg.metadataqa.marc.cli.utils;
 
+import de.gwdg.metadataqa.marc.TestUtils;
+import de.gwdg.metadataqa.marc.cli.parameters.CommonParameters;
+import de.gwdg.metadataqa.marc.cli.processor.BibliographicInputProcessor;
+import de.gwdg.metadataqa.marc.cli.processor.ParallelProcessor;
+import de.gwdg.metadataqa.marc.dao.record.BibliographicRecord;
 import de.gwdg.metadataqa.marc.definition.MarcFormat;
+import de.gwdg.metadataqa.marc.model.validation.ValidationError;
 import de.gwdg.metadataqa.marc.utils.QAMarcReaderFactory;
+import de.gwdg.metadataqa.marc.utils.marcreader.RecordOffsetIndex;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
 import org.apache.commons.lang3.StringUtils;
 import org.junit.Test;
 import org.marc4j.MarcReader;
@@ -11,12 +20,18 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.zip.GZIPInputStream;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
 public class RecordIteratorTest {
 
@@ -54,4 +69,240 @@ public class RecordIteratorTest {
       e.printStackTrace();
     }
   }
-}
\ No newline at end of file
+
+  @Test
+  public void parallel_withWorkers() throws ParseException {
+    CollectingProcessor processor = new CollectingProcessor(new CommonParameters(new String[]{
+      "--marcFormat", "XML", "--threads", "3", "--nolog", TestUtils.getPath("gzip/test.xml.gz")}));
+    new RecordIterator(processor).start();
+
+    assertEquals(3, processor.workers);
+    assertEquals(10, processor.numberOfprocessedRecords);
+    assertEquals(10, processor.ids.size());
+    assertEquals("990037818200205131", processor.ids.get(1));
+    assertEquals("990037347160205131", processor.ids.get(10));
+  }
+
+  @Test
+  public void parallel_withoutWorkers_keepsOrder() throws ParseException {
+    OrderedProcessor processor = new OrderedProcessor(new CommonParameters(new String[]{
+      "--marcFormat", "XML", "--threads", "3", "--nolog", TestUtils.getPath("gzip/test.xml.gz")}));
+    new RecordIterator(processor).start();
+
+    assertEquals(10, processor.ids.size());
+    assertEquals(new ArrayList<>(processor.ids.keySet()), processor.order);
+  }
+
+  @Test
+  public void parallel_offsetAndLimit() throws ParseException {
+    CollectingProcessor processor = new CollectingProcessor(new CommonParameters(new String[]{
+      "--marcFormat", "XML", "--threads", "2", "--nolog", "--offset", "3", "--limit", "4",
+      TestUtils.getPath("gzip/test.xml.gz")}));
+    new RecordIterator(processor).start();
+
+    assertEquals(List.of(3, 4, 5, 6, 7), new ArrayList<>(processor.ids.keySet()));
+  }
+
+  @Test
+  public void parallel_id() throws ParseException {
+    CollectingProcessor processor = new CollectingProcessor(new CommonParameters(new String[]{
+      "--marcFormat", "XML", "--threads", "2", "--nolog", "--id", "990037788010205131",
+      TestUtils.getPath("gzip/test.xml.gz")}));
+    new RecordIterator(processor).start();
+
+    assertEquals(1, processor.ids.size());
+    assertEquals("990037788010205131", processor.ids.get(5));
+  }
+
+  @Test
+  public void id_withRecordOffsetIndex() throws Exception {
+    Path source = Path.of(TestUtils.getPath("general/BooksAll.2014.part01-0001.mrc"));
+    Path file = Files.createTempDirectory("record-iterator").resolve(source.getFileName());
+    Files.copy(source, file);
+    MarcReader reader = QAMarcReaderFactory.getFileReader(MarcFormat.ISO, file.toString());
+    String id = null;
+    for (int i = 1; i <= 37; i++)
+      id = reader.next().getControlNumber();
+
+    OrderedProcessor processor = new OrderedProcessor(new CommonParameters(new String[]{
+      "--marcFormat", "ISO", "--nolog", "--id", id, file.toString()}));
+    new RecordIterator(processor).start();
+
+    assertTrue(Files.exists(RecordOffsetIndex.getIndexPath(file)));
+    assertEquals(Map.of(37, id), processor.ids);
+    assertEquals(100, processor.numberOfprocessedRecords);
+  }
+
+  @Test
+  public void pica_withoutMarc4jRecords() throws ParseException {
+    OrderedProcessor processor = new OrderedProcessor(new CommonParameters(new String[]{
+      "--schemaType", "PICA", "--marcFormat", "PICA_PLAIN", "--nolog", TestUtils.getPath("pica/k10plus-sample.pica")}));
+    processor.needsMarc4jRecord = false;
+    new RecordIterator(processor).start();
+
+    assertEquals(0, processor.marc4jRecords);
+    assertEquals(6, processor.ids.size());
+    assertEquals("010000011", processor.ids.get(1));
+  }
+
+  @Test
+  public void pica_withMarc4jRecords() throws ParseException {
+    OrderedProcessor processor = new OrderedProcessor(new CommonParameters(new String[]{
+      "--schemaType", "PICA", "--marcFormat", "PICA_PLAIN", "--nolog", TestUtils.getPath("pica/k10plus-sample.pica")}));
+    new RecordIterator(processor).start();
+
+    assertEquals(6, processor.marc4jRecords);
+    assertEquals(6, processor.ids.size());
+    assertEquals("010000011", processor.ids.get(1));
+  }
+
+  @Test
+  public void prefilter_pica() throws ParseException {
+    String[] args = new String[]{
+      "--schemaType", "PICA", "--marcFormat", "PICA_PLAIN", "--nolog", "--ignorableRecords", "002@.0 == 'Aan'",
+      TestUtils.getPath("pica/k10plus-sample.pica")};
+    FilteringProcessor prefiltered = new FilteringProcessor(new CommonParameters(args), true);
+    new RecordIterator(prefiltered).start();
+    FilteringProcessor filtered = new FilteringProcessor(new CommonParameters(args), false);
+    new RecordIterator(filtered).start();
+
+    assertEquals(Set.of("002@"), prefiltered.getPrefilter().getTags());
+    assertEquals(5, prefiltered.ids.size());
+    assertEquals(filtered.ids, prefiltered.ids);
+    assertEquals(5, prefiltered.received);
+    assertEquals(6, filtered.received);
+  }
+
+  @Test
+  public void prefilter_marc21() throws ParseException {
+    String[] args = new String[]{
+      "--marcFormat", "XML", "--nolog", "--ignorableRecords", "041$g=cze",
+      TestUtils.getPath("gzip/test.xml.gz")};
+    FilteringProcessor prefiltered = new FilteringProcessor(new CommonParameters(args), true);
+    new RecordIterator(prefiltered).start();
+    FilteringProcessor filtered = new FilteringProcessor(new CommonParameters(args), false);
+    new RecordIterator(filtered).start();
+
+    assertEquals(Set.of("041"), prefiltered.getPrefilter().getTags());
+    assertTrue(prefiltered.ids.size() < 10);
+    assertEquals(filtered.ids, prefiltered.ids);
+    assertEquals(prefiltered.ids.size(), prefiltered.received);
+    assertEquals(10, filtered.received);
+  }
+
+  private static class OrderedProcessor implements BibliographicInputProcessor {
+    protected final CommonParameters parameters;
+    protected final Map<Integer, String> ids = new TreeMap<>();
+    protected final List<Integer> order = new ArrayList<>();
+    protected int numberOfprocessedRecords;
+    protected int marc4jRecords;
+    protected boolean needsMarc4jRecord = true;
+
+    OrderedProcessor(CommonParameters parameters) {
+      this.parameters = parameters;
+    }
+
+    @Override
+    public CommonParameters getParameters() {
+      return parameters;
+    }
+
+    @Override
+    public void processRecord(Record marc4jRecord, int recordNumber) {
+      assertNotNull(marc4jRecord);
+      marc4jRecords++;
+    }
+
+    @Override
+    public boolean needsMarc4jRecord() {
+      return needsMarc4jRecord;
+    }
+
+    @Override
+    public void processRecord(BibliographicRecord marcRecord, int recordNumber) {
+      ids.put(recordNumber, marcRecord.getId());
+      order.add(recordNumber);
+    }
+
+    @Override
+    public void processRecord(BibliographicRecord marcRecord, int recordNumber, List<ValidationError> errors) {
+      processRecord(marcRecord, recordNumber);
+    }
+
+    @Override
+    public void beforeIteration() {
+      // do nothing
+    }
+
+    @Override
+    public void fileOpened(Path path) {
+      // do nothing
+    }
+
+    @Override
+    public void fileProcessed() {
+      // do nothing
+    }
+
+    @Override
+    public void afterIteration(int numberOfprocessedRecords, long duration) {
+      this.numberOfprocessedRecords = numberOfprocessedRecords;
+    }
+
+    @Override
+    public void printHelp(Options options) {
+      // do nothing
+    }
+
+    @Override
+    public boolean readyToProcess() {
+      return true;
+    }
+  }
+
+  /**
+   * Skips the ignorable records like the analyses do.
+   */
+  private static class FilteringProcessor extends OrderedProcessor {
+    private final boolean prefiltering;
+    private int received;
+
+    FilteringProcessor(CommonParameters parameters, boolean prefiltering) {
+      super(parameters);
+      this.prefiltering = prefiltering;
+      this.needsMarc4jRecord = false;
+    }
+
+    @Override
+    public void processRecord(BibliographicRecord marcRecord, int recordNumber) {
+      received++;
+      if (parameters.getRecordIgnorator().isIgnorable(marcRecord))
+        return;
+      super.processRecord(marcRecord, recordNumber);
+    }
+
+    @Override
+    public RecordPrefilter getPrefilter() {
+      return prefiltering ? RecordPrefilter.create(parameters.getRecordIgnorator()) : null;
+    }
+  }
+
+  private static class CollectingProcessor extends OrderedProcessor implements ParallelProcessor<CollectingProcessor> {
+    private int workers = 0;
+
+    CollectingProcessor(CommonParameters parameters) {
+      super(parameters);
+    }
+
+    @Override
+    public CollectingProcessor createWorker() {
+      return new CollectingProcessor(parameters);
+    }
+
+    @Override
+    public void merge(CollectingProcessor worker) {
+      workers++;
+      ids.putAll(worker.ids);
+    }
+  }
+}
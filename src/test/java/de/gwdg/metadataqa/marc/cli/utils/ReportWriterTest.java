@@ -0,0 +1,46 @@
+package de.gwdg.metadataqa.marc.cli.utils;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertEquals;
+
+public class ReportWriterTest {
+
+  @Test
+  public void print() throws IOException {
+    Path dir = Files.createTempDirectory("report-writer");
+    File file = dir.resolve("report.csv").toFile();
+
+    ReportWriter writer = new ReportWriter();
+    writer.print(file, "a,b\n");
+    writer.print(file, "1,2\n");
+    writer.close();
+    writer.print(file, "3,4\n");
+    writer.close();
+
+    assertEquals("a,b\n1,2\n3,4\n", Files.readString(file.toPath(), StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void print_gzip() throws IOException {
+    Path dir = Files.createTempDirectory("report-writer");
+    File file = dir.resolve("report.csv.gz").toFile();
+
+    ReportWriter writer = new ReportWriter();
+    writer.print(file, "a,b\n");
+    writer.print(file, "1,2\n");
+    writer.close();
+
+    try (GZIPInputStream stream = new GZIPInputStream(new FileInputStream(file))) {
+      assertEquals("a,b\n1,2\n", new String(stream.readAllBytes(), StandardCharsets.UTF_8));
+    }
+  }
+}
@@ -5,6 +5,8 @@ import de.gwdg.metadataqa.marc.dao.record.Marc21BibliographicRecord;
 import de.gwdg.metadataqa.marc.dao.record.BibliographicRecord;
 import org.junit.Test;
 
+import java.util.Set;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
@@ -29,4 +31,10 @@ public class RecordIgnoratorMarc21Test {
 
     assertTrue(conditions.isIgnorable(marcRecord));
   }
-}
\ No newline at end of file
+
+  @Test
+  public void getTags() {
+    conditions = new RecordIgnoratorMarc21("STA$s=SUPPRESSED,912$a=test,STA$a=x");
+    assertEquals(Set.of("STA", "912"), conditions.getTags());
+  }
+}
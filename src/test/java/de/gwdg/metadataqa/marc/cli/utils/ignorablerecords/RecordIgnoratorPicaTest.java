@@ -9,6 +9,8 @@ import de.gwdg.metadataqa.marc.utils.pica.PicaSchemaManager;
 import de.gwdg.metadataqa.marc.utils.pica.PicaSchemaReader;
 import org.junit.Test;
 
+import java.util.Set;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
@@ -17,6 +19,13 @@ public class RecordIgnoratorPicaTest {
 
   PicaSchemaManager schema = PicaSchemaReader.createSchema(TestUtils.getPathFromMain("pica/avram-k10plus-title.json"));
 
+  @Test
+  public void getTags() {
+    RecordIgnoratorPica ignorator = new RecordIgnoratorPica("002@.0 !~ '^L' || (021A.a? && 002@.0 == 'Aau')");
+    assertEquals(Set.of("002@", "021A"), ignorator.getTags());
+    assertEquals(Set.of(), new RecordIgnoratorPica("").getTags());
+  }
+
   @Test
   public void parse_ex1() {
     testParsing("002@.0 !~ '^L'", 1, "002@.0", Operator.NOT_MATCH, "^L");
@@ -2,11 +2,15 @@ package de.gwdg.metadataqa.marc.dao;
 
 import de.gwdg.metadataqa.api.util.FileUtils;
 import de.gwdg.metadataqa.marc.MarcFactory;
+import de.gwdg.metadataqa.marc.benchmark.BenchmarkData;
+import de.gwdg.metadataqa.marc.benchmark.MapBasedJson;
 import de.gwdg.metadataqa.marc.cli.parameters.CommonParameters;
 import de.gwdg.metadataqa.marc.dao.record.BibliographicRecord;
 import de.gwdg.metadataqa.marc.dao.record.Marc21BibliographicRecord;
 import de.gwdg.metadataqa.marc.dao.record.Marc21Record;
 import de.gwdg.metadataqa.marc.definition.MarcFormat;
+import de.gwdg.metadataqa.marc.definition.MarcVersion;
+import de.gwdg.metadataqa.marc.definition.bibliographic.SchemaType;
 import de.gwdg.metadataqa.marc.definition.controltype.Control007Category;
 import de.gwdg.metadataqa.marc.utils.QAMarcReaderFactory;
 import de.gwdg.metadataqa.marc.utils.ReadMarc;
@@ -136,6 +140,24 @@ public class BibliographicRecordTest {
     assertTrue(marcRecord.asJson().contains("\"245\":[{\"ind1\":\"1\",\"ind2\":\"0\",\"subfields\":{\"a\":\"Botanical materia medica and pharmacology;\""));
   }
 
+  @Test
+  public void asJson_sameAsMapBased() throws Exception {
+    for (SchemaType schemaType : List.of(SchemaType.MARC21, SchemaType.PICA, SchemaType.UNIMARC)) {
+      BenchmarkData.Records records = new BenchmarkData.Records();
+      records.schemaType = schemaType;
+      records.setup();
+      for (BibliographicRecord bibliographicRecord : records.records)
+        assertEquals(MapBasedJson.asJson(bibliographicRecord), bibliographicRecord.asJson());
+    }
+
+    for (Record marc4jRecord : ReadMarc.read(FileUtils.getPath("marc/22561.mrc").toString())) {
+      assertEquals(MapBasedJson.asJson(MarcFactory.createFromMarc4j(marc4jRecord)),
+        MarcFactory.createFromMarc4j(marc4jRecord).asJson());
+      BibliographicRecord lazy = MarcFactory.createLazyFromMarc4j(marc4jRecord, null, MarcVersion.MARC21, null);
+      assertEquals(MapBasedJson.asJson(MarcFactory.createFromMarc4j(marc4jRecord)), lazy.asJson());
+    }
+  }
+
   @Test
   public void testFromMek() throws Exception {
     Path path = FileUtils.getPath("marc/22561.mrc");
@@ -0,0 +1,78 @@
+package de.gwdg.metadataqa.marc.dao.record;
+
+import de.gwdg.metadataqa.marc.MarcFactory;
+import de.gwdg.metadataqa.marc.TestUtils;
+import de.gwdg.metadataqa.marc.dao.DataField;
+import de.gwdg.metadataqa.marc.definition.MarcVersion;
+import de.gwdg.metadataqa.marc.model.SolrFieldType;
+import de.gwdg.metadataqa.marc.utils.ReadMarc;
+import org.junit.Test;
+import org.marc4j.marc.Record;
+
+import java.io.ByteArrayOutputStream;
+import java.io.NotSerializableException;
+import java.io.ObjectOutputStream;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class LazyMarc21RecordTest {
+
+  @Test
+  public void getDatafieldsByTag_createsOnlyTheTag() throws Exception {
+    Record marc4jRecord = ReadMarc.read(TestUtils.getPath("general/0001-01.mrc")).get(0);
+    BibliographicRecord lazy = MarcFactory.createLazyFromMarc4j(marc4jRecord, null, MarcVersion.MARC21, null);
+    assertTrue(lazy instanceof LazyMarc21Record);
+    assertTrue(lazy.datafieldIndex.isEmpty());
+
+    List<DataField> fields = lazy.getDatafieldsByTag("245");
+    assertNotNull(fields);
+    assertEquals(1, fields.size());
+    assertEquals(1, lazy.datafieldIndex.size());
+    assertEquals(lazy, fields.get(0).getBibliographicRecord());
+
+    assertNull(lazy.getDatafieldsByTag("999"));
+    assertFalse(lazy.hasDatafield("999"));
+  }
+
+  @Test
+  public void sameAsEagerRecord() throws Exception {
+    for (String file : List.of("general/0001-01.mrc", "general/BooksAll.2014.part01-0001.mrc", "marc/22561.mrc")) {
+      for (Record marc4jRecord : ReadMarc.read(TestUtils.getPath(file))) {
+        BibliographicRecord eager = MarcFactory.createFromMarc4j(marc4jRecord, null, MarcVersion.MARC21, null);
+        BibliographicRecord lazy = MarcFactory.createLazyFromMarc4j(marc4jRecord, null, MarcVersion.MARC21, null);
+
+        assertEquals(eager.getId(), lazy.getId());
+        for (DataField field : eager.getDatafields())
+          assertEquals(eager.getDatafieldsByTag(field.getTag()).size(), lazy.getDatafieldsByTag(field.getTag()).size());
+        assertEquals(format(eager), format(lazy));
+        assertEquals(eager.getUnhandledTags(), lazy.getUnhandledTags());
+        assertEquals(
+          ((Marc21Record) eager).getControl008().getContent(),
+          ((Marc21Record) lazy).getControl008().getContent());
+        assertEquals(eager.asJson(), lazy.asJson());
+        assertEquals(eager.getKeyValuePairs(SolrFieldType.MIXED), lazy.getKeyValuePairs(SolrFieldType.MIXED));
+      }
+    }
+  }
+
+  @Test(expected = NotSerializableException.class)
+  public void serialization() throws Exception {
+    Record marc4jRecord = ReadMarc.read(TestUtils.getPath("general/0001-01.mrc")).get(0);
+    BibliographicRecord lazy = MarcFactory.createLazyFromMarc4j(marc4jRecord, null, MarcVersion.MARC21, null);
+    try (ObjectOutputStream out = new ObjectOutputStream(new ByteArrayOutputStream())) {
+      out.writeObject(lazy);
+    }
+  }
+
+  private static String format(BibliographicRecord bibliographicRecord) {
+    StringBuilder sb = new StringBuilder();
+    for (DataField field : bibliographicRecord.getDatafields())
+      sb.append(field.getTag()).append(field.formatAsMarc());
+    return sb.toString();
+  }
+}
@@ -11,10 +11,16 @@ import java.io.FileReader;
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.Map;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 public class MarcSQLiteClientTest {
@@ -35,6 +41,36 @@ public class MarcSQLiteClientTest {
       Files.delete(file.toPath());
   }
 
+  @Test
+  public void load() throws IOException, URISyntaxException, SQLException {
+    File file = new File(FileUtils.getPath("sqlite").toFile(), "load.db");
+    MarcSQLiteClient client = MarcSQLiteClient.open(file.getPath());
+    assertSame(client, MarcSQLiteClient.open(file.getPath()));
+    client.setBatchSize(10);
+    client.setTransactionSize(15);
+    client.createTable("issue_details", "\"id\" TEXT", "\"errorId\" INTEGER", "\"instances\" INTEGER");
+    MarcSQLiteClient.TableLoader loader = client.createLoader("issue_details", "id", "errorId", "instances");
+    for (int i = 0; i < 25; i++)
+      loader.add("record" + i, i % 3, 1);
+    client.close();
+    assertEquals(25, loader.getRows());
+
+    // the second close() closes the shared connection
+    client.createIndex("issue_details_errorId", "issue_details", "errorId");
+    client.close();
+
+    try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + file.getPath());
+         Statement statement = conn.createStatement();
+         ResultSet resultSet = statement.executeQuery("SELECT COUNT(*), SUM(errorId) FROM issue_details")) {
+      assertTrue(resultSet.next());
+      assertEquals(25, resultSet.getInt(1));
+      assertEquals(24, resultSet.getInt(2));
+    }
+
+    for (String suffix : new String[]{"", "-wal", "-shm"})
+      Files.deleteIfExists(new File(file.getPath() + suffix).toPath());
+  }
+
   @Test
   public void csv2db() throws IOException, URISyntaxException {
     File csvFile = new File(FileUtils.getPath("sqlite").toFile(), "issue-summary.csv");
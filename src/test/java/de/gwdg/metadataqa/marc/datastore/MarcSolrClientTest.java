@@ -1,7 +1,10 @@
 package de.gwdg.metadataqa.marc.datastore;
 
 import de.gwdg.metadataqa.api.util.FileUtils;
+import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.client.solrj.SolrRequest;
 import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.client.solrj.impl.BaseHttpSolrClient;
 import org.apache.solr.client.solrj.request.AbstractUpdateRequest;
 import org.apache.solr.client.solrj.request.CoreAdminRequest;
 import org.apache.solr.client.solrj.request.UpdateRequest;
@@ -10,6 +13,7 @@ import org.apache.solr.common.SolrDocument;
 import org.apache.solr.common.SolrDocumentList;
 import org.apache.solr.common.SolrInputDocument;
 import org.apache.solr.common.params.MapSolrParams;
+import org.apache.solr.common.util.NamedList;
 import org.apache.solr.core.NodeConfig;
 import org.apache.solr.core.SolrXmlConfig;
 import org.junit.After;
@@ -22,14 +26,18 @@ import org.junit.Test;
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public class MarcSolrClientTest {
 
@@ -115,6 +123,23 @@ public class MarcSolrClientTest {
     assertEquals(List.of(11, 12, 13), doc.getFieldValues("errorId_is"));
   }
 
+  @Test
+  public void getIndexVersion() throws SolrServerException, IOException {
+    EmbeddedSolrServer client = new EmbeddedSolrServer(server.getCoreContainer(), "qa_catalogue_validation");
+    MarcSolrClient marcSolrClient = new MarcSolrClient(client);
+    String version = marcSolrClient.getIndexVersion();
+    assertTrue(version.endsWith("/1"));
+    assertEquals(version, marcSolrClient.getIndexVersion());
+
+    SolrInputDocument document = new SolrInputDocument();
+    document.addField("id", "124");
+    document.addField("errorId_is", List.of(14));
+    client.add(document);
+    client.commit();
+    assertNotEquals(version, marcSolrClient.getIndexVersion());
+    assertTrue(marcSolrClient.getIndexVersion().endsWith("/2"));
+  }
+
   @Test
   public void indexMap() throws SolrServerException, IOException {
     MarcSolrClient mainClient = new MarcSolrClient(new EmbeddedSolrServer(server.getCoreContainer(), "qa_catalogue"));
@@ -194,4 +219,193 @@ public class MarcSolrClientTest {
     assertNotNull(documents);
     assertEquals(0, documents.getNumFound());
   }
-}
\ No newline at end of file
+
+  @Test
+  public void get_multipleIds() throws SolrServerException, IOException {
+    MarcSolrClient mainClient = new MarcSolrClient(new EmbeddedSolrServer(server.getCoreContainer(), "qa_catalogue"));
+    mainClient.indexMap("124", Map.of("title_ss", List.of("Hello world")));
+    mainClient.indexMap("125", Map.of("title_ss", List.of("Hello moon")));
+    mainClient.commit();
+
+    Map<String, SolrDocument> docs = mainClient.get(List.of("124", "125", "126"));
+    assertEquals(Set.of("124", "125"), docs.keySet());
+    assertEquals(Set.of("title_ss"), docs.get("124").getFieldNames());
+    assertEquals(List.of("Hello world"), docs.get("124").getFieldValues("title_ss"));
+    assertEquals(List.of("Hello moon"), docs.get("125").getFieldValues("title_ss"));
+  }
+
+  @Test
+  public void index_batch() throws SolrServerException, IOException {
+    MarcSolrClient mainClient = new MarcSolrClient(new EmbeddedSolrServer(server.getCoreContainer(), "qa_catalogue"));
+    mainClient.setMaxInFlightRequests(2);
+    for (int i = 0; i < 5; i++)
+      mainClient.indexAsync(List.of(
+        mainClient.createSolrDoc("a" + i, Map.of("title_ss", List.of("a"))),
+        mainClient.createSolrDoc("b" + i, Map.of("title_ss", List.of("b")))
+      ));
+    mainClient.commit();
+    mainClient.shutdownUpdates();
+
+    EmbeddedSolrServer client = new EmbeddedSolrServer(server.getCoreContainer(), "qa_catalogue");
+    assertEquals(10, client.query(new MapSolrParams(Map.of("q", "*:*"))).getResults().getNumFound());
+  }
+
+  @Test
+  public void index_retry() {
+    FailingSolrClient solrClient = new FailingSolrClient(500, 2);
+    MarcSolrClient client = new MarcSolrClient(solrClient);
+    client.setRetryDelay(1);
+    client.index(List.of(createDocument("1"), createDocument("2")));
+    assertEquals(3, solrClient.requests);
+    assertEquals(2, solrClient.indexed.size());
+  }
+
+  @Test
+  public void index_retry_exhausted() {
+    FailingSolrClient solrClient = new FailingSolrClient(503, 10);
+    MarcSolrClient client = new MarcSolrClient(solrClient);
+    client.setRetryDelay(1);
+    client.setMaxRetries(2);
+    try {
+      client.index(createDocument("1"));
+      fail("RuntimeException expected");
+    } catch (RuntimeException e) {
+      assertTrue(e.getCause() instanceof BaseHttpSolrClient.RemoteSolrException);
+    }
+    assertEquals(3, solrClient.requests);
+  }
+
+  @Test
+  public void index_noRetryOnClientError() {
+    FailingSolrClient solrClient = new FailingSolrClient(400, 10);
+    MarcSolrClient client = new MarcSolrClient(solrClient);
+    client.setRetryDelay(1);
+    try {
+      client.index(createDocument("1"));
+      fail("RuntimeException expected");
+    } catch (RuntimeException e) {
+      assertEquals(1, solrClient.requests);
+    }
+  }
+
+  @Test
+  public void index_splitRejectedBatch() {
+    FailingSolrClient solrClient = new FailingSolrClient(400, 0);
+    solrClient.rejectedIds = Set.of("3", "6");
+    MarcSolrClient client = new MarcSolrClient(solrClient);
+    client.setRetryDelay(1);
+    List<SolrInputDocument> documents = new ArrayList<>();
+    for (int i = 0; i < 8; i++)
+      documents.add(createDocument(String.valueOf(i)));
+    try {
+      client.index(documents);
+      fail("SolrUpdateException expected");
+    } catch (SolrUpdateException e) {
+      assertEquals(List.of("3", "6"), e.getDocumentIds());
+      assertEquals("2 update requests failed: 2 documents (IDs: 3, 6)", e.getMessage());
+    }
+    assertEquals(6, solrClient.indexed.size());
+  }
+
+  @Test
+  public void index_failureMessage() {
+    FailingSolrClient solrClient = new FailingSolrClient(503, 10);
+    MarcSolrClient client = new MarcSolrClient(solrClient);
+    client.setRetryDelay(1);
+    client.setMaxRetries(0);
+    List<SolrInputDocument> documents = new ArrayList<>();
+    for (int i = 0; i < 8; i++)
+      documents.add(createDocument(String.valueOf(i)));
+    try {
+      client.index(documents);
+      fail("SolrUpdateException expected");
+    } catch (SolrUpdateException e) {
+      assertEquals(8, e.getDocumentIds().size());
+      assertEquals("Indexing 8 documents (IDs: 0, 1, 2, 3, 4, ...) failed", e.getMessage());
+    }
+    assertEquals(1, solrClient.requests);
+  }
+
+  @Test
+  public void indexAsync_retry() {
+    FailingSolrClient solrClient = new FailingSolrClient(500, 1);
+    MarcSolrClient client = new MarcSolrClient(solrClient);
+    client.setRetryDelay(1);
+    client.setMaxInFlightRequests(2);
+    for (int i = 0; i < 10; i++)
+      client.indexAsync(List.of(createDocument(String.valueOf(i * 2)), createDocument(String.valueOf(i * 2 + 1))));
+    client.shutdownUpdates();
+    assertEquals(20, solrClient.indexed.size());
+    assertEquals(11, solrClient.requests);
+  }
+
+  @Test
+  public void indexAsync_failure() {
+    FailingSolrClient solrClient = new FailingSolrClient(400, 0);
+    solrClient.rejectedIds = Set.of("2");
+    MarcSolrClient client = new MarcSolrClient(solrClient);
+    client.indexAsync(List.of(createDocument("1"), createDocument("2")));
+    client.indexAsync(List.of(createDocument("3")));
+    client.awaitPendingUpdates();
+    List<SolrUpdateException> failures = client.takeAsyncFailures();
+    assertEquals(1, failures.size());
+    assertEquals(List.of("2"), failures.get(0).getDocumentIds());
+    assertEquals(2, solrClient.indexed.size());
+    assertTrue(client.takeAsyncFailures().isEmpty());
+
+    client.indexAsync(List.of(createDocument("4")));
+    client.awaitPendingUpdates();
+    solrClient.failures = 2;
+    client.indexAsync(List.of(createDocument("5")));
+    client.indexAsync(List.of(createDocument("6")));
+    try {
+      client.waitForPendingUpdates();
+      fail("SolrUpdateException expected");
+    } catch (SolrUpdateException e) {
+      assertEquals(List.of("5", "6"), e.getDocumentIds());
+    }
+    client.shutdownUpdates();
+  }
+
+  private SolrInputDocument createDocument(String id) {
+    SolrInputDocument document = new SolrInputDocument();
+    document.addField("id", id);
+    return document;
+  }
+
+  /**
+   * A Solr client, which fails with the given HTTP code the first n times, and each time when the request contains
+   * one of the rejected documents
+   */
+  private static class FailingSolrClient extends SolrClient {
+    private final int code;
+    private int failures;
+    private int requests = 0;
+    private Set<String> rejectedIds = Set.of();
+    private final List<SolrInputDocument> indexed = new ArrayList<>();
+
+    private FailingSolrClient(int code, int failures) {
+      this.code = code;
+      this.failures = failures;
+    }
+
+    @Override
+    public synchronized NamedList<Object> request(SolrRequest<?> request, String collection) {
+      requests++;
+      if (failures > 0) {
+        failures--;
+        throw new BaseHttpSolrClient.RemoteSolrException("localhost", code, "failure", null);
+      }
+      List<SolrInputDocument> documents = ((UpdateRequest) request).getDocuments();
+      for (SolrInputDocument document : documents)
+        if (rejectedIds.contains(document.getFieldValue("id").toString()))
+          throw new BaseHttpSolrClient.RemoteSolrException("localhost", code, "rejected", null);
+      indexed.addAll(documents);
+      return new NamedList<>();
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+}
@@ -0,0 +1,125 @@
+package de.gwdg.metadataqa.marc.datastore;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static de.gwdg.metadataqa.marc.datastore.RecordFingerprintStore.Status.ADDED;
+import static de.gwdg.metadataqa.marc.datastore.RecordFingerprintStore.Status.CHANGED;
+import static de.gwdg.metadataqa.marc.datastore.RecordFingerprintStore.Status.UNCHANGED;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RecordFingerprintStoreTest {
+
+  @Test
+  public void check() throws IOException {
+    Path file = Files.createTempDirectory("fingerprints").resolve("fingerprints.bin");
+    try (RecordFingerprintStore store = RecordFingerprintStore.open(file, "config")) {
+      assertEquals(ADDED, store.check("a", 1L));
+      assertEquals(ADDED, store.check("b", 2L));
+      assertEquals(ADDED, store.check("c", 3L));
+      assertEquals(List.of(), store.getRemovedIds());
+      store.save(false);
+    }
+
+    try (RecordFingerprintStore store = RecordFingerprintStore.open(file, "config")) {
+      assertEquals(UNCHANGED, store.check("a", 1L));
+      assertEquals(CHANGED, store.check("b", 20L));
+      assertEquals(ADDED, store.check("d", 4L));
+      // the second occurrence of an ID is always sent
+      assertEquals(CHANGED, store.check("a", 1L));
+      assertEquals(List.of("c"), store.getRemovedIds());
+      assertEquals(1, store.getAdded());
+      assertEquals(2, store.getChanged());
+      assertEquals(1, store.getUnchanged());
+      store.save(false);
+    }
+
+    try (RecordFingerprintStore store = RecordFingerprintStore.open(file, "config")) {
+      assertEquals(CHANGED, store.check("b", 2L));
+      assertEquals(ADDED, store.check("c", 3L));
+      assertEquals(List.of("a", "d"), store.getRemovedIds());
+      // not saved
+    }
+    assertEquals(List.of(file.getFileName()), list(file.getParent()));
+
+    try (RecordFingerprintStore store = RecordFingerprintStore.open(file, "config")) {
+      assertEquals(UNCHANGED, store.check("b", 20L));
+      assertEquals(UNCHANGED, store.check("d", 4L));
+    }
+  }
+
+  @Test
+  public void changedConfiguration() throws IOException {
+    Path file = Files.createTempDirectory("fingerprints").resolve("fingerprints.bin");
+    try (RecordFingerprintStore store = RecordFingerprintStore.open(file, "config")) {
+      store.check("a", 1L);
+      store.check("b", 2L);
+      store.save(false);
+    }
+
+    try (RecordFingerprintStore store = RecordFingerprintStore.open(file, "other config")) {
+      assertEquals(CHANGED, store.check("a", 1L));
+      assertEquals(List.of("b"), store.getRemovedIds());
+      // a partial run keeps b, but it counts as changed in the next run
+      store.save(true);
+    }
+
+    try (RecordFingerprintStore store = RecordFingerprintStore.open(file, "other config")) {
+      assertEquals(UNCHANGED, store.check("a", 1L));
+      assertEquals(CHANGED, store.check("b", 2L));
+    }
+  }
+
+  @Test
+  public void save_keepRemoved() throws IOException {
+    Path file = Files.createTempDirectory("fingerprints").resolve("fingerprints.bin");
+    try (RecordFingerprintStore store = RecordFingerprintStore.open(file, "config")) {
+      for (int i = 0; i < 5000; i++)
+        store.check("id" + i, i);
+      store.save(false);
+    }
+
+    try (RecordFingerprintStore store = RecordFingerprintStore.open(file, "config")) {
+      assertEquals(UNCHANGED, store.check("id10", 10L));
+      assertEquals(4999, store.getRemovedIds().size());
+      store.save(true);
+    }
+
+    try (RecordFingerprintStore store = RecordFingerprintStore.open(file, "config")) {
+      for (int i = 0; i < 5000; i++)
+        assertEquals(UNCHANGED, store.check("id" + i, i));
+      assertEquals(List.of(), store.getRemovedIds());
+    }
+  }
+
+  @Test
+  public void invalidFile() throws IOException {
+    Path file = Files.createTempFile("fingerprints", ".bin");
+    Files.writeString(file, "not a fingerprint file");
+    try (RecordFingerprintStore store = RecordFingerprintStore.open(file, "config")) {
+      assertEquals(ADDED, store.check("a", 1L));
+      assertTrue(store.getRemovedIds().isEmpty());
+    }
+  }
+
+  @Test
+  public void fingerprint() {
+    assertEquals(RecordFingerprintStore.fingerprint("{\"001\":\"a\"}"), RecordFingerprintStore.fingerprint("{\"001\":\"a\"}"));
+    assertNotEquals(RecordFingerprintStore.fingerprint("{\"001\":\"a\"}"), RecordFingerprintStore.fingerprint("{\"001\":\"b\"}"));
+    assertNotEquals(RecordFingerprintStore.fingerprint("ő"), RecordFingerprintStore.fingerprint("Q"));
+  }
+
+  private List<Path> list(Path dir) throws IOException {
+    try (Stream<Path> files = Files.list(dir)) {
+      return files.map(Path::getFileName).collect(Collectors.toList());
+    }
+  }
+}
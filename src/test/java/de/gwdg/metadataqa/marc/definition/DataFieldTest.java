@@ -90,4 +90,12 @@ public class DataFieldTest {
     assertEquals("2345/4", field.getTagWithOccurrence());
   }
 
+  @Test
+  public void getKeyValuePairs_keepsTheTag() {
+    DataField field = new DataField("2345", "$a1$b2");
+    field.setOccurrence("4");
+    assertEquals(field.getKeyValuePairs().keySet(), field.getKeyValuePairs().keySet());
+    assertEquals("2345/4", field.getTagWithOccurrence());
+  }
+
 }
@@ -1,7 +1,13 @@
 package de.gwdg.metadataqa.marc.definition;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import de.gwdg.metadataqa.marc.EncodedValue;
 import de.gwdg.metadataqa.marc.definition.structure.SubfieldDefinition;
 import org.junit.After;
 import org.junit.AfterClass;
@@ -11,6 +17,8 @@ import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 /**
  *
@@ -67,4 +75,57 @@ public class SubfieldDefinitionTest {
     );
   }
 
+  @Test
+  public void testGetCode() {
+    SubfieldDefinition subfield = new SubfieldDefinition("a", "Number of units", "NR");
+    subfield.setCodes(
+      " ", "No information provided",
+      "1-9", "Number of units",
+      "5", "Five",
+      "m", "Month(s) time"
+    );
+    subfield.getCode("1-9").setRange(true);
+    assertEquals("No information provided", subfield.getCode(" ").getLabel());
+    assertEquals("Month(s) time", subfield.getCode("m").getLabel());
+    // the range precedes the code in the list
+    assertEquals("Number of units", subfield.getCode("5").getLabel());
+    assertEquals("Number of units", subfield.getCode("9").getLabel());
+    assertNull(subfield.getCode("10"));
+    assertNull(subfield.getCode("x"));
+
+    subfield.getCodes().add(new EncodedValue("x", "Extension"));
+    assertEquals("Extension", subfield.getCode("x").getLabel());
+  }
+
+  @Test
+  public void testGetLocalCode() {
+    SubfieldDefinition subfield = new SubfieldDefinition("a", "Location", "NR");
+    subfield.setLocalCodes(MarcVersion.BL, "ABP", "Aberdeen City Libraries", "BODBL", "Bodleian Library");
+    assertEquals("Bodleian Library", subfield.getLocalCode(MarcVersion.BL, "BODBL").getLabel());
+    assertNull(subfield.getLocalCode(MarcVersion.BL, "XYZ"));
+    assertNull(subfield.getLocalCode(MarcVersion.DNB, "BODBL"));
+  }
+
+  @Test
+  public void testGetCode_concurrently() throws Exception {
+    SubfieldDefinition subfield = new SubfieldDefinition("a", "Location", "NR");
+    subfield.setCodes("a", "A", "1-9", "Range");
+    subfield.setLocalCodes(MarcVersion.BL, "ABP", "Aberdeen City Libraries", "BODBL", "Bodleian Library");
+    subfield.setLocalCodes(MarcVersion.DNB, "DNB", "Deutsche Nationalbibliothek");
+    // the indexes are rebuilt by the threads at the first lookup
+    subfield.getCodes().add(new EncodedValue("x", "Extension"));
+    subfield.getLocalCodes(MarcVersion.BL).add(new EncodedValue("XYZ", "Other"));
+
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    List<Future<Boolean>> results = new ArrayList<>();
+    for (int i = 0; i < 64; i++)
+      results.add(executor.submit(() ->
+        subfield.getCode("x").getLabel().equals("Extension")
+          && subfield.getCode("a").getLabel().equals("A")
+          && subfield.getLocalCode(MarcVersion.BL, "XYZ").getLabel().equals("Other")
+          && subfield.getLocalCode(MarcVersion.DNB, "DNB") != null));
+    for (Future<Boolean> result : results)
+      assertTrue(result.get());
+    executor.shutdown();
+  }
 }
@@ -0,0 +1,77 @@
+package de.gwdg.metadataqa.marc.utils;
+
+import de.gwdg.metadataqa.marc.analysis.shelfready.ShelfReadyFieldsBooks;
+import de.gwdg.metadataqa.marc.dao.record.Marc21BibliographicRecord;
+import de.gwdg.metadataqa.marc.dao.record.PicaRecord;
+import de.gwdg.metadataqa.marc.definition.MarcVersion;
+import de.gwdg.metadataqa.marc.definition.TagDefinitionLoader;
+import de.gwdg.metadataqa.marc.definition.bibliographic.SchemaType;
+import de.gwdg.metadataqa.marc.definition.structure.DataFieldDefinition;
+import de.gwdg.metadataqa.marc.utils.pica.crosswalk.PicaMarcCrosswalkReader;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+public class DefinitionRegistryTest {
+
+  @Test
+  public void warmUp() {
+    Map<String, Long> cost = DefinitionRegistry.warmUp(SchemaType.MARC21);
+    assertEquals(List.of("MARC21 tag definitions", "MARC21 shelf-ready map"), new ArrayList<>(cost.keySet()));
+    for (Long millis : cost.values())
+      assertTrue(millis >= 0);
+    assertSame(cost, DefinitionRegistry.warmUp(SchemaType.MARC21));
+
+    assertEquals(List.of("PICA-MARC21 crosswalk", "PICA shelf-ready map"),
+      new ArrayList<>(DefinitionRegistry.warmUp(SchemaType.PICA).keySet()));
+    assertEquals(List.of("UNIMARC shelf-ready map"),
+      new ArrayList<>(DefinitionRegistry.warmUp(SchemaType.UNIMARC).keySet()));
+  }
+
+  @Test
+  public void registries_areNotModifiable() {
+    Map<ShelfReadyFieldsBooks, Map<String, List<String>>> shelfReadyMap =
+      new Marc21BibliographicRecord().getShelfReadyMap();
+    assertSame(shelfReadyMap, new Marc21BibliographicRecord().getShelfReadyMap());
+    assertThrows(UnsupportedOperationException.class, () -> shelfReadyMap.remove(ShelfReadyFieldsBooks.TAG245));
+    assertThrows(UnsupportedOperationException.class, () -> shelfReadyMap.get(ShelfReadyFieldsBooks.TAG245).clear());
+    assertThrows(UnsupportedOperationException.class,
+      () -> shelfReadyMap.get(ShelfReadyFieldsBooks.TAG245).get("245").add("x"));
+    assertThrows(UnsupportedOperationException.class,
+      () -> new PicaRecord().getShelfReadyMap().get(ShelfReadyFieldsBooks.TAG245).clear());
+    assertThrows(UnsupportedOperationException.class, () -> PicaMarcCrosswalkReader.read().clear());
+  }
+
+  @Test
+  public void concurrentLookups() throws Exception {
+    DefinitionRegistry.warmUp(SchemaType.PICA);
+    DataFieldDefinition expected = TagDefinitionLoader.load("245", MarcVersion.MARC21);
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Callable<Boolean>> tasks = new ArrayList<>();
+      for (int i = 0; i < 8; i++)
+        tasks.add(() -> {
+          for (int j = 0; j < 1000; j++)
+            if (TagDefinitionLoader.load("245", MarcVersion.MARC21) != expected
+                || new PicaRecord().getShelfReadyMap().isEmpty())
+              return false;
+          return true;
+        });
+      for (Future<Boolean> result : executor.invokeAll(tasks))
+        assertTrue(result.get());
+    } finally {
+      executor.shutdown();
+    }
+  }
+}
@@ -0,0 +1,84 @@
+package de.gwdg.metadataqa.marc.utils;
+
+import de.gwdg.metadataqa.marc.TestUtils;
+import de.gwdg.metadataqa.marc.definition.bibliographic.SchemaType;
+import de.gwdg.metadataqa.marc.utils.pica.PicaSchemaManager;
+import de.gwdg.metadataqa.marc.utils.unimarc.UnimarcSchemaManager;
+import org.apache.commons.io.FileUtils;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SchemaRegistryTest {
+
+  @Test
+  public void getPicaSchema_isShared() {
+    PicaSchemaManager schema = SchemaRegistry.getPicaSchema(null);
+    assertSame(schema, SchemaRegistry.getPicaSchema(null));
+    assertSame(schema, SchemaRegistry.getPicaSchema(TestUtils.getPathFromMain("pica/avram-k10plus-title.json")));
+    assertNotNull(schema.lookup("003@"));
+  }
+
+  @Test
+  public void getUnimarcSchema_isShared() {
+    UnimarcSchemaManager schema = SchemaRegistry.getUnimarcSchema(null);
+    assertSame(schema, SchemaRegistry.getUnimarcSchema(TestUtils.getPathFromMain("unimarc/avram-unimarc.json")));
+    assertNotNull(schema.lookup("200"));
+  }
+
+  @Test
+  public void getChecksum() throws Exception {
+    String checksum = SchemaRegistry.getChecksum(SchemaType.PICA, null);
+    assertEquals(checksum, SchemaRegistry.getChecksum(SchemaType.PICA,
+      TestUtils.getPathFromMain("pica/avram-k10plus-title.json")));
+    assertEquals("", SchemaRegistry.getChecksum(SchemaType.MARC21, null));
+
+    // the same file name with another content
+    File dir = Files.createTempDirectory("schema").toFile();
+    File schemaFile = new File(dir, "avram-k10plus-title.json");
+    FileUtils.copyFile(new File(TestUtils.getPathFromMain("pica/avram-k10plus-title.json")), schemaFile);
+    assertEquals(checksum, SchemaRegistry.getChecksum(SchemaType.PICA, schemaFile.getPath()));
+    FileUtils.writeStringToFile(schemaFile, "\n", StandardCharsets.UTF_8, true);
+    assertNotEquals(checksum, SchemaRegistry.getChecksum(SchemaType.PICA, schemaFile.getPath()));
+    FileUtils.deleteDirectory(dir);
+  }
+
+  @Test
+  public void getPicaSchema_fromSnapshot() throws Exception {
+    File dir = Files.createTempDirectory("schema").toFile();
+    File schemaFile = new File(dir, "avram-k10plus-title.json");
+    FileUtils.copyFile(new File(TestUtils.getPathFromMain("pica/avram-k10plus-title.json")), schemaFile);
+
+    File snapshot = SchemaRegistry.writeSnapshot(SchemaType.PICA, schemaFile.getAbsolutePath());
+    assertTrue(snapshot.exists());
+    // replace the schema with an empty one, which is older than the snapshot, so the snapshot should be used
+    FileUtils.writeStringToFile(schemaFile, "{\"fields\":{}}", StandardCharsets.UTF_8);
+    assertTrue(schemaFile.setLastModified(snapshot.lastModified() - 10_000));
+
+    PicaSchemaManager schema = SchemaRegistry.getPicaSchema(schemaFile.getAbsolutePath());
+    assertEquals(SchemaRegistry.getPicaSchema(null).size(), schema.size());
+    assertEquals("Code für Erscheinungsland", schema.lookup("019@").getLabel());
+    FileUtils.deleteDirectory(dir);
+  }
+
+  @Test
+  public void getUnimarcSchema_fromSnapshot() throws Exception {
+    File dir = Files.createTempDirectory("schema").toFile();
+    File schemaFile = new File(dir, "avram-unimarc.json");
+    FileUtils.copyFile(new File(TestUtils.getPathFromMain("unimarc/avram-unimarc.json")), schemaFile);
+
+    SchemaRegistry.writeSnapshot(SchemaType.UNIMARC, schemaFile.getAbsolutePath());
+    UnimarcSchemaManager schema = SchemaRegistry.getUnimarcSchema(schemaFile.getAbsolutePath());
+    assertEquals(SchemaRegistry.getUnimarcSchema(null).size(), schema.size());
+    assertNotNull(schema.getLeaderDefinition());
+    FileUtils.deleteDirectory(dir);
+  }
+}
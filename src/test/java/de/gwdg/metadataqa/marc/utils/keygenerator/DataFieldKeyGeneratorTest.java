@@ -2,6 +2,7 @@ package de.gwdg.metadataqa.marc.utils.keygenerator;
 
 import de.gwdg.metadataqa.marc.MarcSubfield;
 import de.gwdg.metadataqa.marc.definition.MarcVersion;
+import de.gwdg.metadataqa.marc.definition.bibliographic.SchemaType;
 import de.gwdg.metadataqa.marc.definition.structure.DataFieldDefinition;
 import de.gwdg.metadataqa.marc.definition.tags.tags20x.Tag245;
 import de.gwdg.metadataqa.marc.model.SolrFieldType;
@@ -11,6 +12,8 @@ import java.util.regex.Pattern;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 public class DataFieldKeyGeneratorTest {
@@ -67,4 +70,29 @@ public class DataFieldKeyGeneratorTest {
     DataFieldKeyGenerator generator = new DataFieldKeyGenerator(definition, SolrFieldType.MIXED);
     assertEquals("Title", generator.getIndexTag());
   }
+
+  @Test
+  public void getInstance() {
+    DataFieldKeyGenerator generator = DataFieldKeyGenerator.getInstance(
+      definition, SolrFieldType.MIXED, "245", SchemaType.MARC21, MarcVersion.MARC21);
+    assertSame(generator, DataFieldKeyGenerator.getInstance(
+      definition, SolrFieldType.MIXED, "245", SchemaType.MARC21, MarcVersion.MARC21));
+    assertNotSame(generator, DataFieldKeyGenerator.getInstance(
+      definition, SolrFieldType.HUMAN, "245", SchemaType.MARC21, MarcVersion.MARC21));
+
+    assertEquals("245ind1_Title_titleAddedEntry", generator.forInd1());
+    assertEquals("245a_Title_mainTitle", generator.forSubfield(subfield));
+    assertEquals("245a_Title_mainTitle", generator.forSubfield(subfield));
+    assertEquals("245x40_Title_language_KBR", generator.forSubfield(definition.getVersionSpecificSubfield(MarcVersion.KBR, "@")));
+    assertEquals("245_Title_full", generator.forFull());
+  }
+
+  @Test
+  public void forSubfield_undefined() {
+    DataFieldKeyGenerator generator = DataFieldKeyGenerator.getInstance(
+      null, SolrFieldType.MIXED, "9X9", SchemaType.MARC21, MarcVersion.MARC21);
+    assertEquals("9X9a", generator.forSubfield(new MarcSubfield(null, "a", "test")));
+    assertEquals("9X9x40", generator.forSubfield(new MarcSubfield(null, "@", "test")));
+    assertEquals("9X9_full", generator.forFull());
+  }
 }
@@ -0,0 +1,91 @@
+package de.gwdg.metadataqa.marc.utils.marcreader;
+
+import de.gwdg.metadataqa.marc.TestUtils;
+import org.junit.Test;
+import org.marc4j.MarcReader;
+import org.marc4j.MarcStreamReader;
+import org.marc4j.marc.Record;
+
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MappedIsoMarcReaderTest {
+
+  private static final List<String> FILES = List.of(
+    "general/BooksAll.2014.part01-0001.mrc",
+    "general/0001-01.mrc",
+    "general/000-line-seperated.mrc",
+    "marc/22561.mrc",
+    "unimarc/short.firenze.1977.mrc",
+    "unimarc/serial.bnr.1993.mrc",
+    "unimarc/short.bnr.1993.mrc"
+  );
+
+  @Test
+  public void sameAsMarcStreamReader() throws Exception {
+    for (String file : FILES)
+      assertEquals(file, readWithStreamReader(file, null), readWithMappedReader(file, null));
+  }
+
+  @Test
+  public void sameAsMarcStreamReader_withEncoding() throws Exception {
+    for (String encoding : List.of("UTF-8", "MARC-8", "ISO-8859-1"))
+      for (String file : FILES)
+        assertEquals(file + " " + encoding, readWithStreamReader(file, encoding), readWithMappedReader(file, encoding));
+  }
+
+  @Test
+  public void brokenRecord() throws Exception {
+    Path file = Files.createTempFile("broken", ".mrc");
+    byte[] content = Files.readAllBytes(Paths.get(TestUtils.getPath("general/0001-01.mrc")));
+    // the second record starts within the first one
+    content[2] = '8';
+    Files.write(file, content);
+    List<String> expected = read(new MarcStreamReader(new FileInputStream(file.toFile())));
+    List<String> actual = read(new MappedIsoMarcReader(file));
+    assertEquals(expected, actual);
+    assertTrue(actual.get(1).startsWith("MarcException"));
+
+    // the record is longer than the file
+    content[0] = '9';
+    Files.write(file, content);
+    expected = read(new MarcStreamReader(new FileInputStream(file.toFile())));
+    actual = read(new MappedIsoMarcReader(file));
+    assertEquals(expected, actual);
+    assertEquals(List.of("MarcException: Premature end of file encountered"), actual);
+  }
+
+  private List<String> readWithStreamReader(String file, String encoding) throws Exception {
+    try (InputStream stream = new FileInputStream(TestUtils.getPath(file))) {
+      return read(new MarcStreamReader(stream, encoding));
+    }
+  }
+
+  private List<String> readWithMappedReader(String file, String encoding) throws Exception {
+    return read(new MappedIsoMarcReader(Paths.get(TestUtils.getPath(file)), encoding));
+  }
+
+  /**
+   * @return The records as strings, or the class and message of the exception thrown instead of the record
+   */
+  private List<String> read(MarcReader reader) {
+    List<String> records = new ArrayList<>();
+    while (reader.hasNext()) {
+      try {
+        Record record = reader.next();
+        records.add(record.toString());
+      } catch (Exception e) {
+        records.add(e.getClass().getSimpleName() + ": " + e.getMessage());
+      }
+    }
+    return records;
+  }
+}
@@ -0,0 +1,109 @@
+package de.gwdg.metadataqa.marc.utils.marcreader;
+
+import de.gwdg.metadataqa.marc.TestUtils;
+import de.gwdg.metadataqa.marc.definition.MarcFormat;
+import de.gwdg.metadataqa.marc.utils.QAMarcReaderFactory;
+import org.junit.Test;
+import org.marc4j.MarcReader;
+import org.marc4j.marc.Record;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RecordOffsetIndexTest {
+
+  @Test
+  public void iso() throws Exception {
+    Path file = copyToTempDir("general/BooksAll.2014.part01-0001.mrc");
+    assertAllRecordsFound(file, MarcFormat.ISO, 100);
+  }
+
+  @Test
+  public void alephseq() throws Exception {
+    Path file = copyToTempDir("alephseq/alephseq-example2.txt");
+    // 8 of the 100 records are deleted, but the reader returns the last one, which is among them
+    assertAllRecordsFound(file, MarcFormat.ALEPHSEQ, 93);
+  }
+
+  @Test
+  public void find_missing() throws Exception {
+    Path file = copyToTempDir("general/BooksAll.2014.part01-0001.mrc");
+    try (RecordOffsetIndex index = RecordOffsetIndex.open(file, MarcFormat.ISO, null)) {
+      assertTrue(index.find("nonexistent").isEmpty());
+    }
+  }
+
+  @Test
+  public void rebuild_afterChange() throws Exception {
+    Path file = copyToTempDir("general/0001-01.mrc");
+    try (RecordOffsetIndex index = RecordOffsetIndex.open(file, MarcFormat.ISO, null)) {
+      assertEquals(5, index.getRecords());
+    }
+    Path indexPath = RecordOffsetIndex.getIndexPath(file);
+    assertTrue(Files.exists(indexPath));
+
+    // append the records of another file
+    Files.write(file, Files.readAllBytes(Paths.get(TestUtils.getPath("marc/22561.mrc"))),
+      StandardOpenOption.APPEND);
+    Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(indexPath).toMillis() + 1000));
+    try (RecordOffsetIndex index = RecordOffsetIndex.open(file, MarcFormat.ISO, null)) {
+      assertEquals(6, index.getRecords());
+      assertEquals(6, index.find("MEK-22561").get(0).getNumber());
+    }
+  }
+
+  @Test
+  public void isIndexable() throws Exception {
+    assertTrue(RecordOffsetIndex.isIndexable(MarcFormat.ISO, Paths.get(TestUtils.getPath("general/0001-01.mrc"))));
+    assertFalse(RecordOffsetIndex.isIndexable(MarcFormat.XML, Paths.get(TestUtils.getPath("marcxml/marcxml.xml"))));
+    assertFalse(RecordOffsetIndex.isIndexable(MarcFormat.XML, Paths.get(TestUtils.getPath("gzip/test.xml.gz"))));
+  }
+
+  private void assertAllRecordsFound(Path file, MarcFormat marcFormat, int expectedRecords) throws Exception {
+    try (RecordOffsetIndex index = RecordOffsetIndex.open(file, marcFormat, null)) {
+      assertEquals(expectedRecords, index.getRecords());
+      assertEquals(expectedRecords, index.size());
+
+      MarcReader reader = QAMarcReaderFactory.getFileReader(marcFormat, file.toString());
+      int number = 0;
+      while (reader.hasNext()) {
+        Record expected = reader.next();
+        number++;
+        List<RecordOffsetIndex.Entry> entries = index.find(expected.getControlNumber());
+        assertEquals(1, entries.size());
+        RecordOffsetIndex.Entry entry = entries.get(0);
+        assertEquals(number, entry.getNumber());
+
+        MarcReader recordReader = QAMarcReaderFactory.getStreamReader(
+          marcFormat, new ByteArrayInputStream(index.readRecord(entry)));
+        assertTrue(recordReader.hasNext());
+        assertEquals(expected.toString(), recordReader.next().toString());
+        assertFalse(recordReader.hasNext());
+      }
+      assertEquals(expectedRecords, number);
+    }
+
+    // the second time the index is read from the file
+    long modified = Files.getLastModifiedTime(RecordOffsetIndex.getIndexPath(file)).toMillis();
+    try (RecordOffsetIndex index = RecordOffsetIndex.open(file, marcFormat, null)) {
+      assertEquals(expectedRecords, index.size());
+    }
+    assertEquals(modified, Files.getLastModifiedTime(RecordOffsetIndex.getIndexPath(file)).toMillis());
+  }
+
+  private Path copyToTempDir(String resource) throws Exception {
+    Path source = Paths.get(TestUtils.getPath(resource));
+    Path file = Files.createTempDirectory("record-offset-index").resolve(source.getFileName());
+    Files.copy(source, file);
+    return file;
+  }
+}
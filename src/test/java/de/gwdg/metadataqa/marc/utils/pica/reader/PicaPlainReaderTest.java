@@ -9,6 +9,7 @@ import de.gwdg.metadataqa.api.util.FileUtils;
 import de.gwdg.metadataqa.marc.MarcFactory;
 import de.gwdg.metadataqa.marc.TestUtils;
 import de.gwdg.metadataqa.marc.Utils;
+import de.gwdg.metadataqa.marc.dao.DataField;
 import de.gwdg.metadataqa.marc.dao.record.BibliographicRecord;
 import de.gwdg.metadataqa.marc.definition.Cardinality;
 import de.gwdg.metadataqa.marc.definition.bibliographic.SchemaType;
@@ -39,6 +40,8 @@ import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 public class PicaPlainReaderTest {
 
@@ -253,6 +256,38 @@ public class PicaPlainReaderTest {
     assertEquals(Cardinality.Nonrepeatable, definition.getSubfields().get(0).getCardinality());
   }
 
+  @Test
+  public void nextLines() {
+    PicaSchemaManager schema = PicaSchemaReader.createSchemaManager(null);
+    String file = TestUtils.getPath("pica/k10plus-sample.pica");
+    PicaPlainReader marc4jReader = new PicaPlainReader(file);
+    PicaPlainReader lineReader = new PicaPlainReader(file);
+    assertTrue(lineReader.canReadLines());
+
+    int i = 0;
+    while (marc4jReader.hasNext()) {
+      assertTrue(lineReader.hasNext());
+      BibliographicRecord expected = MarcFactory.createPicaFromMarc4j(marc4jReader.next(), schema);
+      List<PicaLine> lines = lineReader.nextLines();
+      BibliographicRecord actual = MarcFactory.createPicaFromLines(lines, lineReader.getRecordId(lines), schema);
+
+      assertEquals(expected.getId(), actual.getId());
+      assertEquals(expected.getUnhandledTags(), actual.getUnhandledTags());
+      assertEquals(expected.getDatafields().size(), actual.getDatafields().size());
+      assertEquals(expected.format(), actual.format());
+      assertEquals(expected.asJson(), actual.asJson());
+      for (int j = 0; j < expected.getDatafields().size(); j++) {
+        DataField expectedField = expected.getDatafields().get(j);
+        DataField actualField = actual.getDatafields().get(j);
+        assertEquals(expectedField.getDefinition(), actualField.getDefinition());
+        assertEquals(expectedField.getOccurrence(), actualField.getOccurrence());
+      }
+      i++;
+    }
+    assertFalse(lineReader.hasNext());
+    assertEquals(6, i);
+  }
+
   private void addTag(Map<String, List<PicaTagDefinition>> map, PicaTagDefinition definition) {
     String tag = definition.getPicaplusTag().getTag();
     if (!map.containsKey(tag)) {
@@ -9,8 +9,11 @@ import de.gwdg.metadataqa.marc.utils.pica.PicaSchemaManager;
 import de.gwdg.metadataqa.marc.utils.pica.PicaSchemaReader;
 import org.junit.Test;
 import org.marc4j.MarcReader;
+import de.gwdg.metadataqa.marc.utils.pica.reader.model.PicaLine;
 import org.marc4j.marc.Record;
 
+import java.util.List;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
@@ -42,4 +45,20 @@ public class PicaXmlReaderTest {
     assertEquals("001@", record.getDataFields().get(0).getTag());
     assertEquals("192,248", record.getDataFields().get(0).getSubfield('0').getData());
   }
+
+  @Test
+  public void nextLines() throws Exception {
+    PicaReader reader = (PicaReader) QAMarcReaderFactory.getFileReader(
+      MarcFormat.PICA_XML, CliTestUtils.getTestResource("picaxml/pica.xml"), null);
+    List<PicaLine> lines = reader.nextLines();
+    assertEquals(20, lines.size());
+    assertEquals("001@", lines.get(0).getTag());
+    assertEquals("192,248", lines.get(0).getSubfields().get(0).getValue());
+    assertEquals("318482789", reader.getRecordId(lines));
+
+    PicaLine line = lines.stream().filter(l -> l.getTag().equals("029F")).findFirst().get();
+    assertEquals("029F/01", line.getQualifiedTag());
+    assertEquals("@CDA Vrouwenberaad", line.getSubfields().get(0).getValue());
+    assertEquals("318482789", reader.createMarc4jRecord(lines).getControlNumber());
+  }
 }
\ No newline at end of file
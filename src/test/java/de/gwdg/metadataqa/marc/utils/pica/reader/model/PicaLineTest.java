@@ -1,9 +1,15 @@
 package de.gwdg.metadataqa.marc.utils.pica.reader.model;
 
+import de.gwdg.metadataqa.marc.TestUtils;
 import de.gwdg.metadataqa.marc.utils.pica.PicaSubfield;
 import de.gwdg.metadataqa.marc.utils.pica.reader.model.PicaLine;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
 import static org.junit.Assert.assertEquals;
 
 public class PicaLineTest {
@@ -94,4 +100,38 @@ public class PicaLineTest {
     PicaLine line = new PicaLine("005A $00263-9254$f: L 230.00 (jährl., EU), $$ 435.00 (jährl.)");
     assertEquals(": L 230.00 (jährl., EU), $ 435.00 (jährl.)", line.getSubfields().get(1).getValue());
   }
+
+  @Test
+  public void tokenizer_sameAsRegex() {
+    for (String raw : List.of(
+      "", "001A", "001A ", "001A $", "001A $ $a", "045D/00 $a1", "045D/0 $a1", "045D/001 $a1", "045D/ $a1",
+      "045D$a1", "345D $a1", "04AD $a1", "SET: S0 [1] TTL: 1 PPN: 010000011", "Eingabe: 0030/21-05-99",
+      "Warnung: x", "SET:x", "001A $a1\nx", "001A $a1\u0085x", "001A $a1\u2028x",
+      "005A $$$a", "005A $a$$", "005A $a$$$b$$$$c", "005A $$a%26%26", "005A $a%26$$26", "005A $a%26%26$bx",
+      "005A $a x $  b"))
+      assertSameAsRegex(raw, "$");
+  }
+
+  @Test
+  public void tokenizer_sameAsRegex_samples() throws IOException {
+    for (String file : List.of("pica/k10plus-sample.pica", "pica/picaplus-sample.txt", "pica/pica-with-holdings-info.dat"))
+      for (String raw : Files.readAllLines(Path.of(TestUtils.getPath(file))))
+        for (String separator : List.of("$", "ƒ"))
+          assertSameAsRegex(raw, separator);
+
+    for (String raw : Files.readAllLines(Path.of(TestUtils.getPath("pica/pica-normalized.dat"))))
+      for (String field : raw.split("\u001E"))
+        assertSameAsRegex(field, "\u001F");
+  }
+
+  private void assertSameAsRegex(String raw, String separator) {
+    PicaLine expected = new PicaLine(raw, separator, PicaLine.Parser.REGEX);
+    PicaLine actual = new PicaLine(raw, separator, PicaLine.Parser.TOKENIZER);
+    assertEquals(raw, expected.toString(), actual.toString());
+    assertEquals(raw, expected.getContent(), actual.getContent());
+    assertEquals(raw, expected.isValidTag(), actual.isValidTag());
+    // isSkippable() is not available for the invalid lines
+    if (raw.isEmpty() || expected.getTag() != null)
+      assertEquals(raw, expected.isSkippable(), actual.isSkippable());
+  }
 }